@@ -1,11 +1,15 @@
 // src/main/java/com/one/core/application/controller/admin/TenantAdminController.java
 package com.one.core.application.controller.admin;
 
+import com.one.core.application.dto.admin.QueryPlanCheckDTO;
 import com.one.core.application.dto.admin.TenantCreationRequestDTO;
+import com.one.core.application.dto.admin.TenantPoolAssignmentRequestDTO;
+import com.one.core.application.dto.admin.TenantMigrationRunDTO;
 import com.one.core.application.dto.admin.TenantUserCreateRequestDTO;
 import com.one.core.domain.model.admin.SystemUser;
 import com.one.core.domain.model.admin.Tenant;
 import com.one.core.domain.service.admin.TenantAdminService;
+import com.one.core.domain.service.admin.TenantMigrationOrchestrator;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,16 +19,22 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/admin/tenants")
 public class TenantAdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(TenantAdminController.class);
     private final TenantAdminService tenantAdminService;
+    private final TenantMigrationOrchestrator tenantMigrationOrchestrator;
 
     @Autowired
-    public TenantAdminController(TenantAdminService tenantAdminService) {
+    public TenantAdminController(TenantAdminService tenantAdminService,
+                                 TenantMigrationOrchestrator tenantMigrationOrchestrator) {
         this.tenantAdminService = tenantAdminService;
+        this.tenantMigrationOrchestrator = tenantMigrationOrchestrator;
     }
 
     @PostMapping
@@ -52,4 +62,43 @@ public class TenantAdminController {
         SystemUser created = tenantAdminService.createTenantUser(dto);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
-}
\ No newline at end of file
+
+    @PutMapping("/{tenantId}/pool")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Tenant> updatePoolAssignment(@PathVariable Long tenantId,
+                                                       @Valid @RequestBody TenantPoolAssignmentRequestDTO dto) {
+        Tenant updated = tenantAdminService.updatePoolAssignment(tenantId, dto);
+        logger.info("Tenant {} assigned to pool '{}' (max concurrent connections: {})",
+                updated.getSchemaName(), updated.getPoolKey(), updated.getMaxConcurrentConnections());
+        return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * Lanza una corrida de migración sobre todos los tenants. Responde enseguida con el estado
+     * inicial; el progreso se consulta con GET /admin/tenants/migrations/{runId}.
+     */
+    @PostMapping("/migrations")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<TenantMigrationRunDTO> startMigrationRun() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tenantMigrationOrchestrator.startRun());
+    }
+
+    @GetMapping("/migrations/{runId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<TenantMigrationRunDTO> getMigrationRun(@PathVariable UUID runId) {
+        return ResponseEntity.ok(tenantMigrationOrchestrator.getRun(runId));
+    }
+
+    /** Reintenta los schemas fallidos o pendientes de una corrida. */
+    @PostMapping("/migrations/{runId}/resume")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<TenantMigrationRunDTO> resumeMigrationRun(@PathVariable UUID runId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tenantMigrationOrchestrator.resumeRun(runId));
+    }
+
+    @GetMapping("/{tenantId}/query-plans")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<List<QueryPlanCheckDTO>> checkQueryPlans(@PathVariable Long tenantId) {
+        return ResponseEntity.ok(tenantAdminService.checkQueryPlans(tenantId));
+    }
+}
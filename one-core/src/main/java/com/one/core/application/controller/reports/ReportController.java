@@ -2,12 +2,13 @@ package com.one.core.application.controller.reports;
 
 import com.one.core.application.dto.reports.OperationalReportJsonDTO;
 import com.one.core.application.dto.reports.ReportFilterDTO;
+import com.one.core.application.dto.reports.RollupRebuildResultDTO;
 import org.springdoc.core.annotations.ParameterObject;
+import com.one.core.domain.service.reports.ReportRollupService;
 import com.one.core.domain.service.reports.ReportService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
@@ -15,13 +16,15 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.data.domain.Pageable;
-import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -32,22 +35,25 @@ import java.time.format.DateTimeFormatter;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportRollupService reportRollupService;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportRollupService reportRollupService) {
         this.reportService = reportService;
+        this.reportRollupService = reportRollupService;
     }
 
     @GetMapping("/operational-summary")
     @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
-    public ResponseEntity<InputStreamResource> getOperationalSummaryReport(
+    public ResponseEntity<StreamingResponseBody> getOperationalSummaryReport(
             @RequestParam @Pattern(regexp = "DAILY|WEEKLY|MONTHLY", message = "El tipo de reporte debe ser DAILY, WEEKLY, o MONTHLY") String type,
             @RequestParam("date") String dateString,
             @ParameterObject @Valid ReportFilterDTO filter) {
 
         LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
 
-        ByteArrayInputStream bis = reportService.generateOperationalSummaryReport(type, date, filter);
+        // Se escribe en el executor async de MVC; TenantContextTaskDecorator propaga el tenant del request
+        StreamingResponseBody body = out -> reportService.writeOperationalSummaryReport(type, date, filter, out);
 
         HttpHeaders headers = new HttpHeaders();
         String typeFormatted = type.substring(0, 1).toUpperCase() + type.substring(1).toLowerCase();
@@ -60,7 +66,7 @@ public class ReportController {
                 .ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(bis));
+                .body(body);
     }
 
     @GetMapping("/operational-summary/json")
@@ -77,4 +83,14 @@ public class ReportController {
 
         return ResponseEntity.ok(reportData);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reconstruye los rollups diarios del tenant actual. Sin fechas, recalcula toda la historia.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResultDTO> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(reportRollupService.rebuild(from, to));
+    }
+}
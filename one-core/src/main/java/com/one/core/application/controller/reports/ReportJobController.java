@@ -0,0 +1,87 @@
+package com.one.core.application.controller.reports;
+
+import com.one.core.application.dto.reports.ReportFilterDTO;
+import com.one.core.application.dto.reports.ReportJobDTO;
+import com.one.core.domain.model.enums.reports.ReportJobStatus;
+import com.one.core.domain.service.reports.ReportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de /api/reports/operational-summary: el pedido encola el reporte y devuelve
+ * un job; el cliente consulta (o espera con long-poll) y descarga el archivo cuando está listo.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
+@Validated
+public class ReportJobController {
+
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final ReportJobService reportJobService;
+
+    @Autowired
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    @Operation(
+            summary = "Queue an operational summary report",
+            description = "Devuelve el job (202). Pedidos iguales (tipo, período y filtros) comparten el job en curso o el archivo ya generado."
+    )
+    @PostMapping("/operational-summary")
+    public ResponseEntity<ReportJobDTO> submitOperationalSummary(
+            @RequestParam @Pattern(regexp = "DAILY|WEEKLY|MONTHLY", message = "El tipo de reporte debe ser DAILY, WEEKLY, o MONTHLY") String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @ParameterObject @Valid ReportFilterDTO filter) {
+        ReportJobDTO job = reportJobService.submit(type, date, filter);
+        HttpStatus status = job.status() == ReportJobStatus.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @Operation(
+            summary = "Get a report job",
+            description = "Con waitSeconds > 0 responde cuando el job termina o vence la espera (long-poll, máximo reports.jobs.max-wait)."
+    )
+    @GetMapping("/{jobId}")
+    public CompletableFuture<ReportJobDTO> getJob(
+            @PathVariable UUID jobId,
+            @RequestParam(name = "waitSeconds", defaultValue = "0") long waitSeconds) {
+        return reportJobService.getJob(jobId, Duration.ofSeconds(waitSeconds));
+    }
+
+    @Operation(summary = "Download the file of a completed report job")
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<Resource> downloadReport(@PathVariable UUID jobId) {
+        Resource file = new FileSystemResource(reportJobService.getArtifact(jobId));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + reportJobService.downloadFileName(jobId))
+                .contentType(XLSX)
+                .body(file);
+    }
+}
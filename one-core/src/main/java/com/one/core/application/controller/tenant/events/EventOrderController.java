@@ -3,6 +3,7 @@ package com.one.core.application.controller.tenant.events;
 import com.one.core.application.dto.tenant.events.EventOrderDTO;
 import com.one.core.application.dto.tenant.events.EventOrderFilterDTO;
 import com.one.core.application.dto.tenant.events.EventOrderRequestDTO;
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
 import com.one.core.application.security.UserPrincipal;
 import com.one.core.domain.service.tenant.events.EventOrderService;
 import jakarta.validation.Valid;
@@ -18,6 +19,8 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import com.one.core.application.dto.tenant.response.PageableResponse;
 
+import java.util.List;
+
 
 @RestController
 @RequestMapping("/event-orders")
@@ -57,6 +60,11 @@ public class EventOrderController {
         return ResponseEntity.ok(new PageableResponse<>(eventPage));
     }
 
+    @GetMapping("/{id}/requirements")
+    public ResponseEntity<List<MaterialRequirementDTO>> getMaterialRequirements(@PathVariable Long id) {
+        return ResponseEntity.ok(eventOrderService.getMaterialRequirements(id));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SALES_MANAGER','SUPER_ADMIN')")
     public ResponseEntity<EventOrderDTO> getEventOrderById(@PathVariable Long id) {
@@ -39,7 +39,15 @@ public class ExpenseLogController {
     @GetMapping
     public ResponseEntity<PageableResponse<ExpenseLogDTO>> getAllExpenseLogs(
             ExpenseLogFilterDTO filterDTO,
-            @PageableDefault(size = 20, sort = "expenseDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 20, sort = "expenseDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        // Modo cursor (opt-in): sin OFFSET ni count; se navega con nextCursor/prevCursor
+        if (keyset || cursor != null) {
+            return ResponseEntity.ok(new PageableResponse<>(
+                    expenseLogService.getAllExpenseLogs(filterDTO, cursor, pageable.getPageSize(), includeTotal)));
+        }
         Page<ExpenseLogDTO> expensePage = expenseLogService.getAllExpenseLogs(filterDTO, pageable);
         return ResponseEntity.ok(new PageableResponse<>(expensePage));
     }
@@ -1,24 +1,40 @@
 package com.one.core.application.controller.tenant.inventory;
 
+import com.one.core.application.dto.tenant.inventory.CostRebuildResultDTO;
+import com.one.core.application.dto.tenant.inventory.LowStockAlertDTO;
+import com.one.core.application.dto.tenant.inventory.ReorderLineDTO;
+import com.one.core.application.dto.tenant.inventory.ReorderSuggestionDTO;
 import com.one.core.application.dto.tenant.inventory.StockAdjustmentRequestDTO;
+import com.one.core.application.dto.tenant.inventory.StockAsOfDTO;
 import com.one.core.application.dto.tenant.inventory.StockMovementDTO;
 import com.one.core.application.dto.tenant.inventory.StockMovementFilterDTO;
+import com.one.core.application.dto.tenant.inventory.StockReconciliationDTO;
+import com.one.core.application.dto.tenant.inventory.StockSnapshotRunDTO;
 import com.one.core.application.dto.tenant.product.StockTransferRequestDTO;
+import com.one.core.application.dto.tenant.purchases.PurchaseOrderDTO;
 import com.one.core.application.dto.tenant.response.PageableResponse;
 import com.one.core.application.security.UserPrincipal;
+import com.one.core.domain.service.tenant.inventory.InventoryCostService;
 import com.one.core.domain.service.tenant.inventory.InventoryService;
+import com.one.core.domain.service.tenant.inventory.LowStockAlertService;
+import com.one.core.domain.service.tenant.inventory.StockSnapshotService;
+import com.one.core.domain.service.tenant.purchases.ReorderSuggestionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/inventory")
@@ -26,10 +42,20 @@ import java.math.BigDecimal;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockSnapshotService stockSnapshotService;
+    private final InventoryCostService inventoryCostService;
+    private final LowStockAlertService lowStockAlertService;
+    private final ReorderSuggestionService reorderSuggestionService;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService) {
+    public InventoryController(InventoryService inventoryService, StockSnapshotService stockSnapshotService,
+                               InventoryCostService inventoryCostService, LowStockAlertService lowStockAlertService,
+                               ReorderSuggestionService reorderSuggestionService) {
         this.inventoryService = inventoryService;
+        this.stockSnapshotService = stockSnapshotService;
+        this.inventoryCostService = inventoryCostService;
+        this.lowStockAlertService = lowStockAlertService;
+        this.reorderSuggestionService = reorderSuggestionService;
     }
 
     @PostMapping("/adjustments")
@@ -45,7 +71,15 @@ public class InventoryController {
     @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
     public ResponseEntity<PageableResponse<StockMovementDTO>> getStockMovements(
             StockMovementFilterDTO filterDTO,
-            @PageableDefault(size = 10, sort = "movementDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "movementDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        // Modo cursor (opt-in): sin OFFSET ni count; se navega con nextCursor/prevCursor
+        if (keyset || cursor != null) {
+            return ResponseEntity.ok(new PageableResponse<>(
+                    inventoryService.getStockMovements(filterDTO, cursor, pageable.getPageSize(), includeTotal)));
+        }
         Page<StockMovementDTO> movementPage = inventoryService.getStockMovements(filterDTO, pageable);
         PageableResponse<StockMovementDTO> response = new PageableResponse<>(movementPage);
         return ResponseEntity.ok(response);
@@ -88,4 +122,73 @@ public class InventoryController {
 
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Stock a un momento pasado, desde la foto diaria más cercana más los movimientos posteriores.
+     * Sin productId devuelve todos los productos.
+     */
+    @GetMapping("/stock/as-of")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<List<StockAsOfDTO>> getStockAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime at,
+            @RequestParam(required = false) Long productId) {
+        if (productId != null) {
+            return ResponseEntity.ok(List.of(stockSnapshotService.getStockAsOf(productId, at)));
+        }
+        return ResponseEntity.ok(stockSnapshotService.getStockAsOf(at));
+    }
+
+    /** Productos cuyo stock actual no coincide con la última foto más sus movimientos. */
+    @GetMapping("/stock/reconciliation")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<StockReconciliationDTO> reconcileStock() {
+        return ResponseEntity.ok(stockSnapshotService.reconcile());
+    }
+
+    /** Toma la foto de un día cerrado (por defecto ayer) sin esperar la corrida diaria. */
+    @PostMapping("/stock/snapshots")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<StockSnapshotRunDTO> takeStockSnapshot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate snapshotDate = date != null ? date : LocalDate.now(stockSnapshotService.zone()).minusDays(1);
+        return ResponseEntity.ok(stockSnapshotService.takeSnapshot(snapshotDate));
+    }
+
+    /**
+     * Recalcula el costo de todos los movimientos y el costo promedio de cada producto recorriendo el
+     * historial. Bloquea un producto por vez: mientras se recorre, los movimientos de ese producto
+     * esperan. Si cambian costos de ventas, reconstruir después los rollups de reportes.
+     */
+    @PostMapping("/costs/rebuild")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<CostRebuildResultDTO> rebuildCosts() {
+        return ResponseEntity.ok(inventoryCostService.rebuildCosts());
+    }
+
+    /** Productos activos con stock disponible bajo su mínimo, con la cantidad sugerida para reponer. */
+    @GetMapping("/low-stock")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<List<ReorderLineDTO>> getLowStockProducts() {
+        return ResponseEntity.ok(reorderSuggestionService.getLowStockProducts());
+    }
+
+    /** Alertas abiertas: productos que un movimiento dejó bajo el mínimo y todavía no se repusieron. */
+    @GetMapping("/low-stock/alerts")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<List<LowStockAlertDTO>> getLowStockAlerts() {
+        return ResponseEntity.ok(lowStockAlertService.getOpenAlerts());
+    }
+
+    @GetMapping("/reorder-suggestions")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<List<ReorderSuggestionDTO>> getReorderSuggestions() {
+        return ResponseEntity.ok(reorderSuggestionService.getSuggestions());
+    }
+
+    /** Genera órdenes de compra en borrador (una por proveedor por defecto) con las cantidades sugeridas. */
+    @PostMapping("/reorder-suggestions/purchase-orders")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','INVENTORY_MANAGER','SUPER_ADMIN')")
+    public ResponseEntity<List<PurchaseOrderDTO>> createDraftPurchaseOrders(@AuthenticationPrincipal UserPrincipal currentUser) {
+        return ResponseEntity.ok(reorderSuggestionService.createDraftPurchaseOrders(currentUser));
+    }
+}
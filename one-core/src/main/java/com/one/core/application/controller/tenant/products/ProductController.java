@@ -2,10 +2,15 @@ package com.one.core.application.controller.tenant.products;
 
 import com.one.core.application.dto.tenant.product.ProductDTO;
 import com.one.core.application.dto.tenant.product.ProductFilterDTO;
+import com.one.core.application.dto.tenant.product.ProductImportJobDTO;
 import com.one.core.application.dto.tenant.product.ProductPackagingDTO;
 import com.one.core.application.dto.tenant.product.ProductRecipeDTO;
+import com.one.core.application.dto.tenant.product.ProductScanDTO;
+import com.one.core.application.dto.tenant.product.ProductSearchResultDTO;
 import com.one.core.application.dto.tenant.response.PageableResponse;
 import com.one.core.domain.service.tenant.product.ProductService;
+import com.one.core.domain.service.tenant.product.imports.ProductImportService;
+import com.one.core.domain.service.tenant.product.search.ProductSearchService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,13 +18,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/products")
@@ -28,10 +36,15 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductImportService productImportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService,
+                             ProductImportService productImportService) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productImportService = productImportService;
     }
 
     @GetMapping
@@ -79,6 +92,60 @@ public class ProductController {
     }
 
 
+    @Operation(
+            summary = "Search products by name, SKU or barcode",
+            description = "Resultados rankeados: SKU/código exacto, prefijo (lectores), nombre y similitud con errores de tipeo. Ignora tildes."
+    )
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<List<ProductSearchResultDTO>> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productSearchService.search(query, limit));
+    }
+
+    @Operation(
+            summary = "Autocomplete active products by prefix",
+            description = "Prefijo de alguna palabra del nombre, del SKU o del código de barras. Se resuelve en memoria."
+    )
+    @GetMapping("/autocomplete")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<List<ProductSearchResultDTO>> autocompleteProducts(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSearchService.autocomplete(prefix, limit));
+    }
+
+    @Operation(
+            summary = "Resolve a scanned barcode or SKU",
+            description = "Camino rápido del POS: precio, stock y unidad del producto activo con ese código de barras o SKU."
+    )
+    @GetMapping("/scan/{code}")
+    @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<ProductScanDTO> scanProduct(@PathVariable String code) {
+        return ResponseEntity.ok(productSearchService.scan(code));
+    }
+
+    @Operation(
+            summary = "Bulk import/upsert products from CSV or XLSX",
+            description = "Procesa el archivo en segundo plano y devuelve el job. Columnas: sku, name, barcode, product_type, description, category, supplier, purchase_price, sale_price, unit_of_measure, minimum_stock_level, initial_stock (también en castellano). Los productos existentes se buscan por SKU o nombre; una celda vacía conserva el valor actual."
+    )
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> importProducts(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportService.startImport(file));
+    }
+
+    @Operation(
+            summary = "Get the progress of a product import",
+            description = "Contadores de filas leídas, insertadas, actualizadas y fallidas, más las primeras filas rechazadas con su motivo."
+    )
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasAnyRole('TENANT_ADMIN','SUPER_ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('TENANT_USER','TENANT_ADMIN','SUPER_ADMIN')")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
@@ -61,4 +61,12 @@ public class PurchaseOrderController {
         PurchaseOrderDTO updatedOrder = purchaseOrderService.receiveGoods(receiptDTO, currentUser);
         return ResponseEntity.ok(updatedOrder);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<PurchaseOrderDTO> cancelPurchaseOrder(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+        PurchaseOrderDTO cancelledOrder = purchaseOrderService.cancelPurchaseOrder(id, currentUser);
+        return ResponseEntity.ok(cancelledOrder);
+    }
+}
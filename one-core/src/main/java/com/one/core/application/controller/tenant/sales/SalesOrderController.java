@@ -47,7 +47,15 @@ public class SalesOrderController {
     @GetMapping
     public ResponseEntity<PageableResponse<SalesOrderDTO>> getAllSalesOrders(
             SalesOrderFilterDTO filterDTO,
-            @PageableDefault(size = 10, sort = "orderDate", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "orderDate", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        // Modo cursor (opt-in): sin OFFSET ni count; se navega con nextCursor/prevCursor
+        if (keyset || cursor != null) {
+            return ResponseEntity.ok(new PageableResponse<>(
+                    salesOrderService.getAllSalesOrders(filterDTO, cursor, pageable.getPageSize(), includeTotal)));
+        }
         Page<SalesOrderDTO> orderPage = salesOrderService.getAllSalesOrders(filterDTO, pageable);
         PageableResponse<SalesOrderDTO> response = new PageableResponse<>(orderPage);
         return ResponseEntity.ok(response);
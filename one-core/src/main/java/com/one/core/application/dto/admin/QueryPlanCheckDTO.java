@@ -0,0 +1,11 @@
+package com.one.core.application.dto.admin;
+
+import java.util.List;
+
+/** Resultado del EXPLAIN de una consulta caliente: las tablas que se leen con Seq Scan. */
+public record QueryPlanCheckDTO(String query, List<String> sequentialScans) {
+
+    public boolean usesIndexes() {
+        return sequentialScans.isEmpty();
+    }
+}
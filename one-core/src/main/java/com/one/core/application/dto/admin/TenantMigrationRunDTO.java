@@ -0,0 +1,22 @@
+package com.one.core.application.dto.admin;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Estado de una corrida de migración sobre todos los tenants (public.tenant_migration_runs). */
+public record TenantMigrationRunDTO(
+        UUID runId,
+        int total,
+        int pending,
+        int running,
+        int succeeded,
+        int failed,
+        List<SchemaFailure> failures
+) {
+
+    public record SchemaFailure(String schemaName, int attempts, String error) {}
+
+    public boolean isFinished() {
+        return pending == 0 && running == 0;
+    }
+}
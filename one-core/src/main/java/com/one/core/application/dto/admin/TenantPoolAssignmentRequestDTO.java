@@ -0,0 +1,18 @@
+package com.one.core.application.dto.admin;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class TenantPoolAssignmentRequestDTO {
+
+    @NotBlank(message = "Pool key is required")
+    @Size(max = 50)
+    private String poolKey;
+
+    // null = usar tenancy.pools.default-max-concurrent-connections
+    @Positive(message = "Max concurrent connections must be positive")
+    private Integer maxConcurrentConnections;
+}
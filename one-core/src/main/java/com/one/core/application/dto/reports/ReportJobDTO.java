@@ -0,0 +1,25 @@
+package com.one.core.application.dto.reports;
+
+import com.one.core.domain.model.enums.reports.ReportJobStatus;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Estado de un reporte en segundo plano. {@code cached} indica que se sirvió un archivo ya
+ * generado; {@code immutable}, que el período estaba cerrado al generarlo y no se vuelve a armar.
+ */
+public record ReportJobDTO(
+        UUID id,
+        ReportJobStatus status,
+        String reportType,
+        LocalDate periodStart,
+        LocalDate periodEnd,
+        boolean cached,
+        boolean immutable,
+        OffsetDateTime createdAt,
+        OffsetDateTime finishedAt,
+        String errorMessage,
+        String downloadUrl) {
+}
@@ -0,0 +1,5 @@
+package com.one.core.application.dto.reports;
+
+import java.time.LocalDate;
+
+public record RollupRebuildResultDTO(LocalDate from, LocalDate to, int salesRows, int purchaseRows) {}
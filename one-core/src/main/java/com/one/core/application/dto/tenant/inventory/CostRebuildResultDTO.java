@@ -0,0 +1,8 @@
+package com.one.core.application.dto.tenant.inventory;
+
+/** Resultado de recalcular costos: movimientos recorridos, movimientos cuyo costo cambió y productos con promedio nuevo. */
+public record CostRebuildResultDTO(
+        long movementsReplayed,
+        long movementsUpdated,
+        int productsUpdated) {
+}
@@ -0,0 +1,18 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/** Alerta de stock bajo abierta. Las cantidades van en la unidad del producto. */
+public record LowStockAlertDTO(
+        Long id,
+        Long productId,
+        String productName,
+        String sku,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal stockAtAlert,
+        BigDecimal minimumStockLevel,
+        OffsetDateTime triggeredAt) {
+}
@@ -0,0 +1,22 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/**
+ * Producto bajo su mínimo. Cantidades en la unidad del producto: {@code pendingOnOrder} es lo pedido
+ * y no recibido en órdenes abiertas, y {@code suggestedQuantity} lo que falta para volver al mínimo
+ * descontando eso (cero si lo pedido ya alcanza).
+ */
+public record ReorderLineDTO(
+        Long productId,
+        String productName,
+        String sku,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal currentStock,
+        BigDecimal minimumStockLevel,
+        BigDecimal pendingOnOrder,
+        BigDecimal suggestedQuantity,
+        BigDecimal unitPrice) {
+}
@@ -0,0 +1,12 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Productos a reponer de un proveedor (el proveedor por defecto de cada producto; null si no tiene). */
+public record ReorderSuggestionDTO(
+        Long supplierId,
+        String supplierName,
+        List<ReorderLineDTO> lines,
+        BigDecimal estimatedTotal) {
+}
@@ -0,0 +1,19 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Stock total en mano (disponible + congelado) de un producto a un momento dado, en la misma unidad
+ * que {@code currentStock}. {@code snapshotDate} es la foto desde la que se calculó; null si se
+ * calculó hacia atrás desde el stock actual.
+ */
+public record StockAsOfDTO(
+        Long productId,
+        String productName,
+        String sku,
+        OffsetDateTime asOf,
+        BigDecimal quantity,
+        LocalDate snapshotDate) {
+}
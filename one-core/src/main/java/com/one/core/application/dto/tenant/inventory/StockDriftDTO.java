@@ -0,0 +1,16 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import java.math.BigDecimal;
+
+/**
+ * Producto cuyo stock actual no coincide con su última foto más los movimientos posteriores.
+ * {@code drift} = {@code actual - expected}.
+ */
+public record StockDriftDTO(
+        Long productId,
+        String productName,
+        String sku,
+        BigDecimal expected,
+        BigDecimal actual,
+        BigDecimal drift) {
+}
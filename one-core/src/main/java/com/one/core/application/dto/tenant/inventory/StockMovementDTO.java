@@ -19,6 +19,7 @@ public class StockMovementDTO {
     private MovementType movementType;
     private BigDecimal quantityChanged;
     private BigDecimal stockAfterMovement;
+    private BigDecimal unitCost;
     private OffsetDateTime movementDate;
     private String referenceDocumentType;
     private String referenceDocumentId;
@@ -0,0 +1,13 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/** Resultado de verificar el stock de {@code products} contra la última foto más los movimientos. */
+public record StockReconciliationDTO(
+        OffsetDateTime checkedAt,
+        LocalDate snapshotDate,
+        int productsChecked,
+        List<StockDriftDTO> drifts) {
+}
@@ -0,0 +1,11 @@
+package com.one.core.application.dto.tenant.inventory;
+
+import java.time.LocalDate;
+
+/** Fotos escritas para {@code snapshotDate}: {@code rolledForward} desde la foto anterior y {@code seeded} nuevas. */
+public record StockSnapshotRunDTO(
+        LocalDate snapshotDate,
+        LocalDate previousSnapshotDate,
+        int rolledForward,
+        int seeded) {
+}
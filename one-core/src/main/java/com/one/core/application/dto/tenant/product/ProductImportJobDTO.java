@@ -0,0 +1,26 @@
+package com.one.core.application.dto.tenant.product;
+
+import com.one.core.domain.model.enums.products.ProductImportStatus;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Estado de una importación masiva; {@code errors} trae las primeras filas rechazadas. */
+public record ProductImportJobDTO(
+        UUID id,
+        String fileName,
+        ProductImportStatus status,
+        int rowsRead,
+        int rowsInserted,
+        int rowsUpdated,
+        int rowsFailed,
+        String errorMessage,
+        OffsetDateTime createdAt,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt,
+        List<RowError> errors) {
+
+    public record RowError(int rowNumber, String sku, String message) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.one.core.application.dto.tenant.product;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/** Respuesta del escaneo en el POS: precio, stock y unidad en una sola llamada. */
+public record ProductScanDTO(Long id, String name, String sku, String barcode, ProductType productType,
+                             BigDecimal salePrice, BigDecimal currentStock, UnitOfMeasure unitOfMeasure) {
+}
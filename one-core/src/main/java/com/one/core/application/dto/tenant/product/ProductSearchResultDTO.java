@@ -0,0 +1,5 @@
+package com.one.core.application.dto.tenant.product;
+
+/** Resultado de búsqueda/autocompletado de productos; {@code score} es null en el autocompletado. */
+public record ProductSearchResultDTO(Long id, String name, String sku, String barcode, Double score) {
+}
@@ -0,0 +1,23 @@
+package com.one.core.application.dto.tenant.production;
+
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/**
+ * Insumo requerido por un lote de producción. Las cantidades van en la unidad del producto
+ * ({@code unitOfMeasure}); {@code missing} es cero cuando el stock alcanza.
+ */
+public record MaterialRequirementDTO(
+        Long productId,
+        String productName,
+        String sku,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal required,
+        BigDecimal available,
+        BigDecimal missing) {
+
+    public boolean isShort() {
+        return missing.signum() > 0;
+    }
+}
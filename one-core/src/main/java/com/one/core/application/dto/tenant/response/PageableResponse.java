@@ -1,5 +1,6 @@
 package com.one.core.application.dto.tenant.response;
 
+import com.one.core.domain.service.common.KeysetPage;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -15,6 +16,9 @@ public class PageableResponse<T> {
     private long totalElements;
     private int number;
     private int size;
+    // Solo en modo cursor (keyset): se navega con estos en lugar de number
+    private String nextCursor;
+    private String prevCursor;
 
     public PageableResponse(Page<T> springDataPage) {
         this.results = springDataPage.getContent();
@@ -23,4 +27,19 @@ public class PageableResponse<T> {
         this.number = springDataPage.getNumber();
         this.size = springDataPage.getSize();
     }
+
+    /** Respuesta en modo cursor: totalElements/totalPages son -1 si no se pidió el total. */
+    public PageableResponse(KeysetPage<T> keysetPage) {
+        this.results = keysetPage.content();
+        this.size = keysetPage.size();
+        this.nextCursor = keysetPage.nextCursor();
+        this.prevCursor = keysetPage.prevCursor();
+        if (keysetPage.totalElements() != null) {
+            this.totalElements = keysetPage.totalElements();
+            this.totalPages = (int) Math.ceil((double) this.totalElements / Math.max(this.size, 1));
+        } else {
+            this.totalElements = -1;
+            this.totalPages = -1;
+        }
+    }
 }
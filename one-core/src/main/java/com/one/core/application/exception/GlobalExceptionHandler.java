@@ -1,5 +1,6 @@
 package com.one.core.application.exception;
 
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.springframework.http.HttpStatus;
@@ -63,6 +64,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
     }
 
+    @Data
+    @AllArgsConstructor
+    private static class StockShortageResponse {
+        private LocalDateTime timestamp;
+        private int status;
+        private String error;
+        private String message;
+        private List<MaterialRequirementDTO> shortages;
+    }
+
+    // Faltantes de stock: se devuelven todos los insumos que no alcanzan
+    @ExceptionHandler(StockShortageException.class)
+    public ResponseEntity<StockShortageResponse> handleStockShortageException(StockShortageException ex) {
+        StockShortageResponse errorDetails = new StockShortageResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage(),
+                ex.getShortages()
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<SimpleErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
         SimpleErrorResponse errorDetails = new SimpleErrorResponse(
@@ -0,0 +1,21 @@
+package com.one.core.application.exception;
+
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+/** Falta stock de uno o más insumos; lleva todos los faltantes, no solo el primero. */
+public class StockShortageException extends ApiException {
+
+    private final List<MaterialRequirementDTO> shortages;
+
+    public StockShortageException(List<MaterialRequirementDTO> shortages) {
+        super("Insufficient stock for " + shortages.size() + " ingredient(s).", HttpStatus.CONFLICT);
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<MaterialRequirementDTO> getShortages() {
+        return shortages;
+    }
+}
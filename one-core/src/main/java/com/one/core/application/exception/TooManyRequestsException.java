@@ -0,0 +1,10 @@
+package com.one.core.application.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends ApiException {
+
+    public TooManyRequestsException(String message) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+    }
+}
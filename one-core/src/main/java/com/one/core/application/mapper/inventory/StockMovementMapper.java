@@ -26,6 +26,7 @@ public class StockMovementMapper {
         dto.setMovementType(entity.getMovementType());
         dto.setQuantityChanged(entity.getQuantityChanged());
         dto.setStockAfterMovement(entity.getStockAfterMovement());
+        dto.setUnitCost(entity.getUnitCost());
         dto.setMovementDate(entity.getMovementDate());
         dto.setReferenceDocumentType(entity.getReferenceDocumentType());
         dto.setReferenceDocumentId(entity.getReferenceDocumentId());
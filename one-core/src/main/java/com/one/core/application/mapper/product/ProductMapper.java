@@ -3,6 +3,7 @@ package com.one.core.application.mapper.product;
 import com.one.core.application.dto.tenant.product.ProductDTO;
 import com.one.core.domain.model.enums.UnitOfMeasure;
 import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.repository.tenant.product.ProductListRow;
 import com.one.core.domain.service.common.UnitConversionService;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -62,10 +63,44 @@ public class ProductMapper {
         dto.setPurchasePrice(zeroIfNull(product.getPurchasePrice()));
         dto.setSalePrice(zeroIfNull(product.getSalePrice()));
 
-        // UoM y cantidades: siempre con defaults seguros
-        UnitOfMeasure uom = defaultUom(product.getUnitOfMeasure());
-        BigDecimal current = zeroIfNull(product.getCurrentStock());
-        BigDecimal minLvl = zeroIfNull(product.getMinimumStockLevel());
+        applyStock(dto, product.getUnitOfMeasure(), product.getCurrentStock(), product.getMinimumStockLevel());
+
+        dto.setActive(product.isActive());
+        dto.setBarcode(product.getBarcode());
+        dto.setImageUrl(product.getImageUrl());
+
+        return dto;
+    }
+
+    /** Fila proyectada de los listados -> DTO (mismos defaults que desde la entidad). */
+    public ProductDTO toDTO(ProductListRow row) {
+        if (row == null) return null;
+
+        ProductDTO dto = new ProductDTO();
+        dto.setId(row.id());
+        dto.setSku(row.sku());
+        dto.setName(row.name());
+        dto.setDescription(row.description());
+        dto.setProductType(row.productType());
+        dto.setHasPackaging(row.hasPackaging());
+        dto.setCategoryId(row.categoryId());
+        dto.setCategoryName(row.categoryName());
+        dto.setDefaultSupplierId(row.defaultSupplierId());
+        dto.setDefaultSupplierName(row.defaultSupplierName());
+        dto.setPurchasePrice(zeroIfNull(row.purchasePrice()));
+        dto.setSalePrice(zeroIfNull(row.salePrice()));
+        applyStock(dto, row.unitOfMeasure(), row.currentStock(), row.minimumStockLevel());
+        dto.setActive(row.isActive());
+        dto.setBarcode(row.barcode());
+        dto.setImageUrl(row.imageUrl());
+        return dto;
+    }
+
+    // UoM y cantidades: siempre con defaults seguros
+    private void applyStock(ProductDTO dto, UnitOfMeasure unit, BigDecimal currentStock, BigDecimal minimumStockLevel) {
+        UnitOfMeasure uom = defaultUom(unit);
+        BigDecimal current = zeroIfNull(currentStock);
+        BigDecimal minLvl = zeroIfNull(minimumStockLevel);
 
         UnitConversionService.NormalizedQuantity normalized =
                 unitConversionService.normalizeFromBaseUnit(current, uom);
@@ -75,12 +110,6 @@ public class ProductMapper {
         dto.setMinimumStockLevel(
                 unitConversionService.fromBaseUnit(minLvl, normalized.unit())
         );
-
-        dto.setActive(product.isActive());
-        dto.setBarcode(product.getBarcode());
-        dto.setImageUrl(product.getImageUrl());
-
-        return dto;
     }
 
     /* ===========================
@@ -106,9 +135,7 @@ public class ProductMapper {
         entity.setPurchasePrice(zeroIfNull(dto.getPurchasePrice()));
 
         // Cantidades: solo actualizamos si vienen informadas
-        if (dto.getCurrentStock() != null) {
-            entity.setCurrentStock(dto.getCurrentStock());
-        }
+        // (el stock no se copia: lo aplica ProductService como movimiento de inventario)
         if (dto.getMinimumStockLevel() != null) {
             entity.setMinimumStockLevel(dto.getMinimumStockLevel());
         }
@@ -136,9 +163,6 @@ public class ProductMapper {
         if (entity.getUnitOfMeasure() == null) {
             entity.setUnitOfMeasure(UnitOfMeasure.UNIT);
         }
-        if (entity.getCurrentStock() == null) {
-            entity.setCurrentStock(BigDecimal.ZERO);
-        }
         if (entity.getMinimumStockLevel() == null) {
             entity.setMinimumStockLevel(BigDecimal.ZERO);
         }
@@ -46,21 +46,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = resolveToken(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // --- claims principales ---
-                Long userId          = tokenProvider.getUserIdFromJWT(jwt);
-                String username      = tokenProvider.getUsernameFromJWT(jwt);
-                String tenantSchema  = tokenProvider.getTenantSchemaFromJWT(jwt);
-                String industryType  = tokenProvider.getIndustryTypeFromJWT(jwt);
-                Long tenantDbId      = tokenProvider.getTenantDbIdFromJWT(jwt);
-                String tenantName    = tokenProvider.getTenantCompanyNameFromJWT(jwt);
+            JwtClaims claims = StringUtils.hasText(jwt) ? tokenProvider.parse(jwt).orElse(null) : null;
 
+            if (claims != null) {
                 // --- multi-tenant context ---
-                TenantContext.setCurrentTenant(new TenantInfo(tenantSchema, industryType));
+                TenantContext.setCurrentTenant(new TenantInfo(claims.tenantSchema(), claims.industryType()));
 
                 // --- authorities desde claim "roles" ---
-                List<String> roles = tokenProvider.getRolesFromJWT(jwt);
-                List<GrantedAuthority> authorities = (roles == null ? List.<String>of() : roles).stream()
+                List<GrantedAuthority> authorities = claims.roles().stream()
                         .filter(StringUtils::hasText)
                         .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r) // normalizar prefijo
                         .distinct()
@@ -68,13 +61,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         .collect(Collectors.toList());
 
                 UserPrincipal principal = new UserPrincipal(
-                        userId,
-                        username,
+                        claims.userId(),
+                        claims.username(),
                         null,
-                        tenantSchema,
-                        tenantDbId,
-                        tenantName,
-                        industryType,
+                        claims.tenantSchema(),
+                        claims.tenantDbId(),
+                        claims.tenantName(),
+                        claims.industryType(),
                         authorities
                 );
 
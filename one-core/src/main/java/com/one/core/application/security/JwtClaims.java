@@ -0,0 +1,27 @@
+package com.one.core.application.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims de un JWT ya verificado. Inmutable: se comparte entre requests desde la cache de
+ * {@link JwtTokenProvider}.
+ */
+public record JwtClaims(
+        Long userId,
+        String username,
+        String tenantSchema,
+        String industryType,
+        Long tenantDbId,
+        String tenantName,
+        List<String> roles,
+        Instant expiresAt
+) {
+    public JwtClaims {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public boolean isExpiredAt(Instant instant) {
+        return expiresAt != null && !instant.isBefore(expiresAt);
+    }
+}
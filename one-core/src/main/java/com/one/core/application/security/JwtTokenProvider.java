@@ -11,8 +11,16 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -26,11 +34,28 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration.ms}")
     private long jwtExpirationInMs;
 
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries;
+
     private SecretKey key;
 
+    // JwtParser es inmutable y thread-safe: se construye una sola vez
+    private JwtParser parser;
+
+    // LRU acotada: hash del token -> claims verificados
+    private Map<String, JwtClaims> claimsCache;
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        int maxEntries = claimsCacheMaxEntries;
+        this.claimsCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+                return size() > maxEntries;
+            }
+        };
     }
 
     public String generateToken(Authentication authentication) {
@@ -65,46 +90,38 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.getSubject();
-    }
-
-    public Long getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("id", Long.class);
-    }
-
-    @SuppressWarnings("unchecked")
-    public List<String> getRolesFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("roles", List.class);
-    }
-
-    public String getTenantSchemaFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("tenantSchema", String.class);
-    }
-
-    public String getIndustryTypeFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("industryType", String.class);
-    }
-
-    public Long getTenantDbIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("tenantDbId", Long.class);
-    }
-
-    public String getTenantCompanyNameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-        return claims.get("tenantName", String.class);
-    }
+    /**
+     * Verifica el token y devuelve sus claims, o vacío si el token no es válido. Los tokens ya
+     * verificados se cachean por su hash SHA-256 hasta su {@code exp}, así un mismo bearer token
+     * no vuelve a pagar la verificación de firma en cada request.
+     */
+    public Optional<JwtClaims> parse(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        String cacheKey = sha256(token);
+        Instant now = Instant.now();
+
+        JwtClaims cached;
+        synchronized (claimsCache) {
+            cached = claimsCache.get(cacheKey);
+            if (cached != null && cached.isExpiredAt(now)) {
+                claimsCache.remove(cacheKey);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-    public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            JwtClaims parsed = toJwtClaims(parser.parseClaimsJws(token).getBody());
+            if (parsed.expiresAt() != null) {
+                synchronized (claimsCache) {
+                    claimsCache.put(cacheKey, parsed);
+                }
+            }
+            return Optional.of(parsed);
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -113,7 +130,37 @@ public class JwtTokenProvider {
             logger.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty.");
+        } catch (JwtException ex) {
+            logger.error("Invalid JWT signature");
+        }
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String authToken) {
+        return parse(authToken).isPresent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private JwtClaims toJwtClaims(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new JwtClaims(
+                claims.get("id", Long.class),
+                claims.getSubject(),
+                claims.get("tenantSchema", String.class),
+                claims.get("industryType", String.class),
+                claims.get("tenantDbId", Long.class),
+                claims.get("tenantName", String.class),
+                claims.get("roles", List.class),
+                expiration != null ? expiration.toInstant() : null
+        );
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return false;
     }
-}
\ No newline at end of file
+}
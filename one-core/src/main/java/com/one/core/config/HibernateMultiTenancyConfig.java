@@ -1,5 +1,6 @@
  package com.one.core.config;
 
+ import com.one.core.config.multitenancy.TenantCacheStatisticsFactory;
  import org.springframework.beans.factory.annotation.Qualifier;
  import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
  import org.springframework.context.annotation.Bean;
@@ -15,10 +16,13 @@
      @Bean
      public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(
              @Qualifier("currentTenantIdentifierResolver") CurrentTenantIdentifierResolver<String> tenantResolver,
-             @Qualifier("multiTenantConnectionProvider") MultiTenantConnectionProvider<String> mtConnectionProvider) {
+             @Qualifier("multiTenantConnectionProvider") MultiTenantConnectionProvider<String> mtConnectionProvider,
+             TenantCacheStatisticsFactory cacheStatisticsFactory) {
          return hibernateProperties -> {
              hibernateProperties.put(org.hibernate.cfg.AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, mtConnectionProvider);
              hibernateProperties.put(org.hibernate.cfg.AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, tenantResolver);
+             // Métricas del cache de segundo nivel por tenant (requiere hibernate.generate_statistics)
+             hibernateProperties.put("hibernate.stats.factory", cacheStatisticsFactory);
              // MULTI_TENANCY ya está seteado a SCHEMA en application.yml, así que no es necesario aquí.
              // hibernateProperties.put(org.hibernate.cfg.AvailableSettings.MULTI_TENANCY, "SCHEMA");
          };
@@ -0,0 +1,37 @@
+package com.one.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Configuración de los reportes generados en segundo plano ({@code reports.jobs.*}).
+ */
+@Data
+@Component
+@ConfigurationProperties("reports.jobs")
+public class ReportJobProperties {
+
+    /** Hilos del pool compartido que genera los reportes. */
+    private int workerThreads = 4;
+
+    /** Reportes de un mismo tenant que se generan a la vez; el resto espera en su cola. */
+    private int maxConcurrentPerTenant = 2;
+
+    /** Reportes en espera por tenant; por encima se rechaza el pedido (429). */
+    private int maxQueuedPerTenant = 20;
+
+    /** Carpeta donde quedan los archivos generados (una subcarpeta por tenant). */
+    private String storageDir = System.getProperty("java.io.tmpdir") + "/one-core-reports";
+
+    /**
+     * Vigencia de un reporte de un período que todavía no cerró. Los de períodos cerrados
+     * (generados después del último día del período) no vencen.
+     */
+    private Duration artifactTtl = Duration.ofMinutes(15);
+
+    /** Tiempo máximo que un cliente puede esperar (long-poll) en GET /api/reports/jobs/{id}. */
+    private Duration maxWait = Duration.ofSeconds(30);
+}
@@ -0,0 +1,29 @@
+package com.one.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Configuración de las fotos diarias de stock ({@code inventory.snapshots.*}).
+ */
+@Data
+@Component
+@ConfigurationProperties("inventory.snapshots")
+public class StockSnapshotProperties {
+
+    /** Si es false no se programa la corrida diaria (las fotos se pueden tomar a mano por API). */
+    private boolean enabled = true;
+
+    /**
+     * Hora de la corrida diaria, que fotografía el día anterior. Conviene dejar un margen después
+     * de medianoche para que terminen las transacciones con movimientos del día que cierra.
+     */
+    private LocalTime runAt = LocalTime.of(0, 30);
+
+    /** Zona horaria en la que se define el cierre de cada día. */
+    private ZoneId zone = ZoneId.systemDefault();
+}
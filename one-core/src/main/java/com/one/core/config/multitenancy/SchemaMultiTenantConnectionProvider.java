@@ -1,6 +1,8 @@
 // src/main/java/com/one/core/config/multitenancy/SchemaMultiTenantConnectionProvider.java
 package com.one.core.config.multitenancy;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,25 +14,56 @@ import javax.sql.DataSource; // O jakarta.sql.DataSource
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 @Component("multiTenantConnectionProvider")
 public class SchemaMultiTenantConnectionProvider implements MultiTenantConnectionProvider<String> {
 
     private static final Logger logger = LoggerFactory.getLogger(SchemaMultiTenantConnectionProvider.class);
     private final DataSource dataSource;
+    private final TenantDataSourceRegistry tenantDataSourceRegistry;
     private final String defaultTenantSchema; // El campo ahora es final
 
+    // search_path vigente en cada conexión FÍSICA del pool. Clave débil: cuando Hikari retira
+    // la conexión la entrada desaparece sola, y una conexión nueva siempre recibe su SET.
+    private final Map<Connection, String> schemaByPhysicalConnection =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Counter searchPathSwitches;
+    private final Counter searchPathSwitchesSkipped;
+
     // Inyectar DataSource y defaultTenantSchema a través del constructor
     @Autowired
     public SchemaMultiTenantConnectionProvider(DataSource dataSource,
-                                               @Value("${TENANT_SCHEMA}") String defaultTenantSchema) { // O @Value("${TENANT_SCHEMA:public}")
+                                               TenantDataSourceRegistry tenantDataSourceRegistry,
+                                               @Value("${TENANT_SCHEMA}") String defaultTenantSchema, // O @Value("${TENANT_SCHEMA:public}")
+                                               MeterRegistry meterRegistry) {
         this.dataSource = dataSource;
+        this.tenantDataSourceRegistry = tenantDataSourceRegistry;
         this.defaultTenantSchema = defaultTenantSchema;
+        this.searchPathSwitches = Counter.builder("tenant.search_path.switches")
+                .description("SET search_path ejecutados al entregar una conexión")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.searchPathSwitchesSkipped = Counter.builder("tenant.search_path.switches")
+                .description("SET search_path evitados porque la conexión ya apuntaba al schema")
+                .tag("result", "skipped")
+                .register(meterRegistry);
     }
 
     @Override
     public Connection getAnyConnection() throws SQLException {
-        return dataSource.getConnection();
+        // Ya no se resetea el search_path al liberar: las conexiones "neutras" lo fijan al default acá
+        final Connection connection = dataSource.getConnection();
+        try {
+            switchSchemaIfNeeded(connection, this.defaultTenantSchema);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
     }
 
     @Override
@@ -40,24 +73,45 @@ public class SchemaMultiTenantConnectionProvider implements MultiTenantConnectio
 
     @Override
     public Connection getConnection(String tenantIdentifier) throws SQLException {
-        final Connection connection = getAnyConnection();
-        try (Statement statement = connection.createStatement()) {
-            String sql = String.format("SET search_path TO \"%s\"", tenantIdentifier.replace("\"", "\"\""));
-            statement.execute(sql);
+        // Pool (shard) y bulkhead del tenant según public.tenants
+        final Connection connection = tenantDataSourceRegistry.getConnection(tenantIdentifier);
+        try {
+            switchSchemaIfNeeded(connection, tenantIdentifier);
         } catch (SQLException e) {
-            throw new SQLException("Could not switch to schema " + tenantIdentifier, e);
+            tenantDataSourceRegistry.releaseConnection(connection);
+            throw e;
         }
         return connection;
     }
 
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        // Sin SET de vuelta al default: el próximo checkout fija (o reutiliza) el schema que necesite
+        tenantDataSourceRegistry.releaseConnection(connection);
+    }
+
+    private void switchSchemaIfNeeded(Connection connection, String schema) throws SQLException {
+        Connection physical = connection.unwrap(Connection.class);
+        if (schema.equals(schemaByPhysicalConnection.get(physical))) {
+            searchPathSwitchesSkipped.increment();
+            return;
+        }
+
         try (Statement statement = connection.createStatement()) {
-            String sql = String.format("SET search_path TO \"%s\"", this.defaultTenantSchema.replace("\"", "\"\""));
+            String sql = String.format("SET search_path TO \"%s\"", schema.replace("\"", "\"\""));
             statement.execute(sql);
         } catch (SQLException e) {
-        } finally {
-            connection.close();
+            schemaByPhysicalConnection.remove(physical);
+            throw new SQLException("Could not switch to schema " + schema, e);
+        }
+        searchPathSwitches.increment();
+
+        // En Postgres SET es transaccional: fuera de autocommit un rollback lo revertiría, así que no se recuerda
+        if (connection.getAutoCommit()) {
+            schemaByPhysicalConnection.put(physical, schema);
+        } else {
+            schemaByPhysicalConnection.remove(physical);
+            logger.debug("Connection handed out outside autocommit; search_path for '{}' will not be cached", schema);
         }
     }
 
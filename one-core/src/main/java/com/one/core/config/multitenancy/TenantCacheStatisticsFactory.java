@@ -0,0 +1,105 @@
+package com.one.core.config.multitenancy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estadísticas de Hibernate que además publican los hits/misses del cache de segundo nivel por
+ * región y por tenant (contador {@code hibernate.l2cache.requests}). Las estadísticas propias de
+ * Hibernate son globales; con esto se puede ver el hit ratio de cada tenant por separado.
+ * <p>
+ * Solo los tenants listados en {@code tenancy.cache-metrics.tenants} llevan su propio tag; el
+ * resto se agrupa en {@code other}, para que la cantidad de series no crezca con los tenants.
+ * Los contadores se registran una vez por combinación y se reusan en cada acceso al cache.
+ */
+@Component
+public class TenantCacheStatisticsFactory implements StatisticsFactory {
+
+    private static final String DEFAULT_TENANT_TAG = "default";
+    private static final String OTHER_TENANTS_TAG = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> trackedTenants;
+    private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TenantCacheStatisticsFactory(MeterRegistry meterRegistry,
+                                        @Value("${tenancy.cache-metrics.tenants:}") List<String> trackedTenants) {
+        this.meterRegistry = meterRegistry;
+        this.trackedTenants = Set.copyOf(trackedTenants);
+    }
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new TenantCacheStatistics(sessionFactory);
+    }
+
+    private void record(String regionName, String result) {
+        CounterKey key = new CounterKey(regionName != null ? regionName : "unknown", tenantTag(), result);
+        counters.computeIfAbsent(key, k -> Counter.builder("hibernate.l2cache.requests")
+                        .description("Second-level cache requests by region and tenant")
+                        .tag("region", k.region())
+                        .tag("tenant", k.tenant())
+                        .tag("result", k.result())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private String tenantTag() {
+        String tenant = TenantContext.getCurrentTenantSchema();
+        if (tenant == null) return DEFAULT_TENANT_TAG;
+        return trackedTenants.contains(tenant) ? tenant : OTHER_TENANTS_TAG;
+    }
+
+    private record CounterKey(String region, String tenant, String result) {}
+
+    private class TenantCacheStatistics extends StatisticsImpl {
+
+        TenantCacheStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void entityCacheHit(NavigableRole entityName, String regionName) {
+            super.entityCacheHit(entityName, regionName);
+            record(regionName, "hit");
+        }
+
+        @Override
+        public void entityCacheMiss(NavigableRole entityName, String regionName) {
+            super.entityCacheMiss(entityName, regionName);
+            record(regionName, "miss");
+        }
+
+        @Override
+        public void entityCachePut(NavigableRole entityName, String regionName) {
+            super.entityCachePut(entityName, regionName);
+            record(regionName, "put");
+        }
+
+        @Override
+        public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+            super.collectionCacheHit(collectionRole, regionName);
+            record(regionName, "hit");
+        }
+
+        @Override
+        public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+            super.collectionCacheMiss(collectionRole, regionName);
+            record(regionName, "miss");
+        }
+    }
+}
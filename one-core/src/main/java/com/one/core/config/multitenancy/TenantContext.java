@@ -1,5 +1,10 @@
 package com.one.core.config.multitenancy;
 
+/**
+ * Tenant del hilo actual. Sigue siendo un ThreadLocal (ScopedValue es preview en Java 21): cada
+ * request, también en hilos virtuales, lo fija en JwtAuthenticationFilter y lo limpia al terminar.
+ * Para pasarlo a otro hilo usar {@link TenantContextTaskDecorator} / {@link TenantContextExecutorService}.
+ */
 public final class TenantContext {
 
     private static final ThreadLocal<TenantInfo> currentTenant = new ThreadLocal<>();
@@ -0,0 +1,56 @@
+package com.one.core.config.multitenancy;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorador de {@link ExecutorService} para hand-offs explícitos (fan-out por tenant, jobs en
+ * background): cada tarea corre con el tenant y la autenticación del hilo que la envió.
+ * submit/invokeAll/invokeAny pasan por {@link #execute}, que captura el contexto del llamador.
+ */
+public class TenantContextExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    public TenantContextExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    /** Un hilo virtual por tarea, con propagación de contexto. */
+    public static TenantContextExecutorService newVirtualThreadPerTaskExecutor() {
+        return new TenantContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(TenantContextSnapshot.capture().wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
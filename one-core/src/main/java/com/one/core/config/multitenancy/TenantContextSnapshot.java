@@ -0,0 +1,83 @@
+package com.one.core.config.multitenancy;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Foto del tenant y de la autenticación del hilo actual, para reinstalarlos en el hilo
+ * (de plataforma o virtual) que ejecute una tarea entregada a un executor.
+ */
+final class TenantContextSnapshot {
+
+    private final TenantInfo tenant;
+    private final Authentication authentication;
+
+    private TenantContextSnapshot(TenantInfo tenant, Authentication authentication) {
+        this.tenant = tenant;
+        this.authentication = authentication;
+    }
+
+    static TenantContextSnapshot capture() {
+        return new TenantContextSnapshot(
+                TenantContext.getCurrentTenant(),
+                SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    Runnable wrap(Runnable task) {
+        return () -> {
+            Restorer restorer = apply();
+            try {
+                task.run();
+            } finally {
+                restorer.restore();
+            }
+        };
+    }
+
+    <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            Restorer restorer = apply();
+            try {
+                return task.call();
+            } finally {
+                restorer.restore();
+            }
+        };
+    }
+
+    private Restorer apply() {
+        TenantInfo previousTenant = TenantContext.getCurrentTenant();
+        SecurityContext previousSecurity = SecurityContextHolder.getContext();
+
+        if (tenant != null) {
+            TenantContext.setCurrentTenant(tenant);
+        } else {
+            TenantContext.clear();
+        }
+        // Contexto nuevo: el SecurityContext del request no se comparte entre hilos
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        return () -> {
+            if (previousTenant != null) {
+                TenantContext.setCurrentTenant(previousTenant);
+            } else {
+                TenantContext.clear();
+            }
+            if (previousSecurity.getAuthentication() != null) {
+                SecurityContextHolder.setContext(previousSecurity);
+            } else {
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Restorer {
+        void restore();
+    }
+}
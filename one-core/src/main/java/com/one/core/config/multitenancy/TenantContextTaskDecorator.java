@@ -0,0 +1,18 @@
+package com.one.core.config.multitenancy;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propaga tenant y autenticación a las tareas del executor de Spring (applicationTaskExecutor):
+ * {@code @Async} y el procesamiento async de MVC (p.ej. StreamingResponseBody). Spring Boot lo
+ * aplica tanto al pool de plataforma como al executor de hilos virtuales.
+ */
+@Component
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContextSnapshot.capture().wrap(runnable);
+    }
+}
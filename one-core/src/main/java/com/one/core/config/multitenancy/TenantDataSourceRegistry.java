@@ -0,0 +1,190 @@
+package com.one.core.config.multitenancy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Enruta las conexiones de cada tenant al pool (shard) asignado en public.tenants y aplica un
+ * bulkhead por tenant: un semáforo con el máximo de conexiones concurrentes y un timeout de espera.
+ * Así un tenant con un reporte pesado agota su propio cupo y no el pool de todos.
+ */
+@Component
+public class TenantDataSourceRegistry implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantDataSourceRegistry.class);
+
+    public static final String DEFAULT_POOL = "default";
+
+    private final DataSource masterDataSource;
+    private final TenantPoolProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, HikariDataSource> shardPools = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    // Semáforo tomado por cada conexión entregada (si el límite cambia, se libera en el mismo)
+    private final Map<Connection, Semaphore> leases = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Assignment> assignments = Map.of();
+    private volatile long assignmentsLoadedAt;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private record Assignment(String poolKey, int maxConcurrentConnections) {}
+
+    private record Bulkhead(int limit, Semaphore permits) {}
+
+    @Autowired
+    public TenantDataSourceRegistry(@Qualifier("masterDataSource") DataSource masterDataSource,
+                                    TenantPoolProperties properties) {
+        this.masterDataSource = masterDataSource;
+        this.properties = properties;
+        this.jdbcTemplate = new JdbcTemplate(masterDataSource);
+    }
+
+    public Connection getConnection(String tenantSchema) throws SQLException {
+        Assignment assignment = assignmentFor(tenantSchema);
+        if (assignment == null) {
+            // Schema sin fila en public.tenants (p.ej. el default): pool principal, sin bulkhead
+            return masterDataSource.getConnection();
+        }
+
+        Semaphore bulkhead = bulkheadFor(tenantSchema, assignment);
+        acquire(bulkhead, tenantSchema);
+        try {
+            Connection connection = dataSourceFor(assignment.poolKey()).getConnection();
+            leases.put(connection, bulkhead);
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            bulkhead.release();
+            throw e;
+        }
+    }
+
+    public void releaseConnection(Connection connection) throws SQLException {
+        Semaphore bulkhead = leases.remove(connection);
+        try {
+            connection.close();
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /** Fuerza a releer public.tenants en el próximo checkout (tras reasignar un tenant). */
+    public void invalidateAssignments() {
+        this.assignmentsLoadedAt = 0L;
+    }
+
+    private void acquire(Semaphore bulkhead, String tenantSchema) throws SQLException {
+        try {
+            if (!bulkhead.tryAcquire(properties.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Tenant '" + tenantSchema + "' reached its concurrent connection limit; timed out after "
+                        + properties.getAcquireTimeoutMs() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection for tenant '" + tenantSchema + "'", e);
+        }
+    }
+
+    private Semaphore bulkheadFor(String tenantSchema, Assignment assignment) {
+        int limit = assignment.maxConcurrentConnections();
+        Bulkhead current = bulkheads.get(tenantSchema);
+        if (current != null && current.limit() == limit) {
+            return current.permits();
+        }
+        // Límite nuevo o cambiado: semáforo nuevo; las conexiones vivas devuelven el permiso al anterior
+        return bulkheads.compute(tenantSchema, (schema, existing) ->
+                existing != null && existing.limit() == limit ? existing : new Bulkhead(limit, new Semaphore(limit, true))
+        ).permits();
+    }
+
+    private DataSource dataSourceFor(String poolKey) {
+        if (DEFAULT_POOL.equals(poolKey)) {
+            return masterDataSource;
+        }
+        TenantPoolProperties.Shard shard = properties.getShards().get(poolKey);
+        if (shard == null) {
+            logger.warn("Pool '{}' is not configured under tenancy.pools.shards; using the default pool", poolKey);
+            return masterDataSource;
+        }
+        return shardPools.computeIfAbsent(poolKey, key -> createShardPool(key, shard));
+    }
+
+    private HikariDataSource createShardPool(String poolKey, TenantPoolProperties.Shard shard) {
+        if (!(masterDataSource instanceof HikariConfig masterConfig)) {
+            throw new IllegalStateException("Tenant shard pools require the master DataSource to be a HikariDataSource");
+        }
+        // Misma URL/credenciales/timeouts que el pool principal; solo cambia el tamaño
+        HikariConfig config = new HikariConfig();
+        masterConfig.copyStateTo(config);
+        config.setPoolName("tenant-pool-" + poolKey);
+        config.setMaximumPoolSize(shard.getMaximumPoolSize());
+        config.setMinimumIdle(shard.getMinimumIdle());
+        logger.info("Creating tenant connection pool '{}' (max size {})", poolKey, shard.getMaximumPoolSize());
+        return new HikariDataSource(config);
+    }
+
+    private Assignment assignmentFor(String tenantSchema) {
+        if (System.currentTimeMillis() - assignmentsLoadedAt > properties.getAssignmentRefreshMs()) {
+            refreshAssignments();
+        }
+        return assignments.get(tenantSchema);
+    }
+
+    private void refreshAssignments() {
+        // Lock explícito y no synchronized: la query no debe fijar el carrier de un hilo virtual
+        refreshLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (now - assignmentsLoadedAt <= properties.getAssignmentRefreshMs()) {
+                return; // otro hilo ya refrescó
+            }
+            loadAssignments();
+            this.assignmentsLoadedAt = now;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void loadAssignments() {
+        try {
+            Map<String, Assignment> loaded = new HashMap<>();
+            jdbcTemplate.query(
+                    "SELECT schema_name, pool_key, max_concurrent_connections FROM public.tenants",
+                    rs -> {
+                        int max = rs.getInt("max_concurrent_connections");
+                        if (rs.wasNull() || max <= 0) {
+                            max = properties.getDefaultMaxConcurrentConnections();
+                        }
+                        loaded.put(rs.getString("schema_name"), new Assignment(rs.getString("pool_key"), max));
+                    });
+            this.assignments = Map.copyOf(loaded);
+        } catch (RuntimeException e) {
+            // Se conserva la asignación anterior; se reintenta en el próximo intervalo
+            logger.warn("Could not refresh tenant pool assignments: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        shardPools.values().forEach(HikariDataSource::close);
+    }
+}
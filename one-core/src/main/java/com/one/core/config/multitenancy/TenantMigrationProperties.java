@@ -0,0 +1,27 @@
+package com.one.core.config.multitenancy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración de las corridas de migración sobre todos los tenants ({@code tenancy.migrations.*}).
+ */
+@Data
+@Component
+@ConfigurationProperties("tenancy.migrations")
+public class TenantMigrationProperties {
+
+    /** Schemas que se migran en paralelo. */
+    private int parallelism = 4;
+
+    /**
+     * Tamaño del pool propio de las migraciones (separado del de la aplicación, para que una
+     * corrida no le quite conexiones al tráfico). Cada worker usa una para el advisory lock y
+     * otra para Flyway.
+     */
+    private int maximumPoolSize = 10;
+
+    /** Retomar al arrancar las corridas que quedaron con schemas PENDING/RUNNING. */
+    private boolean resumeOnStartup = true;
+}
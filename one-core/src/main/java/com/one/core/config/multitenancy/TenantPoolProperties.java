@@ -0,0 +1,36 @@
+package com.one.core.config.multitenancy;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de los pools por shard y de los bulkheads por tenant ({@code tenancy.pools.*}).
+ * La asignación tenant -> pool vive en {@code public.tenants.pool_key}.
+ */
+@Data
+@Component
+@ConfigurationProperties("tenancy.pools")
+public class TenantPoolProperties {
+
+    /** Conexiones concurrentes por tenant cuando public.tenants no define un límite propio. */
+    private int defaultMaxConcurrentConnections = 8;
+
+    /** Cuánto espera un request por un permiso de su tenant antes de fallar. */
+    private long acquireTimeoutMs = 5000;
+
+    /** Cada cuánto se relee la asignación desde public.tenants. */
+    private long assignmentRefreshMs = 30000;
+
+    /** Pools adicionales por clave; "default" siempre es el masterDataSource. */
+    private Map<String, Shard> shards = new HashMap<>();
+
+    @Data
+    public static class Shard {
+        private int maximumPoolSize = 5;
+        private int minimumIdle = 1;
+    }
+}
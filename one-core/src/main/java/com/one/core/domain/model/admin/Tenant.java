@@ -29,6 +29,14 @@ public class Tenant {
     @Column(name = "industry_type", nullable = false)
     private IndustryType industryType;
 
+    // Pool de conexiones (shard) del tenant; "default" es el masterDataSource
+    @Column(name = "pool_key", nullable = false, length = 50)
+    private String poolKey = "default";
+
+    // Límite de conexiones concurrentes; null = tenancy.pools.default-max-concurrent-connections
+    @Column(name = "max_concurrent_connections")
+    private Integer maxConcurrentConnections;
+
     @CreationTimestamp
     @Column(name = "created_at", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime createdAt;
@@ -0,0 +1,8 @@
+package com.one.core.domain.model.enums.products;
+
+public enum ProductImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
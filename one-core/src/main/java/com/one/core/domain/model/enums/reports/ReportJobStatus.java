@@ -0,0 +1,8 @@
+package com.one.core.domain.model.enums.reports;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
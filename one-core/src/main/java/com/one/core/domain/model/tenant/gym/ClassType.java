@@ -7,9 +7,13 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity @Table(name = "class_types")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "class_type")
 public class ClassType {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -2,11 +2,15 @@ package com.one.core.domain.model.tenant.gym;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity @Table(name = "rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
 public class Room {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
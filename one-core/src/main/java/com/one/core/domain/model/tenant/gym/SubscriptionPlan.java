@@ -10,9 +10,13 @@ import java.util.List;
 import org.hibernate.annotations.JdbcTypeCode;
 
 import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity @Table(name = "subscription_plans")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "subscription_plan")
 public class SubscriptionPlan {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -0,0 +1,40 @@
+package com.one.core.domain.model.tenant.product;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Alerta de stock bajo de un producto. Se escribe con los INSERT / UPDATE de
+ * LowStockAlertRepository; a lo sumo hay una abierta ({@code resolvedAt} null) por producto.
+ */
+@Entity
+@Table(name = "low_stock_alerts")
+@Data
+@NoArgsConstructor
+public class LowStockAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    /** Stock (unidad base) que dejó el movimiento que abrió la alerta. */
+    @Column(name = "stock_at_alert", nullable = false, precision = 12, scale = 3)
+    private BigDecimal stockAtAlert;
+
+    @Column(name = "minimum_stock_level", nullable = false, precision = 12, scale = 3)
+    private BigDecimal minimumStockLevel;
+
+    @Column(name = "triggered_at", nullable = false)
+    private OffsetDateTime triggeredAt;
+
+    @Column(name = "resolved_at")
+    private OffsetDateTime resolvedAt;
+}
@@ -8,7 +8,10 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import org.hibernate.annotations.Formula;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -20,6 +23,8 @@ import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -63,11 +68,13 @@ public class Product {
     @Column(name = "unit_of_measure", length = 20, columnDefinition = "VARCHAR(20) DEFAULT 'UNIT'")
     private UnitOfMeasure unitOfMeasure = UnitOfMeasure.UNIT;
 
-    @Column(name = "current_stock", precision = 12, scale = 3, columnDefinition = "NUMERIC(12,3) DEFAULT 0.000")
-    private BigDecimal currentStock = BigDecimal.ZERO;
-
-    @Column(name = "frozen_stock", precision = 12, scale = 3, columnDefinition = "NUMERIC(12,3) DEFAULT 0.000")
-    private BigDecimal frozenStock = BigDecimal.ZERO;
+    // Stock fuera del estado cacheado: ProductStockLevel es la misma fila (comparten la clave primaria),
+    // no es cacheable y solo cambia por los UPDATE atómicos de ProductRepository (ver InventoryService).
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @PrimaryKeyJoinColumn
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ProductStockLevel stockLevel;
 
     @Column(name = "minimum_stock_level", precision = 12, scale = 3, columnDefinition = "NUMERIC(12,3) DEFAULT 0.000")
     private BigDecimal minimumStockLevel = BigDecimal.ZERO;
@@ -81,7 +88,8 @@ public class Product {
     @Column(name = "image_url", length = 255)
     private String imageUrl;
 
-    @Formula("has_packaging(id)")
+    // Flag desnormalizado; lo mantiene ProductService.setOrUpdatePackaging
+    @Column(name = "has_packaging", nullable = false)
     private boolean hasPackaging;
 
     @CreatedBy
@@ -103,6 +111,19 @@ public class Product {
     @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime updatedAt;
 
+    public BigDecimal getCurrentStock() {
+        return stockLevel != null ? stockLevel.getCurrentStock() : BigDecimal.ZERO;
+    }
+
+    public BigDecimal getFrozenStock() {
+        return stockLevel != null ? stockLevel.getFrozenStock() : BigDecimal.ZERO;
+    }
+
+    /** Costo promedio ponderado por unidad base (null si todavía no hay costo). */
+    public BigDecimal getAverageCost() {
+        return stockLevel != null ? stockLevel.getAverageCost() : null;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,38 @@
+package com.one.core.domain.model.tenant.product;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/** Fila rechazada de una importación de productos. */
+@Entity
+@Table(name = "product_import_errors")
+@Data
+@NoArgsConstructor
+public class ProductImportError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "row_number", nullable = false)
+    private int rowNumber;
+
+    @Column(length = 50)
+    private String sku;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    public ProductImportError(UUID jobId, int rowNumber, String sku, String message) {
+        this.jobId = jobId;
+        this.rowNumber = rowNumber;
+        this.sku = sku;
+        this.message = message;
+    }
+}
@@ -0,0 +1,61 @@
+package com.one.core.domain.model.tenant.product;
+
+import com.one.core.domain.model.enums.products.ProductImportStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** Progreso de una importación masiva de productos (ver ProductImportService). */
+@Entity
+@Table(name = "product_import_jobs")
+@Data
+@NoArgsConstructor
+public class ProductImportJob {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductImportStatus status = ProductImportStatus.PENDING;
+
+    @Column(name = "rows_read", nullable = false)
+    private int rowsRead;
+
+    @Column(name = "rows_inserted", nullable = false)
+    private int rowsInserted;
+
+    @Column(name = "rows_updated", nullable = false)
+    private int rowsUpdated;
+
+    @Column(name = "rows_failed", nullable = false)
+    private int rowsFailed;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_by_user_id")
+    private Long createdByUserId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.one.core.domain.model.tenant.product;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "product_packaging")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product_packaging")
 @Data
 @NoArgsConstructor
 public class ProductPackaging {
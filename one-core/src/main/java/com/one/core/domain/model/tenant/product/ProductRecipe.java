@@ -4,10 +4,14 @@ import com.one.core.domain.model.enums.UnitOfMeasure;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "product_recipes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product_recipe")
 @Data
 @NoArgsConstructor
 public class ProductRecipe {
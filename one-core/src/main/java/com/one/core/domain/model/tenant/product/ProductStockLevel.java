@@ -0,0 +1,53 @@
+package com.one.core.domain.model.tenant.product;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * Vista de solo lectura de las columnas de stock de {@code products}. Está separada de
+ * {@link Product} para que el stock nunca forme parte del estado en el cache de segundo nivel:
+ * esta entidad no es cacheable y siempre se lee de la base. Las escrituras van por los UPDATE
+ * atómicos de ProductRepository.
+ */
+@Entity
+@Immutable
+@Table(name = "products")
+@BatchSize(size = 50)
+@Getter
+@NoArgsConstructor
+public class ProductStockLevel {
+
+    @Id
+    private Long id;
+
+    @Column(name = "current_stock", precision = 12, scale = 3)
+    private BigDecimal currentStock = BigDecimal.ZERO;
+
+    @Column(name = "frozen_stock", precision = 12, scale = 3)
+    private BigDecimal frozenStock = BigDecimal.ZERO;
+
+    /** Costo promedio ponderado por unidad base; null mientras no haya costo conocido. */
+    @Column(name = "average_cost", precision = 18, scale = 8)
+    private BigDecimal averageCost;
+
+    /**
+     * Refleja en memoria el valor devuelto por un UPDATE ... RETURNING. La entidad es inmutable:
+     * Hibernate nunca escribe este cambio.
+     */
+    public void syncCurrentStock(BigDecimal currentStock) {
+        this.currentStock = currentStock;
+    }
+
+    public void syncFrozenStock(BigDecimal frozenStock) {
+        this.frozenStock = frozenStock;
+    }
+
+    public void syncAverageCost(BigDecimal averageCost) {
+        this.averageCost = averageCost;
+    }
+}
@@ -18,8 +18,10 @@ import java.time.ZoneOffset;
 @NoArgsConstructor
 @AllArgsConstructor
 public class StockMovement {
+    // Secuencia con allocationSize = 50 (igual al INCREMENT BY de la secuencia) para poder batchear los INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -36,6 +38,10 @@ public class StockMovement {
     @Column(name = "stock_after_movement", nullable = false, precision = 12, scale = 3)
     private BigDecimal stockAfterMovement;
 
+    // Costo por unidad base con el que entró o salió el stock (promedio ponderado); null si no se conoce
+    @Column(name = "unit_cost", precision = 18, scale = 8)
+    private BigDecimal unitCost;
+
     @Column(name = "movement_date", nullable = false, columnDefinition = "TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP")
     private OffsetDateTime movementDate;
 
@@ -0,0 +1,39 @@
+package com.one.core.domain.model.tenant.reports;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Totales de compras por día (fecha de la orden) y categoría de producto.
+ * Las filas se escriben solo vía upsert nativo en {@code DailyPurchaseRollupRepository}.
+ */
+@Entity
+@Table(name = "daily_purchase_rollup")
+@Data
+@NoArgsConstructor
+public class DailyPurchaseRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "total_ordered", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalOrdered;
+
+    @Column(name = "total_received", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalReceived;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.one.core.domain.model.tenant.reports;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Totales de ventas confirmadas por día, método de pago y categoría de producto.
+ * Las filas se escriben solo vía upsert nativo en {@code DailySalesRollupRepository}.
+ */
+@Entity
+@Table(name = "daily_sales_rollup")
+@Data
+@NoArgsConstructor
+public class DailySalesRollup {
+
+    /** Valor centinela para ventas sin método de pago. */
+    public static final String NO_PAYMENT_METHOD = "NONE";
+    /** Valor centinela para productos sin categoría y ajustes a nivel orden. */
+    public static final long NO_CATEGORY = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "total_sales", nullable = false, precision = 16, scale = 2)
+    private BigDecimal totalSales;
+
+    @Column(name = "total_cost", nullable = false, precision = 16, scale = 4)
+    private BigDecimal totalCost;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.one.core.domain.model.tenant.reports;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Pedido de reconstrucción completa de los rollups de reportes registrado por una migración
+ * (ver V17). Se completa vía {@code ReportRollupRebuildRequestRepository#completePending}.
+ */
+@Entity
+@Table(name = "report_rollup_rebuild_requests")
+@Data
+@NoArgsConstructor
+public class ReportRollupRebuildRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reason", nullable = false)
+    private String reason;
+
+    @Column(name = "requested_at", nullable = false)
+    private OffsetDateTime requestedAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+}
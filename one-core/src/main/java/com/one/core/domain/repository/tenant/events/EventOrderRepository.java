@@ -1,10 +1,18 @@
 package com.one.core.domain.repository.tenant.events;
 
 import com.one.core.domain.model.tenant.events.EventOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface EventOrderRepository extends JpaRepository<EventOrder, Long>, JpaSpecificationExecutor<EventOrder> {
-}
\ No newline at end of file
+
+    /** Segunda fase de los listados: las órdenes de la página con todo lo que usa el mapper, en una query. */
+    @EntityGraph(attributePaths = {"customer", "createdByUser", "items", "items.product"})
+    List<EventOrder> findWithDetailsByIdIn(Collection<Long> ids);
+}
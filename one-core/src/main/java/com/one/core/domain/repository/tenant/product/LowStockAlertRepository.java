@@ -0,0 +1,40 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.tenant.product.LowStockAlert;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Long> {
+
+    /**
+     * Abre una alerta si el producto no tiene una abierta (ux_low_stock_alerts_open); devuelve las filas
+     * insertadas. La tabla afectada se declara (native spaces) para que Hibernate no invalide todas las
+     * regiones del cache de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "low_stock_alerts"))
+    @Query(value = "INSERT INTO low_stock_alerts (product_id, stock_at_alert, minimum_stock_level) " +
+            "VALUES (:productId, :stock, :minimum) " +
+            "ON CONFLICT (product_id) WHERE resolved_at IS NULL DO NOTHING", nativeQuery = true)
+    int openAlert(@Param("productId") Long productId,
+                  @Param("stock") BigDecimal stock,
+                  @Param("minimum") BigDecimal minimum);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "low_stock_alerts"))
+    @Query(value = "UPDATE low_stock_alerts SET resolved_at = CURRENT_TIMESTAMP " +
+            "WHERE product_id = :productId AND resolved_at IS NULL", nativeQuery = true)
+    int resolveAlert(@Param("productId") Long productId);
+
+    @Query("SELECT a FROM LowStockAlert a JOIN FETCH a.product WHERE a.resolvedAt IS NULL ORDER BY a.triggeredAt DESC")
+    List<LowStockAlert> findOpenWithProduct();
+}
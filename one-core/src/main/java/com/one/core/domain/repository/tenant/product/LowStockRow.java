@@ -0,0 +1,16 @@
+package com.one.core.domain.repository.tenant.product;
+
+import java.math.BigDecimal;
+
+/** Producto activo bajo su mínimo, de {@link ProductRepository#findBelowMinimum}. Cantidades en unidad base. */
+public interface LowStockRow {
+    Long getId();
+    String getName();
+    String getSku();
+    String getUnitOfMeasure();
+    BigDecimal getCurrentStock();
+    BigDecimal getMinimumStockLevel();
+    BigDecimal getPurchasePrice();
+    Long getSupplierId();
+    String getSupplierName();
+}
@@ -0,0 +1,14 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.tenant.product.ProductImportError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductImportErrorRepository extends JpaRepository<ProductImportError, Long> {
+    List<ProductImportError> findByJobIdOrderByRowNumberAsc(UUID jobId, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.tenant.product.ProductImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, UUID> {
+}
@@ -0,0 +1,53 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila de los listados de productos: solo las columnas que usa ProductDTO, con los nombres de
+ * categoría y proveedor y el stock resueltos por LEFT JOIN en la misma query. Evita cargar la
+ * entidad (y sus proxies de categoría, proveedor, stock y auditoría) para mapear un subconjunto.
+ */
+public record ProductListRow(
+        Long id,
+        String sku,
+        String name,
+        String description,
+        ProductType productType,
+        boolean hasPackaging,
+        Long categoryId,
+        String categoryName,
+        Long defaultSupplierId,
+        String defaultSupplierName,
+        BigDecimal purchasePrice,
+        BigDecimal salePrice,
+        UnitOfMeasure unitOfMeasure,
+        BigDecimal currentStock,
+        BigDecimal minimumStockLevel,
+        boolean isActive,
+        String barcode,
+        String imageUrl) {
+
+    /** Columnas en el orden del constructor, para {@code CriteriaBuilder.construct}. */
+    public static Selection<?>[] columns(Root<Product> root) {
+        Join<Object, Object> category = root.join("category", JoinType.LEFT);
+        Join<Object, Object> supplier = root.join("defaultSupplier", JoinType.LEFT);
+        Join<Object, Object> stockLevel = root.join("stockLevel", JoinType.LEFT);
+        return new Selection<?>[]{
+                root.get("id"), root.get("sku"), root.get("name"), root.get("description"),
+                root.get("productType"), root.get("hasPackaging"),
+                category.get("id"), category.get("name"),
+                supplier.get("id"), supplier.get("name"),
+                root.get("purchasePrice"), root.get("salePrice"), root.get("unitOfMeasure"),
+                stockLevel.get("currentStock"), root.get("minimumStockLevel"),
+                root.get("isActive"), root.get("barcode"), root.get("imageUrl")
+        };
+    }
+}
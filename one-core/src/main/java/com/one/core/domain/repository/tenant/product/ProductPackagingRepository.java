@@ -2,10 +2,17 @@ package com.one.core.domain.repository.tenant.product;
 
 import com.one.core.domain.model.tenant.product.ProductPackaging;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductPackagingRepository extends JpaRepository<ProductPackaging, Long> {
     List<ProductPackaging> findByMainProductId(Long mainProductId);
-}
\ No newline at end of file
+
+    @Query("SELECT pp FROM ProductPackaging pp JOIN FETCH pp.packagingProduct WHERE pp.mainProduct.id IN :mainProductIds")
+    List<ProductPackaging> findByMainProductIdIn(@Param("mainProductIds") Collection<Long> mainProductIds);
+}
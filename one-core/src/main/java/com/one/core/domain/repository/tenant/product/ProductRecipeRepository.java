@@ -2,6 +2,8 @@ package com.one.core.domain.repository.tenant.product;
 
 import com.one.core.domain.model.tenant.product.ProductRecipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -9,4 +11,13 @@ import java.util.List;
 public interface ProductRecipeRepository extends JpaRepository<ProductRecipe, Long> {
 
     List<ProductRecipe> findByMainProductId(Long mainProductId);
-}
\ No newline at end of file
+
+    /** Grafo completo de recetas del tenant, con ambos productos resueltos, en una sola consulta. */
+    @Query("SELECT r FROM ProductRecipe r JOIN FETCH r.mainProduct JOIN FETCH r.ingredientProduct")
+    List<ProductRecipe> findAllWithProducts();
+
+    /** Receta de un producto con ambos productos resueltos (carga del cache de BOM aplanado). */
+    @Query("SELECT r FROM ProductRecipe r JOIN FETCH r.mainProduct JOIN FETCH r.ingredientProduct " +
+            "WHERE r.mainProduct.id = :mainProductId")
+    List<ProductRecipe> findWithProductsByMainProductId(@Param("mainProductId") Long mainProductId);
+}
@@ -1,11 +1,14 @@
 package com.one.core.domain.repository.tenant.product;
 
-import com.one.core.domain.model.enums.ProductType;
 import com.one.core.domain.model.tenant.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +19,108 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
     boolean existsByName(String name);
     Optional<Product> findByCanonicalName(String canonicalName);
     boolean existsByCanonicalName(String canonicalName);
-    List<Product> findAllByProductTypeAndIsActiveTrueOrderByNameAsc(ProductType productType);
-    List<Product> findAllByProductTypeOrderByNameAsc(ProductType productType);
 
+    @Query("SELECT new com.one.core.domain.repository.tenant.product.ProductSearchEntry(p.id, p.name, p.sku, p.barcode) " +
+            "FROM Product p WHERE p.isActive = true")
+    List<ProductSearchEntry> findActiveSearchEntries();
+
+    @Query("SELECT new com.one.core.domain.repository.tenant.product.ProductScanEntry(" +
+            "p.id, p.name, p.sku, p.barcode, p.productType, p.salePrice, p.unitOfMeasure) " +
+            "FROM Product p WHERE p.isActive = true")
+    List<ProductScanEntry> findActiveScanEntries();
+
+    @Query("SELECT new com.one.core.domain.repository.tenant.product.ProductScanEntry(" +
+            "p.id, p.name, p.sku, p.barcode, p.productType, p.salePrice, p.unitOfMeasure) " +
+            "FROM Product p WHERE p.isActive = true AND (p.barcode = :code OR p.sku = :code)")
+    List<ProductScanEntry> findActiveScanEntriesByCode(@Param("code") String code);
+
+    /** Stock de varios productos en una sola lectura (validación de faltantes por lote). */
+    @Query("SELECT new com.one.core.domain.repository.tenant.product.StockAvailability(" +
+            "p.id, p.name, p.sku, p.unitOfMeasure, s.currentStock) " +
+            "FROM Product p LEFT JOIN p.stockLevel s WHERE p.id IN :ids")
+    List<StockAvailability> findStockAvailabilityByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Búsqueda rankeada sobre los índices trigram (V9): coincidencia exacta de SKU/código, después
+     * prefijos (lectores de código de barras), después nombre que empieza o contiene el término y
+     * por último similitud por palabras (tolera errores de tipeo). {@code term} es el nombre
+     * canónico buscado; {@code prefix}/{@code contains} son los patrones LIKE ya escapados.
+     */
+    @Query(value = "SELECT p.id AS id, p.name AS name, p.sku AS sku, p.barcode AS barcode, " +
+            "CASE WHEN lower(p.sku) = :term OR p.barcode = :rawTerm THEN 4.0 " +
+            "     WHEN lower(p.sku) LIKE :prefix OR p.barcode LIKE :rawPrefix THEN 3.0 " +
+            "     WHEN p.canonical_name LIKE :prefix THEN 2.0 + public.word_similarity(:term, p.canonical_name) " +
+            "     WHEN p.canonical_name LIKE :contains THEN 1.0 + public.word_similarity(:term, p.canonical_name) " +
+            "     ELSE public.word_similarity(:term, p.canonical_name) END AS score " +
+            "FROM products p " +
+            "WHERE p.is_active AND (lower(p.sku) LIKE :prefix OR p.barcode LIKE :rawPrefix " +
+            "   OR p.canonical_name LIKE :contains OR :term OPERATOR(public.<%) p.canonical_name) " +
+            "ORDER BY score DESC, p.name " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ProductSearchHit> searchRanked(@Param("term") String term,
+                                        @Param("rawTerm") String rawTerm,
+                                        @Param("prefix") String prefix,
+                                        @Param("rawPrefix") String rawPrefix,
+                                        @Param("contains") String contains,
+                                        @Param("limit") int limit);
+
+    @Query("SELECT s.currentStock FROM ProductStockLevel s WHERE s.id = :id")
+    Optional<BigDecimal> findCurrentStockById(@Param("id") Long id);
+
+    @Query("SELECT s.frozenStock FROM ProductStockLevel s WHERE s.id = :id")
+    Optional<BigDecimal> findFrozenStockById(@Param("id") Long id);
+
+    /**
+     * Suma {@code delta} al stock de forma atómica y devuelve el stock resultante. Si no se permite
+     * stock negativo y la fila no alcanza, no actualiza nada y devuelve vacío.
+     * (Sin @Modifying: el UPDATE ... RETURNING se ejecuta como query para leer el resultado.)
+     */
+    @Query(value = "UPDATE products SET current_stock = current_stock + :delta, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :id AND (:allowNegative OR current_stock + :delta >= 0) " +
+            "RETURNING current_stock", nativeQuery = true)
+    Optional<BigDecimal> applyStockDelta(@Param("id") Long id,
+                                         @Param("delta") BigDecimal delta,
+                                         @Param("allowNegative") boolean allowNegative);
+
+    /**
+     * Igual que {@link #applyStockDelta} pero devuelve también el congelado y el costo promedio de la
+     * fila bloqueada, para calcular el costo de los movimientos sin otra lectura.
+     */
+    @Query(value = "UPDATE products SET current_stock = current_stock + :delta, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE id = :id AND (:allowNegative OR current_stock + :delta >= 0) " +
+            "RETURNING current_stock AS \"currentStock\", frozen_stock AS \"frozenStock\", average_cost AS \"averageCost\"",
+            nativeQuery = true)
+    Optional<StockLevelAfterDelta> applyStockDeltaReturningLevel(@Param("id") Long id,
+                                                                 @Param("delta") BigDecimal delta,
+                                                                 @Param("allowNegative") boolean allowNegative);
+
+    /**
+     * Guarda el costo promedio recalculado. Como {@link #applyStockDelta}, sin @Modifying: el UPDATE ...
+     * RETURNING se ejecuta como query, así Hibernate no invalida las regiones del cache de segundo nivel.
+     */
+    @Query(value = "UPDATE products SET average_cost = :averageCost WHERE id = :id RETURNING average_cost",
+            nativeQuery = true)
+    Optional<BigDecimal> updateAverageCost(@Param("id") Long id, @Param("averageCost") BigDecimal averageCost);
+
+    @Query(value = "UPDATE products SET current_stock = current_stock - :quantity, frozen_stock = frozen_stock + :quantity, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND current_stock >= :quantity " +
+            "RETURNING current_stock", nativeQuery = true)
+    Optional<BigDecimal> freezeStock(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+    @Query(value = "UPDATE products SET frozen_stock = frozen_stock - :quantity, current_stock = current_stock + :quantity, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE id = :id AND frozen_stock >= :quantity " +
+            "RETURNING current_stock", nativeQuery = true)
+    Optional<BigDecimal> thawStock(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+    /**
+     * Productos activos con stock disponible bajo el mínimo. El WHERE repite el predicado del índice
+     * parcial ix_products_below_minimum: solo se leen las entradas del índice, no toda la tabla.
+     */
+    @Query(value = "SELECT p.id AS \"id\", p.name AS \"name\", p.sku AS \"sku\", p.unit_of_measure AS \"unitOfMeasure\", " +
+            "p.current_stock AS \"currentStock\", p.minimum_stock_level AS \"minimumStockLevel\", " +
+            "p.purchase_price AS \"purchasePrice\", s.id AS \"supplierId\", s.name AS \"supplierName\" " +
+            "FROM products p LEFT JOIN suppliers s ON s.id = p.default_supplier_id " +
+            "WHERE p.current_stock < p.minimum_stock_level AND p.is_active " +
+            "ORDER BY p.name", nativeQuery = true)
+    List<LowStockRow> findBelowMinimum();
 }
\ No newline at end of file
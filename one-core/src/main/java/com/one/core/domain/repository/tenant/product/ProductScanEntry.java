@@ -0,0 +1,11 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/** Producto tal como lo guarda el índice de escaneo: lo que el POS necesita además del stock. */
+public record ProductScanEntry(Long id, String name, String sku, String barcode, ProductType productType,
+                               BigDecimal salePrice, UnitOfMeasure unitOfMeasure) {
+}
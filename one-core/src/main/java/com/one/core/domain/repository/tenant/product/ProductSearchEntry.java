@@ -0,0 +1,5 @@
+package com.one.core.domain.repository.tenant.product;
+
+/** Producto tal como lo guarda el índice de autocompletado: solo lo que se muestra en la sugerencia. */
+public record ProductSearchEntry(Long id, String name, String sku, String barcode) {
+}
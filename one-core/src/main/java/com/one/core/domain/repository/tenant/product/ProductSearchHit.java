@@ -0,0 +1,10 @@
+package com.one.core.domain.repository.tenant.product;
+
+/** Resultado de {@link ProductRepository#searchRanked}: el producto y su puntaje de relevancia. */
+public interface ProductSearchHit {
+    Long getId();
+    String getName();
+    String getSku();
+    String getBarcode();
+    Double getScore();
+}
@@ -0,0 +1,10 @@
+package com.one.core.domain.repository.tenant.product;
+
+import java.math.BigDecimal;
+
+/**
+ * Costo guardado de lo que salió por una orden de venta, por producto: {@code cost} es la suma de
+ * cantidad x costo unitario de sus movimientos y {@code quantity} la cantidad (unidad base).
+ */
+public record SaleCost(String orderId, Long productId, BigDecimal cost, BigDecimal quantity) {
+}
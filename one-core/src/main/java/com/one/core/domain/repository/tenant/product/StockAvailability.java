@@ -0,0 +1,9 @@
+package com.one.core.domain.repository.tenant.product;
+
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/** Stock actual (unidad base) de un producto, con lo necesario para informar faltantes. */
+public record StockAvailability(Long id, String name, String sku, UnitOfMeasure unitOfMeasure, BigDecimal currentStock) {
+}
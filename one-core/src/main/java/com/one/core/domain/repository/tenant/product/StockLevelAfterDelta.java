@@ -0,0 +1,10 @@
+package com.one.core.domain.repository.tenant.product;
+
+import java.math.BigDecimal;
+
+/** Resultado de {@link ProductRepository#applyStockDeltaReturningLevel}: la fila ya actualizada (y bloqueada). */
+public interface StockLevelAfterDelta {
+    BigDecimal getCurrentStock();
+    BigDecimal getFrozenStock();
+    BigDecimal getAverageCost();
+}
@@ -1,14 +1,47 @@
 package com.one.core.domain.repository.tenant.product;
 
 import com.one.core.domain.model.tenant.product.StockMovement;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, JpaSpecificationExecutor<StockMovement> {
     Page<StockMovement> findByProductIdOrderByMovementDateDesc(Long productId, Pageable pageable);
-}
\ No newline at end of file
+
+    /** Costos guardados de las salidas por venta de las órdenes indicadas, por orden y producto. */
+    @Query("SELECT new com.one.core.domain.repository.tenant.product.SaleCost(m.referenceDocumentId, m.product.id, " +
+            "SUM(-m.quantityChanged * m.unitCost), SUM(-m.quantityChanged)) " +
+            "FROM StockMovement m " +
+            "WHERE m.referenceDocumentType = 'SALES_ORDER' AND m.referenceDocumentId IN :orderIds " +
+            "AND m.movementType = com.one.core.domain.model.enums.movements.MovementType.SALE_CONFIRMED " +
+            "AND m.unitCost IS NOT NULL " +
+            "GROUP BY m.referenceDocumentId, m.product.id")
+    List<SaleCost> findSaleCosts(@Param("orderIds") Collection<String> orderIds);
+
+    /**
+     * Completa el costo de las salidas por venta de un producto que se registraron sin costo (sin
+     * costo promedio ni precio de compra), con el estimado con que se imputó la venta en los reportes.
+     * La tabla afectada se declara (native spaces) para que Hibernate no invalide todas las regiones
+     * del cache de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "stock_movements"))
+    @Query(value = "UPDATE stock_movements SET unit_cost = :unitCost " +
+            "WHERE reference_document_type = 'SALES_ORDER' AND reference_document_id = :orderId " +
+            "AND product_id = :productId AND movement_type = 'SALE_CONFIRMED' AND unit_cost IS NULL",
+            nativeQuery = true)
+    int fillMissingSaleCosts(@Param("orderId") String orderId,
+                             @Param("productId") Long productId,
+                             @Param("unitCost") BigDecimal unitCost);
+}
@@ -0,0 +1,7 @@
+package com.one.core.domain.repository.tenant.purchases;
+
+import java.math.BigDecimal;
+
+/** Cantidad pedida y todavía no recibida de un producto (unidad del producto) en órdenes de compra abiertas. */
+public record PendingPurchaseQuantity(Long productId, BigDecimal quantity) {
+}
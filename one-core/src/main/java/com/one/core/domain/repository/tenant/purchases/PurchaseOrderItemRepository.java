@@ -1,10 +1,48 @@
 package com.one.core.domain.repository.tenant.purchases;
 
+import com.one.core.domain.model.enums.purchases.PurchaseOrderStatus;
 import com.one.core.domain.model.tenant.purchases.PurchaseOrderItem;
-import com.one.core.domain.model.tenant.sales.SalesOrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface PurchaseOrderItemRepository extends JpaRepository<PurchaseOrderItem, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Ítems comprados en el período, con orden, proveedor y producto ya resueltos, leídos con
+     * cursor del servidor. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM PurchaseOrderItem i " +
+            "JOIN FETCH i.purchaseOrder o " +
+            "LEFT JOIN FETCH o.supplier " +
+            "JOIN FETCH i.product " +
+            "WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+            "AND o.status <> :excludedStatus " +
+            "ORDER BY o.orderDate, o.id, i.id")
+    Stream<PurchaseOrderItem> streamReportItems(@Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate,
+                                                @Param("excludedStatus") PurchaseOrderStatus excludedStatus);
+
+    /** Pendiente de recibir por producto en órdenes con los estados indicados (una sola consulta para varios productos). */
+    @Query("SELECT new com.one.core.domain.repository.tenant.purchases.PendingPurchaseQuantity(" +
+            "i.product.id, SUM(i.quantityOrdered - COALESCE(i.quantityReceived, 0))) " +
+            "FROM PurchaseOrderItem i " +
+            "WHERE i.product.id IN :productIds AND i.purchaseOrder.status IN :statuses " +
+            "GROUP BY i.product.id")
+    List<PendingPurchaseQuantity> sumPendingByProduct(@Param("productIds") Collection<Long> productIds,
+                                                      @Param("statuses") Collection<PurchaseOrderStatus> statuses);
+}
@@ -2,6 +2,7 @@ package com.one.core.domain.repository.tenant.purchases;
 
 import com.one.core.domain.model.enums.purchases.PurchaseOrderStatus;
 import com.one.core.domain.model.tenant.purchases.PurchaseOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,4 +27,11 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
             @Param("status") PurchaseOrderStatus status
     );
 
+
+    @Query("SELECT MIN(o.orderDate) FROM PurchaseOrder o")
+    LocalDate findEarliestOrderDate();
+
+    /** Segunda fase de los listados: las órdenes de la página con todo lo que usa el mapper, en una query. */
+    @EntityGraph(attributePaths = {"supplier", "createdByUser", "items", "items.product"})
+    List<PurchaseOrder> findWithDetailsByIdIn(Collection<Long> ids);
 }
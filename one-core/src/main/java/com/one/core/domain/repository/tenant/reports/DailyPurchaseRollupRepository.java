@@ -0,0 +1,43 @@
+package com.one.core.domain.repository.tenant.reports;
+
+import com.one.core.domain.model.tenant.reports.DailyPurchaseRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface DailyPurchaseRollupRepository extends JpaRepository<DailyPurchaseRollup, Long> {
+
+    /**
+     * Suma los importes en la fila de la clave, creándola si no existe.
+     * La tabla afectada se declara (native spaces) para que Hibernate no invalide todas las
+     * regiones del cache de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "daily_purchase_rollup"))
+    @Query(value = "INSERT INTO daily_purchase_rollup (rollup_date, category_id, total_ordered, total_received, updated_at) " +
+            "VALUES (:rollupDate, :categoryId, :ordered, :received, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (rollup_date, category_id) DO UPDATE SET " +
+            "total_ordered = daily_purchase_rollup.total_ordered + EXCLUDED.total_ordered, " +
+            "total_received = daily_purchase_rollup.total_received + EXCLUDED.total_received, " +
+            "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void upsertAdd(@Param("rollupDate") LocalDate rollupDate,
+                   @Param("categoryId") Long categoryId,
+                   @Param("ordered") BigDecimal ordered,
+                   @Param("received") BigDecimal received);
+
+    @Query("SELECT COALESCE(SUM(r.totalOrdered), 0) FROM DailyPurchaseRollup r " +
+            "WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumTotalOrdered(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM DailyPurchaseRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteByRollupDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
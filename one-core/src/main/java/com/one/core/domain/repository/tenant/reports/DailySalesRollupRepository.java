@@ -0,0 +1,54 @@
+package com.one.core.domain.repository.tenant.reports;
+
+import com.one.core.domain.model.tenant.reports.DailySalesRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /**
+     * Suma (o resta, con valores negativos) los importes en la fila de la clave, creándola si no existe.
+     * La tabla afectada se declara (native spaces) para que Hibernate no invalide todas las
+     * regiones del cache de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "daily_sales_rollup"))
+    @Query(value = "INSERT INTO daily_sales_rollup (rollup_date, payment_method, category_id, total_sales, total_cost, updated_at) " +
+            "VALUES (:rollupDate, :paymentMethod, :categoryId, :sales, :cost, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (rollup_date, payment_method, category_id) DO UPDATE SET " +
+            "total_sales = daily_sales_rollup.total_sales + EXCLUDED.total_sales, " +
+            "total_cost = daily_sales_rollup.total_cost + EXCLUDED.total_cost, " +
+            "updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    void upsertAdd(@Param("rollupDate") LocalDate rollupDate,
+                   @Param("paymentMethod") String paymentMethod,
+                   @Param("categoryId") Long categoryId,
+                   @Param("sales") BigDecimal sales,
+                   @Param("cost") BigDecimal cost);
+
+    @Query("SELECT COALESCE(SUM(r.totalSales), 0) FROM DailySalesRollup r " +
+            "WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+            "AND (:paymentMethod IS NULL OR r.paymentMethod = :paymentMethod)")
+    BigDecimal sumTotalSales(@Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate,
+                             @Param("paymentMethod") String paymentMethod);
+
+    @Query("SELECT COALESCE(SUM(r.totalCost), 0) FROM DailySalesRollup r " +
+            "WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+            "AND (:paymentMethod IS NULL OR r.paymentMethod = :paymentMethod)")
+    BigDecimal sumTotalCost(@Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate,
+                            @Param("paymentMethod") String paymentMethod);
+
+    @Modifying
+    @Query("DELETE FROM DailySalesRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteByRollupDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
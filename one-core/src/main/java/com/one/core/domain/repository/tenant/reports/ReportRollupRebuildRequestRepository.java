@@ -0,0 +1,25 @@
+package com.one.core.domain.repository.tenant.reports;
+
+import com.one.core.domain.model.tenant.reports.ReportRollupRebuildRequest;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReportRollupRebuildRequestRepository extends JpaRepository<ReportRollupRebuildRequest, Long> {
+
+    /**
+     * Marca como completados los pedidos pendientes y devuelve cuántos había. Las filas quedan
+     * bloqueadas hasta el commit, así una sola transacción reconstruye por cada pedido. La tabla
+     * afectada se declara (native spaces) para que Hibernate no invalide todas las regiones del
+     * cache de segundo nivel.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "report_rollup_rebuild_requests"))
+    @Query(value = "UPDATE report_rollup_rebuild_requests SET completed_at = CURRENT_TIMESTAMP " +
+            "WHERE completed_at IS NULL", nativeQuery = true)
+    int completePending();
+}
@@ -1,9 +1,56 @@
 package com.one.core.domain.repository.tenant.sales;
 
+import com.one.core.domain.model.enums.sales.PaymentMethod;
+import com.one.core.domain.model.enums.sales.SalesOrderStatus;
 import com.one.core.domain.model.tenant.sales.SalesOrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
 @Repository
 public interface SalesOrderItemRepository extends JpaRepository<SalesOrderItem, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Ítems vendidos en el período, con orden, cliente y producto ya resueltos, leídos con
+     * cursor del servidor. Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM SalesOrderItem i " +
+            "JOIN FETCH i.salesOrder o " +
+            "LEFT JOIN FETCH o.customer " +
+            "JOIN FETCH i.product " +
+            "WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+            "AND o.status IN :statuses " +
+            "AND (:paymentMethod IS NULL OR o.paymentMethod = :paymentMethod) " +
+            "ORDER BY o.orderDate, o.id, i.id")
+    Stream<SalesOrderItem> streamReportItems(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate,
+                                             @Param("statuses") Collection<SalesOrderStatus> statuses,
+                                             @Param("paymentMethod") PaymentMethod paymentMethod);
+
+    /** Ítems de órdenes en los estados indicados, para reconstruir los rollups diarios. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM SalesOrderItem i " +
+            "JOIN FETCH i.salesOrder o " +
+            "JOIN FETCH i.product " +
+            "WHERE o.orderDate BETWEEN :startDate AND :endDate " +
+            "AND o.status IN :statuses " +
+            "ORDER BY o.id, i.id")
+    Stream<SalesOrderItem> streamItemsByStatus(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("statuses") Collection<SalesOrderStatus> statuses);
+}
@@ -2,6 +2,7 @@ package com.one.core.domain.repository.tenant.sales;
 
 import com.one.core.domain.model.enums.sales.SalesOrderStatus;
 import com.one.core.domain.model.tenant.sales.SalesOrder;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -10,12 +11,14 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SalesOrderRepository extends JpaRepository<SalesOrder, Long>, JpaSpecificationExecutor<SalesOrder> {
 
     List<SalesOrder> findByOrderDateBetweenAndStatusNot(LocalDate startDate, LocalDate endDate, SalesOrderStatus status);
+    List<SalesOrder> findByOrderDateBetweenAndStatusIn(LocalDate startDate, LocalDate endDate, Collection<SalesOrderStatus> statuses);
     List<SalesOrder> findByCreatedAtBetweenAndStatusNot(OffsetDateTime startDateTime, OffsetDateTime endDateTime, SalesOrderStatus status);
     List<SalesOrder> findByOrderDateAndStatusNot(LocalDate orderDate, SalesOrderStatus status);
 
@@ -25,4 +28,11 @@ public interface SalesOrderRepository extends JpaRepository<SalesOrder, Long>, J
             @Param("endDateTime") OffsetDateTime endDateTime,
             @Param("status") SalesOrderStatus status
     );
-}
\ No newline at end of file
+
+    @Query("SELECT MIN(o.orderDate) FROM SalesOrder o")
+    LocalDate findEarliestOrderDate();
+
+    /** Segunda fase de los listados: las órdenes de la página con todo lo que usa el mapper, en una query. */
+    @EntityGraph(attributePaths = {"customer", "createdByUser", "items", "items.product"})
+    List<SalesOrder> findWithDetailsByIdIn(Collection<Long> ids);
+}
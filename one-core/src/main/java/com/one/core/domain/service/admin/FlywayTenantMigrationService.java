@@ -1,11 +1,14 @@
 package com.one.core.domain.service.admin;
 
+import com.one.core.domain.model.enums.IndustryType;
 import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class FlywayTenantMigrationService {
@@ -24,20 +27,49 @@ public class FlywayTenantMigrationService {
      * @param locations Las carpetas de classpath que contienen los scripts a aplicar.
      */
     public void migrateTenantSchema(String schemaName, String... locations) {
+        migrateTenantSchema(dataSource, schemaName, locations);
+    }
+
+    /**
+     * Igual que {@link #migrateTenantSchema(String, String...)} pero sobre el DataSource indicado
+     * (las corridas masivas usan un pool propio).
+     * @return la cantidad de migraciones aplicadas.
+     */
+    public int migrateTenantSchema(DataSource targetDataSource, String schemaName, String... locations) {
         logger.info("Starting Flyway migration for tenant schema: {} from locations: {}", schemaName, String.join(", ", locations));
         try {
             Flyway flyway = Flyway.configure()
-                    .dataSource(dataSource)
+                    .dataSource(targetDataSource)
                     .schemas(schemaName)
                     .locations(locations) // <-- CAMBIO: Usa las locaciones provistas
                     .baselineOnMigrate(true)
                     .load();
 
-            flyway.migrate();
-            logger.info("Flyway migration completed successfully for schema: {}", schemaName);
+            int executed = flyway.migrate().migrationsExecuted;
+            logger.info("Flyway migration completed successfully for schema: {} ({} migrations applied)", schemaName, executed);
+            return executed;
         } catch (Exception e) {
             logger.error("Failed to apply Flyway migration for schema: {}", schemaName, e);
-            throw new RuntimeException("Failed to migrate new tenant schema: " + schemaName, e);
+            throw new RuntimeException("Failed to migrate tenant schema: " + schemaName, e);
+        }
+    }
+
+    /** Carpetas de migración de un tenant: las comunes más las de su industria. */
+    public String[] locationsFor(IndustryType industryType) {
+        List<String> migrationLocations = new ArrayList<>();
+        migrationLocations.add("classpath:db/migration/tenant/common"); // Siempre las tablas comunes
+
+        switch (industryType) {
+            case FOOD_AND_BEVERAGE:
+                migrationLocations.add("classpath:db/migration/tenant/food_and_beverage");
+                break;
+            case DISTRIBUTION:
+                migrationLocations.add("classpath:db/migration/tenant/distribution");
+                break;
+            case GYM:
+                migrationLocations.add("classpath:db/migration/tenant/gym");
+                break;
         }
+        return migrationLocations.toArray(new String[0]);
     }
-}
\ No newline at end of file
+}
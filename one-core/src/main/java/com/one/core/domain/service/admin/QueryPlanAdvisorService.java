@@ -0,0 +1,134 @@
+package com.one.core.domain.service.admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.one.core.application.dto.admin.QueryPlanCheckDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revisa los planes de las consultas calientes de un schema de tenant. Corre cada EXPLAIN con
+ * enable_seqscan = off: si aun así el plan usa un Seq Scan, no hay índice que la consulta pueda usar.
+ * Las consultas replican lo que generan los métodos derivados de los repositorios.
+ */
+@Service
+public class QueryPlanAdvisorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanAdvisorService.class);
+
+    /** Nombre -> SQL equivalente al método del repositorio (con valores de ejemplo). */
+    static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("SalesOrderRepository.findByOrderDateBetweenAndStatusIn",
+                "SELECT * FROM sales_orders WHERE order_date BETWEEN CURRENT_DATE - 30 AND CURRENT_DATE " +
+                        "AND status IN ('PREPARING_ORDER', 'SHIPPED', 'DELIVERED', 'COMPLETED')");
+        HOT_QUERIES.put("SalesOrder.items",
+                "SELECT * FROM sales_order_items WHERE sales_order_id = 1");
+        HOT_QUERIES.put("PurchaseOrderRepository.findByOrderDateBetweenAndStatusNot",
+                "SELECT * FROM purchase_orders WHERE order_date BETWEEN CURRENT_DATE - 30 AND CURRENT_DATE AND status <> 'CANCELLED'");
+        HOT_QUERIES.put("PurchaseOrder.items",
+                "SELECT * FROM purchase_order_items WHERE purchase_order_id = 1");
+        HOT_QUERIES.put("StockMovementRepository.findByProductIdOrderByMovementDateDesc",
+                "SELECT * FROM stock_movements WHERE product_id = 1 ORDER BY movement_date DESC LIMIT 20");
+        HOT_QUERIES.put("InventoryService.getStockMovements (keyset)",
+                "SELECT * FROM stock_movements WHERE movement_date <= CURRENT_TIMESTAMP AND (movement_date < CURRENT_TIMESTAMP OR id < 1000) " +
+                        "ORDER BY movement_date DESC, id DESC LIMIT 21");
+        HOT_QUERIES.put("StockSnapshotService.getStockAsOf (snapshot)",
+                "SELECT * FROM stock_snapshots WHERE product_id = 1 AND snapshot_date = CURRENT_DATE - 1");
+        HOT_QUERIES.put("StockSnapshotService.getStockAsOf (tail)",
+                "SELECT * FROM stock_movements WHERE product_id = 1 AND movement_date >= CURRENT_DATE AND movement_date <= CURRENT_TIMESTAMP");
+        HOT_QUERIES.put("ProductRepository.findBelowMinimum",
+                "SELECT * FROM products WHERE current_stock < minimum_stock_level AND is_active ORDER BY name");
+        HOT_QUERIES.put("ExpenseLogsRepository.findByExpenseDateBetween",
+                "SELECT * FROM expense_logs WHERE expense_date BETWEEN CURRENT_DATE - 30 AND CURRENT_DATE");
+        HOT_QUERIES.put("ProductRecipeRepository.findByMainProductId",
+                "SELECT * FROM product_recipes WHERE main_product_id = 1");
+        HOT_QUERIES.put("ProductPackagingRepository.findByMainProductId",
+                "SELECT * FROM product_packaging WHERE main_product_id = 1");
+    }
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public QueryPlanAdvisorService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public List<QueryPlanCheckDTO> checkHotQueries(String schemaName) {
+        List<QueryPlanCheckDTO> results = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            // SET LOCAL: el search_path y el enable_seqscan se descartan con el rollback
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL search_path TO \"" + schemaName + "\"");
+                statement.execute("SET LOCAL enable_seqscan = off");
+
+                for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+                    String table = tableOf(query.getValue());
+                    if (!tableExists(statement, table)) {
+                        continue; // tabla de otra industria
+                    }
+                    try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) " + query.getValue())) {
+                        rs.next();
+                        List<String> seqScans = findSequentialScans(objectMapper.readTree(rs.getString(1)));
+                        if (!seqScans.isEmpty()) {
+                            logger.warn("Query {} falls back to a sequential scan on {} in schema {}", query.getKey(), seqScans, schemaName);
+                        }
+                        results.add(new QueryPlanCheckDTO(query.getKey(), seqScans));
+                    }
+                }
+            } finally {
+                connection.rollback();
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Failed to check query plans for schema: " + schemaName, e);
+        }
+        return results;
+    }
+
+    /** Tablas leídas con Seq Scan en la salida de EXPLAIN (FORMAT JSON). */
+    static List<String> findSequentialScans(JsonNode explainOutput) {
+        List<String> relations = new ArrayList<>();
+        for (JsonNode entry : explainOutput) {
+            collectSequentialScans(entry.path("Plan"), relations);
+        }
+        return relations;
+    }
+
+    private static void collectSequentialScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSequentialScans(child, relations);
+        }
+    }
+
+    private static String tableOf(String sql) {
+        String afterFrom = sql.substring(sql.indexOf(" FROM ") + 6);
+        return afterFrom.substring(0, afterFrom.indexOf(' '));
+    }
+
+    private static boolean tableExists(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT to_regclass('" + table + "') IS NOT NULL")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+}
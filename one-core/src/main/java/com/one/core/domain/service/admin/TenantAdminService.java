@@ -1,8 +1,11 @@
 package com.one.core.domain.service.admin;
 
+import com.one.core.application.dto.admin.QueryPlanCheckDTO;
 import com.one.core.application.dto.admin.TenantCreationRequestDTO;
+import com.one.core.application.dto.admin.TenantPoolAssignmentRequestDTO;
 import com.one.core.application.dto.admin.TenantUserCreateRequestDTO;
 import com.one.core.application.exception.DuplicateFieldException;
+import com.one.core.config.multitenancy.TenantDataSourceRegistry;
 import com.one.core.domain.model.admin.SystemUser;
 import com.one.core.domain.model.admin.Tenant;
 import com.one.core.domain.model.enums.SystemRole;
@@ -13,7 +16,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.ArrayList;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -25,18 +29,24 @@ public class TenantAdminService {
     private final FlywayTenantMigrationService flywayTenantMigrationService;
     private final PasswordEncoder passwordEncoder;
     private final JdbcTemplate jdbcTemplate;
+    private final TenantDataSourceRegistry tenantDataSourceRegistry;
+    private final QueryPlanAdvisorService queryPlanAdvisorService;
 
     @Autowired
     public TenantAdminService(TenantRepository tenantRepository,
                               SystemUserRepository systemUserRepository,
                               FlywayTenantMigrationService flywayTenantMigrationService,
                               PasswordEncoder passwordEncoder,
-                              JdbcTemplate jdbcTemplate) {
+                              JdbcTemplate jdbcTemplate,
+                              TenantDataSourceRegistry tenantDataSourceRegistry,
+                              QueryPlanAdvisorService queryPlanAdvisorService) {
         this.tenantRepository = tenantRepository;
         this.systemUserRepository = systemUserRepository;
         this.flywayTenantMigrationService = flywayTenantMigrationService;
         this.passwordEncoder = passwordEncoder;
         this.jdbcTemplate = jdbcTemplate;
+        this.tenantDataSourceRegistry = tenantDataSourceRegistry;
+        this.queryPlanAdvisorService = queryPlanAdvisorService;
     }
 
     @Transactional
@@ -86,24 +96,15 @@ public class TenantAdminService {
 
         jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS \"" + schemaName + "\"");
 
-        // Lógica para decidir qué scripts ejecutar
-        List<String> migrationLocations = new ArrayList<>();
-        migrationLocations.add("classpath:db/migration/tenant/common"); // Siempre las tablas comunes
-
-        switch (tenant.getIndustryType()) {
-            case FOOD_AND_BEVERAGE:
-                migrationLocations.add("classpath:db/migration/tenant/food_and_beverage");
-                break;
-            case DISTRIBUTION:
-                migrationLocations.add("classpath:db/migration/tenant/distribution");
-                break;
-            case GYM:
-                migrationLocations.add("classpath:db/migration/tenant/gym");
-                break;
-        }
-
         // Ejecutar Flyway con las carpetas seleccionadas
-        flywayTenantMigrationService.migrateTenantSchema(schemaName, migrationLocations.toArray(new String[0]));
+        flywayTenantMigrationService.migrateTenantSchema(schemaName,
+                flywayTenantMigrationService.locationsFor(tenant.getIndustryType()));
+    }
+
+    public List<QueryPlanCheckDTO> checkQueryPlans(Long tenantId) {
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new NoSuchElementException("Tenant not found: " + tenantId));
+        return queryPlanAdvisorService.checkHotQueries(tenant.getSchemaName());
     }
 
     @Transactional
@@ -130,4 +131,26 @@ public class TenantAdminService {
 
         return systemUserRepository.save(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reasigna el pool (shard) y el límite de conexiones de un tenant. Se aplica sin reiniciar:
+     * el registro de pools relee public.tenants después del commit.
+     */
+    @Transactional
+    public Tenant updatePoolAssignment(Long tenantId, TenantPoolAssignmentRequestDTO dto) {
+        Tenant tenant = tenantRepository.findById(tenantId)
+                .orElseThrow(() -> new NoSuchElementException("Tenant not found: " + tenantId));
+
+        tenant.setPoolKey(dto.getPoolKey().trim());
+        tenant.setMaxConcurrentConnections(dto.getMaxConcurrentConnections());
+        Tenant saved = tenantRepository.save(tenant);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tenantDataSourceRegistry.invalidateAssignments();
+            }
+        });
+        return saved;
+    }
+}
@@ -0,0 +1,290 @@
+package com.one.core.domain.service.admin;
+
+import com.one.core.application.dto.admin.TenantMigrationRunDTO;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.config.multitenancy.TenantInfo;
+import com.one.core.config.multitenancy.TenantMigrationProperties;
+import com.one.core.domain.model.admin.Tenant;
+import com.one.core.domain.repository.admin.TenantRepository;
+import com.one.core.domain.service.reports.ReportRollupService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Aplica las migraciones de tenant a todos los schemas de public.tenants en paralelo acotado.
+ * <ul>
+ *   <li>Cada schema se migra bajo un advisory lock propio: dos instancias (o dos corridas) nunca
+ *       migran el mismo schema a la vez; la que no obtiene el lock lo saltea.</li>
+ *   <li>El progreso queda en public.tenant_migration_runs, una fila por schema. Si la instancia se
+ *       cae, las filas PENDING/RUNNING se retoman al arrancar o con {@link #resumeRun}.</li>
+ *   <li>Usa un pool de conexiones propio y temporal, así una corrida no compite con el tráfico.</li>
+ *   <li>Después de migrar un schema corre la reconstrucción de rollups que hayan pedido sus
+ *       migraciones ({@link ReportRollupService#rebuildIfRequested}).</li>
+ * </ul>
+ */
+@Service
+public class TenantMigrationOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantMigrationOrchestrator.class);
+
+    private static final String LOCK_NAMESPACE = "tenant_migration";
+
+    private final TenantRepository tenantRepository;
+    private final FlywayTenantMigrationService flywayTenantMigrationService;
+    private final ReportRollupService reportRollupService;
+    private final DataSource masterDataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantMigrationProperties properties;
+
+    // Corridas en ejecución en esta instancia
+    private final Set<UUID> activeRuns = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TenantMigrationOrchestrator(TenantRepository tenantRepository,
+                                       FlywayTenantMigrationService flywayTenantMigrationService,
+                                       ReportRollupService reportRollupService,
+                                       @Qualifier("masterDataSource") DataSource masterDataSource,
+                                       TenantMigrationProperties properties) {
+        this.tenantRepository = tenantRepository;
+        this.flywayTenantMigrationService = flywayTenantMigrationService;
+        this.reportRollupService = reportRollupService;
+        this.masterDataSource = masterDataSource;
+        this.jdbcTemplate = new JdbcTemplate(masterDataSource);
+        this.properties = properties;
+    }
+
+    /** Registra una corrida con todos los tenants como PENDING y la ejecuta en segundo plano. */
+    public TenantMigrationRunDTO startRun() {
+        UUID runId = UUID.randomUUID();
+        List<Object[]> rows = tenantRepository.findAll().stream()
+                .map(tenant -> new Object[]{runId, tenant.getSchemaName()})
+                .toList();
+        if (rows.isEmpty()) {
+            return new TenantMigrationRunDTO(runId, 0, 0, 0, 0, 0, List.of());
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO public.tenant_migration_runs (run_id, schema_name) VALUES (?, ?)", rows);
+
+        logger.info("Tenant migration run {} started for {} schemas", runId, rows.size());
+        launch(runId);
+        return getRun(runId);
+    }
+
+    /** Vuelve a ejecutar los schemas PENDING, RUNNING (corte) y FAILED de una corrida. */
+    public TenantMigrationRunDTO resumeRun(UUID runId) {
+        TenantMigrationRunDTO run = getRun(runId);
+        if (run.pending() + run.running() + run.failed() > 0) {
+            jdbcTemplate.update("UPDATE public.tenant_migration_runs SET status = 'PENDING' " +
+                    "WHERE run_id = ? AND status = 'FAILED'", runId);
+            launch(runId);
+        }
+        return getRun(runId);
+    }
+
+    public TenantMigrationRunDTO getRun(UUID runId) {
+        Map<String, Integer> countsByStatus = new HashMap<>();
+        List<TenantMigrationRunDTO.SchemaFailure> failures = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT schema_name, status, attempts, error_message FROM public.tenant_migration_runs " +
+                        "WHERE run_id = ? ORDER BY schema_name",
+                rs -> {
+                    String status = rs.getString("status");
+                    countsByStatus.merge(status, 1, Integer::sum);
+                    if ("FAILED".equals(status)) {
+                        failures.add(new TenantMigrationRunDTO.SchemaFailure(
+                                rs.getString("schema_name"), rs.getInt("attempts"), rs.getString("error_message")));
+                    }
+                },
+                runId);
+
+        int total = countsByStatus.values().stream().mapToInt(Integer::intValue).sum();
+        if (total == 0) {
+            throw new NoSuchElementException("Tenant migration run not found: " + runId);
+        }
+        return new TenantMigrationRunDTO(runId, total,
+                countsByStatus.getOrDefault("PENDING", 0),
+                countsByStatus.getOrDefault("RUNNING", 0),
+                countsByStatus.getOrDefault("SUCCEEDED", 0),
+                countsByStatus.getOrDefault("FAILED", 0),
+                failures);
+    }
+
+    /** Retoma las corridas que quedaron a medias (la instancia se cayó o se reinició). */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        if (!properties.isResumeOnStartup()) {
+            return;
+        }
+        try {
+            List<UUID> interrupted = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT run_id FROM public.tenant_migration_runs WHERE status IN ('PENDING', 'RUNNING')",
+                    UUID.class);
+            for (UUID runId : interrupted) {
+                logger.info("Resuming interrupted tenant migration run {}", runId);
+                launch(runId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not check for interrupted tenant migration runs: {}", e.getMessage());
+        }
+    }
+
+    private void launch(UUID runId) {
+        if (!activeRuns.add(runId)) {
+            logger.info("Tenant migration run {} is already executing on this instance", runId);
+            return;
+        }
+        Thread.ofPlatform().name("tenant-migration-" + runId).start(() -> {
+            try {
+                executeRun(runId);
+            } finally {
+                activeRuns.remove(runId);
+            }
+        });
+    }
+
+    private void executeRun(UUID runId) {
+        List<String> schemas = jdbcTemplate.queryForList(
+                "SELECT schema_name FROM public.tenant_migration_runs " +
+                        "WHERE run_id = ? AND status IN ('PENDING', 'RUNNING') ORDER BY schema_name",
+                String.class, runId);
+        if (schemas.isEmpty()) {
+            return;
+        }
+        Map<String, Tenant> tenantsBySchema = tenantRepository.findAll().stream()
+                .collect(Collectors.toMap(Tenant::getSchemaName, Function.identity()));
+
+        long startedAt = System.currentTimeMillis();
+        HikariDataSource migrationPool = createMigrationPool(runId);
+        // Cada worker necesita dos conexiones (lock + Flyway): el paralelismo se acota al pool
+        int parallelism = Math.max(1, Math.min(properties.getParallelism(), migrationPool.getMaximumPoolSize() / 2));
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (String schema : schemas) {
+                workers.submit(() -> migrateSchema(runId, schema, tenantsBySchema.get(schema), migrationPool));
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        } finally {
+            migrationPool.close();
+        }
+
+        TenantMigrationRunDTO run = getRun(runId);
+        logger.info("Tenant migration run {} finished in {} ms: {} succeeded, {} failed, {} pending",
+                runId, System.currentTimeMillis() - startedAt, run.succeeded(), run.failed(), run.pending() + run.running());
+    }
+
+    private void migrateSchema(UUID runId, String schema, Tenant tenant, DataSource migrationPool) {
+        if (tenant == null) {
+            markFinished(runId, schema, "FAILED", null, "Tenant no longer exists in public.tenants");
+            return;
+        }
+        try (Connection lockConnection = migrationPool.getConnection()) {
+            // Lock de sesión: se mantiene mientras Flyway migra con otras conexiones del pool
+            if (!tryAdvisoryLock(lockConnection, schema)) {
+                logger.info("Schema {} is being migrated elsewhere; skipping in run {}", schema, runId);
+                return;
+            }
+            try {
+                jdbcTemplate.update("UPDATE public.tenant_migration_runs SET status = 'RUNNING', attempts = attempts + 1, " +
+                        "started_at = CURRENT_TIMESTAMP, error_message = NULL WHERE run_id = ? AND schema_name = ?", runId, schema);
+                int executed = flywayTenantMigrationService.migrateTenantSchema(
+                        migrationPool, schema, flywayTenantMigrationService.locationsFor(tenant.getIndustryType()));
+                markFinished(runId, schema, "SUCCEEDED", executed, null);
+                rebuildRequestedRollups(schema, tenant);
+            } catch (RuntimeException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                markFinished(runId, schema, "FAILED", null, cause.getMessage());
+            } finally {
+                advisoryUnlock(lockConnection, schema);
+            }
+        } catch (SQLException e) {
+            // Sin conexión para el lock: queda PENDING y se retoma en la próxima corrida/arranque
+            logger.error("Could not acquire a connection to migrate schema {} in run {}", schema, runId, e);
+        }
+    }
+
+    /** Un pedido que falla queda pendiente y se reintenta en la próxima corrida; no marca la migración como fallida. */
+    private void rebuildRequestedRollups(String schema, Tenant tenant) {
+        TenantContext.setCurrentTenant(new TenantInfo(schema, tenant.getIndustryType().name()));
+        try {
+            reportRollupService.rebuildIfRequested().ifPresent(result ->
+                    logger.info("Report rollups of schema {} rebuilt after migrating: {} sales rows, {} purchase rows",
+                            schema, result.salesRows(), result.purchaseRows()));
+        } catch (RuntimeException e) {
+            logger.error("Requested report rollup rebuild failed for schema {}; it stays pending", schema, e);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void markFinished(UUID runId, String schema, String status, Integer executed, String error) {
+        jdbcTemplate.update("UPDATE public.tenant_migration_runs SET status = ?, migrations_executed = ?, " +
+                "error_message = ?, finished_at = CURRENT_TIMESTAMP WHERE run_id = ? AND schema_name = ?",
+                status, executed, error, runId, schema);
+    }
+
+    private boolean tryAdvisoryLock(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT pg_try_advisory_lock(hashtext(?), hashtext(?))")) {
+            ps.setString(1, LOCK_NAMESPACE);
+            ps.setString(2, schema);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void advisoryUnlock(Connection connection, String schema) {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT pg_advisory_unlock(hashtext(?), hashtext(?))")) {
+            ps.setString(1, LOCK_NAMESPACE);
+            ps.setString(2, schema);
+            ps.execute();
+        } catch (SQLException e) {
+            logger.warn("Could not release the migration lock for schema {}: {}", schema, e.getMessage());
+        }
+    }
+
+    private HikariDataSource createMigrationPool(UUID runId) {
+        if (!(masterDataSource instanceof HikariConfig masterConfig)) {
+            throw new IllegalStateException("Tenant migration runs require the master DataSource to be a HikariDataSource");
+        }
+        // Misma URL/credenciales que el pool principal, pero sin compartir sus conexiones
+        HikariConfig config = new HikariConfig();
+        masterConfig.copyStateTo(config);
+        config.setPoolName("tenant-migrations-" + runId.toString().substring(0, 8));
+        config.setMaximumPoolSize(Math.max(properties.getMaximumPoolSize(), 2));
+        config.setMinimumIdle(0);
+        return new HikariDataSource(config);
+    }
+}
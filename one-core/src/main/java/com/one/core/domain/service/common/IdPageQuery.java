@@ -0,0 +1,97 @@
+package com.one.core.domain.service.common;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Primera fase de los listados paginados de órdenes: trae solo la página de IDs que cumplen la
+ * especificación. La segunda fase carga esas órdenes con sus relaciones en una sola query
+ * (@EntityGraph) en lugar de inicializar cada relación lazy por fila al mapear.
+ */
+@Component
+public class IdPageQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Página de IDs con el mismo filtro, orden y total que {@code findAll(spec, pageable)}.
+     * El count solo se ejecuta cuando el total no se deduce de la propia página.
+     */
+    public <T> Page<Long> findIds(Class<T> entityType, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Order> orders = new ArrayList<>(toOrders(pageable.getSort(), root, cb));
+        orders.add(cb.asc(root.get("id"))); // desempate estable entre páginas
+        query.select(root.get("id")).orderBy(orders);
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(entityType, spec));
+    }
+
+    /**
+     * Primeros {@code limit} IDs en el orden indicado, sin count (listados por keyset: la
+     * especificación ya incluye el predicado de seek y el orden el desempate por id).
+     */
+    public <T> List<Long> findIds(Class<T> entityType, Specification<T> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id")).orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /** Total de filas que cumplen la especificación (solo si el cliente lo pide). */
+    public <T> long count(Class<T> entityType, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /** Devuelve las entidades cargadas en la segunda fase en el orden de la página de IDs. */
+    public static <T> List<T> inIdOrder(List<Long> ids, Collection<T> entities, Function<T, Long> idOf) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.one.core.domain.service.common;
+
+import com.one.core.application.exception.ValidationException;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco de la paginación por keyset: la clave de orden (fecha) y el id de la fila límite,
+ * más la dirección. El cliente solo lo devuelve tal cual en {@code cursor}.
+ *
+ * @param sortKey  valor de la columna de orden en formato ISO (LocalDate o Instant)
+ * @param id       id de la fila límite (desempate)
+ * @param backward true si pide la página anterior (filas más nuevas que el límite)
+ */
+public record KeysetCursor(String sortKey, long id, boolean backward) {
+
+    private static final String VERSION = "k1";
+
+    /**
+     * Predicado de "seek" sobre (property, id): las filas estrictamente después del límite en el
+     * orden del listado (descendente), o antes si el cursor es backward. Con un índice sobre
+     * (property, id) el costo no depende de cuántas páginas se recorrieron.
+     */
+    public <T, K extends Comparable<? super K>> Specification<T> seek(String property, Function<String, K> keyParser) {
+        K key = parseKey(keyParser);
+        // La cota "property <= key" (o >=) es redundante pero le da al índice un punto de inicio:
+        // solo con el OR Postgres recorrería el índice desde el principio filtrando filas
+        return (root, query, cb) -> {
+            if (backward) {
+                return cb.and(cb.greaterThanOrEqualTo(root.get(property), key),
+                        cb.or(cb.greaterThan(root.get(property), key), cb.greaterThan(root.get("id"), id)));
+            }
+            return cb.and(cb.lessThanOrEqualTo(root.get(property), key),
+                    cb.or(cb.lessThan(root.get(property), key), cb.lessThan(root.get("id"), id)));
+        };
+    }
+
+    /** Orden de la consulta: descendente, o ascendente al ir hacia atrás (se invierte al armar la página). */
+    public static Sort sortFor(KeysetCursor cursor, String property) {
+        Sort.Direction direction = cursor != null && cursor.backward() ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    private <K> K parseKey(Function<String, K> keyParser) {
+        try {
+            return keyParser.apply(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid pagination cursor.");
+        }
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + (backward ? "b" : "f") + "|" + sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new KeysetCursor(parts[2], Long.parseLong(parts[3]), "b".equals(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid pagination cursor.");
+        }
+    }
+}
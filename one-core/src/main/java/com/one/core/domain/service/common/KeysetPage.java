@@ -0,0 +1,50 @@
+package com.one.core.domain.service.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado por keyset (más nuevo primero). No tiene número de página: se navega con
+ * {@code nextCursor} (más viejas) y {@code prevCursor} (más nuevas). El total solo se informa si
+ * se pidió; si no es null.
+ */
+public record KeysetPage<T>(List<T> content, int size, String nextCursor, String prevCursor, Long totalElements) {
+
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(content.stream().map(mapper).toList(), size, nextCursor, prevCursor, totalElements);
+    }
+
+    /**
+     * Arma la página a partir de las filas leídas con {@code size + 1} de límite (la fila extra
+     * solo indica que hay más en esa dirección).
+     *
+     * @param fetched filas en el orden de la consulta (descendente, o ascendente si el cursor es backward)
+     * @param cursor  cursor recibido, o null para la primera página
+     * @param keyOf   clave (fecha ISO, id) de una fila
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int size, KeysetCursor cursor,
+                                       Function<T, KeysetCursor> keyOf, Long totalElements) {
+        boolean backward = cursor != null && cursor.backward();
+        boolean hasMore = fetched.size() > size;
+        List<T> rows = new ArrayList<>(hasMore ? fetched.subList(0, size) : fetched);
+        if (backward) {
+            Collections.reverse(rows); // se leyó ascendente para acercarse al límite
+        }
+
+        // Hacia atrás siempre hay páginas más viejas; hacia adelante solo si sobró una fila
+        boolean hasOlder = backward || hasMore;
+        boolean hasNewer = backward ? hasMore : cursor != null;
+
+        String next = null;
+        String prev = null;
+        if (!rows.isEmpty()) {
+            KeysetCursor last = keyOf.apply(rows.get(rows.size() - 1));
+            KeysetCursor first = keyOf.apply(rows.get(0));
+            next = hasOlder ? new KeysetCursor(last.sortKey(), last.id(), false).encode() : null;
+            prev = hasNewer ? new KeysetCursor(first.sortKey(), first.id(), true).encode() : null;
+        }
+        return new KeysetPage<>(rows, size, next, prev, totalElements);
+    }
+}
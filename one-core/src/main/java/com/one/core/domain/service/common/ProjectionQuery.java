@@ -0,0 +1,69 @@
+package com.one.core.domain.service.common;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Listados que devuelven filas (records) en lugar de entidades: aplica la misma especificación y
+ * orden que {@code findAll(spec, pageable)} pero selecciona solo las columnas del record, así no
+ * se hidratan entidades ni se inicializan sus relaciones al mapear.
+ */
+@Component
+public class ProjectionQuery {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final IdPageQuery idPageQuery;
+
+    @Autowired
+    public ProjectionQuery(IdPageQuery idPageQuery) {
+        this.idPageQuery = idPageQuery;
+    }
+
+    public <T, R> Page<R> findPage(Class<T> entityType, Class<R> rowType, Specification<T> spec,
+                                   Pageable pageable, Function<Root<T>, Selection<?>[]> columns) {
+        TypedQuery<R> query = createQuery(entityType, rowType, spec, pageable.getSort(), columns);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> idPageQuery.count(entityType, spec));
+    }
+
+    public <T, R> List<R> findAll(Class<T> entityType, Class<R> rowType, Specification<T> spec,
+                                  Sort sort, Function<Root<T>, Selection<?>[]> columns) {
+        return createQuery(entityType, rowType, spec, sort, columns).getResultList();
+    }
+
+    private <T, R> TypedQuery<R> createQuery(Class<T> entityType, Class<R> rowType, Specification<T> spec,
+                                             Sort sort, Function<Root<T>, Selection<?>[]> columns) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(rowType);
+        Root<T> root = query.from(entityType);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.construct(rowType, columns.apply(root))).orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+}
@@ -4,6 +4,7 @@ import com.one.core.domain.model.enums.UnitOfMeasure;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Utility service to normalize quantities to and from base units.
@@ -44,6 +45,56 @@ public class UnitConversionService {
         return unit.fromBase(quantity);
     }
 
+    /**
+     * Converts a price expressed per unit of the given unit of measure into a
+     * price per base unit (e.g. a price per KG into a price per gram), which is
+     * how stock movements and average costs are stored.
+     *
+     * @param price price per one unit of {@code unit}
+     * @param unit unit of measure the price refers to
+     * @return price per base unit, or {@code null} when the price is unknown
+     */
+    public BigDecimal toPricePerBaseUnit(BigDecimal price, UnitOfMeasure unit) {
+        if (price == null) {
+            return null;
+        }
+        if (unit == null) {
+            return price;
+        }
+        return price.divide(unit.toBase(BigDecimal.ONE), 8, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Expresses a recipe line quantity in the ingredient's own unit of measure,
+     * per one unit of the main product.
+     * <ul>
+     *   <li>UNIT lines are already expressed in ingredient units.</li>
+     *   <li>PERCENTAGE lines are a fraction (0..1) of the main product: when both
+     *   products share a magnitude the fraction applies to the main product's base
+     *   quantity (e.g. 0.25 of 1 KG = 250 G); otherwise it applies to one ingredient unit.</li>
+     *   <li>Weight and volume lines are converted through their base unit.</li>
+     * </ul>
+     *
+     * @param quantity quantity declared on the recipe line
+     * @param lineUnit unit declared on the recipe line
+     * @param ingredientUnit unit of measure of the ingredient product
+     * @param mainUnit unit of measure of the main (compound) product
+     * @return quantity expressed in the ingredient's unit of measure
+     */
+    public BigDecimal toIngredientUnit(BigDecimal quantity, UnitOfMeasure lineUnit,
+                                      UnitOfMeasure ingredientUnit, UnitOfMeasure mainUnit) {
+        if (quantity == null || lineUnit == null || ingredientUnit == null || lineUnit == UnitOfMeasure.UNIT) {
+            return quantity;
+        }
+        if (lineUnit.isPercentage()) {
+            if (mainUnit != null && mainUnit.getMagnitude() == ingredientUnit.getMagnitude()) {
+                return ingredientUnit.fromBase(mainUnit.toBase(quantity));
+            }
+            return quantity;
+        }
+        return ingredientUnit.fromBase(lineUnit.toBase(quantity));
+    }
+
     /**
      * Normalizes a quantity expressed in base units selecting the most
      * appropriate unit of measure. If the quantity is less than one in the
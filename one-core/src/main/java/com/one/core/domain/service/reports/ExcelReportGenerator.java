@@ -6,11 +6,14 @@ import com.one.core.application.dto.tenant.reports.SalesReportRow;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.RegionUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -25,22 +28,46 @@ public class ExcelReportGenerator {
     private static final IndexedColors COLOR_FONT_SUBTLE  = IndexedColors.GREY_50_PERCENT;
     private static final String FONT_NAME = "Calibri";
 
+    /** Filas que SXSSF mantiene en memoria por hoja; el resto se vuelca a un archivo temporal. */
+    private static final int STREAMING_WINDOW_SIZE = 200;
+
+    private static final String SHEET_SUMMARY = "Resumen";
+    private static final String SHEET_SALES = "Detalle de Ventas";
+    private static final String SHEET_PURCHASES = "Detalle de Compras";
+
     public ByteArrayInputStream generate(OperationalReportData data) throws IOException {
         try (XSSFWorkbook workbook = new XSSFWorkbook();
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 
             ReportStyles styles = new ReportStyles(workbook);
 
-            createSummarySheet(workbook.createSheet("Resumen"), data, styles);
-            createSalesDetailSheet(workbook.createSheet("Detalle de Ventas"), data.salesRows(), styles);
-            createPurchasesDetailSheet(workbook.createSheet("Detalle de Compras"), data.purchaseRows(), styles);
+            createSummarySheet(workbook.createSheet(SHEET_SUMMARY), data.reportTitle(), data.generationDate(),
+                    new SummaryTotals(data.totalSales(), data.totalCostOfGoodsSold(), data.grossProfit(), data.totalPurchases()),
+                    styles);
+            createSalesDetailSheet(workbook.createSheet(SHEET_SALES), data.salesRows(), styles);
+            createPurchasesDetailSheet(workbook.createSheet(SHEET_PURCHASES), data.purchaseRows(), styles);
 
             workbook.write(out);
             return new ByteArrayInputStream(out.toByteArray());
         }
     }
 
-    private void createSummarySheet(Sheet sheet, OperationalReportData data, ReportStyles styles) {
+    /**
+     * Variante streaming: las filas de detalle se escriben a medida que llegan y solo
+     * {@value #STREAMING_WINDOW_SIZE} filas por hoja quedan en memoria. Los KPIs del resumen
+     * se completan al final, cuando ya se conocen los totales.
+     */
+    public StreamingReportWriter openStreamingWriter(String reportTitle, String generationDate) {
+        return new StreamingReportWriter(reportTitle, generationDate);
+    }
+
+    private void createSummarySheet(Sheet sheet, String reportTitle, String generationDate,
+                                    SummaryTotals totals, ReportStyles styles) {
+        createSummaryHeader(sheet, reportTitle, generationDate, styles);
+        fillSummaryKpis(sheet, totals, styles);
+    }
+
+    private void createSummaryHeader(Sheet sheet, String reportTitle, String generationDate, ReportStyles styles) {
         sheet.setColumnWidth(0, 1000);
         sheet.setColumnWidth(1, 7000);
         sheet.setColumnWidth(2, 7000);
@@ -48,15 +75,17 @@ public class ExcelReportGenerator {
         sheet.setColumnWidth(4, 7000);
         sheet.setColumnWidth(5, 7000);
 
-        createCell(sheet, 1, 1, data.reportTitle(), styles.title());
+        createCell(sheet, 1, 1, reportTitle, styles.title());
         sheet.addMergedRegion(new CellRangeAddress(1, 1, 1, 5));
-        createCell(sheet, 2, 5, "Generado: " + data.generationDate(), styles.subtle());
+        createCell(sheet, 2, 5, "Generado: " + generationDate, styles.subtle());
+    }
 
-        createKpiCard(sheet, 4, 1, "INGRESOS TOTALES (VENTAS)", data.totalSales(), styles, styles.kpiValuePositive());
-        createKpiCard(sheet, 4, 4, "COSTO DE MERCADERÍA VENDIDA", data.totalCostOfGoodsSold(), styles, styles.kpiValueNegative());
-        createKpiCard(sheet, 8, 1, "GANANCIA BRUTA (VENTAS - COSTO)", data.grossProfit(), styles,
-                data.grossProfit().compareTo(BigDecimal.ZERO) >= 0 ? styles.kpiValuePositive() : styles.kpiValueNegative());
-        createKpiCard(sheet, 8, 4, "EGRESOS TOTALES (COMPRAS)", data.totalPurchases(), styles, styles.kpiValueNegative());
+    private void fillSummaryKpis(Sheet sheet, SummaryTotals totals, ReportStyles styles) {
+        createKpiCard(sheet, 4, 1, "INGRESOS TOTALES (VENTAS)", totals.totalSales(), styles, styles.kpiValuePositive());
+        createKpiCard(sheet, 4, 4, "COSTO DE MERCADERÍA VENDIDA", totals.totalCostOfGoodsSold(), styles, styles.kpiValueNegative());
+        createKpiCard(sheet, 8, 1, "GANANCIA BRUTA (VENTAS - COSTO)", totals.grossProfit(), styles,
+                totals.grossProfit().compareTo(BigDecimal.ZERO) >= 0 ? styles.kpiValuePositive() : styles.kpiValueNegative());
+        createKpiCard(sheet, 8, 4, "EGRESOS TOTALES (COMPRAS)", totals.totalPurchases(), styles, styles.kpiValueNegative());
     }
 
     private void createKpiCard(Sheet sheet, int row, int col, String label, BigDecimal value,
@@ -78,6 +107,19 @@ public class ExcelReportGenerator {
     }
 
     private void createSalesDetailSheet(Sheet sheet, List<SalesReportRow> rows, ReportStyles styles) {
+        createSalesHeader(sheet, styles);
+
+        int rowIdx = 1;
+        for (SalesReportRow r : rows) {
+            writeSalesRow(sheet.createRow(rowIdx++), r, styles);
+        }
+
+        if (!rows.isEmpty()) {
+            writeSalesTotals(sheet.createRow(rowIdx), rowIdx, styles);
+        }
+    }
+
+    private void createSalesHeader(Sheet sheet, ReportStyles styles) {
         String[] headers = {
                 "Fecha", "ID Orden", "Cliente", "Producto", "Cant.", "P. Venta",
                 "Total Venta", "Costo", "Ganancia", "Método Pago"
@@ -97,35 +139,45 @@ public class ExcelReportGenerator {
         sheet.setColumnWidth(7, 4000);
         sheet.setColumnWidth(8, 4000);
         sheet.setColumnWidth(9, 5000);
+    }
+
+    private void writeSalesRow(Row row, SalesReportRow r, ReportStyles styles) {
+        int c = 0;
+        createCell(row, c++, r.date(), styles.dateCentered());
+        createCell(row, c++, r.orderId(), styles.centered());
+        createCell(row, c++, r.customer(), styles.normal());
+        createCell(row, c++, r.product(), styles.normal());
+        createCell(row, c++, r.quantity().doubleValue(), styles.centered());
+        createCell(row, c++, r.unitPrice().doubleValue(), styles.currencyCentered());
+        createCell(row, c++, r.totalSale().doubleValue(), styles.currencyCentered());
+        createCell(row, c++, r.totalCost().doubleValue(), styles.currencyCentered());
+        createCell(row, c++, r.profit().doubleValue(),
+                r.profit().compareTo(BigDecimal.ZERO) >= 0 ? styles.currencyPositiveCentered() : styles.currencyNegativeCentered());
+        createCell(row, c, r.paymentMethod(), styles.centered());
+    }
+
+    private void writeSalesTotals(Row totalRow, int lastDataRow, ReportStyles styles) {
+        totalRow.setHeightInPoints(20);
+        createCell(totalRow, 5, "TOTALES:", styles.header());
+        addFormula(totalRow, 6, "SUM", lastDataRow, styles.currencyBold());
+        addFormula(totalRow, 7, "SUM", lastDataRow, styles.currencyBold());
+        addFormula(totalRow, 8, "SUM", lastDataRow, styles.currencyBold());
+    }
+
+    private void createPurchasesDetailSheet(Sheet sheet, List<PurchaseReportRow> rows, ReportStyles styles) {
+        createPurchasesHeader(sheet, styles);
 
         int rowIdx = 1;
-        for (SalesReportRow r : rows) {
-            Row row = sheet.createRow(rowIdx++);
-            int c = 0;
-            createCell(row, c++, r.date(), styles.dateCentered());
-            createCell(row, c++, r.orderId(), styles.centered());
-            createCell(row, c++, r.customer(), styles.normal());
-            createCell(row, c++, r.product(), styles.normal());
-            createCell(row, c++, r.quantity().doubleValue(), styles.centered());
-            createCell(row, c++, r.unitPrice().doubleValue(), styles.currencyCentered());
-            createCell(row, c++, r.totalSale().doubleValue(), styles.currencyCentered());
-            createCell(row, c++, r.totalCost().doubleValue(), styles.currencyCentered());
-            createCell(row, c++, r.profit().doubleValue(),
-                    r.profit().compareTo(BigDecimal.ZERO) >= 0 ? styles.currencyPositiveCentered() : styles.currencyNegativeCentered());
-            createCell(row, c, r.paymentMethod(), styles.centered());
+        for (PurchaseReportRow r : rows) {
+            writePurchaseRow(sheet.createRow(rowIdx++), r, styles);
         }
 
         if (!rows.isEmpty()) {
-            Row totalRow = sheet.createRow(rowIdx);
-            totalRow.setHeightInPoints(20);
-            createCell(totalRow, 5, "TOTALES:", styles.header());
-            addFormula(totalRow, 6, "SUM", rowIdx, styles.currencyBold());
-            addFormula(totalRow, 7, "SUM", rowIdx, styles.currencyBold());
-            addFormula(totalRow, 8, "SUM", rowIdx, styles.currencyBold());
+            writePurchaseTotals(sheet.createRow(rowIdx), rowIdx, styles);
         }
     }
 
-    private void createPurchasesDetailSheet(Sheet sheet, List<PurchaseReportRow> rows, ReportStyles styles) {
+    private void createPurchasesHeader(Sheet sheet, ReportStyles styles) {
         String[] headers = {"Fecha", "ID Orden", "Proveedor", "Producto", "Cantidad", "Costo Unitario", "Total Costo"};
         sheet.createFreezePane(0, 1);
         Row headerRow = sheet.createRow(0);
@@ -138,26 +190,23 @@ public class ExcelReportGenerator {
         sheet.setColumnWidth(4, 2500);
         sheet.setColumnWidth(5, 4000);
         sheet.setColumnWidth(6, 4000);
+    }
 
-        int rowIdx = 1;
-        for (PurchaseReportRow r : rows) {
-            Row row = sheet.createRow(rowIdx++);
-            int c = 0;
-            createCell(row, c++, r.date(), styles.dateCentered());
-            createCell(row, c++, r.orderId(), styles.centered());
-            createCell(row, c++, r.supplier(), styles.normal());
-            createCell(row, c++, r.product(), styles.normal());
-            createCell(row, c++, r.quantity().doubleValue(), styles.centered());
-            createCell(row, c++, r.unitCost().doubleValue(), styles.currencyCentered());
-            createCell(row, c++, r.totalCost().doubleValue(), styles.currencyCentered());
-        }
+    private void writePurchaseRow(Row row, PurchaseReportRow r, ReportStyles styles) {
+        int c = 0;
+        createCell(row, c++, r.date(), styles.dateCentered());
+        createCell(row, c++, r.orderId(), styles.centered());
+        createCell(row, c++, r.supplier(), styles.normal());
+        createCell(row, c++, r.product(), styles.normal());
+        createCell(row, c++, r.quantity().doubleValue(), styles.centered());
+        createCell(row, c++, r.unitCost().doubleValue(), styles.currencyCentered());
+        createCell(row, c, r.totalCost().doubleValue(), styles.currencyCentered());
+    }
 
-        if (!rows.isEmpty()) {
-            Row totalRow = sheet.createRow(rowIdx);
-            totalRow.setHeightInPoints(20);
-            createCell(totalRow, 5, "TOTAL:", styles.header());
-            addFormula(totalRow, 6, "SUM", rowIdx, styles.currencyBold());
-        }
+    private void writePurchaseTotals(Row totalRow, int lastDataRow, ReportStyles styles) {
+        totalRow.setHeightInPoints(20);
+        createCell(totalRow, 5, "TOTAL:", styles.header());
+        addFormula(totalRow, 6, "SUM", lastDataRow, styles.currencyBold());
     }
 
     private Cell createCell(Sheet sheet, int r, int c, Object value, CellStyle style) {
@@ -185,6 +234,67 @@ public class ExcelReportGenerator {
         cell.setCellStyle(style);
     }
 
+    // -------- streaming --------
+
+    public record SummaryTotals(BigDecimal totalSales, BigDecimal totalCostOfGoodsSold,
+                                BigDecimal grossProfit, BigDecimal totalPurchases) {}
+
+    /**
+     * Escritor de un único uso. Orden esperado: filas de ventas, filas de compras y
+     * finalmente {@link #finish(SummaryTotals, OutputStream)}. La hoja "Resumen" se crea
+     * primero para conservar el orden de pestañas; sus pocas filas nunca salen de la ventana
+     * de SXSSF, por eso puede completarse al final.
+     */
+    public final class StreamingReportWriter implements Closeable {
+
+        private final SXSSFWorkbook workbook;
+        private final ReportStyles styles;
+        private final Sheet summarySheet;
+        private final Sheet salesSheet;
+        private final Sheet purchasesSheet;
+        private int salesRowIdx = 1;
+        private int purchasesRowIdx = 1;
+
+        private StreamingReportWriter(String reportTitle, String generationDate) {
+            this.workbook = new SXSSFWorkbook(STREAMING_WINDOW_SIZE);
+            this.workbook.setCompressTempFiles(true);
+            this.styles = new ReportStyles(workbook);
+            this.summarySheet = workbook.createSheet(SHEET_SUMMARY);
+            this.salesSheet = workbook.createSheet(SHEET_SALES);
+            this.purchasesSheet = workbook.createSheet(SHEET_PURCHASES);
+
+            createSummaryHeader(summarySheet, reportTitle, generationDate, styles);
+            createSalesHeader(salesSheet, styles);
+            createPurchasesHeader(purchasesSheet, styles);
+        }
+
+        public void addSalesRow(SalesReportRow row) {
+            writeSalesRow(salesSheet.createRow(salesRowIdx++), row, styles);
+        }
+
+        public void addPurchaseRow(PurchaseReportRow row) {
+            writePurchaseRow(purchasesSheet.createRow(purchasesRowIdx++), row, styles);
+        }
+
+        public void finish(SummaryTotals totals, OutputStream out) throws IOException {
+            if (salesRowIdx > 1) {
+                writeSalesTotals(salesSheet.createRow(salesRowIdx), salesRowIdx, styles);
+            }
+            if (purchasesRowIdx > 1) {
+                writePurchaseTotals(purchasesSheet.createRow(purchasesRowIdx), purchasesRowIdx, styles);
+            }
+            fillSummaryKpis(summarySheet, totals, styles);
+            workbook.write(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Borra los archivos temporales de SXSSF además de liberar el workbook
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
     // -------- estilos --------
     private record ReportStyles(
             CellStyle title, CellStyle subtle, CellStyle header, CellStyle normal, CellStyle centered,
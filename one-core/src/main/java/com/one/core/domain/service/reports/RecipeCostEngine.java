@@ -0,0 +1,150 @@
+package com.one.core.domain.service.reports;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.sales.SalesOrder;
+import com.one.core.domain.model.tenant.sales.SalesOrderItem;
+import com.one.core.domain.repository.tenant.product.SaleCost;
+import com.one.core.domain.service.tenant.product.RecipeGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Costo unitario de productos para una corrida de reporte. El grafo de recetas se carga
+ * una sola vez (y solo si aparece algún COMPOUND) y los costos de todos los compuestos se
+ * resuelven en orden topológico y quedan memorizados hasta el final de la corrida.
+ * Si se registran los costos guardados en los movimientos de venta ({@link #addStoredCosts}), el
+ * costo de cada ítem sale de ahí; el costo por receta / precio de compra queda para ventas sin costo
+ * guardado (anteriores a la valuación o de productos sin stock).
+ * Si las recetas forman un ciclo, los productos del ciclo y los que se fabrican con ellos quedan con
+ * costo 0 (y se avisa en el log); el resto del reporte se costea normalmente.
+ * No es thread-safe: crear una instancia por reporte.
+ */
+class RecipeCostEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeCostEngine.class);
+
+    /** Tope de ids por consulta de costos guardados (listas IN acotadas). */
+    private static final int STORED_COSTS_CHUNK = 1000;
+
+    private final Supplier<RecipeGraph> graphLoader;
+    private final Function<Collection<String>, List<SaleCost>> storedCostLoader;
+    private RecipeGraph graph;
+    private Map<Long, BigDecimal> compoundCosts;
+    private final Map<SaleKey, BigDecimal> storedCostPerBaseUnit = new HashMap<>();
+
+    RecipeCostEngine(Supplier<RecipeGraph> graphLoader) {
+        this(graphLoader, orderIds -> List.of());
+    }
+
+    RecipeCostEngine(Supplier<RecipeGraph> graphLoader, Function<Collection<String>, List<SaleCost>> storedCostLoader) {
+        this.graphLoader = graphLoader;
+        this.storedCostLoader = storedCostLoader;
+    }
+
+    /** Carga los costos guardados de las órdenes indicadas, en consultas de a {@value #STORED_COSTS_CHUNK} ids. */
+    void loadStoredCosts(Collection<SalesOrder> orders) {
+        List<String> orderIds = orders.stream().map(order -> order.getId().toString()).distinct().toList();
+        for (int from = 0; from < orderIds.size(); from += STORED_COSTS_CHUNK) {
+            addStoredCosts(storedCostLoader.apply(
+                    orderIds.subList(from, Math.min(from + STORED_COSTS_CHUNK, orderIds.size()))));
+        }
+    }
+
+    /** Olvida los costos guardados cargados hasta ahora (las exportaciones por tandas cargan los de cada una). */
+    void clearStoredCosts() {
+        storedCostPerBaseUnit.clear();
+    }
+
+    /** Registra costos guardados (por orden y producto) para usarlos en {@link #itemCost}. */
+    void addStoredCosts(Collection<SaleCost> saleCosts) {
+        for (SaleCost saleCost : saleCosts) {
+            if (saleCost.quantity() == null || saleCost.quantity().signum() <= 0) continue;
+            storedCostPerBaseUnit.put(new SaleKey(saleCost.orderId(), saleCost.productId()),
+                    saleCost.cost().divide(saleCost.quantity(), 8, RoundingMode.HALF_UP));
+        }
+    }
+
+    /** Si la venta de ese producto en la orden tiene costo guardado en sus movimientos. */
+    boolean hasStoredCost(Long orderId, Product product) {
+        return storedCostPerBaseUnit.containsKey(new SaleKey(orderId.toString(), product.getId()));
+    }
+
+    /** Costo total de un ítem vendido: el guardado en sus movimientos si lo hay, si no el unitario estimado. */
+    BigDecimal itemCost(Long orderId, SalesOrderItem item) {
+        Product product = item.getProduct();
+        BigDecimal quantity = nz(item.getQuantity());
+        if (product != null && orderId != null) {
+            BigDecimal perBaseUnit = storedCostPerBaseUnit.get(new SaleKey(orderId.toString(), product.getId()));
+            if (perBaseUnit != null) {
+                BigDecimal baseQuantity = product.getUnitOfMeasure() != null
+                        ? product.getUnitOfMeasure().toBase(quantity)
+                        : quantity;
+                return perBaseUnit.multiply(baseQuantity);
+            }
+        }
+        return unitCost(product).multiply(quantity);
+    }
+
+    BigDecimal unitCost(Product product) {
+        if (product == null || product.getProductType() == null) return BigDecimal.ZERO;
+        return switch (product.getProductType()) {
+            case PHYSICAL_GOOD -> nz(product.getPurchasePrice());
+            case COMPOUND -> compoundCosts().getOrDefault(product.getId(), BigDecimal.ZERO);
+            default -> BigDecimal.ZERO;
+        };
+    }
+
+    private Map<Long, BigDecimal> compoundCosts() {
+        if (compoundCosts == null) {
+            graph = graphLoader.get();
+            RecipeGraph.CostingOrder costingOrder = graph.costingOrder();
+            Set<Long> uncosted = new HashSet<>(costingOrder.cyclic());
+            Map<Long, BigDecimal> costs = new HashMap<>();
+            // Los ingredientes siempre se resuelven antes que los productos que los usan
+            for (Long productId : costingOrder.order()) {
+                Product p = graph.product(productId).orElse(null);
+                if (p == null || p.getProductType() != ProductType.COMPOUND) continue;
+                BigDecimal cost = BigDecimal.ZERO;
+                for (RecipeGraph.Edge edge : graph.ingredientsOf(productId)) {
+                    if (uncosted.contains(edge.ingredientId())) {
+                        cost = null;
+                        break;
+                    }
+                    BigDecimal ingredientCost = graph.product(edge.ingredientId())
+                            .map(i -> i.getProductType() == ProductType.COMPOUND
+                                    ? costs.getOrDefault(i.getId(), BigDecimal.ZERO)
+                                    : unitCost(i))
+                            .orElse(BigDecimal.ZERO);
+                    cost = cost.add(ingredientCost.multiply(edge.quantityPerUnit()));
+                }
+                if (cost == null) {
+                    uncosted.add(productId);
+                } else {
+                    costs.put(productId, cost);
+                }
+            }
+            if (!costingOrder.cyclic().isEmpty()) {
+                logger.warn("Recipes form a cycle: products {} and {} others made from them are costed at 0",
+                        costingOrder.cyclic(), uncosted.size() - costingOrder.cyclic().size());
+            }
+            compoundCosts = costs;
+        }
+        return compoundCosts;
+    }
+
+    private static BigDecimal nz(BigDecimal v) { return v != null ? v : BigDecimal.ZERO; }
+
+    private record SaleKey(String orderId, Long productId) {}
+}
@@ -0,0 +1,348 @@
+package com.one.core.domain.service.reports;
+
+import com.one.core.application.dto.reports.ReportFilterDTO;
+import com.one.core.application.dto.reports.ReportJobDTO;
+import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.exception.TooManyRequestsException;
+import com.one.core.application.exception.ValidationException;
+import com.one.core.config.ReportJobProperties;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.config.multitenancy.TenantContextExecutorService;
+import com.one.core.domain.model.enums.reports.ReportJobStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reportes Excel generados en segundo plano, fuera del hilo del request.
+ * <ul>
+ *   <li>Cada pedido se identifica por una clave determinística (tenant, tipo, inicio del período,
+ *       filtros): pedidos iguales comparten el job en curso o el archivo ya generado.</li>
+ *   <li>Un pool compartido genera los reportes; cada tenant tiene un máximo de reportes en paralelo
+ *       y una cola acotada, así un tenant no acapara los workers.</li>
+ *   <li>Los archivos quedan en disco. Los de períodos abiertos vencen a los {@code artifact-ttl};
+ *       los generados después del cierre del período son inmutables y no se regeneran.</li>
+ * </ul>
+ * Los jobs viven en memoria de la instancia; el archivo en disco es lo que sobrevive un reinicio.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final String ARTIFACT_EXTENSION = ".xlsx";
+
+    private final ReportService reportService;
+    private final ReportJobProperties properties;
+    private final ExecutorService workers;
+
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Clave de cache -> job QUEUED/RUNNING (dedup de pedidos iguales)
+    private final Map<String, ReportJob> activeByKey = new ConcurrentHashMap<>();
+    private final Map<String, TenantQueue> queues = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReportJobService(ReportService reportService, ReportJobProperties properties) {
+        this.reportService = reportService;
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new TenantContextExecutorService(Executors.newFixedThreadPool(
+                Math.max(1, properties.getWorkerThreads()),
+                runnable -> Thread.ofPlatform().daemon().name("report-worker-" + threadNumber.incrementAndGet()).unstarted(runnable)));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /** Encola un reporte, o devuelve el job en curso / el archivo vigente para el mismo pedido. */
+    public ReportJobDTO submit(String reportType, LocalDate date, ReportFilterDTO filter) {
+        String tenant = TenantContext.getCurrentTenantSchema();
+        if (tenant == null) {
+            throw new ValidationException("Report jobs require a tenant context.");
+        }
+        String type = reportType.toUpperCase();
+        ReportService.ReportPeriod period = ReportService.resolvePeriod(type, date);
+        String cacheKey = cacheKey(tenant, type, period.startDate(), filter);
+        Path artifact = artifactPath(tenant, type, period.startDate(), cacheKey);
+
+        evictExpired(tenant);
+
+        TenantQueue queue = queues.computeIfAbsent(tenant, t -> new TenantQueue());
+        synchronized (queue) {
+            ReportJob active = activeByKey.get(cacheKey);
+            if (active != null) {
+                return toDTO(active);
+            }
+            if (Files.exists(artifact) && isUsable(artifact, period.endDate())) {
+                ReportJob cached = new ReportJob(tenant, cacheKey, type, period, filter, artifact);
+                cached.cached = true;
+                cached.finish(ReportJobStatus.COMPLETED, null, isImmutable(artifact, period.endDate()));
+                jobs.put(cached.id, cached);
+                return toDTO(cached);
+            }
+            if (queue.running >= Math.max(1, properties.getMaxConcurrentPerTenant())
+                    && queue.pending.size() >= properties.getMaxQueuedPerTenant()) {
+                throw new TooManyRequestsException("Too many reports queued for this tenant. Try again later.");
+            }
+            ReportJob job = new ReportJob(tenant, cacheKey, type, period, filter, artifact);
+            jobs.put(job.id, job);
+            activeByKey.put(cacheKey, job);
+            queue.pending.add(job);
+            dispatch(queue);
+            logger.info("Report job {} queued for tenant {} ({} {} - {})",
+                    job.id, tenant, type, period.startDate(), period.endDate());
+            return toDTO(job);
+        }
+    }
+
+    /**
+     * Estado de un job. Con {@code wait} > 0 la respuesta se completa cuando el job termina o vence
+     * la espera (long-poll); el hilo del request queda libre mientras tanto.
+     */
+    public CompletableFuture<ReportJobDTO> getJob(UUID jobId, Duration wait) {
+        ReportJob job = findJob(jobId);
+        if (job.done.isDone() || wait == null || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(toDTO(job));
+        }
+        Duration effectiveWait = wait.compareTo(properties.getMaxWait()) > 0 ? properties.getMaxWait() : wait;
+        // copy(): el timeout completa solo la espera de este cliente, no el job
+        return job.done.copy()
+                .completeOnTimeout(null, effectiveWait.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(ignored -> toDTO(job));
+    }
+
+    /** Archivo de un job terminado, para descargarlo. */
+    public Path getArtifact(UUID jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new ValidationException("Report job " + jobId + " is not completed (status: " + job.status + ").");
+        }
+        if (!Files.exists(job.artifact)) {
+            throw new ResourceNotFoundException("Report file for job " + jobId + " has expired; request the report again.");
+        }
+        return job.artifact;
+    }
+
+    public String downloadFileName(UUID jobId) {
+        ReportJob job = findJob(jobId);
+        String typeFormatted = job.reportType.substring(0, 1) + job.reportType.substring(1).toLowerCase();
+        return String.format("%s_Report_%s.xlsx", typeFormatted, job.period.startDate());
+    }
+
+    private ReportJob findJob(UUID jobId) {
+        ReportJob job = jobs.get(jobId);
+        // Un tenant no ve los jobs de otro
+        if (job == null || !job.tenant.equals(TenantContext.getCurrentTenantSchema())) {
+            throw new ResourceNotFoundException("ReportJob", "id", jobId);
+        }
+        return job;
+    }
+
+    // ---------- Ejecución ----------
+
+    /** Arranca los jobs en espera del tenant hasta su límite de concurrencia. Llamar con el lock de la cola. */
+    private void dispatch(TenantQueue queue) {
+        while (queue.running < Math.max(1, properties.getMaxConcurrentPerTenant()) && !queue.pending.isEmpty()) {
+            ReportJob next = queue.pending.poll();
+            queue.running++;
+            // El executor propaga el tenant del hilo que despacha: el request o un worker del mismo tenant
+            workers.execute(() -> run(next, queue));
+        }
+    }
+
+    private void run(ReportJob job, TenantQueue queue) {
+        job.status = ReportJobStatus.RUNNING;
+        long startedAt = System.currentTimeMillis();
+        ReportJobStatus outcome = ReportJobStatus.FAILED;
+        String error = null;
+        try {
+            Files.createDirectories(job.artifact.getParent());
+            Path partial = job.artifact.resolveSibling(job.artifact.getFileName() + "." + job.id + ".tmp");
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                reportService.writeOperationalSummaryReport(job.reportType, job.period.startDate(), job.filter, out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+            // Move atómico: un lector nunca ve un archivo a medio escribir
+            Files.move(partial, job.artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            outcome = ReportJobStatus.COMPLETED;
+            logger.info("Report job {} completed in {} ms", job.id, System.currentTimeMillis() - startedAt);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Report job {} failed for tenant {}", job.id, job.tenant, e);
+            error = e.getMessage();
+        } finally {
+            // Primero se libera la clave: quien vea el job terminado ya encuentra el archivo como cache
+            synchronized (queue) {
+                activeByKey.remove(job.cacheKey, job);
+                queue.running--;
+                dispatch(queue);
+            }
+            job.finish(outcome, error, outcome == ReportJobStatus.COMPLETED && isImmutable(job.artifact, job.period.endDate()));
+        }
+    }
+
+    // ---------- Archivos y vencimiento ----------
+
+    /** Un período está cerrado para un archivo si este se generó después del último día del período. */
+    static boolean isImmutable(Path artifact, LocalDate periodEnd) {
+        try {
+            LocalDate generatedOn = Files.getLastModifiedTime(artifact).toInstant()
+                    .atZone(ZoneId.systemDefault()).toLocalDate();
+            return generatedOn.isAfter(periodEnd);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean isUsable(Path artifact, LocalDate periodEnd) {
+        return isImmutable(artifact, periodEnd) || !isExpired(artifact);
+    }
+
+    private boolean isExpired(Path artifact) {
+        try {
+            Instant modified = Files.getLastModifiedTime(artifact).toInstant();
+            return modified.plus(properties.getArtifactTtl()).isBefore(Instant.now());
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Borra los archivos vencidos del tenant y olvida los jobs terminados hace más de un TTL.
+     * Se hace al encolar (no hay scheduler): el costo es listar una carpeta por pedido.
+     */
+    private void evictExpired(String tenant) {
+        Instant jobCutoff = Instant.now().minus(properties.getArtifactTtl());
+        jobs.values().removeIf(job -> job.tenant.equals(tenant) && job.finishedAt != null
+                && job.finishedAt.toInstant().isBefore(jobCutoff));
+
+        Path tenantDir = tenantDir(tenant);
+        if (!Files.isDirectory(tenantDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tenantDir, "*" + ARTIFACT_EXTENSION)) {
+            for (Path file : files) {
+                LocalDate periodEnd = periodEndOf(file);
+                if (periodEnd != null && !isImmutable(file, periodEnd) && isExpired(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not evict expired reports for tenant {}: {}", tenant, e.getMessage());
+        }
+    }
+
+    /** Tipo e inicio del período salen del nombre del archivo: TYPE_yyyy-MM-dd_hash.xlsx */
+    private static LocalDate periodEndOf(Path file) {
+        String[] parts = file.getFileName().toString().split("_");
+        if (parts.length < 3) {
+            return null;
+        }
+        try {
+            return ReportService.resolvePeriod(parts[0], LocalDate.parse(parts[1])).endDate();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Path tenantDir(String tenant) {
+        return Path.of(properties.getStorageDir()).resolve(tenant.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    private Path artifactPath(String tenant, String type, LocalDate periodStart, String cacheKey) {
+        return tenantDir(tenant).resolve(type + "_" + periodStart + "_" + cacheKey.substring(0, 16) + ARTIFACT_EXTENSION);
+    }
+
+    /** SHA-256 de los parámetros normalizados: cualquier fecha del período da la misma clave. */
+    static String cacheKey(String tenant, String type, LocalDate periodStart, ReportFilterDTO filter) {
+        String canonical = String.join("|", tenant, type, periodStart.toString(),
+                filter != null ? Objects.toString(filter.getTransactionType(), "") : "",
+                filter != null && filter.getPaymentMethod() != null ? filter.getPaymentMethod().name() : "");
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static ReportJobDTO toDTO(ReportJob job) {
+        String downloadUrl = job.status == ReportJobStatus.COMPLETED ? "/api/reports/jobs/" + job.id + "/file" : null;
+        return new ReportJobDTO(job.id, job.status, job.reportType, job.period.startDate(), job.period.endDate(),
+                job.cached, job.immutable, job.createdAt, job.finishedAt, job.errorMessage, downloadUrl);
+    }
+
+    // ---------- Estado en memoria ----------
+
+    private static final class TenantQueue {
+        private final Deque<ReportJob> pending = new ArrayDeque<>();
+        private int running;
+    }
+
+    private static final class ReportJob {
+        private final UUID id = UUID.randomUUID();
+        private final String tenant;
+        private final String cacheKey;
+        private final String reportType;
+        private final ReportService.ReportPeriod period;
+        private final ReportFilterDTO filter;
+        private final Path artifact;
+        private final OffsetDateTime createdAt = OffsetDateTime.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile OffsetDateTime finishedAt;
+        private volatile String errorMessage;
+        private volatile boolean immutable;
+        private volatile boolean cached;
+
+        ReportJob(String tenant, String cacheKey, String reportType, ReportService.ReportPeriod period,
+                  ReportFilterDTO filter, Path artifact) {
+            this.tenant = tenant;
+            this.cacheKey = cacheKey;
+            this.reportType = reportType;
+            this.period = period;
+            this.filter = filter;
+            this.artifact = artifact;
+        }
+
+        void finish(ReportJobStatus finalStatus, String error, boolean immutableArtifact) {
+            this.immutable = immutableArtifact;
+            this.errorMessage = error;
+            this.finishedAt = OffsetDateTime.now();
+            this.status = finalStatus;
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.one.core.domain.service.reports;
+
+import com.one.core.application.dto.reports.RollupRebuildResultDTO;
+import com.one.core.application.exception.ValidationException;
+import com.one.core.domain.model.enums.purchases.PurchaseOrderStatus;
+import com.one.core.domain.model.enums.sales.PaymentMethod;
+import com.one.core.domain.model.enums.sales.SalesOrderStatus;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.purchases.PurchaseOrder;
+import com.one.core.domain.model.tenant.purchases.PurchaseOrderItem;
+import com.one.core.domain.model.tenant.reports.DailySalesRollup;
+import com.one.core.domain.model.tenant.sales.SalesOrder;
+import com.one.core.domain.model.tenant.sales.SalesOrderItem;
+import com.one.core.domain.repository.tenant.product.ProductRecipeRepository;
+import com.one.core.domain.repository.tenant.product.StockMovementRepository;
+import com.one.core.domain.repository.tenant.purchases.PurchaseOrderItemRepository;
+import com.one.core.domain.repository.tenant.purchases.PurchaseOrderRepository;
+import com.one.core.domain.repository.tenant.reports.DailyPurchaseRollupRepository;
+import com.one.core.domain.repository.tenant.reports.DailySalesRollupRepository;
+import com.one.core.domain.repository.tenant.reports.ReportRollupRebuildRequestRepository;
+import com.one.core.domain.repository.tenant.sales.SalesOrderItemRepository;
+import com.one.core.domain.repository.tenant.sales.SalesOrderRepository;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.product.RecipeGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene los rollups diarios de ventas y compras que alimentan los KPIs de reportes.
+ * <p>
+ * Una venta cuenta desde que se confirma (sale de PENDING_PAYMENT) y se descuenta si se
+ * cancela después; las compras cuentan por fecha de la orden. Los importes de cada ítem
+ * se imputan a la categoría de su producto y la diferencia entre el total de la orden y la
+ * suma de sus ítems (descuentos / impuestos a nivel orden) a la categoría centinela 0.
+ */
+@Service
+public class ReportRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportRollupService.class);
+
+    /** Órdenes de venta por tanda al reconstruir: sus costos guardados se cargan juntos. */
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    /** Estados en los que una venta ya está confirmada y cuenta como ingreso; rollups, JSON y Excel usan esta definición. */
+    public static final Set<SalesOrderStatus> CONFIRMED_SALES_STATUSES = EnumSet.of(
+            SalesOrderStatus.PREPARING_ORDER, SalesOrderStatus.SHIPPED,
+            SalesOrderStatus.DELIVERED, SalesOrderStatus.COMPLETED);
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+    private final DailyPurchaseRollupRepository dailyPurchaseRollupRepository;
+    private final ReportRollupRebuildRequestRepository rebuildRequestRepository;
+    private final SalesOrderRepository salesOrderRepository;
+    private final SalesOrderItemRepository salesOrderItemRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final ProductRecipeRepository productRecipeRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final UnitConversionService unitConversionService;
+
+    @Autowired
+    public ReportRollupService(DailySalesRollupRepository dailySalesRollupRepository,
+                               DailyPurchaseRollupRepository dailyPurchaseRollupRepository,
+                               ReportRollupRebuildRequestRepository rebuildRequestRepository,
+                               SalesOrderRepository salesOrderRepository,
+                               SalesOrderItemRepository salesOrderItemRepository,
+                               PurchaseOrderRepository purchaseOrderRepository,
+                               PurchaseOrderItemRepository purchaseOrderItemRepository,
+                               ProductRecipeRepository productRecipeRepository,
+                               StockMovementRepository stockMovementRepository,
+                               UnitConversionService unitConversionService) {
+        this.dailySalesRollupRepository = dailySalesRollupRepository;
+        this.dailyPurchaseRollupRepository = dailyPurchaseRollupRepository;
+        this.rebuildRequestRepository = rebuildRequestRepository;
+        this.salesOrderRepository = salesOrderRepository;
+        this.salesOrderItemRepository = salesOrderItemRepository;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.purchaseOrderItemRepository = purchaseOrderItemRepository;
+        this.productRecipeRepository = productRecipeRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.unitConversionService = unitConversionService;
+    }
+
+    // -------------------- mantenimiento incremental --------------------
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSalesOrderConfirmed(SalesOrder order) {
+        RecipeCostEngine costEngine = newCostEngine(List.of(order));
+        if (storeEstimatedSaleCosts(order, costEngine)) {
+            costEngine.clearStoredCosts();
+            costEngine.loadStoredCosts(List.of(order));
+        }
+        SalesAccumulator acc = new SalesAccumulator(costEngine);
+        acc.addOrder(order, order.getItems());
+        acc.flush(BigDecimal.ONE);
+    }
+
+    /**
+     * Descuenta la venta con el costo guardado en sus movimientos, el mismo que se sumó al confirmarla
+     * (aunque después cambien recetas o precios de compra).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSalesOrderCancelled(SalesOrder order) {
+        SalesAccumulator acc = new SalesAccumulator(newCostEngine(List.of(order)));
+        acc.addOrder(order, order.getItems());
+        acc.flush(BigDecimal.ONE.negate());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPurchaseOrderCreated(PurchaseOrder order) {
+        PurchaseAccumulator acc = new PurchaseAccumulator();
+        for (PurchaseOrderItem item : order.getItems()) {
+            acc.add(order.getOrderDate(), item.getProduct(), item.getSubtotal(),
+                    nz(item.getQuantityReceived()).multiply(nz(item.getUnitPrice())));
+        }
+        acc.flush();
+    }
+
+    /** Descuenta una orden de compra cancelada, como si nunca hubiera contado (igual que en {@link #rebuild}). */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPurchaseOrderCancelled(PurchaseOrder order) {
+        PurchaseAccumulator acc = new PurchaseAccumulator();
+        for (PurchaseOrderItem item : order.getItems()) {
+            acc.add(order.getOrderDate(), item.getProduct(), nz(item.getSubtotal()).negate(),
+                    nz(item.getQuantityReceived()).multiply(nz(item.getUnitPrice())).negate());
+        }
+        acc.flush();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onGoodsReceived(PurchaseOrder order, PurchaseOrderItem item, BigDecimal quantityReceivedNow) {
+        PurchaseAccumulator acc = new PurchaseAccumulator();
+        acc.add(order.getOrderDate(), item.getProduct(), BigDecimal.ZERO,
+                nz(quantityReceivedNow).multiply(nz(item.getUnitPrice())));
+        acc.flush();
+    }
+
+    // -------------------- lectura --------------------
+
+    @Transactional(readOnly = true)
+    public RollupTotals getTotals(LocalDate startDate, LocalDate endDate, PaymentMethod paymentMethod) {
+        String pm = paymentMethod != null ? paymentMethod.name() : null;
+        BigDecimal totalSales = dailySalesRollupRepository.sumTotalSales(startDate, endDate, pm);
+        BigDecimal totalCost = dailySalesRollupRepository.sumTotalCost(startDate, endDate, pm);
+        BigDecimal totalPurchases = dailyPurchaseRollupRepository.sumTotalOrdered(startDate, endDate);
+        return new RollupTotals(totalSales, totalCost, totalSales.subtract(totalCost), totalPurchases);
+    }
+
+    // -------------------- reconstrucción --------------------
+
+    /**
+     * Recalcula los rollups del rango indicado a partir de las órdenes. Sin rango, reconstruye
+     * toda la historia del tenant (desde la orden más antigua hasta hoy).
+     */
+    @Transactional
+    public RollupRebuildResultDTO rebuild(LocalDate from, LocalDate to) {
+        LocalDate startDate = from != null ? from : earliestOrderDate();
+        LocalDate endDate = to != null ? to : LocalDate.now();
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("La fecha 'from' no puede ser posterior a 'to'.");
+        }
+
+        dailySalesRollupRepository.deleteByRollupDateBetween(startDate, endDate);
+        dailyPurchaseRollupRepository.deleteByRollupDateBetween(startDate, endDate);
+
+        RecipeCostEngine costEngine = newCostEngine(List.of());
+        SalesAccumulator sales = new SalesAccumulator(costEngine);
+        long salesItems = 0;
+        try (Stream<SalesOrderItem> items = salesOrderItemRepository.streamItemsByStatus(
+                startDate, endDate, CONFIRMED_SALES_STATUSES)) {
+            // Los ítems llegan ordenados por orden: se agrupan para calcular el ajuste de cada una, y las
+            // órdenes en tandas para cargar sus costos guardados sin traer los de todo el rango
+            Map<Long, List<SalesOrderItem>> chunk = new LinkedHashMap<>();
+            for (var it = items.iterator(); it.hasNext(); salesItems++) {
+                SalesOrderItem item = it.next();
+                Long orderId = item.getSalesOrder().getId();
+                if (!chunk.containsKey(orderId) && chunk.size() == REBUILD_CHUNK_SIZE) {
+                    addSalesChunk(sales, costEngine, chunk);
+                }
+                chunk.computeIfAbsent(orderId, k -> new ArrayList<>()).add(item);
+            }
+            addSalesChunk(sales, costEngine, chunk);
+        }
+        int salesRows = sales.flush(BigDecimal.ONE);
+
+        PurchaseAccumulator purchases = new PurchaseAccumulator();
+        long purchaseItems = 0;
+        try (Stream<PurchaseOrderItem> items = purchaseOrderItemRepository.streamReportItems(
+                startDate, endDate, PurchaseOrderStatus.CANCELLED)) {
+            for (var it = items.iterator(); it.hasNext(); purchaseItems++) {
+                PurchaseOrderItem item = it.next();
+                purchases.add(item.getPurchaseOrder().getOrderDate(), item.getProduct(), item.getSubtotal(),
+                        nz(item.getQuantityReceived()).multiply(nz(item.getUnitPrice())));
+            }
+        }
+        int purchaseRows = purchases.flush();
+
+        logger.info("Report rollups rebuilt for {} - {}: {} sales items -> {} rows, {} purchase items -> {} rows",
+                startDate, endDate, salesItems, salesRows, purchaseItems, purchaseRows);
+        return new RollupRebuildResultDTO(startDate, endDate, salesRows, purchaseRows);
+    }
+
+    /**
+     * Reconstruye toda la historia si una migración lo pidió (report_rollup_rebuild_requests) y marca
+     * los pedidos como completados en la misma transacción: si la reconstrucción falla, quedan pendientes.
+     */
+    @Transactional
+    public Optional<RollupRebuildResultDTO> rebuildIfRequested() {
+        if (rebuildRequestRepository.completePending() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(rebuild(null, null));
+    }
+
+    private static void addSalesChunk(SalesAccumulator sales, RecipeCostEngine costEngine,
+                                      Map<Long, List<SalesOrderItem>> chunk) {
+        List<SalesOrder> orders = chunk.values().stream().map(items -> items.get(0).getSalesOrder()).toList();
+        costEngine.clearStoredCosts();
+        costEngine.loadStoredCosts(orders);
+        for (SalesOrder order : orders) {
+            sales.addOrder(order, chunk.get(order.getId()));
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Las salidas por venta que se registraron sin costo (sin costo promedio ni precio de compra, típico
+     * de los COMPOUND) guardan el costo estimado con que se imputa la venta, para que la cancelación y la
+     * reconstrucción descuenten exactamente ese importe. Devuelve si completó alguna.
+     */
+    private boolean storeEstimatedSaleCosts(SalesOrder order, RecipeCostEngine costEngine) {
+        Set<Long> productIds = new HashSet<>();
+        int filled = 0;
+        for (SalesOrderItem item : order.getItems()) {
+            Product product = item.getProduct();
+            if (product == null || !productIds.add(product.getId()) || costEngine.hasStoredCost(order.getId(), product)) {
+                continue;
+            }
+            BigDecimal perBaseUnit = unitConversionService.toPricePerBaseUnit(
+                    costEngine.unitCost(product), product.getUnitOfMeasure());
+            filled += stockMovementRepository.fillMissingSaleCosts(order.getId().toString(), product.getId(), perBaseUnit);
+        }
+        return filled > 0;
+    }
+
+    private LocalDate earliestOrderDate() {
+        LocalDate today = LocalDate.now();
+        LocalDate sales = salesOrderRepository.findEarliestOrderDate();
+        LocalDate purchases = purchaseOrderRepository.findEarliestOrderDate();
+        LocalDate earliest = today;
+        if (sales != null && sales.isBefore(earliest)) earliest = sales;
+        if (purchases != null && purchases.isBefore(earliest)) earliest = purchases;
+        return earliest;
+    }
+
+    /** Motor de costos con los costos guardados de las órdenes indicadas ya cargados. */
+    private RecipeCostEngine newCostEngine(List<SalesOrder> orders) {
+        RecipeCostEngine costEngine = new RecipeCostEngine(() ->
+                RecipeGraph.from(productRecipeRepository.findAllWithProducts(), unitConversionService),
+                stockMovementRepository::findSaleCosts);
+        costEngine.loadStoredCosts(orders);
+        return costEngine;
+    }
+
+    private static Long categoryKey(Product product) {
+        return product != null && product.getCategory() != null
+                ? product.getCategory().getId()
+                : DailySalesRollup.NO_CATEGORY;
+    }
+
+    private static BigDecimal nz(BigDecimal v) { return v != null ? v : BigDecimal.ZERO; }
+
+    public record RollupTotals(BigDecimal totalSales, BigDecimal totalCostOfGoodsSold,
+                               BigDecimal grossProfit, BigDecimal totalPurchases) {}
+
+    private record SalesKey(LocalDate date, String paymentMethod, Long categoryId) {}
+
+    private record PurchaseKey(LocalDate date, Long categoryId) {}
+
+    /** Agrupa importes por clave para escribir una sola fila por clave. */
+    private final class SalesAccumulator {
+        private final RecipeCostEngine costEngine;
+        private final Map<SalesKey, BigDecimal[]> totals = new LinkedHashMap<>();
+
+        private SalesAccumulator(RecipeCostEngine costEngine) {
+            this.costEngine = costEngine;
+        }
+
+        void addOrder(SalesOrder order, List<SalesOrderItem> items) {
+            String pm = order.getPaymentMethod() != null
+                    ? order.getPaymentMethod().name()
+                    : DailySalesRollup.NO_PAYMENT_METHOD;
+            BigDecimal itemsTotal = BigDecimal.ZERO;
+            for (SalesOrderItem item : items) {
+                BigDecimal subtotal = item.getSubtotal();
+                BigDecimal cost = costEngine.itemCost(order.getId(), item);
+                add(new SalesKey(order.getOrderDate(), pm, categoryKey(item.getProduct())), subtotal, cost);
+                itemsTotal = itemsTotal.add(subtotal);
+            }
+            BigDecimal adjustment = nz(order.getTotalAmount()).subtract(itemsTotal);
+            if (adjustment.signum() != 0) {
+                add(new SalesKey(order.getOrderDate(), pm, DailySalesRollup.NO_CATEGORY), adjustment, BigDecimal.ZERO);
+            }
+        }
+
+        private void add(SalesKey key, BigDecimal sales, BigDecimal cost) {
+            BigDecimal[] t = totals.computeIfAbsent(key, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            t[0] = t[0].add(sales);
+            t[1] = t[1].add(cost);
+        }
+
+        int flush(BigDecimal sign) {
+            totals.forEach((k, t) -> dailySalesRollupRepository.upsertAdd(
+                    k.date(), k.paymentMethod(), k.categoryId(), t[0].multiply(sign), t[1].multiply(sign)));
+            int rows = totals.size();
+            totals.clear();
+            return rows;
+        }
+    }
+
+    private final class PurchaseAccumulator {
+        private final Map<PurchaseKey, BigDecimal[]> totals = new LinkedHashMap<>();
+
+        void add(LocalDate date, Product product, BigDecimal ordered, BigDecimal received) {
+            BigDecimal[] t = totals.computeIfAbsent(new PurchaseKey(date, categoryKey(product)),
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            t[0] = t[0].add(nz(ordered));
+            t[1] = t[1].add(nz(received));
+        }
+
+        int flush() {
+            totals.forEach((k, t) -> dailyPurchaseRollupRepository.upsertAdd(k.date(), k.categoryId(), t[0], t[1]));
+            int rows = totals.size();
+            totals.clear();
+            return rows;
+        }
+    }
+}
@@ -6,14 +6,23 @@ import com.one.core.application.dto.tenant.reports.OperationalReportData;
 import com.one.core.application.dto.tenant.reports.PurchaseReportRow;
 import com.one.core.application.dto.tenant.reports.SalesReportRow;
 import com.one.core.domain.model.enums.purchases.PurchaseOrderStatus;
-import com.one.core.domain.model.enums.sales.SalesOrderStatus;
-import com.one.core.domain.model.tenant.product.Product;
 import com.one.core.domain.model.tenant.purchases.PurchaseOrder;
+import com.one.core.domain.model.tenant.purchases.PurchaseOrderItem;
 import com.one.core.domain.model.tenant.sales.SalesOrder;
+import com.one.core.domain.model.tenant.sales.SalesOrderItem;
 import com.one.core.domain.repository.tenant.product.ProductRecipeRepository;
+import com.one.core.domain.repository.tenant.product.StockMovementRepository;
+import com.one.core.domain.repository.tenant.purchases.PurchaseOrderItemRepository;
 import com.one.core.domain.repository.tenant.purchases.PurchaseOrderRepository;
+import com.one.core.domain.repository.tenant.sales.SalesOrderItemRepository;
 import com.one.core.domain.repository.tenant.sales.SalesOrderRepository;
+import com.one.core.domain.service.common.UnitConversionService;
 import com.one.core.domain.service.reports.criteria.SalesOrderSpecification;
+import com.one.core.domain.service.tenant.product.RecipeGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -24,6 +33,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -31,30 +41,57 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+
+    /**
+     * Tamaño de tanda de la exportación streaming: órdenes de venta por carga de costos guardados y
+     * filas de compra entre cada vaciado del contexto de persistencia.
+     */
+    private static final int STREAMING_CHUNK_SIZE = 500;
+
     private final SalesOrderRepository salesOrderRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
+    private final SalesOrderItemRepository salesOrderItemRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
     private final ProductRecipeRepository productRecipeRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final UnitConversionService unitConversionService;
+    private final ReportRollupService reportRollupService;
     private final ExcelReportGenerator excelReportGenerator;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     public ReportService(SalesOrderRepository salesOrderRepository,
                          PurchaseOrderRepository purchaseOrderRepository,
-                         ProductRecipeRepository productRecipeRepository) {
+                         SalesOrderItemRepository salesOrderItemRepository,
+                         PurchaseOrderItemRepository purchaseOrderItemRepository,
+                         ProductRecipeRepository productRecipeRepository,
+                         StockMovementRepository stockMovementRepository,
+                         UnitConversionService unitConversionService,
+                         ReportRollupService reportRollupService) {
         this.salesOrderRepository = salesOrderRepository;
         this.purchaseOrderRepository = purchaseOrderRepository;
+        this.salesOrderItemRepository = salesOrderItemRepository;
+        this.purchaseOrderItemRepository = purchaseOrderItemRepository;
         this.productRecipeRepository = productRecipeRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.unitConversionService = unitConversionService;
+        this.reportRollupService = reportRollupService;
         this.excelReportGenerator = new ExcelReportGenerator();
     }
 
-    private static BigDecimal n(BigDecimal v) { return v != null ? v : BigDecimal.ZERO; }
     private static BigDecimal nz(BigDecimal v) { return v != null ? v : BigDecimal.ZERO; }
 
     // -------------------- EXCEL --------------------
@@ -70,7 +107,8 @@ public class ReportService {
     public ByteArrayInputStream generateOperationalSummaryReport(String reportType,
                                                                  LocalDate date,
                                                                  ReportFilterDTO filter) {
-        ReportDataBundle dataBundle = gatherReportData(reportType, date);
+        RecipeCostEngine costEngine = newCostEngine();
+        ReportDataBundle dataBundle = gatherReportData(reportType, date, costEngine);
 
         // Aplicar filtro por método de pago si viene en el DTO (enum o string)
         List<SalesOrder> salesForExcel = dataBundle.allSalesInPeriod();
@@ -81,14 +119,14 @@ public class ReportService {
                     .toList();
         }
 
-        List<SalesReportRow> salesRows = mapSalesToReportRows(salesForExcel);
+        List<SalesReportRow> salesRows = mapSalesToReportRows(salesForExcel, costEngine);
         List<PurchaseReportRow> purchaseRows = mapPurchasesToReportRows(dataBundle.allPurchasesInPeriod());
 
         // Recalcular KPIs de ventas según el filtro aplicado
         BigDecimal totalSales = salesForExcel.stream()
                 .map(SalesOrder::getTotalAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalCOGS = calculateCostOfGoodsSold(salesForExcel);
+        BigDecimal totalCOGS = calculateCostOfGoodsSold(salesForExcel, costEngine);
         BigDecimal grossProfit = totalSales.subtract(totalCOGS);
 
         String generationDate = LocalDateTime.now()
@@ -112,14 +150,102 @@ public class ReportService {
         }
     }
 
+    /**
+     * Exportación streaming: recorre ventas y compras del período con un cursor y escribe
+     * cada fila directamente en el workbook SXSSF, sin materializar órdenes ni filas en memoria.
+     * Las ventas se escriben por tandas de órdenes y los costos guardados se cargan por tanda, así la
+     * memoria no crece con el período. Los KPIs se acumulan durante el recorrido, con la misma
+     * semántica que la versión en memoria.
+     */
+    @Transactional(readOnly = true)
+    public void writeOperationalSummaryReport(String reportType,
+                                              LocalDate date,
+                                              ReportFilterDTO filter,
+                                              OutputStream out) throws IOException {
+        ReportPeriod period = resolvePeriod(reportType, date);
+        var paymentMethod = filter != null ? filter.getPaymentMethod() : null;
+        RecipeCostEngine costEngine = newCostEngine();
+
+        String generationDate = LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+
+        BigDecimal totalSales = BigDecimal.ZERO;
+        BigDecimal totalCOGS = BigDecimal.ZERO;
+        BigDecimal totalPurchases = BigDecimal.ZERO;
+        long salesRows = 0;
+        long purchaseRows = 0;
+
+        try (ExcelReportGenerator.StreamingReportWriter writer =
+                     excelReportGenerator.openStreamingWriter(period.reportTitle(), generationDate)) {
+
+            try (Stream<SalesOrderItem> items = salesOrderItemRepository.streamReportItems(
+                    period.startDate(), period.endDate(), ReportRollupService.CONFIRMED_SALES_STATUSES, paymentMethod)) {
+                List<SalesOrderItem> chunk = new ArrayList<>();
+                int chunkOrders = 0;
+                Long lastOrderId = null;
+                for (var it = items.iterator(); it.hasNext(); ) {
+                    SalesOrderItem item = it.next();
+                    Long orderId = item.getSalesOrder().getId();
+                    // Los ítems llegan agrupados por orden: las tandas se cortan entre órdenes
+                    if (!orderId.equals(lastOrderId)) {
+                        if (chunkOrders == STREAMING_CHUNK_SIZE) {
+                            SalesChunkTotals totals = writeSalesChunk(chunk, costEngine, writer);
+                            totalSales = totalSales.add(totals.sales());
+                            totalCOGS = totalCOGS.add(totals.costOfGoodsSold());
+                            chunk.clear();
+                            chunkOrders = 0;
+                        }
+                        chunkOrders++;
+                        lastOrderId = orderId;
+                    }
+                    chunk.add(item);
+                    salesRows++;
+                }
+                SalesChunkTotals totals = writeSalesChunk(chunk, costEngine, writer);
+                totalSales = totalSales.add(totals.sales());
+                totalCOGS = totalCOGS.add(totals.costOfGoodsSold());
+            }
+
+            try (Stream<PurchaseOrderItem> items = purchaseOrderItemRepository.streamReportItems(
+                    period.startDate(), period.endDate(), PurchaseOrderStatus.CANCELLED)) {
+                Long lastOrderId = null;
+                for (var it = items.iterator(); it.hasNext(); ) {
+                    PurchaseOrderItem item = it.next();
+                    PurchaseOrder order = item.getPurchaseOrder();
+                    if (!order.getId().equals(lastOrderId)) {
+                        totalPurchases = totalPurchases.add(nz(order.getTotalAmount()));
+                        lastOrderId = order.getId();
+                    }
+                    writer.addPurchaseRow(toPurchaseReportRow(order, item));
+
+                    if (++purchaseRows % STREAMING_CHUNK_SIZE == 0) entityManager.clear();
+                }
+            }
+            entityManager.clear();
+
+            writer.finish(new ExcelReportGenerator.SummaryTotals(
+                    totalSales, totalCOGS, totalSales.subtract(totalCOGS), totalPurchases), out);
+        }
+
+        logger.debug("Operational report streamed: {} sales rows, {} purchase rows ({} - {})",
+                salesRows, purchaseRows, period.startDate(), period.endDate());
+    }
+
     // -------------------- JSON --------------------
 
+    /**
+     * KPIs del período leídos de los rollups diarios (ventas confirmadas, filtradas por método
+     * de pago si se indica) más el detalle paginado; no recorre todas las órdenes del período.
+     */
     @Transactional(readOnly = true)
     public OperationalReportJsonDTO getOperationalSummaryJson(String reportType,
                                                               LocalDate date,
                                                               ReportFilterDTO filter,
                                                               Pageable pageable) {
-        ReportDataBundle dataBundle = gatherReportData(reportType, date);
+        RecipeCostEngine costEngine = newCostEngine();
+        ReportPeriod period = resolvePeriod(reportType, date);
+        ReportRollupService.RollupTotals totals = reportRollupService.getTotals(
+                period.startDate(), period.endDate(), filter != null ? filter.getPaymentMethod() : null);
 
         Page<SalesReportRow> salesPage = Page.empty(pageable);
         Page<PurchaseReportRow> purchasesPage = Page.empty(pageable);
@@ -130,19 +256,20 @@ public class ReportService {
             Specification<SalesOrder> spec = SalesOrderSpecification.filterBy(filter)
                     .and((root, query, cb) ->
                             cb.between(root.get("orderDate"),
-                                    dataBundle.startDate(), dataBundle.endDate()))
+                                    period.startDate(), period.endDate()))
                     .and((root, query, cb) ->
-                            cb.notEqual(root.get("status"), SalesOrderStatus.CANCELLED));
+                            root.get("status").in(ReportRollupService.CONFIRMED_SALES_STATUSES));
 
             Page<SalesOrder> salesOrderPage = salesOrderRepository.findAll(spec, pageable);
-            List<SalesReportRow> salesReportRows = mapSalesToReportRows(salesOrderPage.getContent());
+            costEngine.loadStoredCosts(salesOrderPage.getContent());
+            List<SalesReportRow> salesReportRows = mapSalesToReportRows(salesOrderPage.getContent(), costEngine);
             salesPage = new PageImpl<>(salesReportRows, pageable, salesOrderPage.getTotalElements());
         }
 
         if (!"SALES".equalsIgnoreCase(transactionType)) {
             Specification<PurchaseOrder> spec = (root, query, cb) ->
                     cb.between(root.get("orderDate"),
-                            dataBundle.startDate(), dataBundle.endDate());
+                            period.startDate(), period.endDate());
 
             Page<PurchaseOrder> purchaseOrderPage = purchaseOrderRepository.findAll(spec, pageable);
             List<PurchaseReportRow> purchaseReportRows = mapPurchasesToReportRows(purchaseOrderPage.getContent());
@@ -150,11 +277,11 @@ public class ReportService {
         }
 
         return new OperationalReportJsonDTO(
-                dataBundle.reportTitle(),
-                dataBundle.totalSales(),
-                dataBundle.totalCostOfGoodsSold(),
-                dataBundle.grossProfit(),
-                dataBundle.totalPurchases(),
+                period.reportTitle(),
+                totals.totalSales(),
+                totals.totalCostOfGoodsSold(),
+                totals.grossProfit(),
+                totals.totalPurchases(),
                 salesPage,
                 purchasesPage
         );
@@ -162,7 +289,39 @@ public class ReportService {
 
     // -------------------- CARGA Y CÁLCULO --------------------
 
-    private ReportDataBundle gatherReportData(String reportType, LocalDate date) {
+    private ReportDataBundle gatherReportData(String reportType, LocalDate date, RecipeCostEngine costEngine) {
+        ReportPeriod period = resolvePeriod(reportType, date);
+        LocalDate startDate = period.startDate();
+        LocalDate endDate = period.endDate();
+
+        List<SalesOrder> allSalesInPeriod =
+                salesOrderRepository.findByOrderDateBetweenAndStatusIn(
+                        startDate, endDate, ReportRollupService.CONFIRMED_SALES_STATUSES);
+        costEngine.loadStoredCosts(allSalesInPeriod);
+
+        List<PurchaseOrder> allPurchasesInPeriod =
+                purchaseOrderRepository.findByOrderDateBetweenAndStatusNot(
+                        startDate, endDate, PurchaseOrderStatus.CANCELLED);
+
+        BigDecimal totalSales = allSalesInPeriod.stream()
+                .map(SalesOrder::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal totalPurchases = allPurchasesInPeriod.stream()
+                .map(PurchaseOrder::getTotalAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        BigDecimal totalCOGS = calculateCostOfGoodsSold(allSalesInPeriod, costEngine);
+        BigDecimal grossProfit = totalSales.subtract(totalCOGS);
+
+        return new ReportDataBundle(
+                period.reportTitle(), startDate, endDate,
+                allSalesInPeriod, allPurchasesInPeriod,
+                totalSales, totalPurchases, totalCOGS, grossProfit
+        );
+    }
+
+    static ReportPeriod resolvePeriod(String reportType, LocalDate date) {
         LocalDate startDate;
         LocalDate endDate;
         String reportTitle;
@@ -196,113 +355,105 @@ public class ReportService {
             }
         }
 
-        List<SalesOrder> allSalesInPeriod =
-                salesOrderRepository.findByOrderDateBetweenAndStatusNot(
-                        startDate, endDate, SalesOrderStatus.CANCELLED);
-
-        List<PurchaseOrder> allPurchasesInPeriod =
-                purchaseOrderRepository.findByOrderDateBetweenAndStatusNot(
-                        startDate, endDate, PurchaseOrderStatus.CANCELLED);
-
-        BigDecimal totalSales = allSalesInPeriod.stream()
-                .map(SalesOrder::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPurchases = allPurchasesInPeriod.stream()
-                .map(PurchaseOrder::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCOGS = calculateCostOfGoodsSold(allSalesInPeriod);
-        BigDecimal grossProfit = totalSales.subtract(totalCOGS);
-
-        return new ReportDataBundle(
-                reportTitle, startDate, endDate,
-                allSalesInPeriod, allPurchasesInPeriod,
-                totalSales, totalPurchases, totalCOGS, grossProfit
-        );
+        return new ReportPeriod(reportTitle, startDate, endDate);
     }
 
-    private List<SalesReportRow> mapSalesToReportRows(List<SalesOrder> sales) {
+    private List<SalesReportRow> mapSalesToReportRows(List<SalesOrder> sales, RecipeCostEngine costEngine) {
         if (sales == null || sales.isEmpty()) return Collections.emptyList();
 
         return sales.stream().flatMap(order -> {
             var items = order.getItems() != null
                     ? order.getItems()
-                    : Collections.<com.one.core.domain.model.tenant.sales.SalesOrderItem>emptyList();
-
-            String customer = order.getCustomer() != null ? order.getCustomer().getName() : "N/A";
-            String payMethod = order.getPaymentMethod() != null ? order.getPaymentMethod().toString() : "N/A";
-
-            return items.stream().map(item -> {
-                BigDecimal qty       = nz(item.getQuantity());
-                BigDecimal unitPrice = nz(item.getUnitPriceAtSale());
-                BigDecimal totalSale = qty.multiply(unitPrice);
-                BigDecimal itemCost  = nz(calculateSingleItemCost(item.getProduct()));
-                BigDecimal totalCost = itemCost.multiply(qty);
-                BigDecimal profit    = totalSale.subtract(totalCost);
-
-                return new SalesReportRow(
-                        order.getOrderDate(),
-                        order.getId(),
-                        customer,
-                        item.getProduct().getName(),
-                        qty,
-                        unitPrice,
-                        totalSale,
-                        totalCost,
-                        profit,
-                        payMethod
-                );
-            });
+                    : Collections.<SalesOrderItem>emptyList();
+
+            return items.stream().map(item -> toSalesReportRow(order, item, costEngine));
         }).collect(Collectors.toList());
     }
 
+    /**
+     * Escribe una tanda de ítems (órdenes completas) con los costos guardados de esas órdenes y
+     * vacía el contexto de persistencia. El total de cada orden se suma una sola vez.
+     */
+    private SalesChunkTotals writeSalesChunk(List<SalesOrderItem> chunk, RecipeCostEngine costEngine,
+                                             ExcelReportGenerator.StreamingReportWriter writer) {
+        costEngine.clearStoredCosts();
+        costEngine.loadStoredCosts(chunk.stream().map(SalesOrderItem::getSalesOrder).toList());
+        BigDecimal sales = BigDecimal.ZERO;
+        BigDecimal costOfGoodsSold = BigDecimal.ZERO;
+        Long lastOrderId = null;
+        for (SalesOrderItem item : chunk) {
+            SalesOrder order = item.getSalesOrder();
+            if (!order.getId().equals(lastOrderId)) {
+                sales = sales.add(nz(order.getTotalAmount()));
+                lastOrderId = order.getId();
+            }
+            SalesReportRow row = toSalesReportRow(order, item, costEngine);
+            costOfGoodsSold = costOfGoodsSold.add(row.totalCost());
+            writer.addSalesRow(row);
+        }
+        entityManager.clear();
+        return new SalesChunkTotals(sales, costOfGoodsSold);
+    }
+
+    private record SalesChunkTotals(BigDecimal sales, BigDecimal costOfGoodsSold) {}
+
+    private SalesReportRow toSalesReportRow(SalesOrder order, SalesOrderItem item, RecipeCostEngine costEngine) {
+        String customer = order.getCustomer() != null ? order.getCustomer().getName() : "N/A";
+        String payMethod = order.getPaymentMethod() != null ? order.getPaymentMethod().toString() : "N/A";
+
+        BigDecimal qty       = nz(item.getQuantity());
+        BigDecimal unitPrice = nz(item.getUnitPriceAtSale());
+        BigDecimal totalSale = qty.multiply(unitPrice);
+        BigDecimal totalCost = nz(costEngine.itemCost(order.getId(), item));
+        BigDecimal profit    = totalSale.subtract(totalCost);
+
+        return new SalesReportRow(
+                order.getOrderDate(),
+                order.getId(),
+                customer,
+                item.getProduct().getName(),
+                qty,
+                unitPrice,
+                totalSale,
+                totalCost,
+                profit,
+                payMethod
+        );
+    }
+
     private List<PurchaseReportRow> mapPurchasesToReportRows(List<PurchaseOrder> purchases) {
         if (purchases == null || purchases.isEmpty()) return Collections.emptyList();
 
         return purchases.stream().flatMap(order -> {
             var items = order.getItems() != null
                     ? order.getItems()
-                    : Collections.<com.one.core.domain.model.tenant.purchases.PurchaseOrderItem>emptyList();
-            String supplier = order.getSupplier() != null ? order.getSupplier().getName() : "N/A";
-            return items.stream().map(item -> {
-                BigDecimal qty      = nz(item.getQuantityOrdered());
-                BigDecimal unitCost = nz(item.getUnitPrice());
-                return new PurchaseReportRow(order.getOrderDate(), order.getId(), supplier,
-                        item.getProduct().getName(), qty, unitCost, qty.multiply(unitCost));
-            });
+                    : Collections.<PurchaseOrderItem>emptyList();
+            return items.stream().map(item -> toPurchaseReportRow(order, item));
         }).collect(Collectors.toList());
     }
 
-    private BigDecimal calculateCostOfGoodsSold(List<SalesOrder> sales) {
+    private PurchaseReportRow toPurchaseReportRow(PurchaseOrder order, PurchaseOrderItem item) {
+        String supplier = order.getSupplier() != null ? order.getSupplier().getName() : "N/A";
+        BigDecimal qty      = nz(item.getQuantityOrdered());
+        BigDecimal unitCost = nz(item.getUnitPrice());
+        return new PurchaseReportRow(order.getOrderDate(), order.getId(), supplier,
+                item.getProduct().getName(), qty, unitCost, qty.multiply(unitCost));
+    }
+
+    private BigDecimal calculateCostOfGoodsSold(List<SalesOrder> sales, RecipeCostEngine costEngine) {
         return sales.stream()
-                .flatMap(order -> order.getItems().stream())
-                .map(item -> calculateSingleItemCost(item.getProduct()).multiply(item.getQuantity()))
+                .flatMap(order -> order.getItems().stream().map(item -> costEngine.itemCost(order.getId(), item)))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private BigDecimal calculateSingleItemCost(Product product) {
-        return calculateSingleItemCost(product, 0);
+    /** Motor de costos por corrida: una única consulta de recetas, solo si hace falta. */
+    private RecipeCostEngine newCostEngine() {
+        return new RecipeCostEngine(() ->
+                RecipeGraph.from(productRecipeRepository.findAllWithProducts(), unitConversionService),
+                stockMovementRepository::findSaleCosts);
     }
 
-    private BigDecimal calculateSingleItemCost(Product product, int depth) {
-        if (product == null || depth > 5 || product.getProductType() == null) return BigDecimal.ZERO;
-
-        switch (product.getProductType()) {
-            case PHYSICAL_GOOD:
-                return n(product.getPurchasePrice());
-            case COMPOUND:
-                return productRecipeRepository.findByMainProductId(product.getId()).stream()
-                        .map(r -> {
-                            BigDecimal ingredientUnitCost = calculateSingleItemCost(r.getIngredientProduct(), depth + 1);
-                            BigDecimal qty = n(r.getQuantityRequired());
-                            return ingredientUnitCost.multiply(qty);
-                        })
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-            default:
-                return BigDecimal.ZERO;
-        }
-    }
+    record ReportPeriod(String reportTitle, LocalDate startDate, LocalDate endDate) {}
 
     private record ReportDataBundle(
             String reportTitle,
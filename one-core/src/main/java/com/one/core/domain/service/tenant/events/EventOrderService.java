@@ -1,6 +1,7 @@
 package com.one.core.domain.service.tenant.events;
 
 import com.one.core.application.dto.tenant.events.*;
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
 import com.one.core.application.dto.tenant.production.ProductionOrderRequestDTO;
 import com.one.core.application.exception.ResourceNotFoundException;
 import com.one.core.application.exception.ValidationException;
@@ -16,9 +17,11 @@ import com.one.core.domain.repository.admin.SystemUserRepository;
 import com.one.core.domain.repository.tenant.customer.CustomerRepository;
 import com.one.core.domain.repository.tenant.events.EventOrderRepository;
 import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.service.common.IdPageQuery;
 import com.one.core.domain.service.tenant.production.ProductionOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.one.core.application.dto.tenant.events.EventOrderFilterDTO;
@@ -27,6 +30,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 
 @Service
@@ -38,15 +43,17 @@ public class EventOrderService {
     private final SystemUserRepository systemUserRepository;
     private final ProductionOrderService productionOrderService;
     private final EventOrderMapper eventOrderMapper;
+    private final IdPageQuery idPageQuery;
 
     @Autowired
-    public EventOrderService(EventOrderRepository eventOrderRepository, ProductRepository productRepository, CustomerRepository customerRepository, SystemUserRepository systemUserRepository, ProductionOrderService productionOrderService, EventOrderMapper eventOrderMapper) {
+    public EventOrderService(EventOrderRepository eventOrderRepository, ProductRepository productRepository, CustomerRepository customerRepository, SystemUserRepository systemUserRepository, ProductionOrderService productionOrderService, EventOrderMapper eventOrderMapper, IdPageQuery idPageQuery) {
         this.eventOrderRepository = eventOrderRepository;
         this.productRepository = productRepository;
         this.customerRepository = customerRepository;
         this.systemUserRepository = systemUserRepository;
         this.productionOrderService = productionOrderService;
         this.eventOrderMapper = eventOrderMapper;
+        this.idPageQuery = idPageQuery;
     }
 
     @Transactional
@@ -90,37 +97,60 @@ public class EventOrderService {
         EventOrder savedOrder = eventOrderRepository.save(order);
         return eventOrderMapper.toDTO(savedOrder);
     }
+    /**
+     * Confirma el evento y produce todos sus ítems compuestos como un solo lote: la demanda de
+     * insumos de todo el pedido se valida junta antes de escribir nada, y si falta stock la
+     * respuesta (409) lista todos los insumos faltantes.
+     */
     @Transactional
     public EventOrderDTO confirmEventOrder(Long eventOrderId, UserPrincipal currentUser) {
-        EventOrder eventOrder = eventOrderRepository.findById(eventOrderId)
-                .orElseThrow(() -> new ResourceNotFoundException("EventOrder", "id", eventOrderId));
+        EventOrder eventOrder = findWithDetails(eventOrderId);
 
         if (eventOrder.getStatus() != EventOrderStatus.PENDING) {
             throw new ValidationException("Only PENDING orders can be confirmed.");
         }
 
         eventOrder.setStatus(EventOrderStatus.IN_PRODUCTION);
+        productionOrderService.createProductionOrders(productionRequests(eventOrder), currentUser);
+
+        EventOrder updatedOrder = eventOrderRepository.save(eventOrder);
+        return eventOrderMapper.toDTO(updatedOrder);
+    }
+
+    /** Insumos básicos que necesita el evento contra el stock actual (vista previa de la confirmación). */
+    @Transactional(readOnly = true)
+    public List<MaterialRequirementDTO> getMaterialRequirements(Long eventOrderId) {
+        return productionOrderService.getMaterialRequirements(productionRequests(findWithDetails(eventOrderId)));
+    }
+
+    private EventOrder findWithDetails(Long eventOrderId) {
+        return eventOrderRepository.findWithDetailsByIdIn(List.of(eventOrderId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("EventOrder", "id", eventOrderId));
+    }
 
+    private List<ProductionOrderRequestDTO> productionRequests(EventOrder eventOrder) {
+        List<ProductionOrderRequestDTO> requests = new ArrayList<>();
         for (EventOrderItem item : eventOrder.getItems()) {
             if (item.getProduct().getProductType() == ProductType.COMPOUND) {
                 ProductionOrderRequestDTO productionRequest = new ProductionOrderRequestDTO();
                 productionRequest.setProductId(item.getProduct().getId());
                 productionRequest.setQuantityProduced(item.getQuantity());
                 productionRequest.setNotes("Production for event #" + eventOrder.getId() + " on " + eventOrder.getEventDate());
-
-                productionOrderService.createProductionOrder(productionRequest, currentUser);
+                requests.add(productionRequest);
             }
         }
-
-        EventOrder updatedOrder = eventOrderRepository.save(eventOrder);
-        return eventOrderMapper.toDTO(updatedOrder);
+        return requests;
     }
 
     @Transactional(readOnly = true)
     public Page<EventOrderDTO> getAllEventOrders(EventOrderFilterDTO filter, Pageable pageable) {
         Specification<EventOrder> spec = EventOrderSpecification.filterBy(filter);
-        Page<EventOrder> eventPage = eventOrderRepository.findAll(spec, pageable);
-        return eventPage.map(eventOrderMapper::toDTO);
+        // Dos fases: página de IDs y luego los eventos con cliente, usuario e ítems en una sola query
+        Page<Long> idPage = idPageQuery.findIds(EventOrder.class, spec, pageable);
+        List<EventOrder> events = IdPageQuery.inIdOrder(idPage.getContent(),
+                eventOrderRepository.findWithDetailsByIdIn(idPage.getContent()), EventOrder::getId);
+        return new PageImpl<>(events.stream().map(eventOrderMapper::toDTO).toList(), pageable, idPage.getTotalElements());
     }
 
     @Transactional(readOnly = true)
@@ -12,13 +12,18 @@ import com.one.core.domain.model.tenant.expenses.FixedExpense;
 import com.one.core.domain.repository.admin.SystemUserRepository;
 import com.one.core.domain.repository.tenant.expenses.ExpenseLogsRepository;
 import com.one.core.domain.repository.tenant.expenses.FixedExpenseRepository;
+import com.one.core.domain.service.common.KeysetCursor;
+import com.one.core.domain.service.common.KeysetPage;
 import com.one.core.domain.service.tenant.expenses.criteria.ExpenseLogSpecification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class ExpenseLogService {
 
@@ -68,6 +73,22 @@ public class ExpenseLogService {
                 .map(expenseLogMapper::toDTO);
     }
 
+    /** Listado de gastos por keyset sobre (expenseDate, id); el total solo si se pide. */
+    @Transactional(readOnly = true)
+    public KeysetPage<ExpenseLogDTO> getAllExpenseLogs(ExpenseLogFilterDTO filterDTO, String cursor,
+                                                       int size, boolean includeTotal) {
+        KeysetCursor keysetCursor = cursor != null ? KeysetCursor.decode(cursor) : null;
+        Specification<ExpenseLogs> filter = ExpenseLogSpecification.filterBy(filterDTO);
+
+        List<ExpenseLogs> fetched = expenseLogsRepository.findBy(
+                filter.and(ExpenseLogSpecification.seek(keysetCursor)),
+                q -> q.sortBy(KeysetCursor.sortFor(keysetCursor, "expenseDate")).limit(size + 1).all());
+        Long total = includeTotal ? expenseLogsRepository.count(filter) : null;
+
+        return KeysetPage.of(fetched, size, keysetCursor, ExpenseLogSpecification::keyOf, total)
+                .map(expenseLogMapper::toDTO);
+    }
+
     @Transactional
     public void deleteExpenseLog(Long id) {
         if (!expenseLogsRepository.existsById(id)) {
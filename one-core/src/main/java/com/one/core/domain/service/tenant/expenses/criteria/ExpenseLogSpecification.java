@@ -2,9 +2,12 @@ package com.one.core.domain.service.tenant.expenses.criteria;
 
 import com.one.core.application.dto.tenant.expenses.ExpenseLogFilterDTO;
 import com.one.core.domain.model.tenant.expenses.ExpenseLogs;
+import com.one.core.domain.service.common.KeysetCursor;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,4 +32,14 @@ public class ExpenseLogSpecification {
             return cb.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    /** Filas después del cursor en orden (expenseDate, id) descendente. Sin cursor no filtra. */
+    public static Specification<ExpenseLogs> seek(KeysetCursor cursor) {
+        return cursor == null ? null : cursor.seek("expenseDate", LocalDate::parse);
+    }
+
+    /** Clave de cursor de un gasto. */
+    public static KeysetCursor keyOf(ExpenseLogs expense) {
+        return new KeysetCursor(expense.getExpenseDate().toString(), expense.getId(), false);
+    }
+}
@@ -0,0 +1,165 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.application.dto.tenant.inventory.CostRebuildResultDTO;
+import com.one.core.application.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recalcula el costo de todo el historial de movimientos del tenant con las mismas reglas que el alta
+ * de movimientos ({@link MovementCostCalculator}): reescribe {@code unit_cost} donde cambió y deja en
+ * {@code products.average_cost} el promedio final. Sirve para la carga inicial de costos y para
+ * corregir después de editar precios de compras viejas.
+ * <ul>
+ *   <li>Compras: el precio actual del ítem de la orden de compra; si no se encuentra, el costo guardado.</li>
+ *   <li>Stock inicial: el costo guardado o el precio de compra del producto.</li>
+ * </ul>
+ * Cada producto se reconstruye en su propia transacción con su fila bloqueada ({@link ProductCostRebuilder}),
+ * así solo esperan los movimientos del producto que se está recorriendo y no los de todo el catálogo.
+ * Los ingredientes van antes que los productos fabricados con ellos. Los rollups de reportes no se
+ * tocan: reconstruirlos después si cambiaron costos de ventas.
+ */
+@Service
+public class InventoryCostService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryCostService.class);
+
+    private static final String LOCK_NAMESPACE = "inventory_cost_rebuild";
+
+    private static final String PRODUCT_IDS_SQL = "SELECT id FROM products ORDER BY id";
+
+    // Qué ingredientes consumió cada producto fabricado, según los movimientos de producción
+    private static final String PRODUCTION_EDGES_SQL =
+            "SELECT DISTINCT c.product_id, p.product_id FROM stock_movements p " +
+                    "JOIN stock_movements c ON c.reference_document_type = p.reference_document_type " +
+                    "AND c.reference_document_id = p.reference_document_id " +
+                    "AND c.movement_type = 'COMPONENT_CONSUMPTION' " +
+                    "WHERE p.movement_type = 'PRODUCTION_IN'";
+
+    record ProductionEdge(long ingredientId, long outputId) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ProductCostRebuilder productCostRebuilder;
+
+    @Autowired
+    public InventoryCostService(ProductCostRebuilder productCostRebuilder) {
+        this.productCostRebuilder = productCostRebuilder;
+    }
+
+    /**
+     * La transacción externa solo sostiene el advisory lock contra reconstrucciones simultáneas; cada
+     * producto se escribe y confirma por separado, así que si falla a mitad quedan reconstruidos los
+     * anteriores y se puede volver a correr.
+     */
+    @Transactional
+    public CostRebuildResultDTO rebuildCosts() {
+        List<Long> productIds = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (!tryLock(connection)) {
+                throw new ValidationException("A cost rebuild is already running for this tenant.");
+            }
+            return ingredientsFirst(loadProductIds(connection), loadProductionEdges(connection));
+        });
+
+        long replayed = 0;
+        long updated = 0;
+        int productsUpdated = 0;
+        for (Long productId : productIds) {
+            ProductCostRebuilder.Result result = productCostRebuilder.rebuild(productId);
+            replayed += result.movementsReplayed();
+            updated += result.movementsUpdated();
+            if (result.averageWritten()) productsUpdated++;
+        }
+        // Los niveles de stock cargados en la sesión tienen el promedio viejo
+        entityManager.clear();
+        logger.info("Inventory costs rebuilt: {} movements replayed, {} updated, {} product averages written",
+                replayed, updated, productsUpdated);
+        return new CostRebuildResultDTO(replayed, updated, productsUpdated);
+    }
+
+    /**
+     * Ordena los productos para que cada ingrediente se reconstruya antes que lo fabricado con él.
+     * Si los movimientos forman un ciclo, los productos del ciclo van al final en el orden recibido.
+     */
+    static List<Long> ingredientsFirst(List<Long> productIds, List<ProductionEdge> edges) {
+        Map<Long, Integer> pendingIngredients = new HashMap<>();
+        Map<Long, List<Long>> outputsByIngredient = new HashMap<>();
+        for (ProductionEdge edge : edges) {
+            if (edge.ingredientId() == edge.outputId()) continue;
+            pendingIngredients.merge(edge.outputId(), 1, Integer::sum);
+            outputsByIngredient.computeIfAbsent(edge.ingredientId(), k -> new ArrayList<>()).add(edge.outputId());
+        }
+
+        List<Long> ordered = new ArrayList<>(productIds.size());
+        Set<Long> added = new HashSet<>();
+        Deque<Long> ready = new ArrayDeque<>();
+        for (Long id : productIds) {
+            if (!pendingIngredients.containsKey(id)) ready.add(id);
+        }
+        while (!ready.isEmpty()) {
+            Long id = ready.poll();
+            if (!added.add(id)) continue;
+            ordered.add(id);
+            for (Long output : outputsByIngredient.getOrDefault(id, List.of())) {
+                if (pendingIngredients.merge(output, -1, Integer::sum) == 0) ready.add(output);
+            }
+        }
+        for (Long id : productIds) {
+            if (added.add(id)) ordered.add(id);
+        }
+        return ordered;
+    }
+
+    private static List<Long> loadProductIds(Connection connection) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(PRODUCT_IDS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static List<ProductionEdge> loadProductionEdges(Connection connection) throws SQLException {
+        List<ProductionEdge> edges = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(PRODUCTION_EDGES_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                edges.add(new ProductionEdge(rs.getLong(1), rs.getLong(2)));
+            }
+        }
+        return edges;
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?), hashtext(current_schema()))")) {
+            ps.setString(1, LOCK_NAMESPACE);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -3,31 +3,54 @@ package com.one.core.domain.service.tenant.inventory;
 import com.one.core.application.dto.tenant.inventory.StockAdjustmentRequestDTO;
 import com.one.core.application.dto.tenant.inventory.StockMovementDTO;
 import com.one.core.application.dto.tenant.inventory.StockMovementFilterDTO;
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
 import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.exception.StockShortageException;
 import com.one.core.application.exception.ValidationException;
 import com.one.core.application.mapper.inventory.StockMovementMapper;
 import com.one.core.application.security.UserPrincipal;
+import com.one.core.config.multitenancy.TenantContext;
 import com.one.core.domain.model.admin.SystemUser;
 import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
 import com.one.core.domain.model.enums.movements.MovementType;
 import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.product.ProductStockLevel;
 import com.one.core.domain.model.tenant.product.StockMovement;
 import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.product.StockAvailability;
+import com.one.core.domain.repository.tenant.product.StockLevelAfterDelta;
 import com.one.core.domain.repository.tenant.product.StockMovementRepository;
+import com.one.core.domain.service.common.KeysetCursor;
+import com.one.core.domain.service.common.KeysetPage;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.inventory.criteria.StockMovementSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,6 +61,11 @@ public class InventoryService {
     private final ProductRepository productRepository;
     private final StockMovementRepository stockMovementRepository;
     private final StockMovementMapper stockMovementMapper;
+    private final UnitConversionService unitConversionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Value("${inventory.allow-negative:false}")
     private boolean allowNegativeInventory;
@@ -45,10 +73,14 @@ public class InventoryService {
     @Autowired
     public InventoryService(ProductRepository productRepository,
                             StockMovementRepository stockMovementRepository,
-                            StockMovementMapper stockMovementMapper) {
+                            StockMovementMapper stockMovementMapper,
+                            UnitConversionService unitConversionService,
+                            ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.stockMovementRepository = stockMovementRepository;
         this.stockMovementMapper = stockMovementMapper;
+        this.unitConversionService = unitConversionService;
+        this.eventPublisher = eventPublisher;
     }
 
     /** Helper: indica si el producto es stockeable (toca inventario). */
@@ -67,50 +99,241 @@ public class InventoryService {
         }
     }
 
-    @Transactional(propagation = Propagation.MANDATORY)
-    protected StockMovement recordMovementAndUpdateProductStock(
-            Long productId,
-            MovementType movementType,
-            BigDecimal quantityChanged,
-            String referenceDocumentType,
-            String referenceDocumentId,
-            Long performingSystemUserId,
-            String notes
-    ) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+    /**
+     * Requerimiento de insumos contra el stock actual, leído con una sola query. Las cantidades
+     * requeridas van en unidad base; el resultado se expresa en la unidad de cada producto.
+     */
+    @Transactional(readOnly = true)
+    public List<MaterialRequirementDTO> checkRequirements(Map<Long, BigDecimal> requiredBaseByProduct) {
+        if (requiredBaseByProduct.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, StockAvailability> stockById = productRepository.findStockAvailabilityByIdIn(requiredBaseByProduct.keySet())
+                .stream()
+                .collect(Collectors.toMap(StockAvailability::id, Function.identity()));
+
+        List<MaterialRequirementDTO> requirements = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : requiredBaseByProduct.entrySet()) {
+            StockAvailability stock = stockById.get(entry.getKey());
+            if (stock == null) {
+                throw new ResourceNotFoundException("Product", "id", entry.getKey());
+            }
+            UnitOfMeasure unit = stock.unitOfMeasure() != null ? stock.unitOfMeasure() : UnitOfMeasure.UNIT;
+            BigDecimal available = stock.currentStock() != null ? stock.currentStock() : BigDecimal.ZERO;
+            BigDecimal missing = entry.getValue().subtract(available.max(BigDecimal.ZERO)).max(BigDecimal.ZERO);
+            requirements.add(new MaterialRequirementDTO(stock.id(), stock.name(), stock.sku(), unit,
+                    unit.fromBase(entry.getValue()), unit.fromBase(available), unit.fromBase(missing)));
+        }
+        requirements.sort(Comparator.comparing(MaterialRequirementDTO::productName, Comparator.nullsLast(String::compareTo)));
+        return requirements;
+    }
+
+    /**
+     * Valida todo un lote de consumos antes de escribir nada: si falta stock de algún insumo (y no se
+     * permite stock negativo) lanza {@link StockShortageException} con todos los faltantes.
+     */
+    @Transactional(readOnly = true)
+    public void assertAvailable(Map<Long, BigDecimal> requiredBaseByProduct) {
+        if (allowNegativeInventory) {
+            return;
+        }
+        List<MaterialRequirementDTO> shortages = checkRequirements(requiredBaseByProduct).stream()
+                .filter(MaterialRequirementDTO::isShort)
+                .toList();
+        if (!shortages.isEmpty()) {
+            throw new StockShortageException(shortages);
+        }
+    }
 
-        validateProductIsStockable(product);
+    /**
+     * Aplica un lote de movimientos de stock: carga todos los productos afectados con una query,
+     * aplica el cambio neto de cada producto con un UPDATE atómico condicional (en orden ascendente
+     * de id, así dos lotes concurrentes toman los locks de fila en el mismo orden) e inserta los
+     * movimientos en batch. El stock resultante sale del RETURNING de la base, nunca de lo leído en Java.
+     */
+    @Transactional
+    public List<StockMovementDTO> applyMovements(List<StockDelta> deltas) {
+        return applyMovements(deltas, !allowNegativeInventory).stream()
+                .map(stockMovementMapper::toDTO)
+                .toList();
+    }
 
-        BigDecimal currentStock = product.getCurrentStock();
-        BigDecimal newStock = currentStock.add(quantityChanged);
+    private List<StockMovement> applyMovements(List<StockDelta> deltas, boolean enforceAvailability) {
+        if (deltas == null || deltas.isEmpty()) {
+            return List.of();
+        }
 
-        if (newStock.compareTo(BigDecimal.ZERO) < 0) {
-            logger.warn("Stock for product '{}' (ID: {}) is going negative. Current: {}, Change: {}, New: {}",
-                    product.getName(), productId, currentStock, quantityChanged, newStock);
+        // TreeMap: el cambio neto por producto queda ordenado por id
+        Map<Long, BigDecimal> netChangeByProduct = new TreeMap<>();
+        for (StockDelta delta : deltas) {
+            if (delta.quantityChanged() == null || delta.quantityChanged().signum() == 0) {
+                throw new ValidationException("Stock movement quantity must be non-zero for product ID: " + delta.productId());
+            }
+            netChangeByProduct.merge(delta.productId(), delta.quantityChanged(), BigDecimal::add);
         }
 
-        product.setCurrentStock(newStock);
-        productRepository.save(product);
+        Map<Long, Product> productsById = productRepository.findAllById(netChangeByProduct.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-        SystemUser performingUserProxy = null;
-        if (performingSystemUserId != null) {
-            performingUserProxy = new SystemUser();
-            performingUserProxy.setId(performingSystemUserId);
+        for (Long productId : netChangeByProduct.keySet()) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            validateProductIsStockable(product);
         }
 
-        StockMovement movement = new StockMovement();
-        movement.setProduct(product);
-        movement.setMovementType(movementType);
-        movement.setQuantityChanged(quantityChanged);
-        movement.setStockAfterMovement(newStock);
-        movement.setMovementDate(OffsetDateTime.now());
-        movement.setReferenceDocumentType(referenceDocumentType);
-        movement.setReferenceDocumentId(referenceDocumentId);
-        movement.setUser(performingUserProxy);
-        movement.setNotes(notes);
+        Map<Long, BigDecimal> stockAfterByProduct = new HashMap<>();
+        Map<Long, StockLevelAfterDelta> levelsByProduct = new HashMap<>();
+        List<LowStockEvent.Crossing> crossings = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : netChangeByProduct.entrySet()) {
+            Product product = productsById.get(entry.getKey());
+            BigDecimal netChange = entry.getValue();
+            boolean allowNegative = !enforceAvailability || netChange.signum() >= 0;
+
+            StockLevelAfterDelta level = productRepository.applyStockDeltaReturningLevel(product.getId(), netChange, allowNegative)
+                    .orElseThrow(() -> insufficientStock(product, netChange.negate()));
+            BigDecimal newStock = level.getCurrentStock();
+            levelsByProduct.put(product.getId(), level);
+
+            if (newStock.compareTo(BigDecimal.ZERO) < 0) {
+                logger.warn("Stock for product '{}' (ID: {}) is going negative. Change: {}, New: {}",
+                        product.getName(), product.getId(), netChange, newStock);
+            }
+            syncCurrentStock(product, newStock);
+            stockAfterByProduct.put(product.getId(), newStock);
+            addMinimumCrossing(crossings, product, newStock.subtract(netChange), newStock);
+        }
+
+        // Costos: hacia adelante, partiendo del stock total (disponible + congelado) previo al lote
+        MovementCostCalculator costs = new MovementCostCalculator(productId -> {
+            StockLevelAfterDelta level = levelsByProduct.get(productId);
+            BigDecimal onHandBefore = level.getCurrentStock().add(level.getFrozenStock())
+                    .subtract(netChangeByProduct.get(productId));
+            BigDecimal averageCost = level.getAverageCost() != null
+                    ? level.getAverageCost()
+                    : purchasePricePerBaseUnit(productsById.get(productId));
+            return new WeightedAverageCost(onHandBefore, averageCost);
+        });
+        BigDecimal[] unitCosts = new BigDecimal[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            StockDelta delta = deltas.get(i);
+            unitCosts[i] = costs.apply(delta.productId(), delta.movementType(), delta.quantityChanged(),
+                    delta.referenceDocumentType(), delta.referenceDocumentId(), delta.unitCost());
+        }
+        costs.states().forEach((productId, state) -> {
+            BigDecimal previous = levelsByProduct.get(productId).getAverageCost();
+            BigDecimal updated = state.averageCost();
+            if (updated != null && (previous == null || previous.compareTo(updated) != 0)) {
+                productRepository.updateAverageCost(productId, updated);
+                syncAverageCost(productsById.get(productId), updated);
+            }
+        });
+
+        // El stock posterior de cada línea se reconstruye hacia atrás desde el valor devuelto por la base
+        OffsetDateTime now = OffsetDateTime.now();
+        StockMovement[] movements = new StockMovement[deltas.size()];
+        for (int i = deltas.size() - 1; i >= 0; i--) {
+            StockDelta delta = deltas.get(i);
+            BigDecimal stockAfter = stockAfterByProduct.get(delta.productId());
+
+            StockMovement movement = new StockMovement();
+            movement.setProduct(productsById.get(delta.productId()));
+            movement.setMovementType(delta.movementType());
+            movement.setQuantityChanged(delta.quantityChanged());
+            movement.setStockAfterMovement(stockAfter);
+            movement.setMovementDate(now);
+            movement.setReferenceDocumentType(delta.referenceDocumentType());
+            movement.setReferenceDocumentId(delta.referenceDocumentId());
+            movement.setUser(systemUserProxy(delta.userId()));
+            movement.setNotes(delta.notes());
+            movement.setUnitCost(unitCosts[i]);
+            movements[i] = movement;
+
+            stockAfterByProduct.put(delta.productId(), stockAfter.subtract(delta.quantityChanged()));
+        }
 
-        return stockMovementRepository.save(movement);
+        publishLowStock(crossings);
+        return stockMovementRepository.saveAll(Arrays.asList(movements));
+    }
+
+    /**
+     * Registra el cruce del stock mínimo si el cambio de {@code before} a {@code after} lo atraviesa,
+     * en cualquier sentido. Sin mínimo configurado (0 o null) no hay nada que cruzar.
+     */
+    private void addMinimumCrossing(List<LowStockEvent.Crossing> crossings, Product product,
+                                    BigDecimal before, BigDecimal after) {
+        BigDecimal minimum = product.getMinimumStockLevel();
+        LowStockEvent.Crossing crossing = LowStockEvent.crossing(product.getId(), before, minimum, after, minimum);
+        if (crossing != null) {
+            crossings.add(crossing);
+        }
+    }
+
+    /** Congelar y descongelar mueven stock disponible sin registrar movimientos, pero también cruzan el mínimo. */
+    private void notifyMinimumCrossing(Product product, BigDecimal before, BigDecimal after) {
+        List<LowStockEvent.Crossing> crossings = new ArrayList<>();
+        addMinimumCrossing(crossings, product, before, after);
+        publishLowStock(crossings);
+    }
+
+    /**
+     * Abre o resuelve la alerta de stock bajo cuando cambia el mínimo de un producto (edición): compara
+     * si estaba por debajo con el stock y mínimo anteriores y si lo está con los nuevos.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyMinimumChange(Long productId, BigDecimal stockBefore, BigDecimal minimumBefore,
+                                    BigDecimal stockAfter, BigDecimal minimumAfter) {
+        LowStockEvent.Crossing crossing = LowStockEvent.crossing(productId, stockBefore, minimumBefore, stockAfter, minimumAfter);
+        if (crossing != null) {
+            publishLowStock(List.of(crossing));
+        }
+    }
+
+    private void publishLowStock(List<LowStockEvent.Crossing> crossings) {
+        if (!crossings.isEmpty()) {
+            eventPublisher.publishEvent(new LowStockEvent(TenantContext.getCurrentTenantSchema(), crossings));
+        }
+    }
+
+    /**
+     * Refleja en memoria el stock devuelto por la base, solo si el nivel de stock ya está cargado
+     * en esta sesión (si no, se leerá fresco cuando se acceda).
+     */
+    private void syncCurrentStock(Product product, BigDecimal newStock) {
+        ProductStockLevel stockLevel = product.getStockLevel();
+        if (stockLevel != null && Hibernate.isInitialized(stockLevel)) {
+            stockLevel.syncCurrentStock(newStock);
+        }
+    }
+
+    private void syncAverageCost(Product product, BigDecimal averageCost) {
+        ProductStockLevel stockLevel = product.getStockLevel();
+        if (stockLevel != null && Hibernate.isInitialized(stockLevel)) {
+            stockLevel.syncAverageCost(averageCost);
+        }
+    }
+
+    /** Costo de respaldo para productos sin promedio todavía: el precio de compra por unidad base. */
+    private BigDecimal purchasePricePerBaseUnit(Product product) {
+        return unitConversionService.toPricePerBaseUnit(product.getPurchasePrice(), product.getUnitOfMeasure());
+    }
+
+    private ValidationException insufficientStock(Product product, BigDecimal requested) {
+        BigDecimal available = productRepository.findCurrentStockById(product.getId()).orElse(BigDecimal.ZERO);
+        return new ValidationException(
+                String.format("Insufficient stock for product '%s' (ID: %d). Requested: %s, Available: %s",
+                        product.getName(), product.getId(), requested, available)
+        );
+    }
+
+    private SystemUser systemUserProxy(Long systemUserId) {
+        if (systemUserId == null) {
+            return null;
+        }
+        SystemUser performingUserProxy = new SystemUser();
+        performingUserProxy.setId(systemUserId);
+        return performingUserProxy;
     }
 
     @Transactional
@@ -119,9 +342,8 @@ public class InventoryService {
         if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ValidationException("Incoming stock quantity must be positive.");
         }
-        StockMovement movement = recordMovementAndUpdateProductStock(
-                productId, movementType, quantity, referenceType, referenceId, performingSystemUserId, notes);
-        return stockMovementMapper.toDTO(movement);
+        return applyMovements(List.of(StockDelta.in(
+                productId, quantity, movementType, referenceType, referenceId, performingSystemUserId, notes))).get(0);
     }
 
     @Transactional
@@ -130,21 +352,8 @@ public class InventoryService {
         if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ValidationException("Outgoing stock quantity must be positive.");
         }
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
-
-        validateProductIsStockable(product);
-
-        if (!allowNegativeInventory && product.getCurrentStock().compareTo(quantity) < 0) {
-            throw new ValidationException(
-                    String.format("Insufficient stock for product '%s' (ID: %d). Requested: %s, Available: %s",
-                            product.getName(), productId, quantity, product.getCurrentStock())
-            );
-        }
-        StockMovement movement = recordMovementAndUpdateProductStock(
-                productId, movementType, quantity.negate(), referenceType, referenceId, performingSystemUserId, notes);
-        return stockMovementMapper.toDTO(movement);
+        return applyMovements(List.of(StockDelta.out(
+                productId, quantity, movementType, referenceType, referenceId, performingSystemUserId, notes))).get(0);
     }
 
     @Transactional
@@ -158,16 +367,34 @@ public class InventoryService {
                 ? adjustmentDTO.getQuantityAdjusted().negate()
                 : adjustmentDTO.getQuantityAdjusted();
 
-        StockMovement movement = recordMovementAndUpdateProductStock(
-                adjustmentDTO.getProductId(),
-                type,
-                quantityChangedForStock,
-                "MANUAL_ADJUSTMENT",
-                null,
-                currentUser.getId(),
-                adjustmentDTO.getReason()
-        );
-        return stockMovementMapper.toDTO(movement);
+        // Los ajustes manuales pueden dejar stock negativo (solo se loguea), como siempre
+        StockDelta delta = new StockDelta(adjustmentDTO.getProductId(), type, quantityChangedForStock,
+                "MANUAL_ADJUSTMENT", null, currentUser.getId(), adjustmentDTO.getReason());
+        return stockMovementMapper.toDTO(applyMovements(List.of(delta), false).get(0));
+    }
+
+    /**
+     * Lleva el stock de un producto a un valor absoluto (edición de producto) registrando la
+     * diferencia como ajuste. Como manual, puede dejar stock negativo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustStockTo(Product product, BigDecimal targetStock, Long performingSystemUserId, String reason) {
+        BigDecimal difference = targetStock.subtract(product.getCurrentStock());
+        if (difference.signum() == 0) {
+            return;
+        }
+
+        // No stockeables: se normaliza la columna sin registrar movimiento
+        if (!isStockable(product.getProductType())) {
+            productRepository.applyStockDelta(product.getId(), difference, true)
+                    .ifPresent(newStock -> syncCurrentStock(product, newStock));
+            return;
+        }
+
+        MovementType type = difference.signum() > 0 ? MovementType.ADJUSTMENT_IN : MovementType.ADJUSTMENT_OUT;
+        StockDelta delta = new StockDelta(product.getId(), type, difference,
+                "PRODUCT_UPDATE", "ID:" + product.getId(), performingSystemUserId, reason);
+        applyMovements(List.of(delta), false);
     }
 
     @Transactional(readOnly = true)
@@ -209,42 +436,69 @@ public class InventoryService {
     }
 
     /**
-     * Registra únicamente el movimiento de stock inicial para un producto recién creado.
-     * NO modifica el stock del producto, asume que ya fue establecido durante la creación.
+     * Listado de movimientos por keyset: lee {@code size + 1} filas después del cursor usando el
+     * orden (movementDate, id), sin OFFSET ni count salvo que se pida {@code includeTotal}.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<StockMovementDTO> getStockMovements(StockMovementFilterDTO filterDTO, String cursor,
+                                                         int size, boolean includeTotal) {
+        KeysetCursor keysetCursor = cursor != null ? KeysetCursor.decode(cursor) : null;
+        Specification<StockMovement> filter = StockMovementSpecification.filterBy(filterDTO);
+
+        List<StockMovement> fetched = stockMovementRepository.findBy(
+                filter.and(StockMovementSpecification.seek(keysetCursor)),
+                q -> q.sortBy(KeysetCursor.sortFor(keysetCursor, "movementDate")).limit(size + 1).all());
+        Long total = includeTotal ? stockMovementRepository.count(filter) : null;
+
+        return KeysetPage.of(fetched, size, keysetCursor, StockMovementSpecification::keyOf, total)
+                .map(stockMovementMapper::toDTO);
+    }
+
+    /**
+     * Carga el stock inicial de un producto recién creado y registra su movimiento. El stock no
+     * forma parte de {@link Product}: se escribe con el mismo UPDATE atómico que el resto. Si el
+     * producto queda por debajo de su mínimo se abre la alerta de stock bajo.
      */
     @Transactional(propagation = Propagation.MANDATORY)
-    public void recordInitialStockMovement(Product product, Long performingSystemUserId) {
+    public void recordInitialStock(Product product, BigDecimal initialStock, Long performingSystemUserId) {
+        product.setStockLevel(entityManager.getReference(ProductStockLevel.class, product.getId()));
+
         // Skip: productos no stockeables (SERVICE/SUBSCRIPTION/DIGITAL)
         if (!isStockable(product.getProductType())) {
             logger.debug("Skipping initial stock movement for non-stockable product id {}", product.getId());
             return;
         }
 
-        BigDecimal initialStock = product.getCurrentStock();
-
-        // Si no hay stock inicial, no se registra nada
+        // Si no hay stock inicial, no se registra nada, pero con mínimo configurado arranca por debajo
+        // (el stock previo null cuenta como "no estaba por debajo": el producto no existía)
         if (initialStock == null || initialStock.compareTo(BigDecimal.ZERO) <= 0) {
+            notifyMinimumCrossing(product, null, BigDecimal.ZERO);
             return;
         }
 
-        SystemUser performingUserProxy = null;
-        if (performingSystemUserId != null) {
-            performingUserProxy = new SystemUser();
-            performingUserProxy.setId(performingSystemUserId);
-        }
+        BigDecimal stockAfter = productRepository.applyStockDelta(product.getId(), initialStock, true)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", product.getId()));
 
         StockMovement movement = new StockMovement();
         movement.setProduct(product);
         movement.setMovementType(MovementType.INITIAL_STOCK);
         movement.setQuantityChanged(initialStock);
-        movement.setStockAfterMovement(initialStock);
+        movement.setStockAfterMovement(stockAfter);
         movement.setMovementDate(OffsetDateTime.now());
         movement.setReferenceDocumentType("PRODUCT_CREATION");
         movement.setReferenceDocumentId("ID:" + product.getId());
-        movement.setUser(performingUserProxy);
+        movement.setUser(systemUserProxy(performingSystemUserId));
         movement.setNotes("Carga de stock inicial por creación de producto.");
 
+        // El stock inicial entra al precio de compra y fija el primer costo promedio
+        BigDecimal unitCost = purchasePricePerBaseUnit(product);
+        movement.setUnitCost(unitCost);
+        if (unitCost != null) {
+            productRepository.updateAverageCost(product.getId(), unitCost);
+        }
+
         stockMovementRepository.save(movement);
+        notifyMinimumCrossing(product, null, stockAfter);
         logger.info("Initial stock movement recorded for product ID {} with quantity {}.", product.getId(), initialStock);
     }
 
@@ -259,14 +513,12 @@ public class InventoryService {
 
         validateProductIsStockable(product); // añadido
 
-        if (product.getCurrentStock().compareTo(quantityToFreeze) < 0) {
-            throw new ValidationException("Insufficient available stock to freeze. Available: " + product.getCurrentStock() + ", Requested: " + quantityToFreeze);
-        }
-
-        product.setCurrentStock(product.getCurrentStock().subtract(quantityToFreeze));
-        product.setFrozenStock(product.getFrozenStock().add(quantityToFreeze));
-
-        productRepository.save(product);
+        // Atómico: la condición se evalúa sobre el valor actual de la fila, no sobre lo leído
+        BigDecimal stockAfter = productRepository.freezeStock(productId, quantityToFreeze)
+                .orElseThrow(() -> new ValidationException("Insufficient available stock to freeze. Available: "
+                        + productRepository.findCurrentStockById(productId).orElse(BigDecimal.ZERO)
+                        + ", Requested: " + quantityToFreeze));
+        notifyMinimumCrossing(product, stockAfter.add(quantityToFreeze), stockAfter);
     }
 
     @Transactional
@@ -280,12 +532,10 @@ public class InventoryService {
 
         validateProductIsStockable(product); // añadido
 
-        if (product.getFrozenStock().compareTo(quantityToThaw) < 0) {
-            throw new ValidationException("Stock insuficiente para descongelar. Freezado: " + product.getFrozenStock() + ", Solicitado: " + quantityToThaw);
-        }
-
-        product.setFrozenStock(product.getFrozenStock().subtract(quantityToThaw));
-        product.setCurrentStock(product.getCurrentStock().add(quantityToThaw));
-        productRepository.save(product);
+        BigDecimal stockAfter = productRepository.thawStock(productId, quantityToThaw)
+                .orElseThrow(() -> new ValidationException("Stock insuficiente para descongelar. Freezado: "
+                        + productRepository.findFrozenStockById(productId).orElse(BigDecimal.ZERO)
+                        + ", Solicitado: " + quantityToThaw));
+        notifyMinimumCrossing(product, stockAfter.subtract(quantityToThaw), stockAfter);
     }
 }
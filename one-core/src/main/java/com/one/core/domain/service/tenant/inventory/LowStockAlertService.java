@@ -0,0 +1,63 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.application.dto.tenant.inventory.LowStockAlertDTO;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.LowStockAlert;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.repository.tenant.product.LowStockAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Alertas de stock bajo a partir de los cruces del mínimo que informan {@link InventoryService} (movimientos,
+ * stock inicial, cambios de mínimo) y la importación de productos: no hay ningún recorrido periódico de productos. Las alertas se escriben antes del commit, en la misma
+ * transacción que el cambio de stock, así una alerta existe si y solo si el movimiento quedó confirmado.
+ * El índice único parcial de la tabla hace que un producto tenga a lo sumo una alerta abierta.
+ */
+@Service
+public class LowStockAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockAlertService.class);
+
+    private final LowStockAlertRepository lowStockAlertRepository;
+
+    @Autowired
+    public LowStockAlertService(LowStockAlertRepository lowStockAlertRepository) {
+        this.lowStockAlertRepository = lowStockAlertRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onLowStock(LowStockEvent event) {
+        for (LowStockEvent.Crossing crossing : event.crossings()) {
+            if (crossing.below()) {
+                if (lowStockAlertRepository.openAlert(crossing.productId(), crossing.stockAfter(), crossing.minimumStockLevel()) > 0) {
+                    logger.info("Low stock alert opened in {} for product {}: {} < {}", event.tenantSchema(),
+                            crossing.productId(), crossing.stockAfter(), crossing.minimumStockLevel());
+                }
+            } else {
+                lowStockAlertRepository.resolveAlert(crossing.productId());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<LowStockAlertDTO> getOpenAlerts() {
+        return lowStockAlertRepository.findOpenWithProduct().stream()
+                .map(LowStockAlertService::toDTO)
+                .toList();
+    }
+
+    private static LowStockAlertDTO toDTO(LowStockAlert alert) {
+        Product product = alert.getProduct();
+        UnitOfMeasure unit = product.getUnitOfMeasure() != null ? product.getUnitOfMeasure() : UnitOfMeasure.UNIT;
+        return new LowStockAlertDTO(alert.getId(), product.getId(), product.getName(), product.getSku(), unit,
+                unit.fromBase(alert.getStockAtAlert()), unit.fromBase(alert.getMinimumStockLevel()), alert.getTriggeredAt());
+    }
+}
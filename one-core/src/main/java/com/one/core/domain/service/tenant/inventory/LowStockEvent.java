@@ -0,0 +1,30 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Uno o más productos cruzaron su stock mínimo con los cambios de una operación de inventario:
+ * {@code below} true si quedaron por debajo, false si volvieron al mínimo. Stock en unidad base.
+ */
+public record LowStockEvent(String tenantSchema, List<Crossing> crossings) {
+
+    public record Crossing(Long productId, BigDecimal stockAfter, BigDecimal minimumStockLevel, boolean below) {
+    }
+
+    /** Sin mínimo configurado (0 o null) un producto nunca está por debajo. */
+    public static boolean isBelowMinimum(BigDecimal stock, BigDecimal minimum) {
+        return minimum != null && minimum.signum() > 0 && stock != null && stock.compareTo(minimum) < 0;
+    }
+
+    /**
+     * El cruce entre el estado anterior y el nuevo de un producto, o null si quedó del mismo lado.
+     * Cambia tanto por el stock como por el mínimo (subirlo abre la alerta, bajarlo o quitarlo la resuelve).
+     */
+    public static Crossing crossing(Long productId, BigDecimal stockBefore, BigDecimal minimumBefore,
+                                    BigDecimal stockAfter, BigDecimal minimumAfter) {
+        boolean wasBelow = isBelowMinimum(stockBefore, minimumBefore);
+        boolean isBelow = isBelowMinimum(stockAfter, minimumAfter);
+        return wasBelow != isBelow ? new Crossing(productId, stockAfter, minimumAfter, isBelow) : null;
+    }
+}
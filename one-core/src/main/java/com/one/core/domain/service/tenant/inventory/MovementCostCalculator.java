@@ -0,0 +1,71 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.domain.model.enums.movements.MovementType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Asigna el costo unitario a una secuencia de movimientos, en orden, con un
+ * {@link WeightedAverageCost} por producto. Lo usan el alta de movimientos (un lote) y la
+ * reconstrucción completa del historial, así las dos aplican exactamente las mismas reglas:
+ * <ul>
+ *   <li>entradas con costo propio (compras): recalculan el promedio;</li>
+ *   <li>PRODUCTION_IN: entra al costo de los COMPONENT_CONSUMPTION de la misma orden de producción
+ *       vistos antes en la secuencia (si alguno no tenía costo, entra al promedio);</li>
+ *   <li>otras entradas (ajustes, devoluciones, cancelaciones): al promedio vigente;</li>
+ *   <li>salidas: al promedio vigente.</li>
+ * </ul>
+ */
+final class MovementCostCalculator {
+
+    private final Function<Long, WeightedAverageCost> initialState;
+    private final Map<Long, WeightedAverageCost> states = new HashMap<>();
+    private final Map<String, BigDecimal> consumedByReference = new HashMap<>();
+    private final Set<String> uncostedReferences = new HashSet<>();
+
+    MovementCostCalculator(Function<Long, WeightedAverageCost> initialState) {
+        this.initialState = initialState;
+    }
+
+    /** Procesa un movimiento y devuelve su costo por unidad base (null si no se conoce). */
+    BigDecimal apply(Long productId, MovementType movementType, BigDecimal quantityChanged,
+                     String referenceType, String referenceId, BigDecimal explicitUnitCost) {
+        WeightedAverageCost state = states.computeIfAbsent(productId, initialState);
+        String reference = referenceType + ":" + referenceId;
+
+        if (quantityChanged.signum() < 0) {
+            BigDecimal outgoing = quantityChanged.negate();
+            BigDecimal unitCost = state.issue(outgoing);
+            if (movementType == MovementType.COMPONENT_CONSUMPTION) {
+                if (unitCost == null) {
+                    uncostedReferences.add(reference);
+                } else {
+                    consumedByReference.merge(reference, outgoing.multiply(unitCost), BigDecimal::add);
+                }
+            }
+            return unitCost;
+        }
+
+        if (explicitUnitCost != null) {
+            return state.receive(quantityChanged, explicitUnitCost);
+        }
+        if (movementType == MovementType.PRODUCTION_IN) {
+            BigDecimal consumed = consumedByReference.remove(reference);
+            if (consumed != null && !uncostedReferences.remove(reference)) {
+                return state.receive(quantityChanged, consumed.divide(quantityChanged, WeightedAverageCost.SCALE, RoundingMode.HALF_UP));
+            }
+        }
+        return state.receiveAtAverage(quantityChanged);
+    }
+
+    /** Estado final de cada producto tocado. */
+    Map<Long, WeightedAverageCost> states() {
+        return states;
+    }
+}
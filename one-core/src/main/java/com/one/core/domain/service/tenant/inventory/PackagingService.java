@@ -70,7 +70,11 @@ public class PackagingService {
 
         BigDecimal quantityInBase = unitConversionService.toBaseUnit(quantity, packagingProduct.getUnitOfMeasure());
 
-        return inventoryService.processOutgoingStock(
+        if (quantityInBase == null || quantityInBase.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ValidationException("Outgoing stock quantity must be positive.");
+        }
+
+        StockDelta delta = StockDelta.out(
                 packagingId,
                 quantityInBase,
                 MovementType.PACKAGING_CONSUMPTION,
@@ -78,5 +82,6 @@ public class PackagingService {
                 productId != null ? productId.toString() : null,
                 currentUser.getId(),
                 productId != null ? "Packaging consumed for product ID: " + productId : "Packaging consumption");
+        return inventoryService.applyMovements(List.of(delta)).get(0);
     }
 }
@@ -0,0 +1,210 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.enums.movements.MovementType;
+import com.one.core.domain.service.common.UnitConversionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Un paso de {@link InventoryCostService#rebuildCosts()}: recalcula el historial de costos de un
+ * producto en su propia transacción, con la fila del producto bloqueada ({@code SELECT ... FOR UPDATE}).
+ * Los movimientos nuevos de ese producto esperan a que termine (el alta de movimientos actualiza la
+ * misma fila) y los del resto siguen sin bloqueo.
+ * <p>
+ * Un PRODUCTION_IN entra al costo guardado de los COMPONENT_CONSUMPTION de su orden de producción,
+ * por eso los ingredientes tienen que reconstruirse antes que los productos que los usan.
+ */
+@Service
+public class ProductCostRebuilder {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String LOCK_PRODUCT_SQL =
+            "SELECT purchase_price, unit_of_measure FROM products WHERE id = ? FOR UPDATE";
+
+    // Si el producto aparece en varias líneas de la misma orden, el precio se pondera por lo recibido
+    // en cada una (sin nada recibido todavía, el promedio simple de las líneas)
+    private static final String PURCHASE_PRICES_SQL =
+            "SELECT purchase_order_id, COALESCE(SUM(unit_price * COALESCE(quantity_received, 0)) " +
+                    "/ NULLIF(SUM(COALESCE(quantity_received, 0)), 0), AVG(unit_price)) " +
+                    "FROM purchase_order_items WHERE product_id = ? GROUP BY purchase_order_id";
+
+    // Para cada PRODUCTION_IN, el costo de los consumos de la misma orden registrados antes que él
+    private static final String MOVEMENTS_SQL =
+            "SELECT m.id, m.movement_type, m.quantity_changed, m.reference_document_type, m.reference_document_id, " +
+                    "m.unit_cost, c.consumed, c.uncosted " +
+                    "FROM stock_movements m " +
+                    "LEFT JOIN LATERAL (" +
+                    "SELECT SUM(-s.quantity_changed * s.unit_cost) AS consumed, COUNT(*) - COUNT(s.unit_cost) AS uncosted " +
+                    "FROM stock_movements s " +
+                    "WHERE s.movement_type = 'COMPONENT_CONSUMPTION' " +
+                    "AND s.reference_document_type = m.reference_document_type " +
+                    "AND s.reference_document_id = m.reference_document_id " +
+                    "AND (s.movement_date, s.id) < (m.movement_date, m.id)" +
+                    ") c ON m.movement_type = 'PRODUCTION_IN' " +
+                    "WHERE m.product_id = ? ORDER BY m.movement_date, m.id";
+
+    private static final String UPDATE_MOVEMENT_SQL =
+            "UPDATE stock_movements SET unit_cost = ? WHERE id = ?";
+
+    private static final String UPDATE_AVERAGE_SQL =
+            "UPDATE products SET average_cost = ? WHERE id = ?";
+
+    /** Lo que hizo la reconstrucción de un producto. */
+    public record Result(long movementsReplayed, long movementsUpdated, boolean averageWritten) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UnitConversionService unitConversionService;
+
+    @Autowired
+    public ProductCostRebuilder(UnitConversionService unitConversionService) {
+        this.unitConversionService = unitConversionService;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Result rebuild(long productId) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> rebuild(connection, productId));
+    }
+
+    private Result rebuild(Connection connection, long productId) throws SQLException {
+        BigDecimal purchasePrice;
+        UnitOfMeasure unitOfMeasure;
+        try (PreparedStatement ps = connection.prepareStatement(LOCK_PRODUCT_SQL)) {
+            ps.setLong(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    // Se borró después de armar la lista
+                    return new Result(0, 0, false);
+                }
+                purchasePrice = rs.getBigDecimal(1);
+                String unit = rs.getString(2);
+                unitOfMeasure = unit != null ? UnitOfMeasure.valueOf(unit) : UnitOfMeasure.UNIT;
+            }
+        }
+        BigDecimal productPrice = unitConversionService.toPricePerBaseUnit(purchasePrice, unitOfMeasure);
+        Map<Long, BigDecimal> purchasePrices = loadPurchasePrices(connection, productId);
+        MovementCostCalculator costs = new MovementCostCalculator(id -> new WeightedAverageCost(BigDecimal.ZERO, productPrice));
+
+        long replayed = 0;
+        long updated = 0;
+        try (PreparedStatement select = connection.prepareStatement(MOVEMENTS_SQL);
+             PreparedStatement update = connection.prepareStatement(UPDATE_MOVEMENT_SQL)) {
+            select.setFetchSize(FETCH_SIZE);
+            select.setLong(1, productId);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    long movementId = rs.getLong(1);
+                    MovementType type = MovementType.valueOf(rs.getString(2));
+                    BigDecimal quantityChanged = rs.getBigDecimal(3);
+                    String referenceType = rs.getString(4);
+                    String referenceId = rs.getString(5);
+                    BigDecimal storedCost = rs.getBigDecimal(6);
+                    replayed++;
+                    if (quantityChanged == null || quantityChanged.signum() == 0) {
+                        continue;
+                    }
+
+                    BigDecimal explicitCost = switch (type) {
+                        case PURCHASE_RECEIPT -> {
+                            BigDecimal linePrice = purchaseLinePrice(purchasePrices, unitOfMeasure, referenceType, referenceId);
+                            yield linePrice != null ? linePrice : storedCost;
+                        }
+                        case INITIAL_STOCK -> storedCost != null ? storedCost : productPrice;
+                        case PRODUCTION_IN -> productionCost(rs.getBigDecimal(7), rs.getLong(8), quantityChanged);
+                        default -> null;
+                    };
+                    BigDecimal unitCost = costs.apply(productId, type, quantityChanged, referenceType, referenceId, explicitCost);
+                    if (unitCost == null && type == MovementType.SALE_CONFIRMED) {
+                        // Sin costo que reconstruir queda el estimado con que la venta entró a los reportes
+                        unitCost = storedCost;
+                    }
+
+                    if (!sameCost(storedCost, unitCost)) {
+                        if (unitCost != null) {
+                            update.setBigDecimal(1, unitCost);
+                        } else {
+                            update.setNull(1, Types.NUMERIC);
+                        }
+                        update.setLong(2, movementId);
+                        update.addBatch();
+                        if (++updated % BATCH_SIZE == 0) {
+                            update.executeBatch();
+                        }
+                    }
+                }
+            }
+            update.executeBatch();
+        }
+
+        WeightedAverageCost state = costs.states().get(productId);
+        BigDecimal averageCost = state != null ? state.averageCost() : null;
+        if (averageCost == null) {
+            return new Result(replayed, updated, false);
+        }
+        try (PreparedStatement ps = connection.prepareStatement(UPDATE_AVERAGE_SQL)) {
+            ps.setBigDecimal(1, averageCost);
+            ps.setLong(2, productId);
+            ps.executeUpdate();
+        }
+        return new Result(replayed, updated, true);
+    }
+
+    private static Map<Long, BigDecimal> loadPurchasePrices(Connection connection, long productId) throws SQLException {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(PURCHASE_PRICES_SQL)) {
+            ps.setLong(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    prices.put(rs.getLong(1), rs.getBigDecimal(2));
+                }
+            }
+        }
+        return prices;
+    }
+
+    /** Precio del ítem de la orden de compra referenciada, por unidad base; null si no se puede resolver. */
+    private BigDecimal purchaseLinePrice(Map<Long, BigDecimal> purchasePrices, UnitOfMeasure unitOfMeasure,
+                                         String referenceType, String referenceId) {
+        if (!"PURCHASE_ORDER".equals(referenceType) || referenceId == null) {
+            return null;
+        }
+        try {
+            BigDecimal price = purchasePrices.get(Long.parseLong(referenceId.trim()));
+            return unitConversionService.toPricePerBaseUnit(price, unitOfMeasure);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Costo por unidad de lo consumido por la orden de producción; null si algún consumo no tenía costo. */
+    private static BigDecimal productionCost(BigDecimal consumed, long uncosted, BigDecimal quantityProduced) {
+        if (consumed == null || uncosted > 0) {
+            return null;
+        }
+        return consumed.divide(quantityProduced, WeightedAverageCost.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static boolean sameCost(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
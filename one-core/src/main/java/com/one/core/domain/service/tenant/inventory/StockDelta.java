@@ -0,0 +1,47 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.domain.model.enums.movements.MovementType;
+
+import java.math.BigDecimal;
+
+/**
+ * Un cambio de stock pendiente de aplicar por {@link InventoryService#applyMovements}.
+ * La cantidad va en unidades base y con signo: positiva para entradas, negativa para salidas.
+ * {@code unitCost} (por unidad base) solo se indica en entradas con costo propio, p.ej. compras;
+ * el resto toma el costo del promedio ponderado.
+ */
+public record StockDelta(
+        Long productId,
+        MovementType movementType,
+        BigDecimal quantityChanged,
+        String referenceDocumentType,
+        String referenceDocumentId,
+        Long userId,
+        String notes,
+        BigDecimal unitCost
+) {
+
+    public StockDelta(Long productId, MovementType movementType, BigDecimal quantityChanged,
+                      String referenceDocumentType, String referenceDocumentId, Long userId, String notes) {
+        this(productId, movementType, quantityChanged, referenceDocumentType, referenceDocumentId, userId, notes, null);
+    }
+
+    public static StockDelta in(Long productId, BigDecimal quantity, MovementType movementType,
+                                String referenceType, String referenceId, Long userId, String notes) {
+        return new StockDelta(productId, movementType, quantity, referenceType, referenceId, userId, notes);
+    }
+
+    public static StockDelta out(Long productId, BigDecimal quantity, MovementType movementType,
+                                 String referenceType, String referenceId, Long userId, String notes) {
+        return new StockDelta(productId, movementType, quantity.negate(), referenceType, referenceId, userId, notes);
+    }
+
+    public StockDelta withUnitCost(BigDecimal unitCost) {
+        return new StockDelta(productId, movementType, quantityChanged, referenceDocumentType,
+                referenceDocumentId, userId, notes, unitCost);
+    }
+
+    public boolean isOutgoing() {
+        return quantityChanged.signum() < 0;
+    }
+}
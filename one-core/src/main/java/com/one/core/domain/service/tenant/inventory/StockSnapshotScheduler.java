@@ -0,0 +1,111 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.application.dto.tenant.inventory.StockReconciliationDTO;
+import com.one.core.config.StockSnapshotProperties;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.config.multitenancy.TenantInfo;
+import com.one.core.domain.model.admin.Tenant;
+import com.one.core.domain.repository.admin.TenantRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corrida diaria de las fotos de stock: a la hora configurada fotografía el día anterior de cada
+ * tenant y concilia el stock actual contra la foto. Usa un hilo propio en lugar de @Scheduled;
+ * si varias instancias corren a la vez, el lock de {@link StockSnapshotService} deja escribir a una sola.
+ */
+@Component
+public class StockSnapshotScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSnapshotScheduler.class);
+
+    private final TenantRepository tenantRepository;
+    private final StockSnapshotService stockSnapshotService;
+    private final StockSnapshotProperties properties;
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public StockSnapshotScheduler(TenantRepository tenantRepository,
+                                  StockSnapshotService stockSnapshotService,
+                                  StockSnapshotProperties properties) {
+        this.tenantRepository = tenantRepository;
+        this.stockSnapshotService = stockSnapshotService;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Daily stock snapshots are disabled");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("stock-snapshots").daemon().factory());
+        scheduleNext();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Fotografía el día anterior en todos los tenants; un tenant que falla no frena al resto. */
+    public void runForAllTenants() {
+        LocalDate snapshotDate = LocalDate.now(properties.getZone()).minusDays(1);
+        for (Tenant tenant : tenantRepository.findAll()) {
+            TenantContext.setCurrentTenant(new TenantInfo(tenant.getSchemaName(), tenant.getIndustryType().name()));
+            try {
+                stockSnapshotService.takeSnapshot(snapshotDate);
+                StockReconciliationDTO reconciliation = stockSnapshotService.reconcile();
+                if (!reconciliation.drifts().isEmpty()) {
+                    logger.warn("Tenant {}: {} products have stock that does not match their movements",
+                            tenant.getSchemaName(), reconciliation.drifts().size());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Stock snapshot for {} failed in schema {}", snapshotDate, tenant.getSchemaName(), e);
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    private void scheduleNext() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        Duration delay = delayUntilNextRun(ZonedDateTime.now(properties.getZone()), properties.getRunAt());
+        executor.schedule(() -> {
+            try {
+                runForAllTenants();
+            } finally {
+                scheduleNext();
+            }
+        }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        logger.debug("Next stock snapshot run in {}", delay);
+    }
+
+    /** Tiempo hasta la próxima {@code runAt}: hoy si todavía no pasó, si no mañana. */
+    static Duration delayUntilNextRun(ZonedDateTime now, LocalTime runAt) {
+        ZonedDateTime next = now.toLocalDate().atTime(runAt).atZone(now.getZone());
+        if (!next.isAfter(now)) {
+            next = now.toLocalDate().plusDays(1).atTime(runAt).atZone(now.getZone());
+        }
+        return Duration.between(now, next);
+    }
+}
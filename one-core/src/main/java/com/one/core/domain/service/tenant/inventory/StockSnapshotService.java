@@ -0,0 +1,273 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.application.dto.tenant.inventory.StockAsOfDTO;
+import com.one.core.application.dto.tenant.inventory.StockDriftDTO;
+import com.one.core.application.dto.tenant.inventory.StockReconciliationDTO;
+import com.one.core.application.dto.tenant.inventory.StockSnapshotRunDTO;
+import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.exception.ValidationException;
+import com.one.core.config.StockSnapshotProperties;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fotos diarias de stock ({@code stock_snapshots}) y consultas de stock a una fecha pasada.
+ * <ul>
+ *   <li>Cada foto sale de la anterior más los movimientos del período, así que la serie es
+ *       consistente con el historial de movimientos. Un producto sin foto previa (la primera
+ *       corrida, o un producto nuevo) se siembra desde su stock actual menos los movimientos
+ *       posteriores al cierre.</li>
+ *   <li>El stock a un momento T es la última foto con cierre &lt;= T más los movimientos entre el
+ *       cierre y T: una lectura por PK y un range scan de ix_stock_movements_product_date_id por producto.</li>
+ *   <li>La conciliación compara {@code current_stock + frozen_stock} con la última foto más los
+ *       movimientos posteriores; cualquier diferencia es stock que cambió sin movimiento.</li>
+ * </ul>
+ * Las cantidades son totales en mano (disponible + congelado): congelar no genera movimientos, así que
+ * el historial solo explica el total. {@code frozen_quantity} guarda el congelado observado al escribir la foto.
+ */
+@Service
+public class StockSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSnapshotService.class);
+
+    private static final String LOCK_NAMESPACE = "stock_snapshot";
+
+    private static final String LATEST_SNAPSHOT_SQL =
+            "SELECT snapshot_date, max(cutoff_at) FROM stock_snapshots " +
+                    "WHERE snapshot_date = (SELECT max(snapshot_date) FROM stock_snapshots WHERE snapshot_date <= ?) " +
+                    "GROUP BY snapshot_date";
+
+    private static final String LATEST_SNAPSHOT_AT_SQL =
+            "SELECT snapshot_date, max(cutoff_at) FROM stock_snapshots " +
+                    "WHERE snapshot_date = (SELECT max(snapshot_date) FROM stock_snapshots WHERE cutoff_at <= ?) " +
+                    "GROUP BY snapshot_date";
+
+    // Foto anterior + movimientos entre los dos cierres
+    private static final String ROLL_FORWARD_SQL =
+            "INSERT INTO stock_snapshots (product_id, snapshot_date, quantity, frozen_quantity, cutoff_at) " +
+                    "SELECT s.product_id, ?::date, s.quantity + s.frozen_quantity + COALESCE(m.delta, 0) - COALESCE(p.frozen_stock, 0), " +
+                    "COALESCE(p.frozen_stock, 0), ?::timestamptz " +
+                    "FROM stock_snapshots s " +
+                    "JOIN products p ON p.id = s.product_id " +
+                    "LEFT JOIN (SELECT product_id, SUM(quantity_changed) AS delta FROM stock_movements " +
+                    "           WHERE movement_date >= ? AND movement_date < ? GROUP BY product_id) m ON m.product_id = s.product_id " +
+                    "WHERE s.snapshot_date = ? " +
+                    "ON CONFLICT (product_id, snapshot_date) DO NOTHING";
+
+    // Productos sin foto en la fecha: stock actual menos lo que se movió después del cierre
+    private static final String SEED_SQL =
+            "INSERT INTO stock_snapshots (product_id, snapshot_date, quantity, frozen_quantity, cutoff_at) " +
+                    "SELECT p.id, ?::date, COALESCE(p.current_stock, 0) - COALESCE(m.delta, 0), COALESCE(p.frozen_stock, 0), ?::timestamptz " +
+                    "FROM products p " +
+                    "LEFT JOIN (SELECT product_id, SUM(quantity_changed) AS delta FROM stock_movements " +
+                    "           WHERE movement_date >= ? GROUP BY product_id) m ON m.product_id = p.id " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM stock_snapshots s WHERE s.product_id = p.id AND s.snapshot_date = ?) " +
+                    "ON CONFLICT (product_id, snapshot_date) DO NOTHING";
+
+    // Con foto: foto + movimientos [cierre, T]. Sin foto (producto más nuevo que la foto, o ninguna
+    // foto todavía): stock actual - movimientos posteriores a T. Los LATERAL sin rama aplicable no leen nada.
+    private static final String STOCK_AS_OF_SQL =
+            "SELECT p.id, p.name, p.sku, " +
+                    "CASE WHEN s.product_id IS NOT NULL THEN s.quantity + s.frozen_quantity + COALESCE(fwd.delta, 0) " +
+                    "     ELSE COALESCE(p.current_stock, 0) + COALESCE(p.frozen_stock, 0) - COALESCE(back.delta, 0) END, " +
+                    "s.snapshot_date " +
+                    "FROM products p " +
+                    "LEFT JOIN stock_snapshots s ON s.product_id = p.id AND s.snapshot_date = ? " +
+                    "LEFT JOIN LATERAL (SELECT SUM(m.quantity_changed) AS delta FROM stock_movements m " +
+                    "    WHERE s.product_id IS NOT NULL AND m.product_id = p.id " +
+                    "    AND m.movement_date >= s.cutoff_at AND m.movement_date <= ?) fwd ON TRUE " +
+                    "LEFT JOIN LATERAL (SELECT SUM(m.quantity_changed) AS delta FROM stock_movements m " +
+                    "    WHERE s.product_id IS NULL AND m.product_id = p.id AND m.movement_date > ?) back ON TRUE ";
+
+    private static final String RECONCILE_SQL =
+            "SELECT p.id, p.name, p.sku, s.quantity + s.frozen_quantity + COALESCE(m.delta, 0), " +
+                    "COALESCE(p.current_stock, 0) + COALESCE(p.frozen_stock, 0) " +
+                    "FROM stock_snapshots s " +
+                    "JOIN products p ON p.id = s.product_id " +
+                    "LEFT JOIN (SELECT product_id, SUM(quantity_changed) AS delta FROM stock_movements " +
+                    "           WHERE movement_date >= ? GROUP BY product_id) m ON m.product_id = s.product_id " +
+                    "WHERE s.snapshot_date = ? " +
+                    "ORDER BY p.name";
+
+    private record SnapshotRef(LocalDate date, OffsetDateTime cutoff) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StockSnapshotProperties properties;
+
+    @Autowired
+    public StockSnapshotService(StockSnapshotProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Escribe la foto de {@code snapshotDate} (stock al cierre de ese día) para todos los productos del
+     * tenant actual. Si hay días sin foto en el medio no se completan: la consulta a esas fechas parte
+     * de la foto anterior. No hace nada si la fecha ya tiene foto o si otra instancia está escribiendo.
+     */
+    @Transactional
+    public StockSnapshotRunDTO takeSnapshot(LocalDate snapshotDate) {
+        if (!snapshotDate.isBefore(LocalDate.now(properties.getZone()))) {
+            throw new ValidationException("Only closed days can be snapshotted; '" + snapshotDate + "' has not ended yet.");
+        }
+        OffsetDateTime cutoff = cutoffOf(snapshotDate);
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (!tryLock(connection)) {
+                logger.info("Stock snapshot for {} is already being written elsewhere; skipping", snapshotDate);
+                return new StockSnapshotRunDTO(snapshotDate, null, 0, 0);
+            }
+            SnapshotRef previous = latestSnapshot(connection, LATEST_SNAPSHOT_SQL, snapshotDate);
+            if (previous != null && previous.date().equals(snapshotDate)) {
+                return new StockSnapshotRunDTO(snapshotDate, snapshotDate, 0, 0);
+            }
+
+            int rolledForward = 0;
+            if (previous != null) {
+                try (PreparedStatement ps = connection.prepareStatement(ROLL_FORWARD_SQL)) {
+                    ps.setObject(1, snapshotDate);
+                    ps.setObject(2, cutoff);
+                    ps.setObject(3, previous.cutoff());
+                    ps.setObject(4, cutoff);
+                    ps.setObject(5, previous.date());
+                    rolledForward = ps.executeUpdate();
+                }
+            }
+            int seeded;
+            try (PreparedStatement ps = connection.prepareStatement(SEED_SQL)) {
+                ps.setObject(1, snapshotDate);
+                ps.setObject(2, cutoff);
+                ps.setObject(3, cutoff);
+                ps.setObject(4, snapshotDate);
+                seeded = ps.executeUpdate();
+            }
+            logger.info("Stock snapshot for {}: {} products rolled forward from {}, {} seeded",
+                    snapshotDate, rolledForward, previous != null ? previous.date() : "-", seeded);
+            return new StockSnapshotRunDTO(snapshotDate, previous != null ? previous.date() : null, rolledForward, seeded);
+        });
+    }
+
+    /** Stock de todos los productos a {@code asOf}, ordenado por nombre. */
+    @Transactional(readOnly = true)
+    public List<StockAsOfDTO> getStockAsOf(OffsetDateTime asOf) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> stockAsOf(connection, asOf, null));
+    }
+
+    @Transactional(readOnly = true)
+    public StockAsOfDTO getStockAsOf(Long productId, OffsetDateTime asOf) {
+        List<StockAsOfDTO> result = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> stockAsOf(connection, asOf, productId));
+        if (result.isEmpty()) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return result.get(0);
+    }
+
+    /**
+     * Verifica {@code products.current_stock + frozen_stock} contra la última foto más los movimientos
+     * posteriores y devuelve los productos que no coinciden. Sin fotos todavía no hay nada contra qué comparar.
+     */
+    @Transactional(readOnly = true)
+    public StockReconciliationDTO reconcile() {
+        OffsetDateTime checkedAt = OffsetDateTime.now();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            SnapshotRef latest = latestSnapshot(connection, LATEST_SNAPSHOT_SQL, LocalDate.now(properties.getZone()));
+            if (latest == null) {
+                return new StockReconciliationDTO(checkedAt, null, 0, List.of());
+            }
+            int checked = 0;
+            List<StockDriftDTO> drifts = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(RECONCILE_SQL)) {
+                ps.setObject(1, latest.cutoff());
+                ps.setObject(2, latest.date());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        checked++;
+                        BigDecimal expected = rs.getBigDecimal(4);
+                        BigDecimal actual = rs.getBigDecimal(5);
+                        if (expected.compareTo(actual) != 0) {
+                            drifts.add(new StockDriftDTO(rs.getLong(1), rs.getString(2), rs.getString(3),
+                                    expected, actual, actual.subtract(expected)));
+                        }
+                    }
+                }
+            }
+            if (!drifts.isEmpty()) {
+                logger.warn("Stock reconciliation against snapshot {}: {} of {} products drifted", latest.date(), drifts.size(), checked);
+            }
+            return new StockReconciliationDTO(checkedAt, latest.date(), checked, drifts);
+        });
+    }
+
+    /** Zona en la que se cierra cada día de foto. */
+    public ZoneId zone() {
+        return properties.getZone();
+    }
+
+    /** Cierre de un día: inicio del día siguiente en la zona configurada. */
+    OffsetDateTime cutoffOf(LocalDate snapshotDate) {
+        return snapshotDate.plusDays(1).atStartOfDay(properties.getZone()).toOffsetDateTime();
+    }
+
+    private List<StockAsOfDTO> stockAsOf(Connection connection, OffsetDateTime asOf, Long productId) throws SQLException {
+        SnapshotRef base = latestSnapshot(connection, LATEST_SNAPSHOT_AT_SQL, asOf);
+        String sql = STOCK_AS_OF_SQL + (productId != null ? "WHERE p.id = ? " : "") + "ORDER BY p.name";
+        List<StockAsOfDTO> result = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, base != null ? base.date() : null, Types.DATE);
+            ps.setObject(2, asOf);
+            ps.setObject(3, asOf);
+            if (productId != null) {
+                ps.setLong(4, productId);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new StockAsOfDTO(rs.getLong(1), rs.getString(2), rs.getString(3), asOf,
+                            rs.getBigDecimal(4), rs.getObject(5, LocalDate.class)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static SnapshotRef latestSnapshot(Connection connection, String sql, Object bound) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setObject(1, bound);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next()
+                        ? new SnapshotRef(rs.getObject(1, LocalDate.class), rs.getObject(2, OffsetDateTime.class))
+                        : null;
+            }
+        }
+    }
+
+    /** Lock de transacción por schema: dos instancias no escriben la misma foto a la vez. */
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT pg_try_advisory_xact_lock(hashtext(?), hashtext(current_schema()))")) {
+            ps.setString(1, LOCK_NAMESPACE);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Costo promedio ponderado de un producto mientras se recorren sus movimientos en orden. Todo va por
+ * unidad base: cantidades como {@code current_stock} y costos por gramo / mililitro / unidad.
+ * <ul>
+ *   <li>Una entrada con costo recalcula el promedio; si no había stock positivo, el promedio pasa a
+ *       ser el costo de la entrada.</li>
+ *   <li>Una entrada sin costo propio (ajuste, devolución) entra al promedio vigente.</li>
+ *   <li>Una salida sale al promedio vigente y no lo cambia.</li>
+ * </ul>
+ * Cada operación es O(1). Un promedio null significa "sin costo conocido" y se propaga como null.
+ */
+final class WeightedAverageCost {
+
+    static final int SCALE = 8;
+
+    private BigDecimal quantity;
+    private BigDecimal averageCost;
+
+    WeightedAverageCost(BigDecimal quantityOnHand, BigDecimal averageCost) {
+        this.quantity = quantityOnHand != null ? quantityOnHand : BigDecimal.ZERO;
+        this.averageCost = averageCost;
+    }
+
+    /** Entrada con costo unitario conocido; devuelve el costo a guardar en el movimiento. */
+    BigDecimal receive(BigDecimal incoming, BigDecimal unitCost) {
+        if (unitCost == null) {
+            return receiveAtAverage(incoming);
+        }
+        if (averageCost == null || quantity.signum() <= 0) {
+            averageCost = unitCost.setScale(SCALE, RoundingMode.HALF_UP);
+        } else {
+            BigDecimal totalQuantity = quantity.add(incoming);
+            averageCost = quantity.multiply(averageCost).add(incoming.multiply(unitCost))
+                    .divide(totalQuantity, SCALE, RoundingMode.HALF_UP);
+        }
+        quantity = quantity.add(incoming);
+        return unitCost;
+    }
+
+    /** Entrada sin costo propio: no cambia el promedio. */
+    BigDecimal receiveAtAverage(BigDecimal incoming) {
+        quantity = quantity.add(incoming);
+        return averageCost;
+    }
+
+    /** Salida: sale al promedio vigente. */
+    BigDecimal issue(BigDecimal outgoing) {
+        quantity = quantity.subtract(outgoing);
+        return averageCost;
+    }
+
+    BigDecimal averageCost() {
+        return averageCost;
+    }
+
+    BigDecimal quantity() {
+        return quantity;
+    }
+}
@@ -4,10 +4,12 @@ package com.one.core.domain.service.tenant.inventory.criteria;
 import com.one.core.application.dto.tenant.inventory.StockMovementFilterDTO;
 import com.one.core.domain.model.enums.movements.MovementType;
 import com.one.core.domain.model.tenant.product.StockMovement;
+import com.one.core.domain.service.common.KeysetCursor;
 import org.springframework.data.jpa.domain.Specification;
 
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -47,6 +49,16 @@ public class StockMovementSpecification {
         };
     }
 
+    /** Filas después del cursor en orden (movementDate, id) descendente. Sin cursor no filtra. */
+    public static Specification<StockMovement> seek(KeysetCursor cursor) {
+        return cursor == null ? null : cursor.seek("movementDate", OffsetDateTime::parse);
+    }
+
+    /** Clave de cursor de un movimiento. */
+    public static KeysetCursor keyOf(StockMovement movement) {
+        return new KeysetCursor(movement.getMovementDate().toString(), movement.getId(), false);
+    }
+
     private static java.time.OffsetDateTime startOfDay(LocalDate d) {
         return d.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
     }
@@ -0,0 +1,265 @@
+package com.one.core.domain.service.tenant.product;
+
+import com.one.core.application.exception.ValidationException;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.repository.tenant.product.ProductRecipeRepository;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.product.search.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * BOM aplanado por tenant: para cada producto compuesto, los insumos básicos (PHYSICAL_GOOD y
+ * PACKAGING) que consume una unidad del producto, en unidades base, con las sub-recetas ya
+ * expandidas. Confirmar una orden con N líneas compuestas cuesta N lecturas de este mapa en lugar
+ * de una consulta por nivel de receta.
+ * <ul>
+ *   <li>Las recetas se cargan por producto la primera vez que se necesitan; la conversión de
+ *       unidades de cada línea es la misma de {@link RecipeGraph}.</li>
+ *   <li>Un índice inverso (ingrediente -> productos que lo usan) permite invalidar exactamente los
+ *       productos afectados cuando cambia una receta o un producto de la cadena.</li>
+ *   <li>Un contador de versión por tenant evita guardar un resultado calculado con recetas que se
+ *       invalidaron mientras tanto.</li>
+ * </ul>
+ */
+@Component
+public class FlattenedBomCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlattenedBomCache.class);
+
+    /** Ingrediente directo de una receta, con la cantidad por unidad del producto principal en la unidad del ingrediente. */
+    record Line(Long ingredientId, ProductType ingredientType, UnitOfMeasure ingredientUnit, BigDecimal quantityPerUnit) {
+    }
+
+    /** Carga la receta directa de un producto (inyectable en tests). */
+    interface RecipeLoader {
+        List<Line> load(Long mainProductId);
+    }
+
+    private final RecipeLoader loader;
+    private final Map<String, TenantBom> tenants = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FlattenedBomCache(ProductRecipeRepository productRecipeRepository, UnitConversionService unitConversionService) {
+        this(mainProductId -> {
+            RecipeGraph graph = RecipeGraph.from(
+                    productRecipeRepository.findWithProductsByMainProductId(mainProductId), unitConversionService);
+            List<Line> lines = new ArrayList<>();
+            for (RecipeGraph.Edge edge : graph.ingredientsOf(mainProductId)) {
+                Product ingredient = graph.product(edge.ingredientId()).orElseThrow();
+                lines.add(new Line(ingredient.getId(), ingredient.getProductType(), ingredient.getUnitOfMeasure(),
+                        edge.quantityPerUnit()));
+            }
+            return lines;
+        });
+    }
+
+    FlattenedBomCache(RecipeLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Insumos básicos por unidad del producto compuesto (id -> cantidad en unidad base).
+     * Vacío si el producto no tiene receta o no lleva insumos stockeables.
+     *
+     * @throws ValidationException si las recetas forman un ciclo
+     */
+    public Map<Long, BigDecimal> rawIngredientsPerUnit(Long compoundProductId) {
+        TenantBom bom = tenantBom();
+        Map<Long, BigDecimal> cached = bom.flattened.get(compoundProductId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = bom.version.get();
+        Map<Long, Map<Long, BigDecimal>> computed = new HashMap<>();
+        Map<Long, BigDecimal> result = flatten(bom, compoundProductId, version, new LinkedHashSet<>(), computed);
+        // Solo se publica si nadie invalidó mientras se calculaba
+        synchronized (bom) {
+            if (bom.version.get() == version) {
+                bom.flattened.putAll(computed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Verifica que asignar {@code ingredientIds} como receta de {@code mainProductId} no cierre un
+     * ciclo: ninguno de los ingredientes puede llegar, por sus propias recetas, al producto principal.
+     */
+    public void assertNoCycle(Long mainProductId, Collection<Long> ingredientIds) {
+        TenantBom bom = tenantBom();
+        long version = bom.version.get();
+        Deque<List<Long>> pending = new ArrayDeque<>();
+        ingredientIds.forEach(id -> pending.push(List.of(mainProductId, id)));
+        Set<Long> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            List<Long> path = pending.pop();
+            Long current = path.get(path.size() - 1);
+            if (current.equals(mainProductId)) {
+                throw new ValidationException("La receta forma un ciclo: " + describe(path));
+            }
+            if (!visited.add(current)) {
+                continue;
+            }
+            for (Line line : lines(bom, current, version)) {
+                if (line.ingredientType() == ProductType.COMPOUND) {
+                    List<Long> next = new ArrayList<>(path);
+                    next.add(line.ingredientId());
+                    pending.push(next);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        invalidate(event.tenantSchema(), event.mainProductId(), false);
+    }
+
+    /** El tipo o la unidad del producto forman parte de las líneas de las recetas que lo usan. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.tenantSchema(), event.productId(), true);
+    }
+
+    /** Descarta todo el BOM de un tenant (p. ej. después de una importación masiva). */
+    public void invalidate(String tenantSchema) {
+        tenants.remove(tenantSchema);
+    }
+
+    /**
+     * Invalida el producto y todos los que lo usan, directa o indirectamente. Con
+     * {@code reloadParentLines} también se recargan las recetas que lo tienen como ingrediente.
+     */
+    void invalidate(String tenantSchema, Long productId, boolean reloadParentLines) {
+        TenantBom bom = tenants.get(tenantSchema);
+        if (bom == null) {
+            return;
+        }
+        synchronized (bom) {
+            bom.version.incrementAndGet();
+            Set<Long> affected = new HashSet<>();
+            Deque<Long> pending = new ArrayDeque<>(List.of(productId));
+            while (!pending.isEmpty()) {
+                Long current = pending.pop();
+                if (affected.add(current)) {
+                    pending.addAll(bom.usedBy.getOrDefault(current, Set.of()));
+                }
+            }
+            affected.forEach(bom.flattened::remove);
+            bom.dropLines(productId);
+            if (reloadParentLines) {
+                List.copyOf(bom.usedBy.getOrDefault(productId, Set.of())).forEach(bom::dropLines);
+            }
+            logger.debug("Flattened BOM invalidated for {} products in tenant {} (changed product {})",
+                    affected.size(), tenantSchema, productId);
+        }
+    }
+
+    private Map<Long, BigDecimal> flatten(TenantBom bom, Long productId, long version, LinkedHashSet<Long> path,
+                                          Map<Long, Map<Long, BigDecimal>> computed) {
+        Map<Long, BigDecimal> known = computed.get(productId);
+        if (known == null) {
+            known = bom.flattened.get(productId);
+        }
+        if (known != null) {
+            return known;
+        }
+        if (!path.add(productId)) {
+            List<Long> cycle = new ArrayList<>(path);
+            cycle = cycle.subList(cycle.indexOf(productId), cycle.size());
+            cycle.add(productId);
+            throw new ValidationException("Las recetas forman un ciclo: " + describe(cycle));
+        }
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        for (Line line : lines(bom, productId, version)) {
+            if (line.ingredientType() == ProductType.COMPOUND) {
+                flatten(bom, line.ingredientId(), version, path, computed).forEach((rawId, perUnit) ->
+                        totals.merge(rawId, perUnit.multiply(line.quantityPerUnit()), BigDecimal::add));
+            } else if (line.ingredientType() == ProductType.PHYSICAL_GOOD || line.ingredientType() == ProductType.PACKAGING) {
+                BigDecimal base = line.ingredientUnit() != null
+                        ? line.ingredientUnit().toBase(line.quantityPerUnit())
+                        : line.quantityPerUnit();
+                totals.merge(line.ingredientId(), base, BigDecimal::add);
+            }
+        }
+        path.remove(productId);
+        Map<Long, BigDecimal> result = Map.copyOf(totals);
+        computed.put(productId, result);
+        return result;
+    }
+
+    private List<Line> lines(TenantBom bom, Long productId, long version) {
+        List<Line> lines = bom.lines.get(productId);
+        if (lines != null) {
+            return lines;
+        }
+        lines = List.copyOf(loader.load(productId));
+        synchronized (bom) {
+            if (bom.version.get() == version) {
+                bom.putLines(productId, lines);
+            }
+        }
+        return lines;
+    }
+
+    private TenantBom tenantBom() {
+        String tenant = TenantContext.getCurrentTenantSchema();
+        if (tenant == null) {
+            throw new IllegalStateException("No tenant in context for the flattened BOM cache");
+        }
+        return tenants.computeIfAbsent(tenant, t -> new TenantBom());
+    }
+
+    private static String describe(List<Long> ids) {
+        return ids.stream().map(id -> "#" + id).collect(Collectors.joining(" -> "));
+    }
+
+    private static final class TenantBom {
+        private final AtomicLong version = new AtomicLong();
+        private final Map<Long, List<Line>> lines = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, BigDecimal>> flattened = new ConcurrentHashMap<>();
+        // Ingrediente -> productos cuya receta directa lo incluye
+        private final Map<Long, Set<Long>> usedBy = new ConcurrentHashMap<>();
+
+        void putLines(Long productId, List<Line> productLines) {
+            lines.put(productId, productLines);
+            productLines.forEach(line ->
+                    usedBy.computeIfAbsent(line.ingredientId(), k -> ConcurrentHashMap.newKeySet()).add(productId));
+        }
+
+        void dropLines(Long productId) {
+            List<Line> removed = lines.remove(productId);
+            if (removed != null) {
+                removed.forEach(line -> {
+                    Set<Long> parents = usedBy.get(line.ingredientId());
+                    if (parents != null) {
+                        parents.remove(productId);
+                    }
+                });
+            }
+        }
+    }
+}
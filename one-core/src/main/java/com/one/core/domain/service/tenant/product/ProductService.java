@@ -19,20 +19,24 @@ import com.one.core.domain.model.tenant.product.ProductPackaging;
 import com.one.core.domain.model.tenant.product.ProductRecipe;
 import com.one.core.domain.model.tenant.supplier.Supplier;
 import com.one.core.domain.repository.tenant.product.ProductCategoryRepository;
+import com.one.core.domain.repository.tenant.product.ProductListRow;
 import com.one.core.domain.repository.tenant.product.ProductPackagingRepository;
 import com.one.core.domain.repository.tenant.product.ProductRecipeRepository;
 import com.one.core.domain.repository.tenant.product.ProductRepository;
 import com.one.core.domain.repository.tenant.supplier.SupplierRepository;
 import com.one.core.domain.service.tenant.inventory.InventoryService;
 import com.one.core.domain.service.tenant.product.criteria.ProductSpecification;
+import com.one.core.domain.service.tenant.product.search.ProductChangedEvent;
 import com.one.core.domain.service.tenant.util.ProductUtils;
+import com.one.core.domain.service.common.ProjectionQuery;
 import com.one.core.domain.service.common.UnitConversionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -58,6 +62,9 @@ public class ProductService {
     private final AuthenticationFacade authenticationFacade;
     private final InventoryService inventoryService;
     private final UnitConversionService unitConversionService;
+    private final ProjectionQuery projectionQuery;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FlattenedBomCache flattenedBomCache;
 
     @Autowired
     public ProductService(ProductRepository productRepository,
@@ -69,7 +76,10 @@ public class ProductService {
                           ProductPackagingRepository productPackagingRepository,
                           AuthenticationFacade authenticationFacade,
                           InventoryService inventoryService,
-                          UnitConversionService unitConversionService) {
+                          UnitConversionService unitConversionService,
+                          ProjectionQuery projectionQuery,
+                          ApplicationEventPublisher eventPublisher,
+                          FlattenedBomCache flattenedBomCache) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.supplierRepository = supplierRepository;
@@ -80,6 +90,9 @@ public class ProductService {
         this.authenticationFacade = authenticationFacade;
         this.inventoryService = inventoryService;
         this.unitConversionService = unitConversionService;
+        this.projectionQuery = projectionQuery;
+        this.eventPublisher = eventPublisher;
+        this.flattenedBomCache = flattenedBomCache;
     }
 
     @Transactional
@@ -115,8 +128,9 @@ public class ProductService {
             }
         }
 
+        BigDecimal initialStock = productDTO.getCurrentStock() != null ? productDTO.getCurrentStock() : BigDecimal.ZERO;
         if (product.getProductType() == ProductType.SERVICE || product.getProductType() == ProductType.SUBSCRIPTION || product.getProductType() == ProductType.DIGITAL) {
-            product.setCurrentStock(BigDecimal.ZERO);
+            initialStock = BigDecimal.ZERO;
             product.setMinimumStockLevel(BigDecimal.ZERO);
         }
 
@@ -131,7 +145,7 @@ public class ProductService {
             product.setDefaultSupplier(supplier);
         }
 
-        product.setCurrentStock(unitConversionService.toBaseUnit(product.getCurrentStock(), product.getUnitOfMeasure()));
+        initialStock = unitConversionService.toBaseUnit(initialStock, product.getUnitOfMeasure());
         product.setMinimumStockLevel(unitConversionService.toBaseUnit(product.getMinimumStockLevel(), product.getUnitOfMeasure()));
 
         product.setActive(true);
@@ -140,12 +154,13 @@ public class ProductService {
         try {
             Long userId = authenticationFacade.getCurrentAuthenticatedSystemUserId().orElse(null);
             // Si es SERVICE/SUBSCRIPTION/DIGITAL, InventoryService lo ignora (no registra movimiento)
-            inventoryService.recordInitialStockMovement(savedProduct, userId);
+            inventoryService.recordInitialStock(savedProduct, initialStock, userId);
         } catch (Exception e) {
             logger.error("Failed to record initial stock movement for new product ID {}. Error: {}", savedProduct.getId(), e.getMessage());
             throw e;
         }
 
+        publishChanged(savedProduct);
         return productMapper.toDTO(savedProduct);
     }
 
@@ -160,10 +175,13 @@ public class ProductService {
             }
         }
 
+        BigDecimal stockBefore = product.getCurrentStock();
+        BigDecimal minimumBefore = product.getMinimumStockLevel();
         productMapper.updateEntityFromDTO(productDTO, product);
 
+        BigDecimal targetStock = null;
         if (productDTO.getCurrentStock() != null) {
-            product.setCurrentStock(unitConversionService.toBaseUnit(product.getCurrentStock(), product.getUnitOfMeasure()));
+            targetStock = unitConversionService.toBaseUnit(productDTO.getCurrentStock(), product.getUnitOfMeasure());
         }
         if (productDTO.getMinimumStockLevel() != null) {
             product.setMinimumStockLevel(unitConversionService.toBaseUnit(product.getMinimumStockLevel(), product.getUnitOfMeasure()));
@@ -179,7 +197,7 @@ public class ProductService {
         }
 
         if (product.getProductType() == ProductType.SERVICE || product.getProductType() == ProductType.SUBSCRIPTION || product.getProductType() == ProductType.DIGITAL) {
-            product.setCurrentStock(BigDecimal.ZERO);
+            targetStock = BigDecimal.ZERO;
             product.setMinimumStockLevel(BigDecimal.ZERO);
         }
 
@@ -199,50 +217,51 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        // El stock no es parte de Product: la diferencia se registra como ajuste atómico
+        if (targetStock != null) {
+            Long userId = authenticationFacade.getCurrentAuthenticatedSystemUserId().orElse(null);
+            inventoryService.adjustStockTo(updatedProduct, targetStock, userId, "Stock actualizado desde la edición del producto.");
+        }
+        // El ajuste ya avisa si el stock cruzó el mínimo; un cambio de mínimo también puede abrir o resolver la alerta
+        if (!sameValue(minimumBefore, updatedProduct.getMinimumStockLevel())) {
+            inventoryService.notifyMinimumChange(updatedProduct.getId(), stockBefore, minimumBefore,
+                    updatedProduct.getCurrentStock(), updatedProduct.getMinimumStockLevel());
+        }
+        publishChanged(updatedProduct);
         return productMapper.toDTO(updatedProduct);
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllPackaging(boolean activeOnly) {
-        List<Product> products = activeOnly
-                ? productRepository.findAllByProductTypeAndIsActiveTrueOrderByNameAsc(ProductType.PACKAGING)
-                : productRepository.findAllByProductTypeOrderByNameAsc(ProductType.PACKAGING);
-
-        return products.stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        return findListRowsByType(ProductType.PACKAGING, activeOnly);
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllPhysicalGoods(boolean activeOnly) {
-        List<Product> products = activeOnly
-                ? productRepository.findAllByProductTypeAndIsActiveTrueOrderByNameAsc(ProductType.PHYSICAL_GOOD)
-                : productRepository.findAllByProductTypeOrderByNameAsc(ProductType.PHYSICAL_GOOD);
-
-        return products.stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        return findListRowsByType(ProductType.PHYSICAL_GOOD, activeOnly);
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllCompound(boolean activeOnly) {
-        List<Product> products = activeOnly
-                ? productRepository.findAllByProductTypeAndIsActiveTrueOrderByNameAsc(ProductType.COMPOUND)
-                : productRepository.findAllByProductTypeOrderByNameAsc(ProductType.COMPOUND);
-
-        return products.stream()
-                .map(productMapper::toDTO)
-                .collect(Collectors.toList());
+        return findListRowsByType(ProductType.COMPOUND, activeOnly);
     }
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getAllProducts(ProductFilterDTO filterDTO, Pageable pageable) {
         Specification<Product> spec = ProductSpecification.filterBy(filterDTO);
-        Page<Product> productPage = productRepository.findAll(spec, pageable);
-        List<ProductDTO> productDTOs = productPage.getContent().stream()
+        return projectionQuery.findPage(Product.class, ProductListRow.class, spec, pageable, ProductListRow::columns)
+                .map(productMapper::toDTO);
+    }
+
+    /** Listado por tipo como filas proyectadas, ordenado por nombre (sin cargar entidades). */
+    private List<ProductDTO> findListRowsByType(ProductType productType, boolean activeOnly) {
+        Specification<Product> spec = (root, query, cb) -> activeOnly
+                ? cb.and(cb.equal(root.get("productType"), productType), cb.isTrue(root.<Boolean>get("isActive")))
+                : cb.equal(root.get("productType"), productType);
+        return projectionQuery.findAll(Product.class, ProductListRow.class, spec, Sort.by("name"), ProductListRow::columns)
+                .stream()
                 .map(productMapper::toDTO)
                 .collect(Collectors.toList());
-        return new PageImpl<>(productDTOs, pageable, productPage.getTotalElements());
     }
 
     @Transactional(readOnly = true)
@@ -267,6 +286,18 @@ public class ProductService {
         product.setActive(false);
 
         productRepository.save(product);
+        publishChanged(product);
+    }
+
+    // El índice de autocompletado lo procesa recién después del commit
+    private void publishChanged(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(TenantContext.getCurrentTenantSchema(), product.getId(),
+                product.getName(), product.getSku(), product.getBarcode(), product.getProductType(),
+                product.getSalePrice(), product.getUnitOfMeasure(), product.isActive()));
+    }
+
+    private static boolean sameValue(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
     }
 
     @Transactional
@@ -321,8 +352,11 @@ public class ProductService {
             r.setUnitOfMeasure(uom);
             newRecipeItems.add(r);
         }
+        flattenedBomCache.assertNoCycle(mainProductId,
+                newRecipeItems.stream().map(r -> r.getIngredientProduct().getId()).toList());
 
         productRecipeRepository.saveAllAndFlush(newRecipeItems);
+        eventPublisher.publishEvent(new RecipeChangedEvent(TenantContext.getCurrentTenantSchema(), mainProductId));
         return getRecipeItems(mainProductId);
     }
 
@@ -343,10 +377,11 @@ public class ProductService {
 
     @Transactional
     public void removeRecipeItem(Long recipeItemId) {
-        if (!productRecipeRepository.existsById(recipeItemId)) {
-            throw new ResourceNotFoundException("Recipe Item", "id", recipeItemId);
-        }
-        productRecipeRepository.deleteById(recipeItemId);
+        ProductRecipe recipeItem = productRecipeRepository.findById(recipeItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipe Item", "id", recipeItemId));
+        productRecipeRepository.delete(recipeItem);
+        eventPublisher.publishEvent(new RecipeChangedEvent(TenantContext.getCurrentTenantSchema(),
+                recipeItem.getMainProduct().getId()));
     }
 
     @Transactional
@@ -376,6 +411,8 @@ public class ProductService {
         }
 
         productPackagingRepository.saveAll(newPackagingItems);
+        mainProduct.setHasPackaging(!newPackagingItems.isEmpty());
+        productRepository.save(mainProduct);
         return getPackagingForProduct(mainProductId);
     }
 
@@ -0,0 +1,7 @@
+package com.one.core.domain.service.tenant.product;
+
+/**
+ * Cambió la receta de un producto compuesto. Se procesa después del commit, por eso lleva el schema.
+ */
+public record RecipeChangedEvent(String tenantSchema, Long mainProductId) {
+}
@@ -0,0 +1,136 @@
+package com.one.core.domain.service.tenant.product;
+
+import com.one.core.application.exception.ValidationException;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.product.ProductRecipe;
+import com.one.core.domain.service.common.UnitConversionService;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Vista inmutable en memoria de las recetas de un tenant: para cada producto compuesto,
+ * sus ingredientes directos con la cantidad expresada en la unidad del ingrediente
+ * (ya resuelta la unidad de la línea, incluido PERCENTAGE).
+ */
+public final class RecipeGraph {
+
+    /** Ingrediente directo y cantidad necesaria, en su propia unidad, por unidad del producto principal. */
+    public record Edge(Long ingredientId, BigDecimal quantityPerUnit) {}
+
+    /** Resultado de {@link #costingOrder()}: el orden de los productos resolubles y los que forman ciclos. */
+    public record CostingOrder(List<Long> order, Set<Long> cyclic) {}
+
+    private final Map<Long, List<Edge>> edgesByMainProduct;
+    private final Map<Long, Product> products;
+
+    private RecipeGraph(Map<Long, List<Edge>> edgesByMainProduct, Map<Long, Product> products) {
+        this.edgesByMainProduct = edgesByMainProduct;
+        this.products = products;
+    }
+
+    public static RecipeGraph from(List<ProductRecipe> recipes, UnitConversionService unitConversionService) {
+        Map<Long, List<Edge>> edges = new HashMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (ProductRecipe r : recipes) {
+            Product main = r.getMainProduct();
+            Product ingredient = r.getIngredientProduct();
+            products.putIfAbsent(main.getId(), main);
+            products.putIfAbsent(ingredient.getId(), ingredient);
+
+            BigDecimal qty = unitConversionService.toIngredientUnit(
+                    r.getQuantityRequired() != null ? r.getQuantityRequired() : BigDecimal.ZERO,
+                    r.getUnitOfMeasure(), ingredient.getUnitOfMeasure(), main.getUnitOfMeasure());
+            edges.computeIfAbsent(main.getId(), k -> new ArrayList<>()).add(new Edge(ingredient.getId(), qty));
+        }
+        edges.replaceAll((k, v) -> List.copyOf(v));
+        return new RecipeGraph(Map.copyOf(edges), Map.copyOf(products));
+    }
+
+    public List<Edge> ingredientsOf(Long productId) {
+        return edgesByMainProduct.getOrDefault(productId, List.of());
+    }
+
+    public Optional<Product> product(Long productId) {
+        return Optional.ofNullable(products.get(productId));
+    }
+
+    public boolean hasRecipe(Long productId) {
+        return edgesByMainProduct.containsKey(productId);
+    }
+
+    /**
+     * Orden topológico de todos los productos del grafo: cada ingrediente aparece antes que
+     * los productos que lo usan.
+     *
+     * @throws ValidationException si las recetas forman un ciclo (indica los productos involucrados)
+     */
+    public List<Long> topologicalOrder() {
+        return order(null);
+    }
+
+    /**
+     * Igual que {@link #topologicalOrder()} pero sin fallar ante ciclos: los productos que forman un
+     * ciclo quedan en {@link CostingOrder#cyclic()} y fuera del orden, y el resto se ordena igual.
+     * Los productos que usan (directa o indirectamente) uno cíclico sí aparecen en el orden.
+     */
+    public CostingOrder costingOrder() {
+        Set<Long> cyclic = new HashSet<>();
+        List<Long> order = order(cyclic);
+        return new CostingOrder(order, Set.copyOf(cyclic));
+    }
+
+    /** DFS en post-orden; con {@code cyclic == null} un ciclo es un error, si no se anota y se sigue. */
+    private List<Long> order(Set<Long> cyclic) {
+        List<Long> order = new ArrayList<>(products.size());
+        Map<Long, Boolean> state = new HashMap<>(); // false = en curso, true = resuelto
+        for (Long root : products.keySet()) {
+            if (state.containsKey(root)) continue;
+            // DFS iterativo para no depender de la profundidad de la pila
+            Deque<Long> path = new ArrayDeque<>();
+            Deque<Iterator<Edge>> pending = new ArrayDeque<>();
+            state.put(root, false);
+            path.push(root);
+            pending.push(ingredientsOf(root).iterator());
+            while (!pending.isEmpty()) {
+                Iterator<Edge> it = pending.peek();
+                if (it.hasNext()) {
+                    Long next = it.next().ingredientId();
+                    Boolean s = state.get(next);
+                    if (s == null) {
+                        state.put(next, false);
+                        path.push(next);
+                        pending.push(ingredientsOf(next).iterator());
+                    } else if (!s) {
+                        if (cyclic == null) throw cycleError(path, next);
+                        // El ciclo son los productos del camino desde 'next' hasta el actual
+                        for (Long id : path) {
+                            cyclic.add(id);
+                            if (id.equals(next)) break;
+                        }
+                    }
+                } else {
+                    pending.pop();
+                    Long done = path.pop();
+                    state.put(done, true);
+                    if (cyclic == null || !cyclic.contains(done)) order.add(done);
+                }
+            }
+        }
+        return order;
+    }
+
+    private ValidationException cycleError(Deque<Long> path, Long repeated) {
+        List<Long> cycle = new ArrayList<>();
+        for (Iterator<Long> it = path.descendingIterator(); it.hasNext(); ) {
+            Long id = it.next();
+            if (!cycle.isEmpty() || id.equals(repeated)) cycle.add(id);
+        }
+        cycle.add(repeated);
+        String names = cycle.stream()
+                .map(id -> product(id).map(Product::getName).orElse("#" + id))
+                .collect(Collectors.joining(" -> "));
+        return new ValidationException("Las recetas forman un ciclo: " + names);
+    }
+}
@@ -11,6 +11,8 @@ import org.springframework.util.StringUtils;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
+
 public class ProductSpecification {
 
     public static Specification<Product> filterBy(ProductFilterDTO filter) {
@@ -22,7 +24,9 @@ public class ProductSpecification {
             }
 
             if (StringUtils.hasText(filter.getName())) {
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + filter.getName().toLowerCase() + "%"));
+                // Sobre el nombre canónico (sin tildes): lo cubre el índice trigram de V9
+                String term = canonical(filter.getName()).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+                predicates.add(criteriaBuilder.like(root.get("canonicalName"), "%" + term + "%", '\\'));
             }
 
             if (StringUtils.hasText(filter.getSku())) {
@@ -0,0 +1,408 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.inventory.LowStockEvent;
+import com.one.core.domain.service.tenant.util.ProductUtils;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Escribe un lote de filas ya validadas en una sola transacción, con sentencias set-based sobre
+ * arrays (unnest) en lugar de un save() por producto:
+ * <ol>
+ *   <li>una query busca los productos existentes del lote por SKU o nombre canónico;</li>
+ *   <li>los existentes se actualizan con un UPDATE ... FROM unnest (celda vacía = se conserva el valor);</li>
+ *   <li>los nuevos se insertan con INSERT ... ON CONFLICT (sku) DO UPDATE (si otro proceso creó el SKU
+ *       entre la búsqueda y el insert, la fila termina como actualización);</li>
+ *   <li>el stock inicial de los insertados se registra como movimientos INITIAL_STOCK en el mismo lote.</li>
+ *   <li>como en recordInitialStock, el costo promedio y el costo de ese movimiento arrancan en el
+ *       precio de compra por unidad base.</li>
+ *   <li>los productos que quedan de otro lado de su stock mínimo (nuevos por debajo, o existentes a los
+ *       que la fila les cambió el mínimo) se publican en un {@link LowStockEvent} para abrir o resolver la alerta.</li>
+ * </ol>
+ * El stock inicial de un producto existente se ignora: el stock se corrige con ajustes de inventario.
+ */
+@Component
+public class ProductImportBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportBatchWriter.class);
+
+    static final String REFERENCE_DOCUMENT_TYPE = "PRODUCT_IMPORT";
+
+    private static final String FIND_EXISTING_SQL =
+            "SELECT id, sku, canonical_name, product_type, unit_of_measure, current_stock, minimum_stock_level FROM products " +
+                    "WHERE sku = ANY(?::varchar[]) OR canonical_name = ANY(?::varchar[])";
+
+    private static final String UPDATE_SQL =
+            "UPDATE products p SET " +
+                    "sku = COALESCE(u.sku, p.sku), " +
+                    "name = COALESCE(u.name, p.name), " +
+                    "canonical_name = COALESCE(u.canonical_name, p.canonical_name), " +
+                    "barcode = COALESCE(u.barcode, p.barcode), " +
+                    "description = COALESCE(u.description, p.description), " +
+                    "category_id = COALESCE(u.category_id, p.category_id), " +
+                    "default_supplier_id = COALESCE(u.supplier_id, p.default_supplier_id), " +
+                    "purchase_price = COALESCE(u.purchase_price, p.purchase_price), " +
+                    "sale_price = COALESCE(u.sale_price, p.sale_price), " +
+                    "unit_of_measure = COALESCE(u.unit_of_measure, p.unit_of_measure), " +
+                    "minimum_stock_level = COALESCE(u.minimum_stock_level, p.minimum_stock_level), " +
+                    "updated_at = CURRENT_TIMESTAMP, updated_by_user_id = ? " +
+                    "FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::text[], " +
+                    "?::bigint[], ?::bigint[], ?::numeric[], ?::numeric[], ?::varchar[], ?::numeric[]) " +
+                    "AS u(id, sku, name, canonical_name, barcode, description, category_id, supplier_id, " +
+                    "purchase_price, sale_price, unit_of_measure, minimum_stock_level) " +
+                    "WHERE p.id = u.id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (sku, name, canonical_name, barcode, product_type, description, category_id, " +
+                    "default_supplier_id, purchase_price, sale_price, unit_of_measure, minimum_stock_level, current_stock, " +
+                    "average_cost, is_active, created_by_user_id, updated_by_user_id) " +
+                    "SELECT u.sku, u.name, u.canonical_name, u.barcode, u.product_type, u.description, u.category_id, " +
+                    "u.supplier_id, u.purchase_price, u.sale_price, u.unit_of_measure, u.minimum_stock_level, u.current_stock, " +
+                    "u.average_cost, TRUE, ?, ? " +
+                    "FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::text[], " +
+                    "?::bigint[], ?::bigint[], ?::numeric[], ?::numeric[], ?::varchar[], ?::numeric[], ?::numeric[], ?::numeric[]) " +
+                    "AS u(sku, name, canonical_name, barcode, product_type, description, category_id, supplier_id, " +
+                    "purchase_price, sale_price, unit_of_measure, minimum_stock_level, current_stock, average_cost) " +
+                    "ON CONFLICT (sku) DO UPDATE SET " +
+                    "name = EXCLUDED.name, canonical_name = EXCLUDED.canonical_name, " +
+                    "barcode = COALESCE(EXCLUDED.barcode, products.barcode), " +
+                    "description = COALESCE(EXCLUDED.description, products.description), " +
+                    "category_id = COALESCE(EXCLUDED.category_id, products.category_id), " +
+                    "default_supplier_id = COALESCE(EXCLUDED.default_supplier_id, products.default_supplier_id), " +
+                    "purchase_price = EXCLUDED.purchase_price, sale_price = EXCLUDED.sale_price, " +
+                    "updated_at = CURRENT_TIMESTAMP, updated_by_user_id = EXCLUDED.updated_by_user_id " +
+                    "RETURNING id, canonical_name, (xmax = 0) AS inserted";
+
+    private static final String INSERT_MOVEMENTS_SQL =
+            "INSERT INTO stock_movements (product_id, movement_type, quantity_changed, stock_after_movement, " +
+                    "movement_date, reference_document_type, reference_document_id, notes, user_id, unit_cost) " +
+                    "SELECT m.product_id, 'INITIAL_STOCK', m.quantity, m.quantity, CURRENT_TIMESTAMP, ?, ?, ?, ?, m.unit_cost " +
+                    "FROM unnest(?::bigint[], ?::numeric[], ?::numeric[]) AS m(product_id, quantity, unit_cost)";
+
+    /** Fila lista para escribir. Los campos null no se modifican en un producto existente. */
+    public record Item(int rowNumber, String sku, String name, String canonicalName, String barcode,
+                       ProductType productType, String description, Long categoryId, Long supplierId,
+                       BigDecimal purchasePrice, BigDecimal salePrice, UnitOfMeasure unitOfMeasure,
+                       BigDecimal minimumStockLevel, BigDecimal initialStock) {
+    }
+
+    public record RowFailure(int rowNumber, String sku, String message) {
+    }
+
+    public record BatchResult(int inserted, int updated, List<RowFailure> failures) {
+    }
+
+    private record Existing(long id, String sku, String canonicalName, ProductType productType, UnitOfMeasure unit,
+                            BigDecimal currentStock, BigDecimal minimumStockLevel) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductUtils productUtils;
+    private final UnitConversionService unitConversionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ProductImportBatchWriter(EntityManagerFactory entityManagerFactory, ProductUtils productUtils,
+                                    UnitConversionService unitConversionService,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.productUtils = productUtils;
+        this.unitConversionService = unitConversionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Escribe el lote completo o nada: ante un error de base (p.ej. un código de barras duplicado)
+     * la transacción se revierte y el llamador marca todas las filas del lote como fallidas.
+     */
+    @Transactional
+    public BatchResult write(List<Item> items, ProductType defaultType, UUID jobId, Long userId) {
+        List<Long> updatedIds = new ArrayList<>();
+        List<LowStockEvent.Crossing> crossings = new ArrayList<>();
+        BatchResult result = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> writeBatch(connection, items, defaultType, jobId, userId, updatedIds, crossings));
+        // Solo los productos existentes que se actualizaron por SQL pueden tener una copia vieja en el
+        // cache de segundo nivel; los insertados todavía no están cacheados
+        Cache cache = entityManagerFactory.getCache();
+        updatedIds.forEach(id -> cache.evict(Product.class, id));
+        if (!crossings.isEmpty()) {
+            eventPublisher.publishEvent(new LowStockEvent(TenantContext.getCurrentTenantSchema(), crossings));
+        }
+        return result;
+    }
+
+    BatchResult writeBatch(Connection connection, List<Item> items, ProductType defaultType, UUID jobId, Long userId,
+                           List<Long> updatedIds, List<LowStockEvent.Crossing> crossings) throws SQLException {
+        Map<String, Existing> bySku = new HashMap<>();
+        Map<String, Existing> byCanonicalName = new HashMap<>();
+        findExisting(connection, items, bySku, byCanonicalName);
+
+        List<RowFailure> failures = new ArrayList<>();
+        List<Item> toUpdate = new ArrayList<>();
+        List<Long> updateIds = new ArrayList<>();
+        List<Item> toInsert = new ArrayList<>();
+
+        for (Item item : items) {
+            Existing bySkuMatch = item.sku() != null ? bySku.get(item.sku()) : null;
+            Existing byNameMatch = item.canonicalName() != null ? byCanonicalName.get(item.canonicalName()) : null;
+            Existing match = bySkuMatch != null ? bySkuMatch : byNameMatch;
+
+            if (match == null) {
+                if (item.name() == null) {
+                    failures.add(new RowFailure(item.rowNumber(), item.sku(), "Name is required for new products"));
+                } else {
+                    toInsert.add(withInsertDefaults(item, defaultType));
+                }
+                continue;
+            }
+            String problem = updateProblem(item, match, byNameMatch);
+            if (problem != null) {
+                failures.add(new RowFailure(item.rowNumber(), item.sku(), problem));
+                continue;
+            }
+            UnitOfMeasure unit = item.unitOfMeasure() != null ? item.unitOfMeasure() : match.unit();
+            Item update = withMinimumInBaseUnit(item, unit);
+            toUpdate.add(update);
+            updateIds.add(match.id());
+            // El stock de un existente no cambia: solo el mínimo puede llevarlo de un lado al otro
+            if (update.minimumStockLevel() != null) {
+                addCrossing(crossings, LowStockEvent.crossing(match.id(), match.currentStock(), match.minimumStockLevel(),
+                        match.currentStock(), update.minimumStockLevel()));
+            }
+        }
+
+        int updated = update(connection, toUpdate, updateIds, userId);
+        updatedIds.addAll(updateIds);
+        int[] insertedAndUpdated = insert(connection, toInsert, jobId, userId, updatedIds, crossings);
+        return new BatchResult(insertedAndUpdated[0], updated + insertedAndUpdated[1], failures);
+    }
+
+    private void findExisting(Connection connection, List<Item> items,
+                              Map<String, Existing> bySku, Map<String, Existing> byCanonicalName) throws SQLException {
+        String[] skus = items.stream().map(Item::sku).filter(Objects::nonNull).toArray(String[]::new);
+        String[] names = items.stream().map(Item::canonicalName).filter(Objects::nonNull).toArray(String[]::new);
+        try (PreparedStatement ps = connection.prepareStatement(FIND_EXISTING_SQL)) {
+            ps.setArray(1, connection.createArrayOf("varchar", skus));
+            ps.setArray(2, connection.createArrayOf("varchar", names));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Existing existing = new Existing(rs.getLong("id"), rs.getString("sku"), rs.getString("canonical_name"),
+                            ProductType.valueOf(rs.getString("product_type")),
+                            rs.getString("unit_of_measure") != null ? UnitOfMeasure.valueOf(rs.getString("unit_of_measure")) : UnitOfMeasure.UNIT,
+                            rs.getBigDecimal("current_stock"), rs.getBigDecimal("minimum_stock_level"));
+                    if (existing.sku() != null) {
+                        bySku.put(existing.sku(), existing);
+                    }
+                    if (existing.canonicalName() != null) {
+                        byCanonicalName.put(existing.canonicalName(), existing);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Motivo por el que una fila no puede actualizar el producto encontrado, o null si puede. */
+    private static String updateProblem(Item item, Existing match, Existing byNameMatch) {
+        if (byNameMatch != null && byNameMatch.id() != match.id()) {
+            return "Name '" + item.name() + "' is already used by product " +
+                    (byNameMatch.sku() != null ? byNameMatch.sku() : "id " + byNameMatch.id());
+        }
+        if (item.productType() != null && item.productType() != match.productType()) {
+            return "Product type cannot be changed by import (current: " + match.productType() + ")";
+        }
+        if (item.unitOfMeasure() != null && item.unitOfMeasure().getMagnitude() != match.unit().getMagnitude()) {
+            return "Unit of measure " + item.unitOfMeasure() + " is not compatible with the current unit " + match.unit();
+        }
+        return null;
+    }
+
+    /** Completa lo que createProduct completaría: tipo, SKU/código de barras generados y unidades base. */
+    private Item withInsertDefaults(Item item, ProductType defaultType) {
+        ProductType type = item.productType() != null ? item.productType() : defaultType;
+        UnitOfMeasure unit = item.unitOfMeasure() != null ? item.unitOfMeasure() : UnitOfMeasure.UNIT;
+        String sku = item.sku();
+        String barcode = item.barcode();
+        if (type == ProductType.COMPOUND) {
+            barcode = null;
+        } else if (type == ProductType.PHYSICAL_GOOD || type == ProductType.PACKAGING) {
+            sku = sku != null ? sku : productUtils.generateSku();
+            barcode = barcode != null ? barcode : productUtils.generateBarcode();
+        }
+        BigDecimal minimum = item.minimumStockLevel();
+        BigDecimal stock = item.initialStock();
+        if (!isStockable(type)) {
+            minimum = BigDecimal.ZERO;
+            stock = BigDecimal.ZERO;
+        }
+        return new Item(item.rowNumber(), sku, item.name(), item.canonicalName(), barcode, type, item.description(),
+                item.categoryId(), item.supplierId(),
+                item.purchasePrice() != null ? item.purchasePrice() : BigDecimal.ZERO,
+                item.salePrice() != null ? item.salePrice() : BigDecimal.ZERO,
+                unit,
+                minimum != null ? unit.toBase(minimum) : BigDecimal.ZERO,
+                stock != null ? unit.toBase(stock) : BigDecimal.ZERO);
+    }
+
+    private static Item withMinimumInBaseUnit(Item item, UnitOfMeasure unit) {
+        if (item.minimumStockLevel() == null) {
+            return item;
+        }
+        return new Item(item.rowNumber(), item.sku(), item.name(), item.canonicalName(), item.barcode(),
+                item.productType(), item.description(), item.categoryId(), item.supplierId(),
+                item.purchasePrice(), item.salePrice(), item.unitOfMeasure(),
+                unit.toBase(item.minimumStockLevel()), item.initialStock());
+    }
+
+    private int update(Connection connection, List<Item> items, List<Long> ids, Long userId) throws SQLException {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(UPDATE_SQL)) {
+            int i = 1;
+            ps.setObject(i++, userId);
+            ps.setArray(i++, connection.createArrayOf("bigint", ids.toArray()));
+            ps.setArray(i++, varchars(connection, items, Item::sku));
+            ps.setArray(i++, varchars(connection, items, Item::name));
+            ps.setArray(i++, varchars(connection, items, Item::canonicalName));
+            ps.setArray(i++, varchars(connection, items, Item::barcode));
+            ps.setArray(i++, connection.createArrayOf("text", items.stream().map(Item::description).toArray()));
+            ps.setArray(i++, connection.createArrayOf("bigint", items.stream().map(Item::categoryId).toArray()));
+            ps.setArray(i++, connection.createArrayOf("bigint", items.stream().map(Item::supplierId).toArray()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::purchasePrice).toArray()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::salePrice).toArray()));
+            ps.setArray(i++, varchars(connection, items, item -> item.unitOfMeasure() != null ? item.unitOfMeasure().name() : null));
+            ps.setArray(i, connection.createArrayOf("numeric", items.stream().map(Item::minimumStockLevel).toArray()));
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * @return {insertados, actualizados por conflicto de SKU}; los ids actualizados se agregan a {@code updatedIds}
+     * y los insertados que arrancan por debajo de su mínimo a {@code crossings}
+     */
+    private int[] insert(Connection connection, List<Item> items, UUID jobId, Long userId,
+                         List<Long> updatedIds, List<LowStockEvent.Crossing> crossings) throws SQLException {
+        if (items.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        Map<String, Item> byCanonicalName = new HashMap<>();
+        items.forEach(item -> byCanonicalName.put(item.canonicalName(), item));
+
+        List<Long> movementProductIds = new ArrayList<>();
+        List<BigDecimal> movementQuantities = new ArrayList<>();
+        List<BigDecimal> movementUnitCosts = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            int i = 1;
+            ps.setObject(i++, userId);
+            ps.setObject(i++, userId);
+            ps.setArray(i++, varchars(connection, items, Item::sku));
+            ps.setArray(i++, varchars(connection, items, Item::name));
+            ps.setArray(i++, varchars(connection, items, Item::canonicalName));
+            ps.setArray(i++, varchars(connection, items, Item::barcode));
+            ps.setArray(i++, varchars(connection, items, item -> item.productType().name()));
+            ps.setArray(i++, connection.createArrayOf("text", items.stream().map(Item::description).toArray()));
+            ps.setArray(i++, connection.createArrayOf("bigint", items.stream().map(Item::categoryId).toArray()));
+            ps.setArray(i++, connection.createArrayOf("bigint", items.stream().map(Item::supplierId).toArray()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::purchasePrice).toArray()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::salePrice).toArray()));
+            ps.setArray(i++, varchars(connection, items, item -> item.unitOfMeasure().name()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::minimumStockLevel).toArray()));
+            ps.setArray(i++, connection.createArrayOf("numeric", items.stream().map(Item::initialStock).toArray()));
+            ps.setArray(i, connection.createArrayOf("numeric", items.stream().map(this::unitCostOf).toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (!rs.getBoolean("inserted")) {
+                        updatedIds.add(rs.getLong("id"));
+                        updated++;
+                        continue;
+                    }
+                    inserted++;
+                    Item item = byCanonicalName.get(rs.getString("canonical_name"));
+                    if (item != null) {
+                        // Un producto nuevo no estaba por debajo de nada (stock previo null)
+                        addCrossing(crossings, LowStockEvent.crossing(rs.getLong("id"), null, null,
+                                item.initialStock(), item.minimumStockLevel()));
+                    }
+                    if (item != null && item.initialStock().signum() > 0) {
+                        movementProductIds.add(rs.getLong("id"));
+                        movementQuantities.add(item.initialStock());
+                        movementUnitCosts.add(unitCostOf(item));
+                    }
+                }
+            }
+        }
+        insertInitialStockMovements(connection, movementProductIds, movementQuantities, movementUnitCosts, jobId, userId);
+        return new int[]{inserted, updated};
+    }
+
+    private void insertInitialStockMovements(Connection connection, List<Long> productIds, List<BigDecimal> quantities,
+                                             List<BigDecimal> unitCosts, UUID jobId, Long userId) throws SQLException {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_MOVEMENTS_SQL)) {
+            ps.setString(1, REFERENCE_DOCUMENT_TYPE);
+            ps.setString(2, "JOB:" + jobId);
+            ps.setString(3, "Carga de stock inicial por importación de productos.");
+            ps.setObject(4, userId);
+            ps.setArray(5, connection.createArrayOf("bigint", productIds.toArray()));
+            ps.setArray(6, connection.createArrayOf("numeric", quantities.toArray()));
+            ps.setArray(7, connection.createArrayOf("numeric", unitCosts.toArray()));
+            int rows = ps.executeUpdate();
+            logger.debug("Recorded {} initial stock movements for import job {}", rows, jobId);
+        }
+    }
+
+    private static void addCrossing(List<LowStockEvent.Crossing> crossings, LowStockEvent.Crossing crossing) {
+        if (crossing != null) {
+            crossings.add(crossing);
+        }
+    }
+
+    /** Costo de arranque de un producto nuevo: su precio de compra por unidad base. */
+    private BigDecimal unitCostOf(Item item) {
+        return unitConversionService.toPricePerBaseUnit(item.purchasePrice(), item.unitOfMeasure());
+    }
+
+    private static Array varchars(Connection connection, List<Item> items,
+                                  Function<Item, String> getter) throws SQLException {
+        return connection.createArrayOf("varchar", items.stream().map(getter).toArray());
+    }
+
+    static boolean isStockable(ProductType type) {
+        return type != ProductType.SERVICE && type != ProductType.SUBSCRIPTION && type != ProductType.DIGITAL;
+    }
+}
@@ -0,0 +1,305 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.domain.model.enums.IndustryType;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.enums.products.ProductImportStatus;
+import com.one.core.domain.model.tenant.product.ProductImportError;
+import com.one.core.domain.model.tenant.product.ProductImportJob;
+import com.one.core.domain.repository.tenant.product.ProductCategoryRepository;
+import com.one.core.domain.repository.tenant.product.ProductImportErrorRepository;
+import com.one.core.domain.repository.tenant.product.ProductImportJobRepository;
+import com.one.core.domain.repository.tenant.supplier.SupplierRepository;
+import com.one.core.domain.service.tenant.product.FlattenedBomCache;
+import com.one.core.domain.service.tenant.product.imports.ProductImportBatchWriter.BatchResult;
+import com.one.core.domain.service.tenant.product.imports.ProductImportBatchWriter.Item;
+import com.one.core.domain.service.tenant.product.imports.ProductImportBatchWriter.RowFailure;
+import com.one.core.domain.service.tenant.product.search.ProductPrefixIndex;
+import com.one.core.domain.service.tenant.product.search.ProductScanIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
+import static com.one.core.domain.service.tenant.product.imports.ProductImportReader.*;
+
+/**
+ * Ejecuta una importación en segundo plano (executor de Spring, con el tenant propagado por
+ * TenantContextTaskDecorator). Lee el archivo en streaming, valida y resuelve cada fila, y escribe
+ * de a {@link #BATCH_SIZE} filas; después de cada lote actualiza los contadores del job, así el
+ * progreso se puede consultar mientras corre.
+ */
+@Component
+public class ProductImportJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportJobRunner.class);
+
+    static final int BATCH_SIZE = 1000;
+    // Los errores por fila se guardan hasta este máximo; el contador rows_failed sigue contando
+    static final int MAX_STORED_ERRORS = 1000;
+
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportErrorRepository errorRepository;
+    private final ProductCategoryRepository categoryRepository;
+    private final SupplierRepository supplierRepository;
+    private final ProductImportBatchWriter batchWriter;
+    private final ProductPrefixIndex prefixIndex;
+    private final ProductScanIndex scanIndex;
+    private final FlattenedBomCache flattenedBomCache;
+
+    @Autowired
+    public ProductImportJobRunner(ProductImportJobRepository jobRepository,
+                                  ProductImportErrorRepository errorRepository,
+                                  ProductCategoryRepository categoryRepository,
+                                  SupplierRepository supplierRepository,
+                                  ProductImportBatchWriter batchWriter,
+                                  ProductPrefixIndex prefixIndex,
+                                  ProductScanIndex scanIndex,
+                                  FlattenedBomCache flattenedBomCache) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+        this.batchWriter = batchWriter;
+        this.prefixIndex = prefixIndex;
+        this.scanIndex = scanIndex;
+        this.flattenedBomCache = flattenedBomCache;
+    }
+
+    @Async
+    public void run(UUID jobId, Path file, String fileName, Long userId) {
+        ProductImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            logger.warn("Product import job {} not found; discarding uploaded file", jobId);
+            deleteQuietly(file);
+            return;
+        }
+        job.setStatus(ProductImportStatus.RUNNING);
+        job.setStartedAt(OffsetDateTime.now());
+        jobRepository.save(job);
+
+        long startedAt = System.currentTimeMillis();
+        ImportRun run = new ImportRun(job, userId);
+        try {
+            ProductImportReader.read(file, fileName, run::accept);
+            run.flush();
+            job.setStatus(ProductImportStatus.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Product import job {} failed after {} rows", jobId, job.getRowsRead(), e);
+            job.setStatus(ProductImportStatus.FAILED);
+            job.setErrorMessage(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            job.setFinishedAt(OffsetDateTime.now());
+            jobRepository.save(job);
+            deleteQuietly(file);
+            // Los índices en memoria se reconstruyen en la próxima búsqueda/escaneo; el BOM aplanado
+            // también, porque la importación puede cambiar la unidad de un ingrediente
+            String tenant = TenantContext.getCurrentTenantSchema();
+            prefixIndex.invalidate(tenant);
+            scanIndex.invalidate(tenant);
+            flattenedBomCache.invalidate(tenant);
+        }
+        logger.info("Product import job {} {} in {} ms: {} read, {} inserted, {} updated, {} failed",
+                jobId, job.getStatus(), System.currentTimeMillis() - startedAt,
+                job.getRowsRead(), job.getRowsInserted(), job.getRowsUpdated(), job.getRowsFailed());
+    }
+
+    /** Estado de una corrida: lookups precargados, claves ya vistas y el lote en curso. */
+    private final class ImportRun {
+
+        private final ProductImportJob job;
+        private final Long userId;
+        private final ProductType defaultType = defaultProductType();
+        private final Map<String, Long> categoryIds = new HashMap<>();
+        private final Map<String, Long> supplierIds = new HashMap<>();
+        // Clave (SKU o nombre canónico) -> primera fila del archivo que la usó
+        private final Map<String, Integer> seenKeys = new HashMap<>();
+        private final List<Item> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<RowFailure> pendingFailures = new ArrayList<>();
+        private int storedErrors;
+
+        ImportRun(ProductImportJob job, Long userId) {
+            this.job = job;
+            this.userId = userId;
+            categoryRepository.findAll().forEach(c -> categoryIds.putIfAbsent(canonical(c.getName()), c.getId()));
+            supplierRepository.findAll().forEach(s -> supplierIds.putIfAbsent(canonical(s.getName()), s.getId()));
+        }
+
+        void accept(ProductImportRow row) {
+            job.setRowsRead(job.getRowsRead() + 1);
+            try {
+                Item item = toItem(row, categoryIds, supplierIds);
+                String duplicateOf = firstRowWithSameKey(item);
+                if (duplicateOf != null) {
+                    pendingFailures.add(new RowFailure(row.rowNumber(), item.sku(), duplicateOf));
+                } else {
+                    batch.add(item);
+                }
+            } catch (IllegalArgumentException e) {
+                pendingFailures.add(new RowFailure(row.rowNumber(), row.value(SKU), e.getMessage()));
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private String firstRowWithSameKey(Item item) {
+            Integer first = null;
+            if (item.sku() != null) {
+                first = seenKeys.putIfAbsent("sku:" + item.sku(), item.rowNumber());
+            }
+            if (first == null && item.canonicalName() != null) {
+                first = seenKeys.putIfAbsent("name:" + item.canonicalName(), item.rowNumber());
+            }
+            return first != null ? "Duplicate of row " + first + " (same SKU or name)" : null;
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                try {
+                    BatchResult result = batchWriter.write(batch, defaultType, job.getId(), userId);
+                    job.setRowsInserted(job.getRowsInserted() + result.inserted());
+                    job.setRowsUpdated(job.getRowsUpdated() + result.updated());
+                    pendingFailures.addAll(result.failures());
+                } catch (RuntimeException e) {
+                    // El lote se revirtió entero: todas sus filas quedan como fallidas con el error de la base
+                    String message = "Batch rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                    logger.warn("Product import job {}: batch ending at row {} failed: {}",
+                            job.getId(), batch.get(batch.size() - 1).rowNumber(), message);
+                    batch.forEach(item -> pendingFailures.add(new RowFailure(item.rowNumber(), item.sku(), message)));
+                }
+                batch.clear();
+            }
+            job.setRowsFailed(job.getRowsFailed() + pendingFailures.size());
+            saveErrors();
+            jobRepository.save(job);
+        }
+
+        private void saveErrors() {
+            List<ProductImportError> errors = new ArrayList<>();
+            for (RowFailure failure : pendingFailures) {
+                if (storedErrors >= MAX_STORED_ERRORS) {
+                    break;
+                }
+                errors.add(new ProductImportError(job.getId(), failure.rowNumber(), truncate(failure.sku(), 50), failure.message()));
+                storedErrors++;
+            }
+            errorRepository.saveAll(errors);
+            pendingFailures.clear();
+        }
+    }
+
+    /** Valida y convierte una fila; los errores se informan con IllegalArgumentException. */
+    static Item toItem(ProductImportRow row, Map<String, Long> categoryIds, Map<String, Long> supplierIds) {
+        String sku = row.value(SKU);
+        String name = row.value(NAME);
+        if (sku == null && name == null) {
+            throw new IllegalArgumentException("Either sku or name is required");
+        }
+        if (sku != null && sku.length() > 50) {
+            throw new IllegalArgumentException("SKU is longer than 50 characters");
+        }
+        if (name != null && name.length() > 150) {
+            throw new IllegalArgumentException("Name is longer than 150 characters");
+        }
+        String barcode = row.value(BARCODE);
+        if (barcode != null && barcode.length() > 100) {
+            throw new IllegalArgumentException("Barcode is longer than 100 characters");
+        }
+        return new Item(row.rowNumber(), sku, name, canonical(name), barcode,
+                parseEnum(ProductType.class, row.value(PRODUCT_TYPE), PRODUCT_TYPE),
+                row.value(DESCRIPTION),
+                lookup(categoryIds, row.value(CATEGORY), "category"),
+                lookup(supplierIds, row.value(SUPPLIER), "supplier"),
+                parseAmount(row.value(PURCHASE_PRICE), PURCHASE_PRICE),
+                parseAmount(row.value(SALE_PRICE), SALE_PRICE),
+                parseEnum(UnitOfMeasure.class, row.value(UNIT_OF_MEASURE), UNIT_OF_MEASURE),
+                parseAmount(row.value(MINIMUM_STOCK_LEVEL), MINIMUM_STOCK_LEVEL),
+                parseAmount(row.value(INITIAL_STOCK), INITIAL_STOCK));
+    }
+
+    private static Long lookup(Map<String, Long> idsByName, String name, String what) {
+        if (name == null) {
+            return null;
+        }
+        Long id = idsByName.get(canonical(name));
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown " + what + " '" + name + "'");
+        }
+        return id;
+    }
+
+    /** Acepta "1234.5", "1234,5" y "1.234,50" / "1,234.50" (el último separador es el decimal). */
+    static BigDecimal parseAmount(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.replace(" ", "").replace("$", "");
+        int lastComma = normalized.lastIndexOf(',');
+        int lastDot = normalized.lastIndexOf('.');
+        if (lastComma > lastDot) {
+            normalized = normalized.replace(".", "").replace(',', '.');
+        } else if (lastComma >= 0) {
+            normalized = normalized.replace(",", "");
+        }
+        try {
+            BigDecimal amount = new BigDecimal(normalized);
+            if (amount.signum() < 0) {
+                throw new IllegalArgumentException("Column " + column + " cannot be negative");
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Column " + column + " is not a number: '" + value + "'");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    /** Mismo criterio que ProductService.createProduct cuando el producto no trae tipo. */
+    private static ProductType defaultProductType() {
+        String industryType = TenantContext.getCurrentTenantIndustryType();
+        if (IndustryType.GYM.name().equals(industryType)) {
+            return ProductType.SUBSCRIPTION;
+        } else if (IndustryType.SERVICES.name().equals(industryType)) {
+            return ProductType.SERVICE;
+        }
+        return ProductType.PHYSICAL_GOOD;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary import file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import com.one.core.application.exception.ValidationException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
+
+/**
+ * Lee el archivo de una importación fila por fila sin cargarlo entero: CSV (coma o punto y coma,
+ * comillas dobles RFC 4180) o XLSX con el lector SAX de POI (solo la primera hoja). La primera
+ * fila es la cabecera; las columnas se reconocen en inglés o en castellano.
+ */
+public final class ProductImportReader {
+
+    public static final String SKU = "sku";
+    public static final String NAME = "name";
+    public static final String BARCODE = "barcode";
+    public static final String PRODUCT_TYPE = "product_type";
+    public static final String DESCRIPTION = "description";
+    public static final String CATEGORY = "category";
+    public static final String SUPPLIER = "supplier";
+    public static final String PURCHASE_PRICE = "purchase_price";
+    public static final String SALE_PRICE = "sale_price";
+    public static final String UNIT_OF_MEASURE = "unit_of_measure";
+    public static final String MINIMUM_STOCK_LEVEL = "minimum_stock_level";
+    public static final String INITIAL_STOCK = "initial_stock";
+
+    private static final Map<String, String> COLUMN_ALIASES = new HashMap<>();
+
+    static {
+        alias(SKU, "sku", "codigo");
+        alias(NAME, "name", "nombre");
+        alias(BARCODE, "barcode", "codigo_barras", "codigo_de_barras", "ean");
+        alias(PRODUCT_TYPE, "product_type", "type", "tipo");
+        alias(DESCRIPTION, "description", "descripcion");
+        alias(CATEGORY, "category", "categoria");
+        alias(SUPPLIER, "supplier", "default_supplier", "proveedor");
+        alias(PURCHASE_PRICE, "purchase_price", "cost", "precio_compra", "costo");
+        alias(SALE_PRICE, "sale_price", "price", "precio_venta", "precio");
+        alias(UNIT_OF_MEASURE, "unit_of_measure", "unit", "uom", "unidad");
+        alias(MINIMUM_STOCK_LEVEL, "minimum_stock_level", "minimum_stock", "stock_minimo");
+        alias(INITIAL_STOCK, "initial_stock", "stock", "current_stock", "stock_inicial");
+    }
+
+    private ProductImportReader() {
+    }
+
+    private static void alias(String column, String... names) {
+        for (String name : names) {
+            COLUMN_ALIASES.put(name, column);
+        }
+    }
+
+    /** Columna reconocida para un título de cabecera, o null si se ignora. */
+    static String columnFor(String header) {
+        String normalized = canonical(header);
+        if (normalized == null) {
+            return null;
+        }
+        return COLUMN_ALIASES.get(normalized.replaceAll("[^a-z0-9]+", "_").replaceAll("^_|_$", ""));
+    }
+
+    public static void read(Path file, String fileName, Consumer<ProductImportRow> consumer) throws IOException {
+        String lowerName = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (lowerName.endsWith(".xlsx")) {
+            readXlsx(file, consumer);
+        } else if (lowerName.endsWith(".csv") || lowerName.endsWith(".txt")) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                readCsv(reader, consumer);
+            }
+        } else {
+            throw new ValidationException("Unsupported import file type. Use .csv or .xlsx.");
+        }
+    }
+
+    // ---------- CSV ----------
+
+    static void readCsv(Reader source, Consumer<ProductImportRow> consumer) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        reader.mark(8192);
+        String firstLine = reader.readLine();
+        if (firstLine == null) {
+            return;
+        }
+        reader.reset();
+        char delimiter = count(firstLine, ';') > count(firstLine, ',') ? ';' : ',';
+
+        List<String> record = readCsvRecord(reader, delimiter);
+        if (record == null) {
+            return;
+        }
+        if (!record.isEmpty() && record.get(0).startsWith("﻿")) {
+            record.set(0, record.get(0).substring(1)); // BOM de Excel
+        }
+        String[] columns = record.stream().map(ProductImportReader::columnFor).toArray(String[]::new);
+
+        int rowNumber = 1;
+        while ((record = readCsvRecord(reader, delimiter)) != null) {
+            rowNumber++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; // línea vacía
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < record.size() && i < columns.length; i++) {
+                if (columns[i] != null) {
+                    values.put(columns[i], record.get(i));
+                }
+            }
+            consumer.accept(new ProductImportRow(rowNumber, values));
+        }
+    }
+
+    /** Un registro CSV (puede ocupar varias líneas si un campo entre comillas tiene saltos). */
+    private static List<String> readCsvRecord(BufferedReader reader, char delimiter) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                field.append(ch);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int count(String line, char ch) {
+        return (int) line.chars().filter(c -> c == ch).count();
+    }
+
+    // ---------- XLSX ----------
+
+    private static void readXlsx(Path file, Consumer<ProductImportRow> consumer) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = xssfReader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings,
+                        new SheetRowHandler(consumer), new org.apache.poi.ss.usermodel.DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not read the XLSX file: " + e.getMessage(), e);
+        }
+    }
+
+    /** Recibe las celdas de la hoja en orden; arma una fila por cada fila no vacía. */
+    private static final class SheetRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Consumer<ProductImportRow> consumer;
+        private final Map<Integer, String> columnsByIndex = new HashMap<>();
+        private Map<String, String> current;
+        private int currentRow;
+        private boolean headerRead;
+
+        SheetRowHandler(Consumer<ProductImportRow> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow = rowNum + 1;
+            current = new HashMap<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerRead) {
+                headerRead = true;
+                return;
+            }
+            if (!current.isEmpty()) {
+                consumer.accept(new ProductImportRow(currentRow, current));
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (!headerRead) {
+                String name = columnFor(formattedValue);
+                if (name != null) {
+                    columnsByIndex.put(column, name);
+                }
+            } else if (columnsByIndex.containsKey(column) && formattedValue != null && !formattedValue.isBlank()) {
+                current.put(columnsByIndex.get(column), formattedValue);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import java.util.Map;
+
+/**
+ * Una fila del archivo importado: número de fila (la cabecera es la 1) y los valores por columna,
+ * con el nombre de columna ya normalizado (ver {@link ProductImportReader#columnFor}).
+ */
+public record ProductImportRow(int rowNumber, Map<String, String> values) {
+
+    public String value(String column) {
+        String value = values.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
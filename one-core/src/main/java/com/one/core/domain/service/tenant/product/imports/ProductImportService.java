@@ -0,0 +1,99 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import com.one.core.application.dto.tenant.product.ProductImportJobDTO;
+import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.exception.ValidationException;
+import com.one.core.application.security.AuthenticationFacade;
+import com.one.core.domain.model.tenant.product.ProductImportJob;
+import com.one.core.domain.repository.tenant.product.ProductImportErrorRepository;
+import com.one.core.domain.repository.tenant.product.ProductImportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Importación masiva de productos desde CSV o XLSX. El archivo subido se copia a un temporal y se
+ * procesa en segundo plano ({@link ProductImportJobRunner}); el cliente consulta el progreso y los
+ * errores por fila con el id del job.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    // Errores por fila que se devuelven al consultar un job
+    private static final int ERRORS_IN_RESPONSE = 100;
+
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportErrorRepository errorRepository;
+    private final ProductImportJobRunner jobRunner;
+    private final AuthenticationFacade authenticationFacade;
+
+    @Autowired
+    public ProductImportService(ProductImportJobRepository jobRepository,
+                                ProductImportErrorRepository errorRepository,
+                                ProductImportJobRunner jobRunner,
+                                AuthenticationFacade authenticationFacade) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.jobRunner = jobRunner;
+        this.authenticationFacade = authenticationFacade;
+    }
+
+    public ProductImportJobDTO startImport(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("The import file is empty.");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "import.csv";
+        String lowerName = fileName.toLowerCase(Locale.ROOT);
+        if (!lowerName.endsWith(".csv") && !lowerName.endsWith(".txt") && !lowerName.endsWith(".xlsx")) {
+            throw new ValidationException("Unsupported import file type. Use .csv or .xlsx.");
+        }
+
+        // El multipart puede vivir en memoria o borrarse al terminar el request: se copia a un temporal propio
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("product-import-", lowerName.substring(lowerName.lastIndexOf('.')));
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store the uploaded import file", e);
+        }
+
+        Long userId = authenticationFacade.getCurrentAuthenticatedSystemUserId().orElse(null);
+        ProductImportJob job = new ProductImportJob();
+        job.setId(UUID.randomUUID());
+        job.setFileName(fileName);
+        job.setCreatedByUserId(userId);
+        job = jobRepository.save(job);
+
+        logger.info("Product import job {} queued for file {} ({} bytes)", job.getId(), fileName, file.getSize());
+        jobRunner.run(job.getId(), spooled, fileName, userId);
+        return toDTO(job, List.of());
+    }
+
+    public ProductImportJobDTO getJob(UUID jobId) {
+        ProductImportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductImportJob", "id", jobId));
+        List<ProductImportJobDTO.RowError> errors = errorRepository
+                .findByJobIdOrderByRowNumberAsc(jobId, PageRequest.of(0, ERRORS_IN_RESPONSE)).stream()
+                .map(e -> new ProductImportJobDTO.RowError(e.getRowNumber(), e.getSku(), e.getMessage()))
+                .toList();
+        return toDTO(job, errors);
+    }
+
+    private static ProductImportJobDTO toDTO(ProductImportJob job, List<ProductImportJobDTO.RowError> errors) {
+        return new ProductImportJobDTO(job.getId(), job.getFileName(), job.getStatus(),
+                job.getRowsRead(), job.getRowsInserted(), job.getRowsUpdated(), job.getRowsFailed(),
+                job.getErrorMessage(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), errors);
+    }
+}
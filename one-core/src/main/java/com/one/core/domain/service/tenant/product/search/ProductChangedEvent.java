@@ -0,0 +1,15 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/**
+ * Un producto se creó, se editó o se desactivó. Lleva los datos que necesitan los índices en
+ * memoria (autocompletado y escaneo) y el schema del tenant, porque se procesa después del commit.
+ */
+public record ProductChangedEvent(String tenantSchema, Long productId, String name, String sku,
+                                  String barcode, ProductType productType, BigDecimal salePrice,
+                                  UnitOfMeasure unitOfMeasure, boolean active) {
+}
@@ -0,0 +1,156 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.product.ProductSearchEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
+
+/**
+ * Índice de autocompletado en memoria, uno por tenant: un mapa ordenado de claves
+ * (nombre canónico desde cada palabra, SKU, código de barras) donde un prefijo es un rango.
+ * <ul>
+ *   <li>Se arma la primera vez que un tenant lo consulta, solo con productos activos.</li>
+ *   <li>Se actualiza de a un producto al confirmarse create/update/deactivate
+ *       ({@link ProductChangedEvent}, después del commit).</li>
+ *   <li>Se rearma pasado {@code products.search.prefix-index.max-age}: cubre los cambios hechos
+ *       por otras instancias, que esta no ve.</li>
+ * </ul>
+ */
+@Component
+public class ProductPrefixIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPrefixIndex.class);
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+    private final Duration maxAge;
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductPrefixIndex(ProductRepository productRepository,
+                              @Value("${products.search.prefix-index.max-age:PT10M}") Duration maxAge) {
+        this.productRepository = productRepository;
+        this.maxAge = maxAge;
+    }
+
+    /** Sugerencias para el tenant actual cuyo nombre (alguna palabra), SKU o código empiezan con {@code prefix}. */
+    public List<ProductSearchEntry> suggest(String prefix, int limit) {
+        String key = canonical(prefix);
+        String tenant = TenantContext.getCurrentTenantSchema();
+        if (key == null || key.isEmpty() || tenant == null) {
+            return List.of();
+        }
+        return indexFor(tenant).suggest(key, limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        TenantIndex index = indexes.get(event.tenantSchema());
+        if (index == null) {
+            return; // todavía no se armó: se va a leer de la base con el cambio ya confirmado
+        }
+        if (event.active()) {
+            index.put(new ProductSearchEntry(event.productId(), event.name(), event.sku(), event.barcode()));
+        } else {
+            index.remove(event.productId());
+        }
+    }
+
+    /** Descarta el índice de un tenant (p. ej. después de una importación masiva). */
+    public void invalidate(String tenantSchema) {
+        indexes.remove(tenantSchema);
+    }
+
+    private TenantIndex indexFor(String tenant) {
+        TenantIndex index = indexes.get(tenant);
+        if (index == null || index.isOlderThan(maxAge)) {
+            long startedAt = System.currentTimeMillis();
+            TenantIndex rebuilt = new TenantIndex();
+            productRepository.findActiveSearchEntries().forEach(rebuilt::put);
+            indexes.put(tenant, rebuilt);
+            logger.debug("Built product prefix index for tenant {} ({} products) in {} ms",
+                    tenant, rebuilt.size(), System.currentTimeMillis() - startedAt);
+            index = rebuilt;
+        }
+        return index;
+    }
+
+    /** Claves de un producto: el nombre canónico desde cada palabra, el SKU y el código de barras. */
+    static List<String> keysOf(ProductSearchEntry entry) {
+        List<String> keys = new ArrayList<>();
+        String name = canonical(entry.name());
+        if (name != null && !name.isEmpty()) {
+            keys.add(name);
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                keys.add(name.substring(i + 1));
+            }
+        }
+        if (entry.sku() != null && !entry.sku().isBlank()) {
+            keys.add(entry.sku().trim().toLowerCase());
+        }
+        if (entry.barcode() != null && !entry.barcode().isBlank()) {
+            keys.add(entry.barcode().trim());
+        }
+        return keys;
+    }
+
+    static final class TenantIndex {
+
+        // clave + separador + id -> producto; el id en la clave permite claves repetidas
+        private final ConcurrentSkipListMap<String, ProductSearchEntry> byKey = new ConcurrentSkipListMap<>();
+        private final Map<Long, List<String>> keysById = new ConcurrentHashMap<>();
+        private final long builtAt = System.nanoTime();
+
+        synchronized void put(ProductSearchEntry entry) {
+            remove(entry.id());
+            List<String> keys = keysOf(entry).stream().map(k -> k + KEY_SEPARATOR + entry.id()).toList();
+            keys.forEach(k -> byKey.put(k, entry));
+            keysById.put(entry.id(), keys);
+        }
+
+        synchronized void remove(Long productId) {
+            List<String> keys = keysById.remove(productId);
+            if (keys != null) {
+                keys.forEach(byKey::remove);
+            }
+        }
+
+        List<ProductSearchEntry> suggest(String prefix, int limit) {
+            ConcurrentNavigableMap<String, ProductSearchEntry> range = byKey.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            Map<Long, ProductSearchEntry> distinct = new LinkedHashMap<>();
+            for (ProductSearchEntry entry : range.values()) {
+                distinct.putIfAbsent(entry.id(), entry);
+                if (distinct.size() >= limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(distinct.values());
+        }
+
+        int size() {
+            return keysById.size();
+        }
+
+        boolean isOlderThan(Duration age) {
+            return System.nanoTime() - builtAt > age.toNanos();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.product.ProductScanEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de escaneo en memoria, uno por tenant: código de barras o SKU exacto -> producto activo.
+ * Mismo ciclo de vida que {@link ProductPrefixIndex}: se carga en el primer escaneo, se actualiza
+ * con {@link ProductChangedEvent} después del commit y se recarga pasado
+ * {@code products.scan.index.max-age}. Un código que no está (p. ej. un producto creado en otra
+ * instancia) se busca en la base y se agrega.
+ * <p>
+ * Si el SKU de un producto coincide con el código de barras de otro, el código resuelve al del SKU.
+ * El índice guarda los dos candidatos, así al cambiar o borrar uno el otro sigue resolviendo.
+ */
+@Component
+public class ProductScanIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductScanIndex.class);
+
+    private final ProductRepository productRepository;
+    private final Duration maxAge;
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductScanIndex(ProductRepository productRepository,
+                            @Value("${products.scan.index.max-age:PT10M}") Duration maxAge) {
+        this.productRepository = productRepository;
+        this.maxAge = maxAge;
+    }
+
+    public Optional<ProductScanEntry> find(String code) {
+        String tenant = TenantContext.getCurrentTenantSchema();
+        if (tenant == null) {
+            return Optional.empty();
+        }
+        TenantIndex index = indexFor(tenant);
+        ProductScanEntry entry = index.get(code);
+        if (entry == null) {
+            // El SKU tiene prioridad sobre un código de barras igual de otro producto, como en el índice
+            List<ProductScanEntry> candidates = productRepository.findActiveScanEntriesByCode(code);
+            candidates.forEach(index::put);
+            entry = index.get(code);
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        TenantIndex index = indexes.get(event.tenantSchema());
+        if (index == null) {
+            return;
+        }
+        if (event.active()) {
+            index.put(new ProductScanEntry(event.productId(), event.name(), event.sku(), event.barcode(),
+                    event.productType(), event.salePrice(), event.unitOfMeasure()));
+        } else {
+            index.remove(event.productId());
+        }
+    }
+
+    /** Descarta el índice de un tenant (p. ej. después de una importación masiva). */
+    public void invalidate(String tenantSchema) {
+        indexes.remove(tenantSchema);
+    }
+
+    private TenantIndex indexFor(String tenant) {
+        TenantIndex index = indexes.get(tenant);
+        if (index == null || index.isOlderThan(maxAge)) {
+            long startedAt = System.currentTimeMillis();
+            TenantIndex rebuilt = new TenantIndex();
+            productRepository.findActiveScanEntries().forEach(rebuilt::put);
+            indexes.put(tenant, rebuilt);
+            logger.debug("Built product scan index for tenant {} ({} products) in {} ms",
+                    tenant, rebuilt.size(), System.currentTimeMillis() - startedAt);
+            index = rebuilt;
+        }
+        return index;
+    }
+
+    static final class TenantIndex {
+
+        // Candidatos por código, el dueño del SKU primero; las listas son inmutables y se reemplazan
+        private final Map<String, List<ProductScanEntry>> byCode = new ConcurrentHashMap<>();
+        private final Map<Long, ProductScanEntry> byId = new ConcurrentHashMap<>();
+        private final long builtAt = System.nanoTime();
+
+        ProductScanEntry get(String code) {
+            List<ProductScanEntry> candidates = byCode.get(code);
+            return candidates != null ? candidates.get(0) : null;
+        }
+
+        synchronized void put(ProductScanEntry entry) {
+            remove(entry.id());
+            byId.put(entry.id(), entry);
+            if (entry.sku() != null) {
+                addCandidate(entry.sku(), entry, true);
+            }
+            if (entry.barcode() != null && !entry.barcode().equals(entry.sku())) {
+                addCandidate(entry.barcode(), entry, false);
+            }
+        }
+
+        synchronized void remove(Long productId) {
+            ProductScanEntry previous = byId.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            if (previous.sku() != null) {
+                removeCandidate(previous.sku(), productId);
+            }
+            if (previous.barcode() != null) {
+                removeCandidate(previous.barcode(), productId);
+            }
+        }
+
+        private void addCandidate(String code, ProductScanEntry entry, boolean isSku) {
+            byCode.compute(code, (k, current) -> {
+                List<ProductScanEntry> next = new ArrayList<>(current != null ? current.size() + 1 : 1);
+                if (isSku) next.add(entry);
+                if (current != null) next.addAll(current);
+                if (!isSku) next.add(entry);
+                return List.copyOf(next);
+            });
+        }
+
+        private void removeCandidate(String code, Long productId) {
+            byCode.computeIfPresent(code, (k, current) -> {
+                List<ProductScanEntry> next = current.stream()
+                        .filter(candidate -> !candidate.id().equals(productId))
+                        .toList();
+                return next.isEmpty() ? null : next;
+            });
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        boolean isOlderThan(Duration age) {
+            return System.nanoTime() - builtAt > age.toNanos();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.application.dto.tenant.product.ProductScanDTO;
+import com.one.core.application.dto.tenant.product.ProductSearchResultDTO;
+import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.exception.ValidationException;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.product.ProductScanEntry;
+import com.one.core.domain.service.common.UnitConversionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
+
+@Service
+public class ProductSearchService {
+
+    private static final int MAX_RESULTS = 50;
+
+    private static final Set<ProductType> NON_STOCKABLE =
+            EnumSet.of(ProductType.SERVICE, ProductType.SUBSCRIPTION, ProductType.DIGITAL);
+
+    private final ProductRepository productRepository;
+    private final ProductPrefixIndex productPrefixIndex;
+    private final ProductScanIndex productScanIndex;
+    private final UnitConversionService unitConversionService;
+
+    @Autowired
+    public ProductSearchService(ProductRepository productRepository,
+                                ProductPrefixIndex productPrefixIndex,
+                                ProductScanIndex productScanIndex,
+                                UnitConversionService unitConversionService) {
+        this.productRepository = productRepository;
+        this.productPrefixIndex = productPrefixIndex;
+        this.productScanIndex = productScanIndex;
+        this.unitConversionService = unitConversionService;
+    }
+
+    /**
+     * Resuelve un código escaneado (código de barras o SKU exacto). Nombre, precio y unidad salen
+     * del índice en memoria; el stock se lee siempre de la base por PK (cambia con cada venta y
+     * el POS no puede mostrarlo desactualizado).
+     */
+    @Transactional(readOnly = true)
+    public ProductScanDTO scan(String code) {
+        String trimmed = code != null ? code.trim() : "";
+        ProductScanEntry entry = productScanIndex.find(trimmed)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "code", trimmed));
+
+        UnitOfMeasure unit = entry.unitOfMeasure() != null ? entry.unitOfMeasure() : UnitOfMeasure.UNIT;
+        BigDecimal stock = NON_STOCKABLE.contains(entry.productType())
+                ? BigDecimal.ZERO
+                : productRepository.findCurrentStockById(entry.id()).orElse(BigDecimal.ZERO);
+        UnitConversionService.NormalizedQuantity normalized = unitConversionService.normalizeFromBaseUnit(stock, unit);
+
+        return new ProductScanDTO(entry.id(), entry.name(), entry.sku(), entry.barcode(), entry.productType(),
+                entry.salePrice() != null ? entry.salePrice() : BigDecimal.ZERO,
+                normalized.quantity(), normalized.unit());
+    }
+
+    /** Búsqueda rankeada en la base (SKU/código exacto o por prefijo, nombre, similitud). */
+    @Transactional(readOnly = true)
+    public List<ProductSearchResultDTO> search(String query, int limit) {
+        if (!StringUtils.hasText(query)) {
+            throw new ValidationException("Search query cannot be empty.");
+        }
+        String rawTerm = query.trim();
+        String term = canonical(rawTerm);
+        String escaped = escapeLike(term);
+
+        return productRepository.searchRanked(term, rawTerm, escaped + "%", escapeLike(rawTerm) + "%",
+                        "%" + escaped + "%", clamp(limit))
+                .stream()
+                .map(hit -> new ProductSearchResultDTO(hit.getId(), hit.getName(), hit.getSku(), hit.getBarcode(), hit.getScore()))
+                .toList();
+    }
+
+    /** Autocompletado desde el índice en memoria del tenant (sin ir a la base salvo al armarlo). */
+    @Transactional(readOnly = true)
+    public List<ProductSearchResultDTO> autocomplete(String prefix, int limit) {
+        if (!StringUtils.hasText(prefix)) {
+            return List.of();
+        }
+        return productPrefixIndex.suggest(prefix, clamp(limit)).stream()
+                .map(entry -> new ProductSearchResultDTO(entry.id(), entry.name(), entry.sku(), entry.barcode(), null))
+                .toList();
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_RESULTS));
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
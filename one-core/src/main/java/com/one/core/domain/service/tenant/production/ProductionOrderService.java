@@ -1,5 +1,6 @@
 package com.one.core.domain.service.tenant.production;
 
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
 import com.one.core.application.dto.tenant.production.ProductionOrderDTO;
 import com.one.core.application.dto.tenant.production.ProductionOrderRequestDTO;
 import com.one.core.application.exception.ResourceNotFoundException;
@@ -9,13 +10,13 @@ import com.one.core.application.security.UserPrincipal;
 import com.one.core.domain.model.enums.ProductType;
 import com.one.core.domain.model.enums.movements.MovementType;
 import com.one.core.domain.model.tenant.product.Product;
-import com.one.core.domain.model.tenant.product.ProductRecipe;
 import com.one.core.domain.model.tenant.production.ProductionOrder;
-import com.one.core.domain.repository.tenant.product.ProductRecipeRepository;
 import com.one.core.domain.repository.tenant.product.ProductRepository;
 import com.one.core.domain.repository.tenant.production.ProductionOrderRepository;
 import com.one.core.domain.service.tenant.inventory.InventoryService;
+import com.one.core.domain.service.tenant.inventory.StockDelta;
 import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.product.FlattenedBomCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,16 +24,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductionOrderService {
 
     private final ProductionOrderRepository productionOrderRepository;
     private final ProductRepository productRepository;
-    private final ProductRecipeRepository productRecipeRepository;
+    private final FlattenedBomCache flattenedBomCache;
     private final InventoryService inventoryService;
     private final ProductionOrderMapper productionOrderMapper;
     private final UnitConversionService unitConversionService;
@@ -40,13 +45,13 @@ public class ProductionOrderService {
     @Autowired
     public ProductionOrderService(ProductionOrderRepository productionOrderRepository,
                                   ProductRepository productRepository,
-                                  ProductRecipeRepository productRecipeRepository,
+                                  FlattenedBomCache flattenedBomCache,
                                   InventoryService inventoryService,
                                   ProductionOrderMapper productionOrderMapper,
                                   UnitConversionService unitConversionService) {
         this.productionOrderRepository = productionOrderRepository;
         this.productRepository = productRepository;
-        this.productRecipeRepository = productRecipeRepository;
+        this.flattenedBomCache = flattenedBomCache;
         this.inventoryService = inventoryService;
         this.productionOrderMapper = productionOrderMapper;
         this.unitConversionService = unitConversionService;
@@ -54,95 +59,125 @@ public class ProductionOrderService {
 
     @Transactional
     public ProductionOrderDTO createProductionOrder(ProductionOrderRequestDTO requestDTO, UserPrincipal currentUser) {
-        // 1. Validar que el producto a fabricar existe y es de tipo COMPOUND
-        Product productToProduce = productRepository.findById(requestDTO.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", requestDTO.getProductId()));
+        return createProductionOrders(List.of(requestDTO), currentUser).get(0);
+    }
 
-        if (productToProduce.getProductType() != ProductType.COMPOUND) {
-            throw new ValidationException("Production orders can only be created for products of type COMPOUND.");
+    /**
+     * Crea varias órdenes de producción como una sola operación:
+     * <ol>
+     *   <li>Explota cada producto compuesto en sus insumos básicos (cache de BOM) y suma la demanda
+     *       de todas las órdenes, así un insumo compartido se valida contra el total.</li>
+     *   <li>Valida la demanda con una sola lectura de stock; si falta algo lanza
+     *       {@link com.one.core.application.exception.StockShortageException} con todos los faltantes,
+     *       sin haber escrito ninguna orden.</li>
+     *   <li>Guarda las órdenes y aplica todos los movimientos en un único lote.</li>
+     * </ol>
+     */
+    @Transactional
+    public List<ProductionOrderDTO> createProductionOrders(List<ProductionOrderRequestDTO> requests, UserPrincipal currentUser) {
+        if (requests.isEmpty()) {
+            return List.of();
         }
-
-        // 2. Calcular la lista APLANADA de insumos básicos usando la recursividad
-        Map<Product, BigDecimal> requiredRawIngredients = new HashMap<>();
-        calculateRawIngredients(productToProduce, requestDTO.getQuantityProduced(), requiredRawIngredients);
-
-        if (requiredRawIngredients.isEmpty()) {
-            throw new ValidationException("Product '" + productToProduce.getName() + "' cannot be produced because its recipe is empty or leads to no raw ingredients.");
+        // 1. Validar que los productos a fabricar existen y son de tipo COMPOUND
+        Map<Long, Product> productsById = loadCompoundProducts(requests);
+
+        // 2. Demanda total de insumos básicos (unidad base) de todas las órdenes
+        Map<Long, BigDecimal> totalDemand = new HashMap<>();
+        List<Map<Long, BigDecimal>> demandByRequest = new ArrayList<>();
+        for (ProductionOrderRequestDTO request : requests) {
+            Map<Long, BigDecimal> demand = rawDemand(productsById.get(request.getProductId()), request.getQuantityProduced());
+            demand.forEach((ingredientId, quantity) -> totalDemand.merge(ingredientId, quantity, BigDecimal::add));
+            demandByRequest.add(demand);
         }
 
-        // 3. Validar el stock de los insumos básicos calculados
-        for (Map.Entry<Product, BigDecimal> entry : requiredRawIngredients.entrySet()) {
-            Product ingredient = entry.getKey();
-            BigDecimal requiredQuantity = entry.getValue();
-            BigDecimal requiredBase = unitConversionService.toBaseUnit(requiredQuantity, ingredient.getUnitOfMeasure());
-            if (!inventoryService.isStockAvailable(ingredient.getId(), requiredBase)) {
-                throw new ValidationException("Insufficient stock for raw ingredient: " + ingredient.getName());
-            }
+        // 3. Una sola lectura de stock para todo el lote
+        inventoryService.assertAvailable(totalDemand);
+
+        // 4. Crear las órdenes (necesitamos sus IDs como referencia de los movimientos)
+        List<ProductionOrder> newOrders = new ArrayList<>();
+        for (ProductionOrderRequestDTO request : requests) {
+            ProductionOrder newOrder = new ProductionOrder();
+            newOrder.setProduct(productsById.get(request.getProductId()));
+            newOrder.setQuantityProduced(request.getQuantityProduced());
+            newOrder.setNotes(request.getNotes());
+            newOrders.add(newOrder);
         }
-
-        // 4. Si hay stock, crear la orden de producción
-        ProductionOrder newOrder = new ProductionOrder();
-        newOrder.setProduct(productToProduce);
-        newOrder.setQuantityProduced(requestDTO.getQuantityProduced());
-        newOrder.setNotes(requestDTO.getNotes());
-        // Aquí podrías setear el 'createdByUser' si lo tienes en tu entidad ProductionOrder
-        ProductionOrder savedOrder = productionOrderRepository.save(newOrder);
-
-        // 5. Procesar los movimientos de stock
-        // a) Descontar insumos básicos
-        for (Map.Entry<Product, BigDecimal> entry : requiredRawIngredients.entrySet()) {
-            Product ingredient = entry.getKey();
-            BigDecimal quantityToConsume = entry.getValue();
-            BigDecimal consumeBase = unitConversionService.toBaseUnit(quantityToConsume, ingredient.getUnitOfMeasure());
-            inventoryService.processOutgoingStock(
-                    ingredient.getId(),
-                    consumeBase,
-                    MovementType.COMPONENT_CONSUMPTION,
+        List<ProductionOrder> savedOrders = productionOrderRepository.saveAll(newOrders);
+
+        // 5. Todos los movimientos en un único lote
+        List<StockDelta> deltas = new ArrayList<>();
+        for (int i = 0; i < savedOrders.size(); i++) {
+            ProductionOrder savedOrder = savedOrders.get(i);
+            Product productToProduce = savedOrder.getProduct();
+            String orderId = savedOrder.getId().toString();
+            // a) Descontar insumos básicos
+            for (Map.Entry<Long, BigDecimal> entry : demandByRequest.get(i).entrySet()) {
+                deltas.add(StockDelta.out(
+                        entry.getKey(),
+                        entry.getValue(),
+                        MovementType.COMPONENT_CONSUMPTION,
+                        "PRODUCTION_ORDER",
+                        orderId,
+                        currentUser.getId(),
+                        "Consumed for production of " + productToProduce.getName()
+                ));
+            }
+            // b) Incrementar stock del producto terminado
+            deltas.add(StockDelta.in(
+                    productToProduce.getId(),
+                    unitConversionService.toBaseUnit(savedOrder.getQuantityProduced(), productToProduce.getUnitOfMeasure()),
+                    MovementType.PRODUCTION_IN,
                     "PRODUCTION_ORDER",
-                    savedOrder.getId().toString(),
+                    orderId,
                     currentUser.getId(),
-                    "Consumed for production of " + productToProduce.getName()
-            );
+                    "Finished goods from production order ID: " + savedOrder.getId()
+            ));
         }
+        inventoryService.applyMovements(deltas);
 
-        // b) Incrementar stock del producto terminado
-        inventoryService.processIncomingStock(
-                productToProduce.getId(),
-                unitConversionService.toBaseUnit(savedOrder.getQuantityProduced(), productToProduce.getUnitOfMeasure()),
-                MovementType.PRODUCTION_IN,
-                "PRODUCTION_ORDER",
-                savedOrder.getId().toString(),
-                currentUser.getId(),
-                "Finished goods from production order ID: " + savedOrder.getId()
-        );
-
-        return productionOrderMapper.toDTO(savedOrder);
+        return savedOrders.stream().map(productionOrderMapper::toDTO).toList();
     }
 
-    /**
-     * Método recursivo que "desarma" un producto compuesto hasta llegar a sus insumos básicos (PHYSICAL_GOOD).
-     * @param product El producto a procesar (puede ser COMPOUND o PHYSICAL_GOOD).
-     * @param quantityNeeded La cantidad necesaria de este producto.
-     * @param rawIngredientsMap El mapa que acumula el resultado final de insumos básicos.
-     */
-    private void calculateRawIngredients(Product product, BigDecimal quantityNeeded, Map<Product, BigDecimal> rawIngredientsMap) {
-        // Caso base: Si el producto es un insumo físico, lo añadimos al mapa y terminamos.
-        if (product.getProductType() == ProductType.PHYSICAL_GOOD || product.getProductType() == ProductType.PACKAGING) {
-            rawIngredientsMap.merge(product, quantityNeeded, BigDecimal::add);
-            return;
+    /** Insumos básicos que consumiría producir el lote, contra el stock actual, sin escribir nada. */
+    @Transactional(readOnly = true)
+    public List<MaterialRequirementDTO> getMaterialRequirements(List<ProductionOrderRequestDTO> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
         }
+        Map<Long, Product> productsById = loadCompoundProducts(requests);
+        Map<Long, BigDecimal> totalDemand = new HashMap<>();
+        for (ProductionOrderRequestDTO request : requests) {
+            rawDemand(productsById.get(request.getProductId()), request.getQuantityProduced())
+                    .forEach((ingredientId, quantity) -> totalDemand.merge(ingredientId, quantity, BigDecimal::add));
+        }
+        return inventoryService.checkRequirements(totalDemand);
+    }
 
-        // Paso recursivo: Si es un producto compuesto, obtenemos su receta y procesamos cada ingrediente.
-        if (product.getProductType() == ProductType.COMPOUND) {
-            List<ProductRecipe> recipeItems = productRecipeRepository.findByMainProductId(product.getId());
-            for (ProductRecipe recipeItem : recipeItems) {
-                Product ingredient = recipeItem.getIngredientProduct();
-                BigDecimal subQuantityNeeded = recipeItem.getQuantityRequired().multiply(quantityNeeded);
-
-                // Llamada recursiva para el ingrediente, que a su vez puede ser otra sub-receta.
-                calculateRawIngredients(ingredient, subQuantityNeeded, rawIngredientsMap);
+    private Map<Long, Product> loadCompoundProducts(List<ProductionOrderRequestDTO> requests) {
+        Set<Long> productIds = requests.stream().map(ProductionOrderRequestDTO::getProductId).collect(Collectors.toSet());
+        Map<Long, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
             }
+            if (product.getProductType() != ProductType.COMPOUND) {
+                throw new ValidationException("Production orders can only be created for products of type COMPOUND.");
+            }
+        }
+        return productsById;
+    }
+
+    /** Lista APLANADA de insumos básicos (unidad base) para producir la cantidad indicada. */
+    private Map<Long, BigDecimal> rawDemand(Product productToProduce, BigDecimal quantityProduced) {
+        Map<Long, BigDecimal> rawIngredientsPerUnit = flattenedBomCache.rawIngredientsPerUnit(productToProduce.getId());
+        if (rawIngredientsPerUnit.isEmpty()) {
+            throw new ValidationException("Product '" + productToProduce.getName() + "' cannot be produced because its recipe is empty or leads to no raw ingredients.");
         }
+        Map<Long, BigDecimal> demand = new HashMap<>();
+        rawIngredientsPerUnit.forEach((ingredientId, perUnit) -> demand.put(ingredientId, perUnit.multiply(quantityProduced)));
+        return demand;
     }
 
     @Transactional(readOnly = true)
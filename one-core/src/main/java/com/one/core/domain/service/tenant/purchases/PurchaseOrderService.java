@@ -18,8 +18,11 @@ import com.one.core.domain.repository.tenant.purchases.PurchaseOrderItemReposito
 import com.one.core.domain.repository.tenant.purchases.PurchaseOrderRepository;
 import com.one.core.domain.repository.tenant.supplier.SupplierRepository;
 import com.one.core.domain.service.tenant.inventory.InventoryService;
+import com.one.core.domain.service.tenant.inventory.StockDelta;
 import com.one.core.domain.service.tenant.purchases.criteria.PurchaseOrderSpecification;
+import com.one.core.domain.service.common.IdPageQuery;
 import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.reports.ReportRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,6 +51,8 @@ public class PurchaseOrderService {
     private final PurchaseOrderMapper purchaseOrderMapper;
     private final InventoryService inventoryService;
     private final UnitConversionService unitConversionService;
+    private final ReportRollupService reportRollupService;
+    private final IdPageQuery idPageQuery;
 
     @Autowired
     public PurchaseOrderService(PurchaseOrderRepository purchaseOrderRepository,
@@ -57,7 +62,9 @@ public class PurchaseOrderService {
                                 SystemUserRepository systemUserRepository,
                                 PurchaseOrderMapper purchaseOrderMapper,
                                 InventoryService inventoryService,
-                                UnitConversionService unitConversionService) {
+                                UnitConversionService unitConversionService,
+                                ReportRollupService reportRollupService,
+                                IdPageQuery idPageQuery) {
         this.purchaseOrderRepository = purchaseOrderRepository;
         this.purchaseOrderItemRepository = purchaseOrderItemRepository;
         this.productRepository = productRepository;
@@ -66,6 +73,8 @@ public class PurchaseOrderService {
         this.purchaseOrderMapper = purchaseOrderMapper;
         this.inventoryService = inventoryService;
         this.unitConversionService = unitConversionService;
+        this.reportRollupService = reportRollupService;
+        this.idPageQuery = idPageQuery;
     }
 
     @Transactional
@@ -107,8 +116,9 @@ public class PurchaseOrderService {
 
         // LÓGICA AÑADIDA: Procesar el ingreso de stock para cada ítem de la orden recién creada.
         String notesForMovement = "Stock received automatically upon creation of PO: " + savedOrder.getId();
+        List<StockDelta> deltas = new ArrayList<>();
         for (PurchaseOrderItem item : savedOrder.getItems()) {
-            inventoryService.processIncomingStock(
+            deltas.add(StockDelta.in(
                     item.getProduct().getId(),
                     unitConversionService.toBaseUnit(item.getQuantityReceived(), item.getProduct().getUnitOfMeasure()),
                     MovementType.PURCHASE_RECEIPT,
@@ -116,9 +126,11 @@ public class PurchaseOrderService {
                     savedOrder.getId().toString(),
                     currentUser.getId(),
                     notesForMovement + " - Item: " + item.getProduct().getName()
-            );
-            logger.info("Stock updated for product ID {} with quantity {}.", item.getProduct().getId(), item.getQuantityReceived());
+            ).withUnitCost(unitConversionService.toPricePerBaseUnit(item.getUnitPrice(), item.getProduct().getUnitOfMeasure())));
         }
+        inventoryService.applyMovements(deltas);
+        logger.info("Stock updated for {} items of Purchase Order {}.", deltas.size(), savedOrder.getId());
+        reportRollupService.onPurchaseOrderCreated(savedOrder);
 
         return purchaseOrderMapper.toDTO(savedOrder);
     }
@@ -135,6 +147,7 @@ public class PurchaseOrderService {
         String notesForMovement = "Goods received for PO: " + order.getId() +
                 (receiptDTO.getNotes() != null ? " - " + receiptDTO.getNotes() : "");
 
+        List<StockDelta> deltas = new ArrayList<>();
         for (GoodsReceiptItemDTO itemReceivedDto : receiptDTO.getItemsReceived()) {
             PurchaseOrderItem orderItem = purchaseOrderItemRepository.findById(itemReceivedDto.getPurchaseOrderItemId())
                     .orElseThrow(() -> new ResourceNotFoundException("PurchaseOrderItem", "id", itemReceivedDto.getPurchaseOrderItemId()));
@@ -160,7 +173,7 @@ public class PurchaseOrderService {
 
             orderItem.setQuantityReceived(newTotalReceived);
 
-            inventoryService.processIncomingStock(
+            deltas.add(StockDelta.in(
                     orderItem.getProduct().getId(),
                     unitConversionService.toBaseUnit(quantityToReceiveNow, orderItem.getProduct().getUnitOfMeasure()),
                     MovementType.PURCHASE_RECEIPT,
@@ -168,8 +181,10 @@ public class PurchaseOrderService {
                     order.getId().toString(),
                     currentUser.getId(),
                     notesForMovement + " - Item: " + orderItem.getProduct().getName()
-            );
+            ).withUnitCost(unitConversionService.toPricePerBaseUnit(orderItem.getUnitPrice(), orderItem.getProduct().getUnitOfMeasure())));
+            reportRollupService.onGoodsReceived(order, orderItem, quantityToReceiveNow);
         }
+        inventoryService.applyMovements(deltas);
 
         boolean allOrderItemsNowFullyReceived = order.getItems().stream()
                 .allMatch(item -> item.getQuantityReceived().compareTo(item.getQuantityOrdered()) >= 0);
@@ -184,6 +199,50 @@ public class PurchaseOrderService {
         return purchaseOrderMapper.toDTO(updatedOrder);
     }
 
+    /**
+     * Cancela la orden: devuelve al proveedor lo ya recibido (SUPPLIER_RETURN) y la descuenta de los
+     * rollups de compras, que no cuentan las órdenes canceladas.
+     */
+    @Transactional
+    public PurchaseOrderDTO cancelPurchaseOrder(Long purchaseOrderId, UserPrincipal currentUser) {
+        PurchaseOrder order = purchaseOrderRepository.findById(purchaseOrderId)
+                .orElseThrow(() -> new ResourceNotFoundException("PurchaseOrder", "id", purchaseOrderId));
+
+        if (order.getStatus() == PurchaseOrderStatus.CANCELLED) {
+            return purchaseOrderMapper.toDTO(order);
+        }
+        if (order.getStatus() == PurchaseOrderStatus.CLOSED) {
+            throw new ValidationException("Cannot cancel a purchase order that has already been closed.");
+        }
+
+        String notesForMovement = "Stock returned upon cancellation of PO: " + order.getId();
+        List<StockDelta> deltas = new ArrayList<>();
+        for (PurchaseOrderItem item : order.getItems()) {
+            BigDecimal received = item.getQuantityReceived();
+            if (received == null || received.signum() <= 0) {
+                continue;
+            }
+            deltas.add(StockDelta.out(
+                    item.getProduct().getId(),
+                    unitConversionService.toBaseUnit(received, item.getProduct().getUnitOfMeasure()),
+                    MovementType.SUPPLIER_RETURN,
+                    "PURCHASE_ORDER",
+                    order.getId().toString(),
+                    currentUser.getId(),
+                    notesForMovement + " - Item: " + item.getProduct().getName()
+            ));
+        }
+        if (!deltas.isEmpty()) {
+            logger.info("Purchase Order {} is being cancelled. Returning received stock to the supplier.", order.getId());
+            inventoryService.applyMovements(deltas);
+        }
+        reportRollupService.onPurchaseOrderCancelled(order);
+
+        order.setStatus(PurchaseOrderStatus.CANCELLED);
+        PurchaseOrder updatedOrder = purchaseOrderRepository.save(order);
+        return purchaseOrderMapper.toDTO(updatedOrder);
+    }
+
     @Transactional(readOnly = true)
     public PurchaseOrderDTO getPurchaseOrderById(Long id) {
         PurchaseOrder order = purchaseOrderRepository.findById(id)
@@ -194,11 +253,14 @@ public class PurchaseOrderService {
     @Transactional(readOnly = true)
     public Page<PurchaseOrderDTO> getAllPurchaseOrders(PurchaseOrderFilterDTO filterDTO, Pageable pageable) {
         Specification<PurchaseOrder> spec = PurchaseOrderSpecification.filterBy(filterDTO);
-        Page<PurchaseOrder> orderPage = purchaseOrderRepository.findAll(spec, pageable);
+        // Dos fases: página de IDs y luego las órdenes con proveedor, usuario e ítems en una sola query
+        Page<Long> idPage = idPageQuery.findIds(PurchaseOrder.class, spec, pageable);
+        List<PurchaseOrder> orders = IdPageQuery.inIdOrder(idPage.getContent(),
+                purchaseOrderRepository.findWithDetailsByIdIn(idPage.getContent()), PurchaseOrder::getId);
 
-        List<PurchaseOrderDTO> orderDTOs = orderPage.getContent().stream()
+        List<PurchaseOrderDTO> orderDTOs = orders.stream()
                 .map(purchaseOrderMapper::toDTO)
                 .collect(Collectors.toList());
-        return new PageImpl<>(orderDTOs, pageable, orderPage.getTotalElements());
+        return new PageImpl<>(orderDTOs, pageable, idPage.getTotalElements());
     }
 }
\ No newline at end of file
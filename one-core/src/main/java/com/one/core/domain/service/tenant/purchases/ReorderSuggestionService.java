@@ -0,0 +1,168 @@
+package com.one.core.domain.service.tenant.purchases;
+
+import com.one.core.application.dto.tenant.inventory.ReorderLineDTO;
+import com.one.core.application.dto.tenant.inventory.ReorderSuggestionDTO;
+import com.one.core.application.dto.tenant.purchases.PurchaseOrderDTO;
+import com.one.core.application.exception.ResourceNotFoundException;
+import com.one.core.application.mapper.purchases.PurchaseOrderMapper;
+import com.one.core.application.security.UserPrincipal;
+import com.one.core.domain.model.admin.SystemUser;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.enums.purchases.PurchaseOrderStatus;
+import com.one.core.domain.model.tenant.purchases.PurchaseOrder;
+import com.one.core.domain.model.tenant.purchases.PurchaseOrderItem;
+import com.one.core.domain.repository.admin.SystemUserRepository;
+import com.one.core.domain.repository.tenant.product.LowStockRow;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.purchases.PendingPurchaseQuantity;
+import com.one.core.domain.repository.tenant.purchases.PurchaseOrderItemRepository;
+import com.one.core.domain.repository.tenant.purchases.PurchaseOrderRepository;
+import com.one.core.domain.repository.tenant.supplier.SupplierRepository;
+import com.one.core.domain.service.reports.ReportRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sugerencias de reposición: los productos bajo su mínimo (índice parcial, sin recorrer todo el
+ * catálogo) agrupados por proveedor por defecto, descontando lo ya pedido en órdenes abiertas.
+ * A partir de las sugerencias se pueden generar órdenes de compra en borrador, una por proveedor.
+ */
+@Service
+public class ReorderSuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReorderSuggestionService.class);
+
+    /** Órdenes cuyo pendiente de recibir ya cubre parte del faltante. */
+    private static final Set<PurchaseOrderStatus> OPEN_STATUSES = Set.of(
+            PurchaseOrderStatus.DRAFT, PurchaseOrderStatus.ORDERED, PurchaseOrderStatus.PARTIALLY_RECEIVED);
+
+    private final ProductRepository productRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final SupplierRepository supplierRepository;
+    private final SystemUserRepository systemUserRepository;
+    private final PurchaseOrderMapper purchaseOrderMapper;
+    private final ReportRollupService reportRollupService;
+
+    @Autowired
+    public ReorderSuggestionService(ProductRepository productRepository,
+                                    PurchaseOrderRepository purchaseOrderRepository,
+                                    PurchaseOrderItemRepository purchaseOrderItemRepository,
+                                    SupplierRepository supplierRepository,
+                                    SystemUserRepository systemUserRepository,
+                                    PurchaseOrderMapper purchaseOrderMapper,
+                                    ReportRollupService reportRollupService) {
+        this.productRepository = productRepository;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.purchaseOrderItemRepository = purchaseOrderItemRepository;
+        this.supplierRepository = supplierRepository;
+        this.systemUserRepository = systemUserRepository;
+        this.purchaseOrderMapper = purchaseOrderMapper;
+        this.reportRollupService = reportRollupService;
+    }
+
+    /** Productos activos bajo su mínimo, sin agrupar (la sugerencia de cada uno incluida). */
+    @Transactional(readOnly = true)
+    public List<ReorderLineDTO> getLowStockProducts() {
+        return getSuggestions().stream()
+                .flatMap(suggestion -> suggestion.lines().stream())
+                .sorted((a, b) -> a.productName().compareToIgnoreCase(b.productName()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReorderSuggestionDTO> getSuggestions() {
+        List<LowStockRow> rows = productRepository.findBelowMinimum();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BigDecimal> pendingByProduct = purchaseOrderItemRepository.sumPendingByProduct(
+                        rows.stream().map(LowStockRow::getId).toList(), OPEN_STATUSES).stream()
+                .collect(Collectors.toMap(PendingPurchaseQuantity::productId, PendingPurchaseQuantity::quantity));
+
+        // LinkedHashMap: las filas llegan ordenadas por nombre, los proveedores quedan en orden de aparición
+        Map<Long, List<LowStockRow>> rowsBySupplier = new LinkedHashMap<>();
+        for (LowStockRow row : rows) {
+            rowsBySupplier.computeIfAbsent(row.getSupplierId(), id -> new ArrayList<>()).add(row);
+        }
+
+        List<ReorderSuggestionDTO> suggestions = new ArrayList<>();
+        rowsBySupplier.forEach((supplierId, supplierRows) -> {
+            List<ReorderLineDTO> lines = supplierRows.stream()
+                    .map(row -> toLine(row, pendingByProduct.getOrDefault(row.getId(), BigDecimal.ZERO)))
+                    .toList();
+            BigDecimal estimatedTotal = lines.stream()
+                    .map(line -> line.suggestedQuantity().multiply(line.unitPrice()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            suggestions.add(new ReorderSuggestionDTO(supplierId, supplierRows.get(0).getSupplierName(), lines, estimatedTotal));
+        });
+        return suggestions;
+    }
+
+    /**
+     * Crea una orden de compra en borrador por proveedor con las cantidades sugeridas. Los productos
+     * sin proveedor por defecto, o cuyo faltante ya está pedido, quedan afuera.
+     */
+    @Transactional
+    public List<PurchaseOrderDTO> createDraftPurchaseOrders(UserPrincipal currentUser) {
+        SystemUser systemUser = systemUserRepository.findById(currentUser.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("SystemUser", "id", currentUser.getId()));
+
+        List<PurchaseOrderDTO> created = new ArrayList<>();
+        for (ReorderSuggestionDTO suggestion : getSuggestions()) {
+            List<ReorderLineDTO> lines = suggestion.lines().stream()
+                    .filter(line -> line.suggestedQuantity().signum() > 0)
+                    .toList();
+            if (suggestion.supplierId() == null || lines.isEmpty()) {
+                continue;
+            }
+
+            PurchaseOrder order = new PurchaseOrder();
+            order.setOrderDate(LocalDate.now());
+            order.setStatus(PurchaseOrderStatus.DRAFT);
+            order.setSupplier(supplierRepository.getReferenceById(suggestion.supplierId()));
+            order.setCreatedByUser(systemUser);
+            order.setNotes("Borrador generado por sugerencia de reposición (stock bajo el mínimo).");
+            for (ReorderLineDTO line : lines) {
+                PurchaseOrderItem item = new PurchaseOrderItem();
+                item.setProduct(productRepository.getReferenceById(line.productId()));
+                item.setQuantityOrdered(line.suggestedQuantity());
+                item.setQuantityReceived(BigDecimal.ZERO);
+                item.setUnitPrice(line.unitPrice());
+                order.addItem(item);
+            }
+
+            PurchaseOrder saved = purchaseOrderRepository.save(order);
+            reportRollupService.onPurchaseOrderCreated(saved);
+            created.add(purchaseOrderMapper.toDTO(saved));
+        }
+        logger.info("Created {} draft purchase orders from reorder suggestions", created.size());
+        return created;
+    }
+
+    private static ReorderLineDTO toLine(LowStockRow row, BigDecimal pendingOnOrder) {
+        UnitOfMeasure unit = row.getUnitOfMeasure() != null ? UnitOfMeasure.valueOf(row.getUnitOfMeasure()) : UnitOfMeasure.UNIT;
+        BigDecimal current = unit.fromBase(Objects.requireNonNullElse(row.getCurrentStock(), BigDecimal.ZERO));
+        BigDecimal minimum = unit.fromBase(row.getMinimumStockLevel());
+        // Cantidades de compra con la escala de purchase_order_items.quantity_ordered, redondeando hacia arriba
+        BigDecimal suggested = minimum.subtract(current).subtract(pendingOnOrder)
+                .max(BigDecimal.ZERO)
+                .setScale(3, RoundingMode.UP);
+        return new ReorderLineDTO(row.getId(), row.getName(), row.getSku(), unit, current, minimum, pendingOnOrder,
+                suggested, Objects.requireNonNullElse(row.getPurchasePrice(), BigDecimal.ZERO));
+    }
+}
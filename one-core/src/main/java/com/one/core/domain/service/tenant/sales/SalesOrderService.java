@@ -21,8 +21,13 @@ import com.one.core.domain.repository.tenant.customer.CustomerRepository;
 import com.one.core.domain.repository.tenant.product.ProductPackagingRepository;
 import com.one.core.domain.repository.tenant.product.ProductRepository;
 import com.one.core.domain.repository.tenant.sales.SalesOrderRepository;
+import com.one.core.domain.service.common.IdPageQuery;
+import com.one.core.domain.service.common.KeysetCursor;
+import com.one.core.domain.service.common.KeysetPage;
 import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.reports.ReportRollupService;
 import com.one.core.domain.service.tenant.inventory.InventoryService;
+import com.one.core.domain.service.tenant.inventory.StockDelta;
 import com.one.core.domain.service.tenant.product.ProductService;
 import com.one.core.domain.service.tenant.sales.criteria.SalesOrderSpecification;
 import org.slf4j.Logger;
@@ -39,6 +44,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static com.one.core.domain.service.common.NameCanonicalizer.canonical;
@@ -57,6 +64,8 @@ public class SalesOrderService {
     private final ProductPackagingRepository productPackagingRepository;
     private final UnitConversionService unitConversionService;
     private final ProductService productService;
+    private final ReportRollupService reportRollupService;
+    private final IdPageQuery idPageQuery;
 
     @Autowired
     public SalesOrderService(SalesOrderRepository salesOrderRepository,
@@ -67,7 +76,9 @@ public class SalesOrderService {
                              SystemUserRepository systemUserRepository,
                              ProductPackagingRepository productPackagingRepository,
                              UnitConversionService unitConversionService,
-                             ProductService productService) {
+                             ProductService productService,
+                             ReportRollupService reportRollupService,
+                             IdPageQuery idPageQuery) {
         this.salesOrderRepository = salesOrderRepository;
         this.productRepository = productRepository;
         this.customerRepository = customerRepository;
@@ -77,6 +88,8 @@ public class SalesOrderService {
         this.productPackagingRepository = productPackagingRepository;
         this.unitConversionService = unitConversionService;
         this.productService = productService;
+        this.reportRollupService = reportRollupService;
+        this.idPageQuery = idPageQuery;
     }
 
     // =========================
@@ -153,11 +166,12 @@ public class SalesOrderService {
             throw new ValidationException("Sales order cannot be confirmed from its current status: " + order.getStatus());
         }
 
-        validateStockAvailability(order);
-        processStockDeductions(order, currentUser.getId());
+        // Valida disponibilidad y descuenta todo el stock de la orden en un único lote
+        inventoryService.applyMovements(buildSaleDeltas(order, currentUser.getId()));
 
         order.setStatus(SalesOrderStatus.PREPARING_ORDER);
         SalesOrder updatedOrder = salesOrderRepository.save(order);
+        reportRollupService.onSalesOrderConfirmed(updatedOrder);
         return salesOrderMapper.toDTO(updatedOrder);
     }
 
@@ -178,7 +192,10 @@ public class SalesOrderService {
 
         if (order.getStatus() == SalesOrderStatus.PREPARING_ORDER) {
             logger.info("Order {} is being cancelled. Returning stock to inventory.", salesOrderId);
-            returnStockForOrder(order, currentUser.getId());
+            inventoryService.applyMovements(buildReturnDeltas(order, currentUser.getId()));
+        }
+        if (ReportRollupService.CONFIRMED_SALES_STATUSES.contains(order.getStatus())) {
+            reportRollupService.onSalesOrderCancelled(order);
         }
 
         order.setStatus(SalesOrderStatus.CANCELLED);
@@ -189,130 +206,104 @@ public class SalesOrderService {
     // =========================
     // Helpers de stock
     // =========================
-    private void validateStockAvailability(SalesOrder order) {
-        for (SalesOrderItem item : order.getItems()) {
-            Product productSold = item.getProduct();
-
-            // valida stock si es stockeable (incluye PACKAGING vendido como ítem)
-            if (productSold.getProductType() == ProductType.PHYSICAL_GOOD
-                    || productSold.getProductType() == ProductType.COMPOUND
-                    || productSold.getProductType() == ProductType.PACKAGING) {
-
-                BigDecimal qtyBase = unitConversionService.toBaseUnit(
-                        item.getQuantity(), productSold.getUnitOfMeasure());
-
-                if (!inventoryService.isStockAvailable(productSold.getId(), qtyBase)) {
-                    throw new ValidationException("Insufficient stock for product: " + productSold.getName());
-                }
-            }
+    private boolean isStockTracked(Product product) {
+        // incluye PACKAGING vendido como ítem
+        return product.getProductType() == ProductType.PHYSICAL_GOOD
+                || product.getProductType() == ProductType.COMPOUND
+                || product.getProductType() == ProductType.PACKAGING;
+    }
 
-            // packaging automático si no se saltea
-            if (!item.isSkipAutoPackaging()) {
-                List<ProductPackaging> packagingItems =
-                        productPackagingRepository.findByMainProductId(productSold.getId());
-
-                for (ProductPackaging packaging : packagingItems) {
-                    BigDecimal requiredQuantity = packaging.getQuantity().multiply(item.getQuantity());
-                    BigDecimal requiredBase = unitConversionService.toBaseUnit(
-                            requiredQuantity, packaging.getPackagingProduct().getUnitOfMeasure());
-
-                    if (!inventoryService.isStockAvailable(packaging.getPackagingProduct().getId(), requiredBase)) {
-                        throw new ValidationException("Insufficient stock for packaging: "
-                                + packaging.getPackagingProduct().getName());
-                    }
-                }
-            }
+    /** Packaging automático de todos los ítems de la orden, resuelto con una única query. */
+    private Map<Long, List<ProductPackaging>> loadAutoPackaging(SalesOrder order) {
+        Set<Long> productIds = order.getItems().stream()
+                .filter(item -> !item.isSkipAutoPackaging() && item.getProduct().isHasPackaging())
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return Map.of();
         }
+        return productPackagingRepository.findByMainProductIdIn(productIds).stream()
+                .collect(Collectors.groupingBy(pp -> pp.getMainProduct().getId()));
     }
 
-    private void processStockDeductions(SalesOrder order, Long userId) {
+    /** Salidas de stock (producto + packaging automático) de una orden que se confirma. */
+    private List<StockDelta> buildSaleDeltas(SalesOrder order, Long userId) {
+        Map<Long, List<ProductPackaging>> packagingByProduct = loadAutoPackaging(order);
+        String orderId = order.getId().toString();
+        List<StockDelta> deltas = new ArrayList<>();
+
         for (SalesOrderItem item : order.getItems()) {
             Product productSold = item.getProduct();
 
-            // descuenta producto si es stockeable (incluye PACKAGING vendido como ítem)
-            if (productSold.getProductType() == ProductType.PHYSICAL_GOOD
-                    || productSold.getProductType() == ProductType.COMPOUND
-                    || productSold.getProductType() == ProductType.PACKAGING) {
-
-                inventoryService.processOutgoingStock(
+            if (isStockTracked(productSold)) {
+                deltas.add(StockDelta.out(
                         productSold.getId(),
                         unitConversionService.toBaseUnit(item.getQuantity(), productSold.getUnitOfMeasure()),
                         MovementType.SALE_CONFIRMED,
                         "SALES_ORDER",
-                        order.getId().toString(),
+                        orderId,
                         userId,
                         "Sale for order ID: " + order.getId()
-                );
+                ));
             }
 
-            // descuenta packaging automático si no se saltea
             if (!item.isSkipAutoPackaging()) {
-                List<ProductPackaging> packagingItems =
-                        productPackagingRepository.findByMainProductId(productSold.getId());
-
-                for (ProductPackaging packagingItem : packagingItems) {
-                    BigDecimal quantityToConsume =
-                            packagingItem.getQuantity().multiply(item.getQuantity());
-                    BigDecimal consumeBase = unitConversionService.toBaseUnit(
-                            quantityToConsume, packagingItem.getPackagingProduct().getUnitOfMeasure());
-
-                    inventoryService.processOutgoingStock(
+                for (ProductPackaging packagingItem : packagingByProduct.getOrDefault(productSold.getId(), List.of())) {
+                    BigDecimal quantityToConsume = packagingItem.getQuantity().multiply(item.getQuantity());
+                    deltas.add(StockDelta.out(
                             packagingItem.getPackagingProduct().getId(),
-                            consumeBase,
+                            unitConversionService.toBaseUnit(
+                                    quantityToConsume, packagingItem.getPackagingProduct().getUnitOfMeasure()),
                             MovementType.PACKAGING_CONSUMPTION,
                             "SALES_ORDER",
-                            order.getId().toString(),
+                            orderId,
                             userId,
                             "Packaging for product: " + productSold.getName()
-                    );
+                    ));
                 }
             }
         }
+        return deltas;
     }
 
-    private void returnStockForOrder(SalesOrder order, Long userId) {
+    /** Entradas de stock que revierten {@link #buildSaleDeltas} al cancelar una orden. */
+    private List<StockDelta> buildReturnDeltas(SalesOrder order, Long userId) {
+        Map<Long, List<ProductPackaging>> packagingByProduct = loadAutoPackaging(order);
+        String orderId = order.getId().toString();
+        List<StockDelta> deltas = new ArrayList<>();
+
         for (SalesOrderItem item : order.getItems()) {
             Product productSold = item.getProduct();
 
-            // devuelve producto si es stockeable (incluye PACKAGING vendido como ítem)
-            if (productSold.getProductType() == ProductType.PHYSICAL_GOOD
-                    || productSold.getProductType() == ProductType.COMPOUND
-                    || productSold.getProductType() == ProductType.PACKAGING) {
-
-                inventoryService.processIncomingStock(
+            if (isStockTracked(productSold)) {
+                deltas.add(StockDelta.in(
                         productSold.getId(),
                         unitConversionService.toBaseUnit(item.getQuantity(), productSold.getUnitOfMeasure()),
                         MovementType.SALE_CANCELLED,
                         "SALES_ORDER_CANCEL",
-                        order.getId().toString(),
+                        orderId,
                         userId,
                         "Stock returned for cancelled order ID: " + order.getId()
-                );
+                ));
             }
 
-            // devuelve packaging automático si no se había salteado
             if (!item.isSkipAutoPackaging()) {
-                List<ProductPackaging> packagingItems =
-                        productPackagingRepository.findByMainProductId(productSold.getId());
-
-                for (ProductPackaging packagingItem : packagingItems) {
-                    BigDecimal quantityToReturn =
-                            packagingItem.getQuantity().multiply(item.getQuantity());
-                    BigDecimal returnBase = unitConversionService.toBaseUnit(
-                            quantityToReturn, packagingItem.getPackagingProduct().getUnitOfMeasure());
-
-                    inventoryService.processIncomingStock(
+                for (ProductPackaging packagingItem : packagingByProduct.getOrDefault(productSold.getId(), List.of())) {
+                    BigDecimal quantityToReturn = packagingItem.getQuantity().multiply(item.getQuantity());
+                    deltas.add(StockDelta.in(
                             packagingItem.getPackagingProduct().getId(),
-                            returnBase,
+                            unitConversionService.toBaseUnit(
+                                    quantityToReturn, packagingItem.getPackagingProduct().getUnitOfMeasure()),
                             MovementType.SALE_CANCELLED,
                             "SALES_ORDER_CANCEL",
-                            order.getId().toString(),
+                            orderId,
                             userId,
                             "Packaging stock returned for product: " + productSold.getName()
-                    );
+                    ));
                 }
             }
         }
+        return deltas;
     }
 
     // =========================
@@ -328,12 +319,35 @@ public class SalesOrderService {
     @Transactional(readOnly = true)
     public Page<SalesOrderDTO> getAllSalesOrders(SalesOrderFilterDTO filterDTO, Pageable pageable) {
         Specification<SalesOrder> spec = SalesOrderSpecification.filterBy(filterDTO);
-        Page<SalesOrder> orderPage = salesOrderRepository.findAll(spec, pageable);
+        // Dos fases: página de IDs y luego las órdenes con cliente, usuario e ítems en una sola query
+        Page<Long> idPage = idPageQuery.findIds(SalesOrder.class, spec, pageable);
+        List<SalesOrder> orders = IdPageQuery.inIdOrder(idPage.getContent(),
+                salesOrderRepository.findWithDetailsByIdIn(idPage.getContent()), SalesOrder::getId);
 
-        List<SalesOrderDTO> orderDTOs = orderPage.getContent().stream()
+        List<SalesOrderDTO> orderDTOs = orders.stream()
                 .map(salesOrderMapper::toDTO)
                 .collect(Collectors.toList());
-        return new PageImpl<>(orderDTOs, pageable, orderPage.getTotalElements());
+        return new PageImpl<>(orderDTOs, pageable, idPage.getTotalElements());
+    }
+
+    /**
+     * Listado de órdenes por keyset sobre (orderDate, id): la primera fase lee {@code size + 1} IDs
+     * después del cursor (sin OFFSET ni count salvo {@code includeTotal}) y la segunda carga los detalles.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<SalesOrderDTO> getAllSalesOrders(SalesOrderFilterDTO filterDTO, String cursor,
+                                                       int size, boolean includeTotal) {
+        KeysetCursor keysetCursor = cursor != null ? KeysetCursor.decode(cursor) : null;
+        Specification<SalesOrder> filter = SalesOrderSpecification.filterBy(filterDTO);
+
+        List<Long> ids = idPageQuery.findIds(SalesOrder.class,
+                filter.and(SalesOrderSpecification.seek(keysetCursor)),
+                KeysetCursor.sortFor(keysetCursor, "orderDate"), size + 1);
+        List<SalesOrder> orders = IdPageQuery.inIdOrder(ids, salesOrderRepository.findWithDetailsByIdIn(ids), SalesOrder::getId);
+        Long total = includeTotal ? idPageQuery.count(SalesOrder.class, filter) : null;
+
+        return KeysetPage.of(orders, size, keysetCursor, SalesOrderSpecification::keyOf, total)
+                .map(salesOrderMapper::toDTO);
     }
 
     // =========================
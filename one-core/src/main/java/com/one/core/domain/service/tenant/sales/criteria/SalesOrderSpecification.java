@@ -5,11 +5,13 @@ import com.one.core.application.dto.tenant.sales.SalesOrderFilterDTO;
 import com.one.core.domain.model.admin.SystemUser; // <--- IMPORTANTE: Usar SystemUser
 import com.one.core.domain.model.tenant.customer.Customer;
 import com.one.core.domain.model.tenant.sales.SalesOrder;
+import com.one.core.domain.service.common.KeysetCursor;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -69,4 +71,14 @@ public class SalesOrderSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    /** Filas después del cursor en orden (orderDate, id) descendente. Sin cursor no filtra. */
+    public static Specification<SalesOrder> seek(KeysetCursor cursor) {
+        return cursor == null ? null : cursor.seek("orderDate", LocalDate::parse);
+    }
+
+    /** Clave de cursor de una orden. */
+    public static KeysetCursor keyOf(SalesOrder order) {
+        return new KeysetCursor(order.getOrderDate().toString(), order.getId(), false);
+    }
+}
@@ -0,0 +1,5 @@
+-- Asignación de cada tenant a un pool de conexiones (shard) y límite de conexiones
+-- concurrentes (bulkhead). Se lee en caliente: cambiarla no requiere reiniciar.
+ALTER TABLE public.tenants
+    ADD COLUMN IF NOT EXISTS pool_key VARCHAR(50) NOT NULL DEFAULT 'default',
+    ADD COLUMN IF NOT EXISTS max_concurrent_connections INTEGER;
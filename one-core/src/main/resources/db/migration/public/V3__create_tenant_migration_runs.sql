@@ -0,0 +1,17 @@
+-- Progreso de las corridas de migración sobre todos los tenants (TenantMigrationOrchestrator).
+-- Una fila por (corrida, schema): si la instancia se cae, las filas PENDING/RUNNING se retoman.
+CREATE TABLE IF NOT EXISTS public.tenant_migration_runs (
+    run_id              UUID         NOT NULL,
+    schema_name         VARCHAR(100) NOT NULL,
+    status              VARCHAR(20)  NOT NULL DEFAULT 'PENDING', -- PENDING, RUNNING, SUCCEEDED, FAILED
+    attempts            INTEGER      NOT NULL DEFAULT 0,
+    migrations_executed INTEGER,
+    error_message       TEXT,
+    created_at          TIMESTAMPTZ  NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at          TIMESTAMPTZ,
+    finished_at         TIMESTAMPTZ,
+    PRIMARY KEY (run_id, schema_name)
+);
+
+CREATE INDEX IF NOT EXISTS ix_tenant_migration_runs_open
+    ON public.tenant_migration_runs (run_id) WHERE status IN ('PENDING', 'RUNNING');
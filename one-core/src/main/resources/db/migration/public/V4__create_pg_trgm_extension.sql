@@ -0,0 +1,4 @@
+-- Extensión de búsqueda por similitud que usan los índices trigram de los tenants
+-- (tenant/common/V9). Es de toda la base, así que se instala una sola vez acá y no en
+-- cada schema: CREATE EXTENSION toma un lock global y pide permisos de owner.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
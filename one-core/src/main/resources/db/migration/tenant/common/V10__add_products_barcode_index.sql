@@ -0,0 +1,5 @@
+-- GET /products/scan/{code}: búsqueda exacta por código de barras (el SKU ya es UNIQUE).
+-- El índice trigram de V9 no sirve para igualdad; este es el que usa el escaneo cuando el
+-- código no está en el índice en memoria. Corre fuera de transacción (ver el .conf).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_products_barcode
+    ON products (barcode);
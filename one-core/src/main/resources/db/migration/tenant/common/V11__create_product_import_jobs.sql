@@ -0,0 +1,29 @@
+-- Importación masiva de productos (POST /products/import): una fila por archivo importado con
+-- el progreso, y los errores por fila (se guardan hasta un máximo por job, ver ProductImportService).
+CREATE TABLE IF NOT EXISTS product_import_jobs (
+    id UUID PRIMARY KEY,
+    file_name VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    rows_read INT NOT NULL DEFAULT 0,
+    rows_inserted INT NOT NULL DEFAULT 0,
+    rows_updated INT NOT NULL DEFAULT 0,
+    rows_failed INT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_by_user_id BIGINT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ,
+    CONSTRAINT fk_pij_created_by FOREIGN KEY (created_by_user_id) REFERENCES public.system_users (id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS product_import_errors (
+    id BIGSERIAL PRIMARY KEY,
+    job_id UUID NOT NULL,
+    row_number INT NOT NULL,
+    sku VARCHAR(50),
+    message TEXT NOT NULL,
+    CONSTRAINT fk_pie_job FOREIGN KEY (job_id) REFERENCES product_import_jobs (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS ix_product_import_errors_job
+    ON product_import_errors (job_id, row_number);
@@ -0,0 +1,18 @@
+-- Fotos diarias del stock por producto (ver StockSnapshotService). Cada fila es el stock al cierre
+-- del día: todos los movimientos con movement_date < cutoff_at. El stock a una fecha pasada se
+-- calcula desde la foto más cercana más los movimientos posteriores, sin recorrer todo el historial.
+-- quantity + frozen_quantity es el total en mano (el congelado no genera movimientos).
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    product_id BIGINT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    quantity NUMERIC(12, 3) NOT NULL,
+    frozen_quantity NUMERIC(12, 3) NOT NULL DEFAULT 0.000,
+    cutoff_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, snapshot_date),
+    CONSTRAINT fk_ss_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- Última foto del tenant y fotos de una fecha (la PK empieza por product_id)
+CREATE INDEX IF NOT EXISTS ix_stock_snapshots_date
+    ON stock_snapshots (snapshot_date);
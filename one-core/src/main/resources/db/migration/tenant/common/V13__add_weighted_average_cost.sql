@@ -0,0 +1,12 @@
+-- Costo promedio ponderado (ver InventoryService.applyMovements / InventoryCostService).
+-- average_cost es el costo por unidad BASE (gramo, mililitro o unidad), igual que current_stock.
+-- Cada movimiento guarda el costo unitario con el que entró o salió, así los reportes suman costos
+-- guardados en lugar de usar el precio de compra vigente al momento del reporte.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS average_cost NUMERIC(18, 8);
+ALTER TABLE stock_movements ADD COLUMN IF NOT EXISTS unit_cost NUMERIC(18, 8);
+
+-- Punto de partida: el precio de compra actual expresado por unidad base. El historial real se
+-- recalcula con POST /inventory/costs/rebuild.
+UPDATE products
+SET average_cost = purchase_price / CASE unit_of_measure WHEN 'KG' THEN 1000 WHEN 'L' THEN 1000 ELSE 1 END
+WHERE average_cost IS NULL AND purchase_price IS NOT NULL;
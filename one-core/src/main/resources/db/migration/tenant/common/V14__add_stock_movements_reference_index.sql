@@ -0,0 +1,4 @@
+-- Costos guardados de una orden (StockMovementRepository.findSaleCosts): búsqueda por documento de
+-- referencia. Corre fuera de transacción (ver el .conf): solo CREATE INDEX.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_stock_movements_reference
+    ON stock_movements (reference_document_type, reference_document_id);
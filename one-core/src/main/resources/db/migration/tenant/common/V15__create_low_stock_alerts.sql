@@ -0,0 +1,24 @@
+-- Alertas de stock bajo (ver LowStockAlertService). Se abren cuando un movimiento deja
+-- current_stock por debajo de minimum_stock_level y se cierran cuando otro lo devuelve al mínimo.
+-- Las cantidades van en unidad base, como current_stock.
+CREATE TABLE IF NOT EXISTS low_stock_alerts (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    stock_at_alert NUMERIC(12, 3) NOT NULL,
+    minimum_stock_level NUMERIC(12, 3) NOT NULL,
+    triggered_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMPTZ,
+    CONSTRAINT fk_lsa_product FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE CASCADE
+);
+
+-- A lo sumo una alerta abierta por producto: el INSERT ... ON CONFLICT de la alerta se apoya en este índice
+CREATE UNIQUE INDEX IF NOT EXISTS ux_low_stock_alerts_open
+    ON low_stock_alerts (product_id) WHERE resolved_at IS NULL;
+
+-- Los productos que ya están bajo el mínimo arrancan con su alerta abierta; si no, recién la
+-- tendrían con el próximo movimiento que los siga dejando por debajo.
+INSERT INTO low_stock_alerts (product_id, stock_at_alert, minimum_stock_level)
+SELECT id, current_stock, minimum_stock_level
+FROM products
+WHERE current_stock < minimum_stock_level AND is_active
+ON CONFLICT (product_id) WHERE resolved_at IS NULL DO NOTHING;
@@ -0,0 +1,5 @@
+-- Listado de productos bajo el mínimo (GET /inventory/low-stock): índice parcial que solo contiene
+-- esos productos, así el listado no recorre todo products. La consulta repite el predicado.
+-- Corre fuera de transacción (ver el .conf): solo CREATE INDEX.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_products_below_minimum
+    ON products (name) WHERE current_stock < minimum_stock_level;
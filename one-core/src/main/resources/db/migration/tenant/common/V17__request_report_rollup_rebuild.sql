@@ -0,0 +1,25 @@
+-- =================================================================
+-- RECONSTRUCCIÓN PENDIENTE DE LOS ROLLUPS DE REPORTES
+-- El backfill de V4 dejó con costo 0 a los productos COMPOUND (el costo por
+-- receta no se puede calcular en SQL). Si el tenant tiene ventas confirmadas
+-- de compuestos se registra un pedido de reconstrucción; la aplicación lo
+-- ejecuta (ReportRollupService.rebuildIfRequested) al terminar de migrar el schema.
+-- =================================================================
+
+CREATE TABLE IF NOT EXISTS report_rollup_rebuild_requests (
+    id BIGSERIAL PRIMARY KEY,
+    reason VARCHAR(255) NOT NULL,
+    requested_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMPTZ
+    );
+
+INSERT INTO report_rollup_rebuild_requests (reason)
+SELECT 'V4 backfill costed COMPOUND products at 0'
+WHERE EXISTS (
+    SELECT 1
+    FROM sales_orders o
+    JOIN sales_order_items i ON i.sales_order_id = o.id
+    JOIN products p ON p.id = i.product_id
+    WHERE o.status IN ('PREPARING_ORDER', 'SHIPPED', 'DELIVERED', 'COMPLETED')
+      AND p.product_type = 'COMPOUND'
+);
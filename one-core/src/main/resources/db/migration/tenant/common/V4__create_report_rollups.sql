@@ -0,0 +1,72 @@
+-- =================================================================
+-- ROLLUPS DIARIOS PARA LOS KPIs DE REPORTES
+-- Se mantienen de forma incremental desde ventas y compras; la clave usa
+-- valores centinela ('NONE' / 0) para que ON CONFLICT funcione sin NULLs.
+-- =================================================================
+
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    payment_method VARCHAR(50) NOT NULL DEFAULT 'NONE',
+    category_id BIGINT NOT NULL DEFAULT 0,
+    total_sales NUMERIC(16, 2) NOT NULL DEFAULT 0.00,
+    total_cost NUMERIC(16, 4) NOT NULL DEFAULT 0.0000,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT ux_daily_sales_rollup_key UNIQUE (rollup_date, payment_method, category_id)
+    );
+
+CREATE TABLE IF NOT EXISTS daily_purchase_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    rollup_date DATE NOT NULL,
+    category_id BIGINT NOT NULL DEFAULT 0,
+    total_ordered NUMERIC(16, 2) NOT NULL DEFAULT 0.00,
+    total_received NUMERIC(16, 2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT ux_daily_purchase_rollup_key UNIQUE (rollup_date, category_id)
+    );
+
+-- -----------------------------------------------------------------
+-- BACKFILL: los rollups arrancan con la historia existente, con la misma
+-- semántica que ReportRollupService.rebuild. Las ventas cuentan en los estados
+-- confirmados; la diferencia entre el total de la orden y sus ítems va a la
+-- categoría 0. El costo se estima con el precio de compra de los productos
+-- físicos; los compuestos (recetas, sólo en food_and_beverage) quedan en 0
+-- hasta correr POST /reports/rollups/rebuild en esos tenants.
+-- -----------------------------------------------------------------
+
+WITH confirmed_orders AS (
+    SELECT id, order_date, COALESCE(payment_method, 'NONE') AS payment_method,
+           COALESCE(total_amount, 0) AS total_amount
+    FROM sales_orders
+    WHERE status IN ('PREPARING_ORDER', 'SHIPPED', 'DELIVERED', 'COMPLETED')
+),
+sales_lines AS (
+    SELECT o.order_date, o.payment_method, COALESCE(p.category_id, 0) AS category_id,
+           i.subtotal AS total_sales,
+           CASE WHEN p.product_type = 'PHYSICAL_GOOD'
+                THEN i.quantity * COALESCE(p.purchase_price, 0) ELSE 0 END AS total_cost
+    FROM confirmed_orders o
+    JOIN sales_order_items i ON i.sales_order_id = o.id
+    JOIN products p ON p.id = i.product_id
+    UNION ALL
+    SELECT o.order_date, o.payment_method, 0, o.total_amount - SUM(i.subtotal), 0
+    FROM confirmed_orders o
+    JOIN sales_order_items i ON i.sales_order_id = o.id
+    GROUP BY o.id, o.order_date, o.payment_method, o.total_amount
+    HAVING o.total_amount - SUM(i.subtotal) <> 0
+)
+INSERT INTO daily_sales_rollup (rollup_date, payment_method, category_id, total_sales, total_cost)
+SELECT order_date, payment_method, category_id, SUM(total_sales), SUM(total_cost)
+FROM sales_lines
+GROUP BY order_date, payment_method, category_id
+ON CONFLICT (rollup_date, payment_method, category_id) DO NOTHING;
+
+INSERT INTO daily_purchase_rollup (rollup_date, category_id, total_ordered, total_received)
+SELECT po.order_date, COALESCE(p.category_id, 0),
+       SUM(i.subtotal), SUM(COALESCE(i.quantity_received, 0) * i.unit_price)
+FROM purchase_orders po
+JOIN purchase_order_items i ON i.purchase_order_id = po.id
+JOIN products p ON p.id = i.product_id
+WHERE po.status <> 'CANCELLED'
+GROUP BY po.order_date, COALESCE(p.category_id, 0)
+ON CONFLICT (rollup_date, category_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- =================================================================
+-- SECUENCIA DE STOCK_MOVEMENTS PARA INSERTS EN BATCH
+-- La entidad StockMovement usa un generador pooled con allocationSize = 50;
+-- el INCREMENT BY de la secuencia tiene que coincidir.
+-- =================================================================
+
+ALTER SEQUENCE IF EXISTS stock_movements_id_seq INCREMENT BY 50;
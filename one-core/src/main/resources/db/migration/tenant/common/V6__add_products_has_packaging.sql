@@ -0,0 +1,16 @@
+-- Flag desnormalizado de empaques en products (reemplaza el @Formula has_packaging(id),
+-- que evaluaba to_regclass + EXISTS por cada fila leída).
+-- Lo mantiene ProductService.setOrUpdatePackaging.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS has_packaging BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Backfill: product_packaging solo existe en algunas industrias (el chequeo se hace una vez acá)
+DO $$
+BEGIN
+    IF to_regclass(current_schema() || '.product_packaging') IS NOT NULL THEN
+        UPDATE products p
+        SET has_packaging = TRUE
+        WHERE EXISTS (SELECT 1 FROM product_packaging pp WHERE pp.main_product_id = p.id);
+    END IF;
+END;
+$$;
@@ -0,0 +1,27 @@
+-- Índices para las consultas calientes (reportes por período, historial de stock, líneas de pedido).
+-- CONCURRENTLY para no bloquear escrituras en tenants existentes: este script corre fuera de
+-- transacción (ver V7__add_hot_query_indexes.sql.conf), así que solo debe contener CREATE INDEX.
+
+-- SalesOrderRepository.findByOrderDateBetweenAndStatusNot y reportes por período.
+-- No es un índice parcial (WHERE status <> 'CANCELLED'): el status llega como parámetro y
+-- el plan genérico de un prepared statement no podría usarlo.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_sales_orders_order_date_status
+    ON sales_orders (order_date, status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_sales_order_items_sales_order
+    ON sales_order_items (sales_order_id);
+
+-- PurchaseOrderRepository.findByOrderDateBetweenAndStatusNot
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_purchase_orders_order_date_status
+    ON purchase_orders (order_date, status);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_purchase_order_items_purchase_order
+    ON purchase_order_items (purchase_order_id);
+
+-- StockMovementRepository.findByProductIdOrderByMovementDateDesc
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_stock_movements_product_date
+    ON stock_movements (product_id, movement_date DESC);
+
+-- ExpenseLogsRepository.findByExpenseDateBetween
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_expense_logs_expense_date
+    ON expense_logs (expense_date);
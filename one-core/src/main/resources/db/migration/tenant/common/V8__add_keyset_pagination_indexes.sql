@@ -0,0 +1,22 @@
+-- Índices para los listados por cursor (keyset): orden (fecha, id) descendente, igual que el
+-- ORDER BY de KeysetCursor.sortFor, así cada página es un range scan desde el cursor sin
+-- importar cuán profunda sea. Corre fuera de transacción (ver el .conf): solo CREATE/DROP INDEX.
+
+-- GET /inventory/movements sin filtro de producto
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_stock_movements_date_id
+    ON stock_movements (movement_date DESC, id DESC);
+
+-- GET /inventory/movements?productId=... (ix_stock_movements_product_date no tiene el desempate por id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_stock_movements_product_date_id
+    ON stock_movements (product_id, movement_date DESC, id DESC);
+
+-- El de V7 es un prefijo del anterior: sus consultas usan el nuevo y solo sumaba costo de escritura
+DROP INDEX CONCURRENTLY IF EXISTS ix_stock_movements_product_date;
+
+-- GET /sales-orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_sales_orders_order_date_id
+    ON sales_orders (order_date DESC, id DESC);
+
+-- GET /expense-logs
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_expense_logs_expense_date_id
+    ON expense_logs (expense_date DESC, id DESC);
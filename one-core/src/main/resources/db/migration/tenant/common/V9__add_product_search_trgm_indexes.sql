@@ -0,0 +1,14 @@
+-- Búsqueda de productos (GET /products/search y el filtro por nombre del listado): índices
+-- trigram para LIKE '%término%', prefijos de SKU/código de barras y similitud con errores de tipeo.
+-- La extensión pg_trgm la instala una sola vez la migración public V4, y por eso el operator class
+-- se referencia calificado (el search_path de las conexiones de tenant no incluye public).
+-- Corre fuera de transacción (ver el .conf) por los CREATE INDEX CONCURRENTLY.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_products_canonical_name_trgm
+    ON products USING gin (canonical_name public.gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_products_sku_trgm
+    ON products USING gin (lower(sku) public.gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_products_barcode_trgm
+    ON products USING gin (barcode public.gin_trgm_ops);
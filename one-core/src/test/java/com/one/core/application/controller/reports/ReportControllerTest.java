@@ -3,6 +3,7 @@ package com.one.core.application.controller.reports;
 import com.one.core.application.controller.reports.ReportController;
 import com.one.core.application.dto.reports.OperationalReportJsonDTO;
 import com.one.core.application.dto.reports.ReportFilterDTO;
+import com.one.core.domain.service.reports.ReportRollupService;
 import com.one.core.domain.service.reports.ReportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,10 +29,13 @@ class ReportControllerTest {
     @Mock
     private ReportService reportService;
 
+    @Mock
+    private ReportRollupService reportRollupService;
+
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(reportService))
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(reportService, reportRollupService))
                 .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
                 .build();
     }
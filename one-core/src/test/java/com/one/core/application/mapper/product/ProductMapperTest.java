@@ -0,0 +1,50 @@
+package com.one.core.application.mapper.product;
+
+import com.one.core.application.dto.tenant.product.ProductDTO;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.product.ProductCategory;
+import com.one.core.domain.model.tenant.product.ProductStockLevel;
+import com.one.core.domain.repository.tenant.product.ProductListRow;
+import com.one.core.domain.service.common.UnitConversionService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductMapperTest {
+
+    private final ProductMapper mapper = new ProductMapper(new UnitConversionService());
+
+    @Test
+    void listRowMapsLikeTheEntity() {
+        ProductCategory category = new ProductCategory();
+        category.setId(3L);
+        category.setName("Harinas");
+
+        ProductStockLevel stockLevel = new ProductStockLevel();
+        stockLevel.syncCurrentStock(new BigDecimal("2500"));
+
+        Product product = new Product();
+        product.setId(10L);
+        product.setSku("HAR-01");
+        product.setName("Harina 000");
+        product.setProductType(ProductType.PHYSICAL_GOOD);
+        product.setCategory(category);
+        product.setSalePrice(new BigDecimal("1200.00"));
+        product.setUnitOfMeasure(UnitOfMeasure.G);
+        product.setStockLevel(stockLevel);
+        product.setMinimumStockLevel(new BigDecimal("1000"));
+
+        ProductListRow row = new ProductListRow(10L, "HAR-01", "Harina 000", null, ProductType.PHYSICAL_GOOD, false,
+                3L, "Harinas", null, null, null, new BigDecimal("1200.00"), UnitOfMeasure.G,
+                new BigDecimal("2500"), new BigDecimal("1000"), true, null, null);
+
+        ProductDTO fromEntity = mapper.toDTO(product);
+        ProductDTO fromRow = mapper.toDTO(row);
+
+        assertEquals(fromEntity, fromRow);
+    }
+}
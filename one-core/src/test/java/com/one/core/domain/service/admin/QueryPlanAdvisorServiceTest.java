@@ -0,0 +1,37 @@
+package com.one.core.domain.service.admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanAdvisorServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void findsSequentialScansInNestedPlanNodes() throws Exception {
+        String plan = """
+                [{"Plan": {"Node Type": "Nested Loop", "Plans": [
+                    {"Node Type": "Index Scan", "Relation Name": "sales_orders", "Index Name": "ix_sales_orders_order_date_status"},
+                    {"Node Type": "Seq Scan", "Relation Name": "sales_order_items"}
+                ]}}]
+                """;
+
+        assertEquals(List.of("sales_order_items"),
+                QueryPlanAdvisorService.findSequentialScans(objectMapper.readTree(plan)));
+    }
+
+    @Test
+    void indexOnlyPlanHasNoSequentialScans() throws Exception {
+        String plan = """
+                [{"Plan": {"Node Type": "Limit", "Plans": [
+                    {"Node Type": "Index Scan", "Relation Name": "stock_movements", "Index Name": "ix_stock_movements_product_date"}
+                ]}}]
+                """;
+
+        assertTrue(QueryPlanAdvisorService.findSequentialScans(objectMapper.readTree(plan)).isEmpty());
+    }
+}
@@ -0,0 +1,31 @@
+package com.one.core.domain.service.common;
+
+import com.one.core.domain.model.tenant.sales.SalesOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdPageQueryTest {
+
+    @Test
+    void restoresPageOrderAndSkipsRowsDeletedBetweenPhases() {
+        SalesOrder first = order(7L);
+        SalesOrder second = order(3L);
+        SalesOrder third = order(5L);
+
+        // La segunda fase devuelve las filas en cualquier orden; el 9 se borró entre fases
+        List<SalesOrder> loaded = List.of(third, first, second);
+
+        List<SalesOrder> ordered = IdPageQuery.inIdOrder(List.of(7L, 3L, 9L, 5L), loaded, SalesOrder::getId);
+
+        assertEquals(List.of(first, second, third), ordered);
+    }
+
+    private SalesOrder order(Long id) {
+        SalesOrder order = new SalesOrder();
+        order.setId(id);
+        return order;
+    }
+}
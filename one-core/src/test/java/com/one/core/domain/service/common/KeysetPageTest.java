@@ -0,0 +1,42 @@
+package com.one.core.domain.service.common;
+
+import com.one.core.application.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTest {
+
+    private static KeysetCursor keyOf(Long id) {
+        return new KeysetCursor("2024-01-" + (10 + id), id, false);
+    }
+
+    @Test
+    void firstPageHasOnlyNextCursorWhenMoreRowsExist() {
+        KeysetPage<Long> page = KeysetPage.of(List.of(9L, 8L, 7L), 2, null, KeysetPageTest::keyOf, null);
+
+        assertEquals(List.of(9L, 8L), page.content());
+        assertNull(page.prevCursor());
+        assertEquals(new KeysetCursor("2024-01-18", 8L, false), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void backwardPageIsReversedAndPointsBothWays() {
+        KeysetCursor cursor = new KeysetCursor("2024-01-17", 7L, true);
+
+        // Hacia atrás la consulta es ascendente: 8, 9 y la fila extra 10
+        KeysetPage<Long> page = KeysetPage.of(new ArrayList<>(List.of(8L, 9L, 10L)), 2, cursor, KeysetPageTest::keyOf, null);
+
+        assertEquals(List.of(9L, 8L), page.content());
+        assertEquals(new KeysetCursor("2024-01-18", 8L, false), KeysetCursor.decode(page.nextCursor()));
+        assertEquals(new KeysetCursor("2024-01-19", 9L, true), KeysetCursor.decode(page.prevCursor()));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
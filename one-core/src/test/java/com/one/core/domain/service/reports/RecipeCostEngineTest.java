@@ -0,0 +1,89 @@
+package com.one.core.domain.service.reports;
+
+import com.one.core.application.exception.ValidationException;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.product.ProductRecipe;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.product.RecipeGraph;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipeCostEngineTest {
+
+    private final UnitConversionService units = new UnitConversionService();
+
+    @Test
+    void resolvesNestedRecipesHonoringLineUnitsAndLoadsGraphOnce() {
+        Product flour = product(1L, ProductType.PHYSICAL_GOOD, UnitOfMeasure.KG, "2.00");
+        Product sugar = product(2L, ProductType.PHYSICAL_GOOD, UnitOfMeasure.KG, "4.00");
+        Product dough = product(3L, ProductType.COMPOUND, UnitOfMeasure.KG, null);
+        Product cake = product(4L, ProductType.COMPOUND, UnitOfMeasure.UNIT, null);
+
+        List<ProductRecipe> recipes = List.of(
+                recipe(dough, flour, UnitOfMeasure.PERCENTAGE, "0.75"), // 750 g de harina por kg de masa
+                recipe(dough, sugar, UnitOfMeasure.G, "250"),
+                recipe(cake, dough, UnitOfMeasure.G, "500"));
+
+        AtomicInteger loads = new AtomicInteger();
+        RecipeCostEngine engine = new RecipeCostEngine(() -> {
+            loads.incrementAndGet();
+            return RecipeGraph.from(recipes, units);
+        });
+
+        // masa: 0.75 kg * 2 + 0.25 kg * 4 = 2.5 por kg; torta: 0.5 kg de masa = 1.25
+        assertEquals(0, new BigDecimal("2.5").compareTo(engine.unitCost(dough)));
+        assertEquals(0, new BigDecimal("1.25").compareTo(engine.unitCost(cake)));
+        assertEquals(0, new BigDecimal("2.00").compareTo(engine.unitCost(flour)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void costsTheRestWhenRecipesFormACycle() {
+        Product a = product(1L, ProductType.COMPOUND, UnitOfMeasure.UNIT, null);
+        Product b = product(2L, ProductType.COMPOUND, UnitOfMeasure.UNIT, null);
+        Product usesA = product(3L, ProductType.COMPOUND, UnitOfMeasure.UNIT, null);
+        Product flour = product(4L, ProductType.PHYSICAL_GOOD, UnitOfMeasure.UNIT, "2.00");
+        Product bread = product(5L, ProductType.COMPOUND, UnitOfMeasure.UNIT, null);
+        RecipeGraph graph = RecipeGraph.from(List.of(
+                recipe(a, b, UnitOfMeasure.UNIT, "1"),
+                recipe(b, a, UnitOfMeasure.UNIT, "1"),
+                recipe(usesA, a, UnitOfMeasure.UNIT, "1"),
+                recipe(usesA, flour, UnitOfMeasure.UNIT, "1"),
+                recipe(bread, flour, UnitOfMeasure.UNIT, "3")), units);
+
+        RecipeCostEngine engine = new RecipeCostEngine(() -> graph);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(engine.unitCost(a)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(engine.unitCost(usesA)));
+        assertEquals(0, new BigDecimal("6.00").compareTo(engine.unitCost(bread)));
+        assertEquals(Set.of(1L, 2L), graph.costingOrder().cyclic());
+        assertThrows(ValidationException.class, graph::topologicalOrder);
+    }
+
+    private static Product product(Long id, ProductType type, UnitOfMeasure unit, String purchasePrice) {
+        Product p = new Product();
+        p.setId(id);
+        p.setName("P" + id);
+        p.setProductType(type);
+        p.setUnitOfMeasure(unit);
+        p.setPurchasePrice(purchasePrice != null ? new BigDecimal(purchasePrice) : null);
+        return p;
+    }
+
+    private static ProductRecipe recipe(Product main, Product ingredient, UnitOfMeasure unit, String qty) {
+        ProductRecipe r = new ProductRecipe();
+        r.setMainProduct(main);
+        r.setIngredientProduct(ingredient);
+        r.setUnitOfMeasure(unit);
+        r.setQuantityRequired(new BigDecimal(qty));
+        return r;
+    }
+}
@@ -0,0 +1,70 @@
+package com.one.core.domain.service.reports;
+
+import com.one.core.application.dto.reports.ReportFilterDTO;
+import com.one.core.application.dto.reports.ReportJobDTO;
+import com.one.core.config.ReportJobProperties;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.config.multitenancy.TenantInfo;
+import com.one.core.domain.model.enums.reports.ReportJobStatus;
+import com.one.core.domain.model.enums.sales.PaymentMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path storage;
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void cacheKeyIsTheSameForAnyDateOfThePeriodAndChangesWithFilters() {
+        ReportFilterDTO cash = new ReportFilterDTO();
+        cash.setPaymentMethod(PaymentMethod.CASH);
+
+        String key = ReportJobService.cacheKey("t1", "WEEKLY", LocalDate.of(2024, 1, 1), null);
+        assertEquals(key, ReportJobService.cacheKey("t1", "WEEKLY", LocalDate.of(2024, 1, 1), new ReportFilterDTO()));
+        assertNotEquals(key, ReportJobService.cacheKey("t1", "WEEKLY", LocalDate.of(2024, 1, 1), cash));
+        assertNotEquals(key, ReportJobService.cacheKey("t2", "WEEKLY", LocalDate.of(2024, 1, 1), null));
+    }
+
+    @Test
+    void closedPeriodReportIsGeneratedOnceAndThenServedFromDisk() throws Exception {
+        TenantContext.setCurrentTenant(new TenantInfo("tenant_a", "DISTRIBUTION"));
+        ReportService reportService = mock(ReportService.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(new byte[]{1, 2, 3});
+            return null;
+        }).when(reportService).writeOperationalSummaryReport(anyString(), any(), any(), any());
+        ReportJobProperties properties = new ReportJobProperties();
+        properties.setStorageDir(storage.toString());
+        ReportJobService service = new ReportJobService(reportService, properties);
+
+        try {
+            ReportJobDTO first = service.submit("MONTHLY", LocalDate.of(2024, 1, 15), null);
+            ReportJobDTO finished = service.getJob(first.id(), Duration.ofSeconds(5)).get();
+            assertEquals(ReportJobStatus.COMPLETED, finished.status());
+            assertTrue(finished.immutable());
+
+            ReportJobDTO second = service.submit("MONTHLY", LocalDate.of(2024, 1, 3), null);
+            assertEquals(ReportJobStatus.COMPLETED, second.status());
+            assertTrue(second.cached());
+            verify(reportService, times(1)).writeOperationalSummaryReport(eq("MONTHLY"), eq(LocalDate.of(2024, 1, 1)), any(), any());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
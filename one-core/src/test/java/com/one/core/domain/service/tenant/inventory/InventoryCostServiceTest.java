@@ -0,0 +1,39 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InventoryCostServiceTest {
+
+    private static final long BREAD = 1L;
+    private static final long FLOUR = 2L;
+    private static final long DOUGH = 3L;
+    private static final long SALT = 4L;
+
+    @Test
+    void ingredientsAreRebuiltBeforeWhatIsMadeFromThem() {
+        // harina + sal -> masa -> pan
+        List<InventoryCostService.ProductionEdge> edges = List.of(
+                new InventoryCostService.ProductionEdge(DOUGH, BREAD),
+                new InventoryCostService.ProductionEdge(FLOUR, DOUGH),
+                new InventoryCostService.ProductionEdge(SALT, DOUGH));
+
+        List<Long> order = InventoryCostService.ingredientsFirst(List.of(BREAD, FLOUR, DOUGH, SALT), edges);
+
+        assertEquals(List.of(FLOUR, SALT, DOUGH, BREAD), order);
+    }
+
+    @Test
+    void productsInACycleStillGetRebuilt() {
+        List<InventoryCostService.ProductionEdge> edges = List.of(
+                new InventoryCostService.ProductionEdge(BREAD, DOUGH),
+                new InventoryCostService.ProductionEdge(DOUGH, BREAD));
+
+        List<Long> order = InventoryCostService.ingredientsFirst(List.of(BREAD, FLOUR, DOUGH), edges);
+
+        assertEquals(List.of(FLOUR, BREAD, DOUGH), order);
+    }
+}
@@ -0,0 +1,96 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.application.mapper.inventory.StockMovementMapper;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.enums.movements.MovementType;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.product.StockLevelAfterDelta;
+import com.one.core.domain.repository.tenant.product.StockMovementRepository;
+import com.one.core.domain.service.common.UnitConversionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceLowStockTest {
+
+    private static final long FLOUR = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+    @Mock
+    private StockMovementMapper stockMovementMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InventoryService service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        service = new InventoryService(productRepository, stockMovementRepository, stockMovementMapper,
+                new UnitConversionService(), eventPublisher);
+
+        Product flour = new Product();
+        flour.setId(FLOUR);
+        flour.setName("Flour");
+        flour.setProductType(ProductType.PHYSICAL_GOOD);
+        flour.setUnitOfMeasure(UnitOfMeasure.G);
+        flour.setMinimumStockLevel(new BigDecimal("1000"));
+        when(productRepository.findAllById(any())).thenReturn(List.of(flour));
+        when(stockMovementRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void publishesOnlyWhenTheMinimumIsCrossed() {
+        // 1500 -> 800: cruza el mínimo de 1000
+        stockAfter("800");
+        service.applyMovements(List.of(StockDelta.out(FLOUR, new BigDecimal("700"), MovementType.SALE_CONFIRMED,
+                "SALES_ORDER", "1", null, null)));
+
+        ArgumentCaptor<LowStockEvent> event = ArgumentCaptor.forClass(LowStockEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        LowStockEvent.Crossing crossing = event.getValue().crossings().get(0);
+        assertEquals(FLOUR, crossing.productId());
+        assertTrue(crossing.below());
+    }
+
+    @Test
+    void staysQuietWhileAlreadyBelowTheMinimum() {
+        // 800 -> 500: ya estaba por debajo, no hay cruce
+        stockAfter("500");
+        service.applyMovements(List.of(StockDelta.out(FLOUR, new BigDecimal("300"), MovementType.SALE_CONFIRMED,
+                "SALES_ORDER", "2", null, null)));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    private void stockAfter(String currentStock) {
+        StockLevelAfterDelta level = new StockLevelAfterDelta() {
+            public BigDecimal getCurrentStock() { return new BigDecimal(currentStock); }
+            public BigDecimal getFrozenStock() { return BigDecimal.ZERO; }
+            public BigDecimal getAverageCost() { return null; }
+        };
+        when(productRepository.applyStockDeltaReturningLevel(eq(FLOUR), any(), anyBoolean())).thenReturn(Optional.of(level));
+    }
+}
@@ -0,0 +1,51 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import com.one.core.domain.model.enums.movements.MovementType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MovementCostCalculatorTest {
+
+    private static final long FLOUR = 1L;
+    private static final long BREAD = 2L;
+
+    @Test
+    void purchasesMoveTheAverageAndIssuesLeaveAtIt() {
+        MovementCostCalculator costs = new MovementCostCalculator(id -> new WeightedAverageCost(bd("1000"), bd("0.002")));
+
+        // 1000 g a 0.002 + 1000 g a 0.004 -> 0.003 por gramo
+        costs.apply(FLOUR, MovementType.PURCHASE_RECEIPT, bd("1000"), "PURCHASE_ORDER", "5", bd("0.004"));
+        BigDecimal issued = costs.apply(FLOUR, MovementType.SALE_CONFIRMED, bd("-500"), "SALES_ORDER", "9", null);
+        BigDecimal returned = costs.apply(FLOUR, MovementType.ADJUSTMENT_IN, bd("100"), "MANUAL_ADJUSTMENT", null, null);
+
+        assertCost("0.003", issued);
+        assertCost("0.003", returned);
+        assertCost("0.003", costs.states().get(FLOUR).averageCost());
+        assertEquals(0, bd("1600").compareTo(costs.states().get(FLOUR).quantity()));
+    }
+
+    @Test
+    void productionIsCostedFromItsOwnConsumption() {
+        MovementCostCalculator costs = new MovementCostCalculator(id -> id == FLOUR
+                ? new WeightedAverageCost(bd("5000"), bd("0.002"))
+                : new WeightedAverageCost(BigDecimal.ZERO, null));
+
+        // 10 panes con 1000 g de harina -> 0.2 por pan
+        costs.apply(FLOUR, MovementType.COMPONENT_CONSUMPTION, bd("-1000"), "PRODUCTION_ORDER", "7", null);
+        BigDecimal produced = costs.apply(BREAD, MovementType.PRODUCTION_IN, bd("10"), "PRODUCTION_ORDER", "7", null);
+
+        assertCost("0.2", produced);
+        assertCost("0.2", costs.states().get(BREAD).averageCost());
+    }
+
+    private static void assertCost(String expected, BigDecimal actual) {
+        assertEquals(0, bd(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
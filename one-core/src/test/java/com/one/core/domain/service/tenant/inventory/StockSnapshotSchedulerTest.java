@@ -0,0 +1,27 @@
+package com.one.core.domain.service.tenant.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StockSnapshotSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Argentina/Cordoba");
+
+    @Test
+    void runsLaterTodayWhenTheTimeHasNotPassed() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 5, 10, 0, 10, 0, 0, ZONE);
+        assertEquals(Duration.ofMinutes(20), StockSnapshotScheduler.delayUntilNextRun(now, LocalTime.of(0, 30)));
+    }
+
+    @Test
+    void runsTomorrowWhenTheTimeAlreadyPassed() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 5, 10, 0, 30, 0, 0, ZONE);
+        assertEquals(Duration.ofHours(24), StockSnapshotScheduler.delayUntilNextRun(now, LocalTime.of(0, 30)));
+    }
+}
@@ -0,0 +1,82 @@
+package com.one.core.domain.service.tenant.product;
+
+import com.one.core.application.exception.ValidationException;
+import com.one.core.config.multitenancy.TenantContext;
+import com.one.core.config.multitenancy.TenantInfo;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlattenedBomCacheTest {
+
+    private static final String TENANT = "tenant_bom";
+
+    // 1 = torta (COMPOUND): 0.5 KG de masa (2) + 1 caja (4); 2 = masa (COMPOUND): 0.8 KG harina (3)
+    private final Map<Long, List<FlattenedBomCache.Line>> recipes = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private FlattenedBomCache cache;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant(new TenantInfo(TENANT, "FOOD_AND_BEVERAGE"));
+        recipes.put(1L, List.of(
+                new FlattenedBomCache.Line(2L, ProductType.COMPOUND, UnitOfMeasure.KG, new BigDecimal("0.5")),
+                new FlattenedBomCache.Line(4L, ProductType.PACKAGING, UnitOfMeasure.UNIT, BigDecimal.ONE)));
+        recipes.put(2L, List.of(
+                new FlattenedBomCache.Line(3L, ProductType.PHYSICAL_GOOD, UnitOfMeasure.KG, new BigDecimal("0.8"))));
+        cache = new FlattenedBomCache(id -> {
+            loads.incrementAndGet();
+            return recipes.getOrDefault(id, List.of());
+        });
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void expandsSubRecipesIntoBaseUnitsAndServesLaterLookupsFromMemory() {
+        Map<Long, BigDecimal> cake = cache.rawIngredientsPerUnit(1L);
+
+        assertEquals(0, new BigDecimal("400").compareTo(cake.get(3L))); // 0.5 * 0.8 KG = 400 G
+        assertEquals(0, BigDecimal.ONE.compareTo(cake.get(4L)));
+        assertEquals(2, loads.get());
+
+        cache.rawIngredientsPerUnit(1L);
+        cache.rawIngredientsPerUnit(2L);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void recipeChangeInvalidatesTheProductAndEveryProductThatUsesIt() {
+        cache.rawIngredientsPerUnit(1L);
+
+        recipes.put(2L, List.of(
+                new FlattenedBomCache.Line(3L, ProductType.PHYSICAL_GOOD, UnitOfMeasure.KG, BigDecimal.ONE)));
+        cache.onRecipeChanged(new RecipeChangedEvent(TENANT, 2L));
+
+        assertEquals(0, new BigDecimal("500").compareTo(cache.rawIngredientsPerUnit(1L).get(3L)));
+        assertEquals(3, loads.get()); // solo se recargó la receta de la masa
+    }
+
+    @Test
+    void detectsCycles() {
+        assertThrows(ValidationException.class, () -> cache.assertNoCycle(2L, List.of(1L)));
+        assertDoesNotThrow(() -> cache.assertNoCycle(1L, List.of(2L)));
+
+        recipes.put(2L, List.of(new FlattenedBomCache.Line(1L, ProductType.COMPOUND, UnitOfMeasure.UNIT, BigDecimal.ONE)));
+        cache.onRecipeChanged(new RecipeChangedEvent(TENANT, 2L));
+        assertThrows(ValidationException.class, () -> cache.rawIngredientsPerUnit(1L));
+    }
+}
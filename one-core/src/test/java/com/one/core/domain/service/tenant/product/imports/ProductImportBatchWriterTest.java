@@ -0,0 +1,136 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.inventory.LowStockEvent;
+import com.one.core.domain.service.tenant.util.ProductUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductImportBatchWriterTest {
+
+    @Test
+    void newProductsStartAtTheirPurchasePricePerBaseUnit() throws Exception {
+        Map<Array, Object[]> arrays = new IdentityHashMap<>();
+        Connection connection = mock(Connection.class);
+        when(connection.createArrayOf(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            Array array = mock(Array.class);
+            arrays.put(array, invocation.getArgument(1));
+            return array;
+        });
+
+        PreparedStatement find = statementReturning(mock(ResultSet.class));
+        ResultSet insertedRows = mock(ResultSet.class);
+        when(insertedRows.next()).thenReturn(true, false);
+        when(insertedRows.getBoolean("inserted")).thenReturn(true);
+        when(insertedRows.getLong("id")).thenReturn(10L);
+        when(insertedRows.getString("canonical_name")).thenReturn("harina");
+        PreparedStatement insert = statementReturning(insertedRows);
+        PreparedStatement movements = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.startsWith("INSERT INTO products")) return insert;
+            if (sql.startsWith("INSERT INTO stock_movements")) return movements;
+            return find;
+        });
+        List<Object[]> insertArrays = captureArrays(insert, arrays);
+        List<Object[]> movementArrays = captureArrays(movements, arrays);
+
+        ProductImportBatchWriter writer = newWriter();
+        // 5 kg a 2000 por kg -> 5000 g a 2 por gramo
+        ProductImportBatchWriter.Item flour = new ProductImportBatchWriter.Item(2, "FLOUR-1", "Harina", "harina", "779001",
+                ProductType.PHYSICAL_GOOD, null, null, null, new BigDecimal("2000"), new BigDecimal("3000"),
+                UnitOfMeasure.KG, BigDecimal.ONE, new BigDecimal("5"));
+
+        List<LowStockEvent.Crossing> crossings = new ArrayList<>();
+        writer.writeBatch(connection, List.of(flour), ProductType.PHYSICAL_GOOD, UUID.randomUUID(), 1L,
+                new ArrayList<>(), crossings);
+
+        // Último array del INSERT de productos: average_cost; último del de movimientos: unit_cost
+        assertCost("2", insertArrays.get(insertArrays.size() - 1)[0]);
+        assertEquals(0, new BigDecimal("5000").compareTo((BigDecimal) movementArrays.get(1)[0]));
+        assertCost("2", movementArrays.get(movementArrays.size() - 1)[0]);
+        // 5000 g contra un mínimo de 1000 g: no arranca por debajo
+        assertTrue(crossings.isEmpty());
+    }
+
+    @Test
+    void raisingTheMinimumOfAnExistingProductAboveItsStockOpensAnAlert() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.createArrayOf(anyString(), any(Object[].class))).thenReturn(mock(Array.class));
+
+        ResultSet existingRows = mock(ResultSet.class);
+        when(existingRows.next()).thenReturn(true, false);
+        when(existingRows.getLong("id")).thenReturn(7L);
+        when(existingRows.getString("sku")).thenReturn("SUGAR-1");
+        when(existingRows.getString("canonical_name")).thenReturn("azucar");
+        when(existingRows.getString("product_type")).thenReturn("PHYSICAL_GOOD");
+        when(existingRows.getString("unit_of_measure")).thenReturn("KG");
+        when(existingRows.getBigDecimal("current_stock")).thenReturn(new BigDecimal("3000"));
+        when(existingRows.getBigDecimal("minimum_stock_level")).thenReturn(new BigDecimal("1000"));
+        PreparedStatement find = statementReturning(existingRows);
+        PreparedStatement update = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation ->
+                invocation.<String>getArgument(0).startsWith("UPDATE products") ? update : find);
+
+        // Mínimo de 5 kg con 3 kg en stock
+        ProductImportBatchWriter.Item sugar = new ProductImportBatchWriter.Item(3, "SUGAR-1", null, null, null,
+                null, null, null, null, null, null, null, new BigDecimal("5"), null);
+
+        List<LowStockEvent.Crossing> crossings = new ArrayList<>();
+        newWriter().writeBatch(connection, List.of(sugar), ProductType.PHYSICAL_GOOD, UUID.randomUUID(), 1L,
+                new ArrayList<>(), crossings);
+
+        assertEquals(1, crossings.size());
+        LowStockEvent.Crossing crossing = crossings.get(0);
+        assertEquals(7L, crossing.productId());
+        assertTrue(crossing.below());
+        assertEquals(0, new BigDecimal("5000").compareTo(crossing.minimumStockLevel()));
+    }
+
+    private static ProductImportBatchWriter newWriter() {
+        return new ProductImportBatchWriter(mock(EntityManagerFactory.class), mock(ProductUtils.class),
+                new UnitConversionService(), mock(ApplicationEventPublisher.class));
+    }
+
+    private static PreparedStatement statementReturning(ResultSet rs) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+
+    /** Contenido de los arrays pasados a {@code ps}, en orden de parámetro. */
+    private static List<Object[]> captureArrays(PreparedStatement ps, Map<Array, Object[]> arrays) throws Exception {
+        List<Object[]> captured = new ArrayList<>();
+        doAnswer(invocation -> captured.add(arrays.get(invocation.<Array>getArgument(1))))
+                .when(ps).setArray(anyInt(), any(Array.class));
+        return captured;
+    }
+
+    private static void assertCost(String expected, Object actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo((BigDecimal) actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
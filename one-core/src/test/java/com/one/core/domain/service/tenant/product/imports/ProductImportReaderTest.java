@@ -0,0 +1,43 @@
+package com.one.core.domain.service.tenant.product.imports;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportReaderTest {
+
+    @Test
+    void readsSemicolonCsvWithSpanishHeadersQuotesAndBlankLines() throws Exception {
+        String csv = "SKU;Nombre;Precio Venta;Descripción\n" +
+                "HAR-01;Harina;1.234,50;\"Bolsa de 1kg; \"\"000\"\"\"\n" +
+                "\n" +
+                "AZU-01;Azúcar;900;\"dos\nlíneas\"\n";
+        List<ProductImportRow> rows = new ArrayList<>();
+
+        ProductImportReader.readCsv(new StringReader(csv), rows::add);
+
+        assertEquals(2, rows.size());
+        ProductImportRow first = rows.get(0);
+        assertEquals(2, first.rowNumber());
+        assertEquals("HAR-01", first.value(ProductImportReader.SKU));
+        assertEquals("Harina", first.value(ProductImportReader.NAME));
+        assertEquals("Bolsa de 1kg; \"000\"", first.value(ProductImportReader.DESCRIPTION));
+        assertEquals(new BigDecimal("1234.50"),
+                ProductImportJobRunner.parseAmount(first.value(ProductImportReader.SALE_PRICE), "sale_price"));
+        assertEquals(4, rows.get(1).rowNumber());
+        assertEquals("dos\nlíneas", rows.get(1).value(ProductImportReader.DESCRIPTION));
+    }
+
+    @Test
+    void parsesAmountsWithEitherDecimalSeparatorAndRejectsNegatives() {
+        assertEquals(new BigDecimal("1234.5"), ProductImportJobRunner.parseAmount("1,234.5", "x"));
+        assertEquals(new BigDecimal("12.5"), ProductImportJobRunner.parseAmount("12,5", "x"));
+        assertThrows(IllegalArgumentException.class, () -> ProductImportJobRunner.parseAmount("-1", "x"));
+        assertThrows(IllegalArgumentException.class, () -> ProductImportJobRunner.parseAmount("abc", "x"));
+    }
+}
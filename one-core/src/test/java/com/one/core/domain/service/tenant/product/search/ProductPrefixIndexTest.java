@@ -0,0 +1,38 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.domain.repository.tenant.product.ProductSearchEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPrefixIndexTest {
+
+    @Test
+    void matchesAnyWordSkuAndBarcodeIgnoringAccents() {
+        ProductPrefixIndex.TenantIndex index = new ProductPrefixIndex.TenantIndex();
+        ProductSearchEntry flour = new ProductSearchEntry(1L, "Harina de Maíz", "HAR-01", "7790001");
+        ProductSearchEntry sugar = new ProductSearchEntry(2L, "Azúcar", "AZU-01", "7790002");
+        index.put(flour);
+        index.put(sugar);
+
+        assertEquals(List.of(flour), index.suggest("maiz", 10));
+        assertEquals(List.of(sugar), index.suggest("azu", 10));
+        assertEquals(List.of(flour, sugar), index.suggest("779000", 10));
+        assertEquals(List.of(flour), index.suggest("har", 10));
+    }
+
+    @Test
+    void updatesReplaceOldKeysAndRemovalsDropTheProduct() {
+        ProductPrefixIndex.TenantIndex index = new ProductPrefixIndex.TenantIndex();
+        index.put(new ProductSearchEntry(1L, "Harina", "HAR-01", null));
+
+        index.put(new ProductSearchEntry(1L, "Sémola", "SEM-01", null));
+        assertTrue(index.suggest("har", 10).isEmpty());
+        assertEquals(1, index.suggest("semo", 10).size());
+
+        index.remove(1L);
+        assertTrue(index.suggest("semo", 10).isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package com.one.core.domain.service.tenant.product.search;
+
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.repository.tenant.product.ProductScanEntry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductScanIndexTest {
+
+    @Test
+    void skuWinsOverAnEqualBarcodeAndRemovalKeepsTheOtherProduct() {
+        ProductScanIndex.TenantIndex index = new ProductScanIndex.TenantIndex();
+        ProductScanEntry byBarcode = entry(1L, "A-1", "777");
+        ProductScanEntry bySku = entry(2L, "777", "888");
+        index.put(bySku);
+        index.put(byBarcode);
+
+        assertEquals(bySku, index.get("777"));
+        assertEquals(bySku, index.get("888"));
+
+        index.remove(1L);
+        assertNull(index.get("A-1"));
+        assertEquals(bySku, index.get("777"));
+        assertEquals(bySku, index.get("888"));
+    }
+
+    @Test
+    void changingTheCollidingBarcodeKeepsTheSkuAndViceVersa() {
+        ProductScanIndex.TenantIndex index = new ProductScanIndex.TenantIndex();
+        ProductScanEntry bySku = entry(2L, "777", "888");
+        index.put(entry(1L, "A-1", "777"));
+        index.put(bySku);
+
+        index.put(entry(1L, "A-1", "999"));
+        assertEquals(bySku, index.get("777"));
+
+        index.put(entry(1L, "A-1", "777"));
+        index.remove(2L);
+        assertEquals(1L, index.get("777").id());
+    }
+
+    @Test
+    void updateDropsTheOldCodes() {
+        ProductScanIndex.TenantIndex index = new ProductScanIndex.TenantIndex();
+        index.put(entry(1L, "A-1", "777"));
+        index.put(entry(1L, "A-1", "999"));
+
+        assertNull(index.get("777"));
+        assertEquals(1L, index.get("999").id());
+    }
+
+    private ProductScanEntry entry(Long id, String sku, String barcode) {
+        return new ProductScanEntry(id, "Producto " + id, sku, barcode, ProductType.PHYSICAL_GOOD,
+                new BigDecimal("100.00"), UnitOfMeasure.UNIT);
+    }
+}
@@ -0,0 +1,123 @@
+package com.one.core.domain.service.tenant.production;
+
+import com.one.core.application.dto.tenant.production.MaterialRequirementDTO;
+import com.one.core.application.dto.tenant.production.ProductionOrderRequestDTO;
+import com.one.core.application.exception.StockShortageException;
+import com.one.core.application.mapper.production.ProductionOrderMapper;
+import com.one.core.application.security.UserPrincipal;
+import com.one.core.domain.model.enums.ProductType;
+import com.one.core.domain.model.enums.UnitOfMeasure;
+import com.one.core.domain.model.tenant.product.Product;
+import com.one.core.domain.model.tenant.production.ProductionOrder;
+import com.one.core.domain.repository.tenant.product.ProductRepository;
+import com.one.core.domain.repository.tenant.production.ProductionOrderRepository;
+import com.one.core.domain.service.common.UnitConversionService;
+import com.one.core.domain.service.tenant.inventory.InventoryService;
+import com.one.core.domain.service.tenant.inventory.StockDelta;
+import com.one.core.domain.service.tenant.product.FlattenedBomCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductionOrderServiceTest {
+
+    private static final long CAKE = 1L;
+    private static final long PIE = 2L;
+    private static final long FLOUR = 10L;
+    private static final long SUGAR = 11L;
+
+    @Mock
+    private ProductionOrderRepository productionOrderRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private FlattenedBomCache flattenedBomCache;
+    @Mock
+    private InventoryService inventoryService;
+    @Mock
+    private ProductionOrderMapper productionOrderMapper;
+
+    private ProductionOrderService service;
+    private final UserPrincipal user = new UserPrincipal(7L, "baker", "", "tenant_a", 1L, "Bakery", "FOOD_AND_BEVERAGE", List.of());
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        service = new ProductionOrderService(productionOrderRepository, productRepository, flattenedBomCache,
+                inventoryService, productionOrderMapper, new UnitConversionService());
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(compound(CAKE, "Cake"), compound(PIE, "Pie")));
+        when(flattenedBomCache.rawIngredientsPerUnit(CAKE)).thenReturn(Map.of(FLOUR, new BigDecimal("200"), SUGAR, new BigDecimal("50")));
+        when(flattenedBomCache.rawIngredientsPerUnit(PIE)).thenReturn(Map.of(FLOUR, new BigDecimal("300")));
+        AtomicLong ids = new AtomicLong(100);
+        when(productionOrderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ProductionOrder> orders = invocation.getArgument(0);
+            orders.forEach(order -> order.setId(ids.incrementAndGet()));
+            return orders;
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void validatesSummedDemandOnceAndWritesAllMovementsInOneBatch() {
+        service.createProductionOrders(List.of(request(CAKE, "2"), request(PIE, "1")), user);
+
+        ArgumentCaptor<Map<Long, BigDecimal>> demand = ArgumentCaptor.forClass(Map.class);
+        verify(inventoryService, times(1)).assertAvailable(demand.capture());
+        assertEquals(0, new BigDecimal("700").compareTo(demand.getValue().get(FLOUR)));
+        assertEquals(0, new BigDecimal("100").compareTo(demand.getValue().get(SUGAR)));
+
+        ArgumentCaptor<List<StockDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(inventoryService, times(1)).applyMovements(deltas.capture());
+        // 2 consumos + 1 ingreso para la torta, 1 consumo + 1 ingreso para la tarta
+        assertEquals(5, deltas.getValue().size());
+    }
+
+    @Test
+    void shortageWritesNothing() {
+        MaterialRequirementDTO flour = new MaterialRequirementDTO(FLOUR, "Flour", null, UnitOfMeasure.G,
+                new BigDecimal("700"), new BigDecimal("500"), new BigDecimal("200"));
+        doThrow(new StockShortageException(List.of(flour))).when(inventoryService).assertAvailable(anyMap());
+
+        StockShortageException e = assertThrows(StockShortageException.class,
+                () -> service.createProductionOrders(List.of(request(CAKE, "2"), request(PIE, "1")), user));
+
+        assertEquals(List.of(flour), e.getShortages());
+        verify(productionOrderRepository, never()).saveAll(anyList());
+        verify(inventoryService, never()).applyMovements(anyList());
+    }
+
+    private static Product compound(long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setProductType(ProductType.COMPOUND);
+        product.setUnitOfMeasure(UnitOfMeasure.UNIT);
+        return product;
+    }
+
+    private static ProductionOrderRequestDTO request(long productId, String quantity) {
+        ProductionOrderRequestDTO request = new ProductionOrderRequestDTO();
+        request.setProductId(productId);
+        request.setQuantityProduced(new BigDecimal(quantity));
+        return request;
+    }
+}